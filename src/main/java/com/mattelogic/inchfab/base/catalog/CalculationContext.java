@@ -0,0 +1,121 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.Getter;
+
+/**
+ * State shared by every step of a single cost calculation. The context pins one
+ * {@link ReferenceCatalog} generation for the whole request and memoizes the catalog lookups that
+ * derive a value, such as the field values of a document or a sum over recipe subprocesses,
+ * including empty results, so helpers that ask for the same value repeatedly derive it once. Plain
+ * reads of the snapshot maps are not memoized; they are cheaper than the memoization itself.
+ * <p>
+ * A context is bound to the calling thread with {@link #bind()} and carried to worker threads
+ * with {@link #wrap(Runnable)}.
+ */
+public final class CalculationContext {
+
+  private static final ThreadLocal<CalculationContext> CURRENT = new ThreadLocal<>();
+
+  @Getter
+  private final ReferenceCatalog catalog;
+  private final Map<LookupKey, Object> lookups = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private CalculationContext(ReferenceCatalog catalog) {
+    this.catalog = catalog;
+  }
+
+  public static CalculationContext open(ReferenceCatalog catalog) {
+    return new CalculationContext(catalog);
+  }
+
+  /**
+   * @return the context bound to the current thread, if any
+   */
+  public static Optional<CalculationContext> current() {
+    return Optional.ofNullable(CURRENT.get());
+  }
+
+  /**
+   * Binds this context to the current thread until the returned scope is closed. The previously
+   * bound context, if any, is restored on close.
+   */
+  public Scope bind() {
+    CalculationContext previous = CURRENT.get();
+    CURRENT.set(this);
+    return () -> {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    };
+  }
+
+  /**
+   * Wraps a task so that it runs with the context of the submitting thread bound, if there is
+   * one.
+   */
+  public static Runnable wrap(Runnable task) {
+    CalculationContext context = CURRENT.get();
+    if (context == null) {
+      return task;
+    }
+    return () -> {
+      try (Scope ignored = context.bind()) {
+        task.run();
+      }
+    };
+  }
+
+  /**
+   * Returns the memoized result of a lookup, resolving it on first use.
+   *
+   * @param lookup    name of the lookup
+   * @param loader    resolves the value on a miss; must not return {@code null}
+   * @param arguments the lookup arguments, compared by {@code equals}
+   */
+  @SuppressWarnings("unchecked")
+  <T> T memoize(String lookup, Supplier<T> loader, Object... arguments) {
+    LookupKey key = new LookupKey(lookup, Arrays.asList(arguments));
+    Object value = lookups.get(key);
+    if (value != null) {
+      hits.increment();
+      return (T) value;
+    }
+    misses.increment();
+    T loaded = loader.get();
+    Object previous = lookups.putIfAbsent(key, loaded);
+    return previous != null ? (T) previous : loaded;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Restores the previous binding when closed.
+   */
+  @FunctionalInterface
+  public interface Scope extends AutoCloseable {
+
+    @Override
+    void close();
+  }
+
+  private record LookupKey(String lookup, List<Object> arguments) {
+
+  }
+}
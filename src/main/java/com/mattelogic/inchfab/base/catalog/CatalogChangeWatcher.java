@@ -0,0 +1,222 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the published {@link ReferenceCatalog} in sync with Mongo. Depending on
+ * {@link CatalogWatchProperties#mode()} it tails a change stream over the catalog collections or
+ * periodically compares collection versions, and reloads the catalog when something changed.
+ * <p>
+ * A failed change stream is reopened after the last event it delivered, with a delay that doubles
+ * on every attempt, and the watcher only falls back to polling after {@value #RETRY_ATTEMPTS}
+ * failed attempts in a row.
+ * <p>
+ * In the embedded catalog mode there is no Mongo to watch; the snapshot file is polled instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(CatalogWatchProperties.class)
+public class CatalogChangeWatcher {
+
+  static final int RETRY_ATTEMPTS = 5;
+  /**
+   * ChangeStreamFatalError and ChangeStreamHistoryLost: the stream cannot be resumed where it
+   * stopped, e.g. because its resume token is no longer in the oplog.
+   */
+  private static final Set<Integer> UNRESUMABLE_ERRORS = Set.of(280, 286);
+
+  private final CatalogWatchProperties properties;
+  private final CatalogSource catalogSource;
+  private final ReferenceCatalogHolder referenceCatalogHolder;
+  private final CatalogSnapshotStore catalogSnapshotStore;
+  private final MongoTemplate mongoTemplate;
+
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+      task -> Thread.ofPlatform().name("catalog-watcher").daemon().unstarted(task));
+
+  @Getter
+  private volatile CatalogWatchProperties.Mode activeMode = CatalogWatchProperties.Mode.DISABLED;
+  private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+  private volatile boolean running;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    running = true;
+    switch (properties.mode()) {
+      case AUTO, CHANGE_STREAM -> {
+        if (catalogSnapshotStore.isEmbedded()) {
+          startPolling();
+        } else {
+          executor.execute(this::watchChangeStream);
+        }
+      }
+      case POLLING -> startPolling();
+      case DISABLED -> log.info("Catalog change watcher is disabled");
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    running = false;
+    closeCursor();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Tails the change stream until the watcher stops. A stream opened without a resume token misses
+   * the edits made before it opened, such as those since the catalog was loaded at startup, so the
+   * catalog is reloaded once it is open.
+   */
+  private void watchChangeStream() {
+    List<String> collections = Stream.of(CatalogCollection.values())
+        .map(CatalogCollection::getValue)
+        .toList();
+    BsonDocument resumeToken = null;
+    boolean opened = false;
+    int failures = 0;
+    while (running) {
+      try {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+            .watch(List.of(Aggregates.match(Filters.in("ns.coll", collections))));
+        cursor = (resumeToken != null ? stream.resumeAfter(resumeToken) : stream).cursor();
+        if (resumeToken == null) {
+          reloadQuietly();
+        }
+        resumeToken = cursor.getResumeToken();
+        opened = true;
+        failures = 0;
+        activeMode = CatalogWatchProperties.Mode.CHANGE_STREAM;
+        log.info("Watching catalog collections through a change stream");
+        while (running) {
+          ChangeStreamDocument<Document> event = cursor.next();
+          drainPendingEvents();
+          resumeToken = cursor.getResumeToken();
+          log.info("Catalog change detected in {}", event.getNamespace());
+          reloadQuietly();
+        }
+      } catch (MongoCommandException e) {
+        if (!opened) {
+          fallBackFromUnsupportedChangeStreams(e);
+          return;
+        }
+        if (UNRESUMABLE_ERRORS.contains(e.getErrorCode())) {
+          resumeToken = null;
+        }
+        if (!awaitRetry(++failures, e)) {
+          return;
+        }
+      } catch (RuntimeException e) {
+        if (!awaitRetry(++failures, e)) {
+          return;
+        }
+      } finally {
+        closeCursor();
+      }
+    }
+  }
+
+  private void fallBackFromUnsupportedChangeStreams(MongoCommandException e) {
+    if (properties.mode() == CatalogWatchProperties.Mode.CHANGE_STREAM) {
+      log.error("Change streams are not supported by this deployment", e);
+      activeMode = CatalogWatchProperties.Mode.DISABLED;
+      return;
+    }
+    log.info("Change streams unavailable ({}), falling back to polling", e.getErrorCodeName());
+    startPolling();
+  }
+
+  /**
+   * Waits before a failed change stream is reopened, or falls back to polling once it failed too
+   * many times in a row.
+   *
+   * @return true if the change stream should be reopened
+   */
+  private boolean awaitRetry(int failures, RuntimeException e) {
+    if (!running) {
+      return false;
+    }
+    if (failures > RETRY_ATTEMPTS) {
+      log.warn("Catalog change stream failed {} times in a row, falling back to polling",
+          failures, e);
+      startPolling();
+      return false;
+    }
+    Duration delay = properties.retryDelay().multipliedBy(1L << (failures - 1));
+    log.warn("Catalog change stream failed, reopening it in {} ms", delay.toMillis(), e);
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    return running;
+  }
+
+  /**
+   * Coalesces a burst of edits (e.g. a bulk import) into a single reload.
+   */
+  private void drainPendingEvents() {
+    while (running && cursor.tryNext() != null) {
+      // keep draining
+    }
+  }
+
+  private void startPolling() {
+    CatalogPollingWatcher pollingWatcher =
+        new CatalogPollingWatcher(catalogSource, referenceCatalogHolder);
+    long interval = properties.pollInterval().toMillis();
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        pollingWatcher.poll();
+      } catch (RuntimeException e) {
+        log.warn("Catalog version poll failed", e);
+      }
+    }, 0, interval, TimeUnit.MILLISECONDS);
+    activeMode = CatalogWatchProperties.Mode.POLLING;
+    log.info("Polling catalog collection versions every {} ms", interval);
+  }
+
+  private void reloadQuietly() {
+    try {
+      referenceCatalogHolder.reload();
+    } catch (RuntimeException e) {
+      log.warn("Catalog reload failed, keeping the current generation", e);
+    }
+  }
+
+  private void closeCursor() {
+    MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+    cursor = null;
+    if (current != null) {
+      try {
+        current.close();
+      } catch (RuntimeException e) {
+        log.debug("Failed to close catalog change stream", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mongo collections that make up the reference catalog.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CatalogCollection {
+
+  // Equipment settings
+  DRIE("drie"),
+  RIE("rie"),
+  ALD("ald"),
+  ICP_CVD("icp-cvd"),
+  LP_CVD("lp-cvd"),
+  MAGNETRON_SPUTTERING("magnetron-sputtering"),
+  WET_PROCESS("wet-process"),
+  LITHOGRAPHY("lithography"),
+
+  // Materials and recipes
+  WET_CHEMICAL("wet-chemical"),
+  LITHOGRAPHY_DATA("lithography-data"),
+  VACUUM_PROCESS("vacuum-process"),
+  GAS("gas"),
+  TARGET("target"),
+
+  // Pricing and rates
+  CONSTANT("constant"),
+  SUBSTRATE("substrate"),
+  EXTERNAL_PROCESS("external-process"),
+  METROLOGY_INSPECTION("metrology-inspection"),
+  ESSENTIAL("essential");
+
+  private final String value;
+}
@@ -0,0 +1,47 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Normalized view of a named catalog document. Scalar fields are flattened to dotted paths
+ * (e.g. {@code clean.etchRate}) and converted to doubles once at load time.
+ *
+ * @param name     the document name
+ * @param values   numeric fields keyed by dotted path
+ * @param settings settings entries keyed by name
+ * @param pricing  quantity pricing tiers
+ */
+public record CatalogDocument(
+    String name,
+    Map<String, Double> values,
+    Map<String, Setting> settings,
+    PriceLadder pricing
+) {
+
+  public Optional<Double> value(String path) {
+    return Optional.ofNullable(values.get(path));
+  }
+
+  public Optional<Setting> setting(String settingsName) {
+    return Optional.ofNullable(settings.get(settingsName));
+  }
+
+  /**
+   * A settings entry with its numeric fields and, for lithography, its named steps.
+   */
+  public record Setting(
+      String name,
+      Map<String, Double> values,
+      Map<String, Map<String, Double>> steps
+  ) {
+
+    public Optional<Double> value(String field) {
+      return Optional.ofNullable(values.get(field));
+    }
+
+    public Optional<Double> stepValue(String stepName, String field) {
+      return Optional.ofNullable(steps.get(stepName)).map(step -> step.get(field));
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import com.mattelogic.inchfab.base.entity.Gas;
+import com.mattelogic.inchfab.base.entity.LithographyData;
+import com.mattelogic.inchfab.base.entity.MetrologyInspection;
+import com.mattelogic.inchfab.base.entity.Target;
+import com.mattelogic.inchfab.base.entity.VacuumProcess;
+import com.mattelogic.inchfab.base.entity.WetChemical;
+import com.mattelogic.inchfab.domain.entity.Ald;
+import com.mattelogic.inchfab.domain.entity.Drie;
+import com.mattelogic.inchfab.domain.entity.ExternalProcess;
+import com.mattelogic.inchfab.domain.entity.Icpcvd;
+import com.mattelogic.inchfab.domain.entity.Lithography;
+import com.mattelogic.inchfab.domain.entity.Lpcvd;
+import com.mattelogic.inchfab.domain.entity.MagnetronSputtering;
+import com.mattelogic.inchfab.domain.entity.Rie;
+import com.mattelogic.inchfab.domain.entity.Substrate;
+import com.mattelogic.inchfab.domain.entity.WetProcess;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+/**
+ * Declares the indexes the catalog aggregations rely on and ensures them at startup. Every
+ * repository pipeline opens with a {@code $match} on one of these fields, so a missing index turns
+ * each lookup into a collection scan.
+ * <p>
+ * {@link #explain()} runs {@code explain} on the leading {@code $match}/{@code $unwind} stages of
+ * every {@link Aggregation} repository method and flags plans that fall back to
+ * {@code COLLSCAN}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogIndexManager {
+
+  private static final String NAME = "name";
+  private static final String SAMPLE = "'__explain__'";
+  private static final String COLLSCAN = "COLLSCAN";
+  private static final Pattern IN_PLACEHOLDER =
+      Pattern.compile("\\$in:\\s*(\\?\\d+|:#\\{#\\w+})");
+  private static final Pattern QUOTED = Pattern.compile("'[^']*'");
+  private static final Pattern PLACEHOLDER = Pattern.compile("\\?\\d+|:#\\{#\\w+}");
+
+  private static final Map<Class<?>, List<Index>> INDEXES = declareIndexes();
+
+  private final MongoTemplate mongoTemplate;
+  private final ApplicationContext applicationContext;
+  private final CatalogSnapshotStore catalogSnapshotStore;
+
+  /**
+   * Result of explaining the leading stages of one repository pipeline.
+   *
+   * @param repository     the repository interface
+   * @param method         the repository method
+   * @param collection     the collection the pipeline runs against
+   * @param stages         the explained stages, with placeholders replaced by a sample value
+   * @param planStages     stage names of the winning plan, outermost first
+   * @param collectionScan whether the winning plan scans the whole collection
+   */
+  public record PipelineExplanation(
+      String repository,
+      String method,
+      String collection,
+      List<Document> stages,
+      List<String> planStages,
+      boolean collectionScan
+  ) {
+
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (catalogSnapshotStore.isEmbedded()) {
+      log.info("Embedded catalog mode, skipping catalog indexes");
+      return;
+    }
+    try {
+      ensureIndexes();
+    } catch (RuntimeException e) {
+      log.warn("Catalog indexes could not be ensured at startup", e);
+    }
+  }
+
+  /**
+   * Creates every declared index that does not exist yet.
+   */
+  public void ensureIndexes() {
+    INDEXES.forEach((documentClass, indexes) -> indexes.forEach(index -> {
+      String name = mongoTemplate.indexOps(documentClass).ensureIndex(index);
+      log.debug("Ensured index {} on {}", name, mongoTemplate.getCollectionName(documentClass));
+    }));
+    log.info("Ensured catalog indexes on {} collections", INDEXES.size());
+  }
+
+  /**
+   * Explains the leading stages of every repository aggregation.
+   *
+   * @return one explanation per {@link Aggregation} method, collection scans first
+   */
+  public List<PipelineExplanation> explain() {
+    Repositories repositories = new Repositories(applicationContext);
+    List<PipelineExplanation> explanations = new ArrayList<>();
+    for (Class<?> domainType : repositories) {
+      RepositoryInformation information = repositories.getRequiredRepositoryInformation(
+          domainType);
+      for (Method method : information.getRepositoryInterface().getMethods()) {
+        Aggregation aggregation = method.getAnnotation(Aggregation.class);
+        if (aggregation == null) {
+          continue;
+        }
+        String collection = mongoTemplate.getCollectionName(domainType);
+        List<Document> stages = leadingStages(aggregation.pipeline());
+        List<String> planStages = stages.isEmpty() ? List.of() : explain(collection, stages);
+        boolean collectionScan = stages.isEmpty() || planStages.contains(COLLSCAN);
+        if (collectionScan) {
+          log.warn("Pipeline {}.{} scans collection {}",
+              information.getRepositoryInterface().getSimpleName(), method.getName(), collection);
+        }
+        explanations.add(new PipelineExplanation(
+            information.getRepositoryInterface().getSimpleName(),
+            method.getName(),
+            collection,
+            stages,
+            planStages,
+            collectionScan
+        ));
+      }
+    }
+    explanations.sort((left, right) -> Boolean.compare(
+        right.collectionScan(), left.collectionScan()));
+    return explanations;
+  }
+
+  private List<String> explain(String collection, List<Document> stages) {
+    Document command = new Document("explain", new Document("aggregate", collection)
+        .append("pipeline", stages)
+        .append("cursor", new Document()))
+        .append("verbosity", "queryPlanner");
+    Document result = mongoTemplate.getDb().runCommand(command);
+    List<String> planStages = new ArrayList<>();
+    collectPlanStages(result, planStages);
+    return planStages;
+  }
+
+  /**
+   * Walks the explain output, which nests the query planner under {@code stages} for pipelines
+   * with more than one stage, and collects the stage names of each winning plan.
+   */
+  private static void collectPlanStages(Object node, List<String> planStages) {
+    if (node instanceof Document document) {
+      Object stage = document.get("stage");
+      if (stage instanceof String name) {
+        planStages.add(name);
+      }
+      document.forEach((key, value) -> {
+        if (!"rejectedPlans".equals(key)) {
+          collectPlanStages(value, planStages);
+        }
+      });
+    } else if (node instanceof List<?> list) {
+      list.forEach(item -> collectPlanStages(item, planStages));
+    }
+  }
+
+  /**
+   * Keeps the stages the query planner can push down, i.e. the leading {@code $match} and
+   * {@code $unwind} stages, with parameter placeholders replaced by a sample value.
+   */
+  private static List<Document> leadingStages(String[] pipeline) {
+    List<Document> stages = new ArrayList<>();
+    for (String stage : pipeline) {
+      String sampled = IN_PLACEHOLDER.matcher(stage).replaceAll("\\$in: [" + SAMPLE + "]");
+      sampled = QUOTED.matcher(sampled).replaceAll(quoted -> Matcher.quoteReplacement(
+          PLACEHOLDER.matcher(quoted.group()).replaceAll("__explain__")));
+      sampled = PLACEHOLDER.matcher(sampled).replaceAll(SAMPLE);
+      Document document;
+      try {
+        document = Document.parse(sampled);
+      } catch (JsonParseException e) {
+        break;
+      }
+      if (!document.containsKey("$match") && !document.containsKey("$unwind")) {
+        break;
+      }
+      stages.add(document);
+    }
+    return stages;
+  }
+
+  private static Map<Class<?>, List<Index>> declareIndexes() {
+    Map<Class<?>, List<Index>> indexes = new LinkedHashMap<>();
+    Arrays.asList(
+        Drie.class, Rie.class, Ald.class, Icpcvd.class, Lpcvd.class,
+        MagnetronSputtering.class, WetProcess.class, Lithography.class, Substrate.class,
+        ExternalProcess.class, MetrologyInspection.class, Target.class, WetChemical.class
+    ).forEach(documentClass -> indexes.put(documentClass, List.of(ascending(NAME))));
+    indexes.put(VacuumProcess.class, List.of(ascending("type", "processes.name")));
+    indexes.put(LithographyData.class, List.of(ascending("photoresists.name")));
+    indexes.put(Gas.class, List.of(ascending("gases.name")));
+    return indexes;
+  }
+
+  private static Index ascending(String... keys) {
+    Index index = new Index();
+    for (String key : keys) {
+      index.on(key, Sort.Direction.ASC);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,54 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Detects catalog changes by comparing the per-collection version markers of the
+ * {@link CatalogSource} between two polls, and publishes a new generation when any differ.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogPollingWatcher {
+
+  private final CatalogSource catalogSource;
+  private final ReferenceCatalogHolder referenceCatalogHolder;
+  private final ReentrantLock pollLock = new ReentrantLock();
+  private Map<CatalogCollection, String> lastVersions;
+
+  /**
+   * Polls the version markers once. The first poll only records a baseline and reloads so the
+   * published generation is known to be at least as new as that baseline.
+   *
+   * @return true if a new generation was published
+   */
+  public boolean poll() {
+    pollLock.lock();
+    try {
+      Map<CatalogCollection, String> versions = catalogSource.readVersions();
+      if (Objects.equals(versions, lastVersions)) {
+        return false;
+      }
+      if (lastVersions != null) {
+        log.info("Catalog change detected in {}", changedCollections(versions));
+      }
+      referenceCatalogHolder.reload();
+      lastVersions = versions;
+      return true;
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  private String changedCollections(Map<CatalogCollection, String> versions) {
+    return versions.keySet().stream()
+        .filter(collection -> !Objects.equals(versions.get(collection),
+            lastVersions.get(collection)))
+        .map(CatalogCollection::getValue)
+        .toList()
+        .toString();
+  }
+}
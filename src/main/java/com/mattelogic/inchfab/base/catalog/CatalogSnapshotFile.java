@@ -0,0 +1,177 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * Binary snapshot of the raw catalog documents.
+ * <p>
+ * Layout: a header ({@code magic}, {@code version}, save time in epoch millis, collection count),
+ * then per collection its name, its document count and the documents as consecutive BSON, and a
+ * trailing CRC32 over everything before it. Files are read through a read-only memory mapping and
+ * written to a sibling temporary file that is atomically moved into place, so readers never see a
+ * partial snapshot.
+ */
+final class CatalogSnapshotFile {
+
+  private static final int MAGIC = 0x49464353;
+  private static final int VERSION = 1;
+  private static final int CHECKSUM_BYTES = Long.BYTES;
+
+  private static final DocumentCodec CODEC = new DocumentCodec();
+
+  /**
+   * Raw documents read from a snapshot file.
+   *
+   * @param savedAt   when the snapshot was written
+   * @param documents raw documents keyed by collection
+   */
+  record Snapshot(
+      Instant savedAt,
+      Map<CatalogCollection, List<Document>> documents
+  ) {
+
+  }
+
+  private CatalogSnapshotFile() {
+  }
+
+  static void write(Path path, Map<CatalogCollection, List<Document>> documents)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeLong(System.currentTimeMillis());
+    out.writeInt(documents.size());
+    for (var entry : documents.entrySet()) {
+      out.writeUTF(entry.getKey().getValue());
+      out.writeInt(entry.getValue().size());
+      for (Document document : entry.getValue()) {
+        out.write(encode(document));
+      }
+    }
+    CRC32 crc = new CRC32();
+    crc.update(bytes.toByteArray());
+    out.writeLong(crc.getValue());
+    out.flush();
+
+    Path target = path.toAbsolutePath();
+    Files.createDirectories(target.getParent());
+    Path temporary = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+    try {
+      Files.write(temporary, bytes.toByteArray());
+      Files.move(temporary, target,
+          StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * @throws IOException if the file cannot be read, or is not a valid snapshot
+   */
+  static Snapshot read(Path path) throws IOException {
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    int bodyLength = mapped.capacity() - CHECKSUM_BYTES;
+    if (bodyLength < 0) {
+      throw new IOException("Catalog snapshot is truncated: " + path);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(mapped.slice(0, bodyLength));
+    if (crc.getValue() != mapped.getLong(bodyLength)) {
+      throw new IOException("Catalog snapshot checksum mismatch: " + path);
+    }
+
+    ByteBuffer buffer = mapped.slice(0, bodyLength);
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IOException("Not a catalog snapshot of version " + VERSION + ": " + path);
+      }
+      Instant savedAt = Instant.ofEpochMilli(buffer.getLong());
+      int collections = buffer.getInt();
+      Map<CatalogCollection, List<Document>> documents = new EnumMap<>(CatalogCollection.class);
+      for (int i = 0; i < collections; i++) {
+        CatalogCollection collection = collection(readUtf(buffer));
+        int count = buffer.getInt();
+        List<Document> collectionDocuments = new ArrayList<>(count);
+        for (int j = 0; j < count; j++) {
+          collectionDocuments.add(decode(buffer));
+        }
+        if (collection != null) {
+          documents.put(collection, collectionDocuments);
+        }
+      }
+      return new Snapshot(savedAt, documents);
+    } catch (RuntimeException e) {
+      throw new IOException("Catalog snapshot is malformed: " + path, e);
+    }
+  }
+
+  private static byte[] encode(Document document) {
+    try (BasicOutputBuffer buffer = new BasicOutputBuffer();
+        BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+      CODEC.encode(writer, document, EncoderContext.builder().build());
+      return buffer.toByteArray();
+    }
+  }
+
+  /**
+   * Decodes the BSON document at the buffer position, whose little-endian length prefix counts
+   * the whole document, and advances past it.
+   */
+  private static Document decode(ByteBuffer buffer) {
+    int position = buffer.position();
+    int length = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(position);
+    ByteBuffer slice = buffer.slice(position, length).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.position(position + length);
+    try (BsonBinaryReader reader = new BsonBinaryReader(slice)) {
+      return CODEC.decode(reader, DecoderContext.builder().build());
+    }
+  }
+
+  private static String readUtf(ByteBuffer buffer) {
+    byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the collection with the given name, or {@code null} if it has since been dropped from
+   * the catalog
+   */
+  private static CatalogCollection collection(String value) {
+    for (CatalogCollection collection : CatalogCollection.values()) {
+      if (collection.getValue().equals(value)) {
+        return collection;
+      }
+    }
+    return null;
+  }
+}
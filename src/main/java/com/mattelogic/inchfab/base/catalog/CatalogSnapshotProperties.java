@@ -0,0 +1,35 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the local catalog snapshot file.
+ *
+ * @param mode how the snapshot file is used
+ * @param path location of the snapshot file
+ */
+@ConfigurationProperties(prefix = "catalog.snapshot")
+public record CatalogSnapshotProperties(
+    Mode mode,
+    Path path
+) {
+
+  public CatalogSnapshotProperties {
+    mode = mode != null ? mode : Mode.DISABLED;
+    path = path != null ? path : Path.of("catalog.snapshot");
+  }
+
+  public enum Mode {
+    DISABLED,
+    /**
+     * Serve the last snapshot at startup while the catalog loads from Mongo in the background, and
+     * rewrite the snapshot after every load.
+     */
+    WARM_START,
+    /**
+     * Run from the snapshot file alone, without Mongo.
+     */
+    EMBEDDED
+  }
+}
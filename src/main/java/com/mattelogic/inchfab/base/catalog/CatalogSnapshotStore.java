@@ -0,0 +1,104 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import com.mattelogic.inchfab.base.exception.ReferenceCatalogException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads and writes the local catalog snapshot file configured by
+ * {@link CatalogSnapshotProperties}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(CatalogSnapshotProperties.class)
+public class CatalogSnapshotStore {
+
+  private final CatalogSnapshotProperties properties;
+
+  public boolean isWarmStart() {
+    return properties.mode() == CatalogSnapshotProperties.Mode.WARM_START;
+  }
+
+  public boolean isEmbedded() {
+    return properties.mode() == CatalogSnapshotProperties.Mode.EMBEDDED;
+  }
+
+  /**
+   * Reads the snapshot file for a warm start.
+   *
+   * @return the raw documents, empty if the file does not exist or cannot be read
+   */
+  public Optional<Map<CatalogCollection, List<Document>>> read() {
+    Path path = properties.path();
+    if (!Files.isRegularFile(path)) {
+      log.info("No catalog snapshot at {}", path.toAbsolutePath());
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(readSnapshot(path));
+    } catch (IOException e) {
+      log.warn("Ignoring unreadable catalog snapshot {}", path.toAbsolutePath(), e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Reads the snapshot file as the only source of the catalog.
+   *
+   * @return the raw documents
+   * @throws ReferenceCatalogException if the file does not exist or cannot be read
+   */
+  public Map<CatalogCollection, List<Document>> readRequired() {
+    try {
+      return readSnapshot(properties.path());
+    } catch (IOException e) {
+      throw new ReferenceCatalogException(
+          "Failed to read catalog snapshot: " + properties.path().toAbsolutePath(), e);
+    }
+  }
+
+  /**
+   * Replaces the snapshot file. Failures are logged, the snapshot only speeds up the next start.
+   */
+  public void write(Map<CatalogCollection, List<Document>> documents) {
+    Path path = properties.path();
+    try {
+      CatalogSnapshotFile.write(path, documents);
+      log.debug("Catalog snapshot written to {}", path.toAbsolutePath());
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to write catalog snapshot {}", path.toAbsolutePath(), e);
+    }
+  }
+
+  /**
+   * @return a marker that changes whenever the snapshot file is replaced
+   */
+  public String version() {
+    Path path = properties.path();
+    try {
+      return Files.getLastModifiedTime(path).toMillis() + ":" + Files.size(path);
+    } catch (IOException e) {
+      return "missing";
+    }
+  }
+
+  private Map<CatalogCollection, List<Document>> readSnapshot(Path path) throws IOException {
+    CatalogSnapshotFile.Snapshot snapshot = CatalogSnapshotFile.read(path);
+    log.info("Read catalog snapshot {} saved {} ago", path.toAbsolutePath(),
+        Duration.between(snapshot.savedAt(), Instant.now()).truncatedTo(ChronoUnit.SECONDS));
+    return snapshot.documents();
+  }
+}
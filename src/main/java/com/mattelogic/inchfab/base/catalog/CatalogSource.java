@@ -0,0 +1,26 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+
+/**
+ * Origin of the raw catalog documents and of the cheap version markers used to detect changes.
+ */
+public interface CatalogSource {
+
+  /**
+   * Reads every document of every catalog collection.
+   *
+   * @return raw documents keyed by collection
+   */
+  Map<CatalogCollection, List<Document>> readAll();
+
+  /**
+   * Reads a version marker per collection. Two reads return equal markers for a collection only if
+   * its content has not changed in between.
+   *
+   * @return version marker keyed by collection
+   */
+  Map<CatalogCollection, String> readVersions();
+}
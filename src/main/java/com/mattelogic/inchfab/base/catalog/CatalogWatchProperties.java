@@ -0,0 +1,35 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the catalog change watcher.
+ *
+ * @param mode         how catalog changes are detected
+ * @param pollInterval delay between two polls of the collection versions
+ * @param retryDelay   delay before reopening a failed change stream, doubled on every attempt
+ */
+@ConfigurationProperties(prefix = "catalog.watch")
+public record CatalogWatchProperties(
+    Mode mode,
+    Duration pollInterval,
+    Duration retryDelay
+) {
+
+  public CatalogWatchProperties {
+    mode = mode != null ? mode : Mode.AUTO;
+    pollInterval = pollInterval != null ? pollInterval : Duration.ofSeconds(30);
+    retryDelay = retryDelay != null ? retryDelay : Duration.ofSeconds(1);
+  }
+
+  public enum Mode {
+    /**
+     * Change streams when the deployment supports them, polling otherwise.
+     */
+    AUTO,
+    CHANGE_STREAM,
+    POLLING,
+    DISABLED
+  }
+}
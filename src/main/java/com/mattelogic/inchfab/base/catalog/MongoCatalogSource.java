@@ -0,0 +1,111 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import com.mattelogic.inchfab.base.exception.ReferenceCatalogException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link CatalogSource} backed by the catalog collections in Mongo.
+ * <p>
+ * Versions are taken from the {@code catalog-version} collection, where editors can keep one
+ * {@code { _id: <collection>, version: <any> }} document per collection. Collections without a
+ * version document fall back to the hash {@code dbHash} computes of their content on the server,
+ * and to a CRC32 checksum of their documents read here where {@code dbHash} is refused, e.g. on
+ * mongos or without the privilege to run it.
+ * <p>
+ * Replaced by {@link SnapshotCatalogSource} in the embedded catalog mode.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("!'${catalog.snapshot.mode:disabled}'.equalsIgnoreCase('embedded')")
+@RequiredArgsConstructor
+public class MongoCatalogSource implements CatalogSource {
+
+  public static final String VERSION_COLLECTION = "catalog-version";
+
+  private final MongoTemplate mongoTemplate;
+  private final AtomicBoolean checksumFallbackLogged = new AtomicBoolean();
+
+  @Override
+  public Map<CatalogCollection, List<Document>> readAll() {
+    Map<CatalogCollection, List<Document>> raw = new EnumMap<>(CatalogCollection.class);
+    for (CatalogCollection collection : CatalogCollection.values()) {
+      raw.put(collection, findAll(collection));
+    }
+    return raw;
+  }
+
+  @Override
+  public Map<CatalogCollection, String> readVersions() {
+    Map<String, String> declared = new HashMap<>();
+    for (Document document : mongoTemplate.findAll(Document.class, VERSION_COLLECTION)) {
+      declared.put(String.valueOf(document.get("_id")), String.valueOf(document.get("version")));
+    }
+
+    Map<CatalogCollection, String> versions = new EnumMap<>(CatalogCollection.class);
+    List<CatalogCollection> undeclared = new ArrayList<>();
+    for (CatalogCollection collection : CatalogCollection.values()) {
+      String version = declared.get(collection.getValue());
+      if (version != null) {
+        versions.put(collection, "v:" + version);
+      } else {
+        undeclared.add(collection);
+      }
+    }
+    if (!undeclared.isEmpty()) {
+      versions.putAll(contentHashes(undeclared));
+    }
+    return versions;
+  }
+
+  private Map<CatalogCollection, String> contentHashes(List<CatalogCollection> collections) {
+    Map<CatalogCollection, String> hashes = new EnumMap<>(CatalogCollection.class);
+    try {
+      Document result = mongoTemplate.executeCommand(new Document("dbHash", 1)
+          .append("collections", collections.stream().map(CatalogCollection::getValue).toList()));
+      Document collectionHashes = result.get("collections", Document.class);
+      for (CatalogCollection collection : collections) {
+        hashes.put(collection, "md5:" + collectionHashes.get(collection.getValue()));
+      }
+    } catch (DataAccessException e) {
+      if (checksumFallbackLogged.compareAndSet(false, true)) {
+        log.warn("dbHash is unavailable ({}), so every version poll reads the catalog "
+            + "collections without a {} document", e.getMessage(), VERSION_COLLECTION);
+      }
+      for (CatalogCollection collection : collections) {
+        hashes.put(collection, "crc:" + checksum(collection));
+      }
+    }
+    return hashes;
+  }
+
+  private long checksum(CatalogCollection collection) {
+    CRC32 crc = new CRC32();
+    for (Document document : findAll(collection)) {
+      crc.update(document.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+    return crc.getValue();
+  }
+
+  private List<Document> findAll(CatalogCollection collection) {
+    try {
+      return mongoTemplate.findAll(Document.class, collection.getValue());
+    } catch (RuntimeException e) {
+      throw new ReferenceCatalogException(
+          "Failed to read catalog collection: " + collection.getValue(), e);
+    }
+  }
+}
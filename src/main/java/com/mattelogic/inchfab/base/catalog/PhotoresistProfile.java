@@ -0,0 +1,136 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flat, typed view of one {@code lithography-data} photoresist: the process, setup and labor
+ * times, run size and bake temperature of every lithography sub-step, and the cost per run of
+ * each reagent. Built once per catalog generation so the lithography calculator reads plain
+ * fields instead of resolving nested paths for every sub-step and time type.
+ * <p>
+ * Values missing from the document read as {@code 0.0}, as the path lookups did.
+ */
+public final class PhotoresistProfile {
+
+  /**
+   * Lithography sub-steps, in process order.
+   */
+  public static final List<ProcessDefinition> STEPS = List.of(
+      ProcessDefinition.HMDS_PRE_SOAK,
+      ProcessDefinition.SPIN_COAT,
+      ProcessDefinition.SOFT_BAKE,
+      ProcessDefinition.REHYDRATION,
+      ProcessDefinition.CONTACT_ALIGNMENT,
+      ProcessDefinition.CONTACT_EXPOSURE,
+      ProcessDefinition.MASKLESS_ALIGNMENT,
+      ProcessDefinition.MASKLESS_EXPOSURE,
+      ProcessDefinition.POST_BAKE,
+      ProcessDefinition.DEVELOPER,
+      ProcessDefinition.DRYING,
+      ProcessDefinition.HARD_BAKE
+  );
+
+  /**
+   * Reagents with a cost per run.
+   */
+  public static final List<ProcessDefinition> MATERIALS = List.of(
+      ProcessDefinition.HMDS,
+      ProcessDefinition.PHOTORESIST,
+      ProcessDefinition.DEVELOPER
+  );
+
+  public static final PhotoresistProfile EMPTY = new PhotoresistProfile(null, Map.of(), Map.of());
+
+  private static final Step NO_STEP = new Step(0.0, 0.0, 0.0, 0.0, 0.0);
+
+  private final String name;
+  private final Map<ProcessDefinition, Step> steps;
+  private final Map<ProcessDefinition, Double> materialCosts;
+
+  private PhotoresistProfile(String name, Map<ProcessDefinition, Step> steps,
+      Map<ProcessDefinition, Double> materialCosts) {
+    this.name = name;
+    this.steps = steps;
+    this.materialCosts = materialCosts;
+  }
+
+  /**
+   * Resolves the profile of a photoresist document.
+   */
+  static PhotoresistProfile from(CatalogDocument document) {
+    Map<ProcessDefinition, Step> steps = new EnumMap<>(ProcessDefinition.class);
+    for (ProcessDefinition step : STEPS) {
+      steps.put(step, new Step(
+          value(document, ProcessDefinition.PROCESS_TIME, step),
+          value(document, ProcessDefinition.SETUP_TAKEDOWN, step),
+          value(document, ProcessDefinition.LABOR_TIME, step),
+          value(document, ProcessDefinition.RUN_SIZE, step),
+          value(document, ProcessDefinition.TEMPERATURE, step)
+      ));
+    }
+    Map<ProcessDefinition, Double> materialCosts = new EnumMap<>(ProcessDefinition.class);
+    for (ProcessDefinition material : MATERIALS) {
+      materialCosts.put(material, document.value(String.join(".",
+          ProcessDefinition.MATERIALS.getValue(),
+          material.getValue(),
+          ProcessDefinition.COST_PER_RUN.getValue()
+      )).orElse(0.0));
+    }
+    return new PhotoresistProfile(
+        document.name(),
+        Collections.unmodifiableMap(steps),
+        Collections.unmodifiableMap(materialCosts)
+    );
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public double processTime(ProcessDefinition step) {
+    return step(step).processTime();
+  }
+
+  public double setupTime(ProcessDefinition step) {
+    return step(step).setupTime();
+  }
+
+  public double laborTime(ProcessDefinition step) {
+    return step(step).laborTime();
+  }
+
+  public double runSize(ProcessDefinition step) {
+    return step(step).runSize();
+  }
+
+  public double temperature(ProcessDefinition step) {
+    return step(step).temperature();
+  }
+
+  public double materialCostPerRun(ProcessDefinition material) {
+    return materialCosts.getOrDefault(material, 0.0);
+  }
+
+  private Step step(ProcessDefinition step) {
+    return steps.getOrDefault(step, NO_STEP);
+  }
+
+  private static double value(CatalogDocument document, ProcessDefinition group,
+      ProcessDefinition step) {
+    return document.value(group.getValue() + "." + step.getValue()).orElse(0.0);
+  }
+
+  private record Step(
+      double processTime,
+      double setupTime,
+      double laborTime,
+      double runSize,
+      double temperature
+  ) {
+
+  }
+}
@@ -0,0 +1,113 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.util.Arrays;
+import java.util.OptionalDouble;
+import java.util.SortedMap;
+
+/**
+ * Quantity pricing tiers of a catalog document, held as two parallel primitive arrays sorted by
+ * quantity. Exact and nearest tier lookups are binary searches; the bulk variants answer a whole
+ * list of quantities in one call, e.g. when quoting several lot sizes.
+ */
+public final class PriceLadder {
+
+  public static final PriceLadder EMPTY = new PriceLadder(new double[0], new double[0]);
+
+  private final double[] quantities;
+  private final double[] unitCosts;
+
+  private PriceLadder(double[] quantities, double[] unitCosts) {
+    this.quantities = quantities;
+    this.unitCosts = unitCosts;
+  }
+
+  /**
+   * @param tiers unit cost keyed by quantity
+   */
+  public static PriceLadder from(SortedMap<Double, Double> tiers) {
+    if (tiers.isEmpty()) {
+      return EMPTY;
+    }
+    double[] quantities = new double[tiers.size()];
+    double[] unitCosts = new double[tiers.size()];
+    int i = 0;
+    for (var tier : tiers.entrySet()) {
+      quantities[i] = tier.getKey();
+      unitCosts[i] = tier.getValue();
+      i++;
+    }
+    return new PriceLadder(quantities, unitCosts);
+  }
+
+  public boolean isEmpty() {
+    return quantities.length == 0;
+  }
+
+  public int size() {
+    return quantities.length;
+  }
+
+  /**
+   * @return the unit cost of the tier whose quantity matches exactly, if any
+   */
+  public OptionalDouble exact(double quantity) {
+    int index = Arrays.binarySearch(quantities, quantity);
+    return index >= 0 ? OptionalDouble.of(unitCosts[index]) : OptionalDouble.empty();
+  }
+
+  /**
+   * @return the unit cost of the tier whose quantity is nearest, ties resolving to the smaller
+   * quantity; empty if the ladder has no tiers
+   */
+  public OptionalDouble nearest(double quantity) {
+    int index = nearestIndex(quantity);
+    return index >= 0 ? OptionalDouble.of(unitCosts[index]) : OptionalDouble.empty();
+  }
+
+  /**
+   * Answers {@link #exact(double)} for every quantity.
+   *
+   * @return unit costs in request order, {@code NaN} where no tier matches
+   */
+  public double[] exact(double[] requested) {
+    double[] result = new double[requested.length];
+    for (int i = 0; i < requested.length; i++) {
+      int index = Arrays.binarySearch(quantities, requested[i]);
+      result[i] = index >= 0 ? unitCosts[index] : Double.NaN;
+    }
+    return result;
+  }
+
+  /**
+   * Answers {@link #nearest(double)} for every quantity.
+   *
+   * @return unit costs in request order, all {@code NaN} if the ladder has no tiers
+   */
+  public double[] nearest(double[] requested) {
+    double[] result = new double[requested.length];
+    for (int i = 0; i < requested.length; i++) {
+      int index = nearestIndex(requested[i]);
+      result[i] = index >= 0 ? unitCosts[index] : Double.NaN;
+    }
+    return result;
+  }
+
+  private int nearestIndex(double quantity) {
+    if (quantities.length == 0) {
+      return -1;
+    }
+    int index = Arrays.binarySearch(quantities, quantity);
+    if (index >= 0) {
+      return index;
+    }
+    int ceiling = -index - 1;
+    int floor = ceiling - 1;
+    if (floor < 0) {
+      return ceiling;
+    }
+    if (ceiling >= quantities.length) {
+      return floor;
+    }
+    return quantity - quantities[floor] <= quantities[ceiling] - quantity ? floor : ceiling;
+  }
+}
@@ -0,0 +1,112 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read model over every vacuum recipe sharing a type and process name. Process parameter sums,
+ * per-subprocess parameter sums and per-parameter maxima are computed once when the view is
+ * built, so the calculators answer all recipe questions of a step from one fetch.
+ * <p>
+ * Results follow the semantics of the {@code VacuumProcessRepository} aggregations: a lookup that
+ * matches no process or subprocess is empty, and parameters missing from a matched entry count
+ * as zero.
+ */
+public final class RecipeView {
+
+  public static final RecipeView EMPTY = new RecipeView(List.of());
+
+  private final List<VacuumRecipe> recipes;
+  private final Map<String, Double> processTotals;
+  private final Map<String, Map<String, Double>> subprocessTotals;
+  private final Map<String, Double> subprocessMaxima;
+  private final boolean hasSubprocesses;
+
+  private RecipeView(List<VacuumRecipe> recipes) {
+    this.recipes = List.copyOf(recipes);
+
+    Map<String, Double> processSums = new HashMap<>();
+    Map<String, Map<String, Double>> subprocessSums = new HashMap<>();
+    Map<String, Double> maxima = new HashMap<>();
+    Map<String, Integer> occurrences = new HashMap<>();
+    int subprocessCount = 0;
+    for (VacuumRecipe recipe : this.recipes) {
+      recipe.parameters().forEach((key, value) -> processSums.merge(key, value, Double::sum));
+      for (VacuumRecipe.Subprocess subprocess : recipe.subprocesses()) {
+        subprocessCount++;
+        Map<String, Double> sums = subprocessSums.computeIfAbsent(subprocess.name(),
+            name -> new HashMap<>());
+        subprocess.parameters().forEach((key, value) -> {
+          sums.merge(key, value, Double::sum);
+          maxima.merge(key, value, Math::max);
+          occurrences.merge(key, 1, Integer::sum);
+        });
+      }
+    }
+    // a subprocess without the parameter contributes zero to the maximum
+    int total = subprocessCount;
+    maxima.replaceAll((key, max) -> occurrences.get(key) < total ? Math.max(max, 0.0) : max);
+    subprocessSums.replaceAll((name, sums) -> Collections.unmodifiableMap(sums));
+
+    this.processTotals = Collections.unmodifiableMap(processSums);
+    this.subprocessTotals = Collections.unmodifiableMap(subprocessSums);
+    this.subprocessMaxima = Collections.unmodifiableMap(maxima);
+    this.hasSubprocesses = subprocessCount > 0;
+  }
+
+  /**
+   * @param recipes every recipe of one type and process name
+   * @return a view over the recipes, or {@link #EMPTY} if there are none
+   */
+  public static RecipeView of(List<VacuumRecipe> recipes) {
+    return recipes.isEmpty() ? EMPTY : new RecipeView(recipes);
+  }
+
+  public boolean isEmpty() {
+    return recipes.isEmpty();
+  }
+
+  public List<VacuumRecipe> recipes() {
+    return recipes;
+  }
+
+  /**
+   * Sums a process level parameter across the recipes.
+   */
+  public Optional<Double> processValue(String key) {
+    if (recipes.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(processTotals.getOrDefault(key, 0.0));
+  }
+
+  /**
+   * Sums a parameter across the named subprocesses.
+   */
+  public Optional<Double> subprocessValue(Collection<String> subprocessNames, String key) {
+    boolean matched = false;
+    double total = 0.0;
+    for (String name : subprocessNames.stream().distinct().toList()) {
+      Map<String, Double> sums = subprocessTotals.get(name);
+      if (sums != null) {
+        matched = true;
+        total += sums.getOrDefault(key, 0.0);
+      }
+    }
+    return matched ? Optional.of(total) : Optional.empty();
+  }
+
+  /**
+   * Finds the maximum of a parameter across all subprocesses, such as the peak flow of a gas.
+   */
+  public Optional<Double> maxSubprocessValue(String key) {
+    if (!hasSubprocesses) {
+      return Optional.empty();
+    }
+    return Optional.of(subprocessMaxima.getOrDefault(key, 0.0));
+  }
+}
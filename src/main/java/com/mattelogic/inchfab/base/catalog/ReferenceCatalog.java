@@ -0,0 +1,549 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import com.mattelogic.inchfab.base.exception.ReferenceCatalogException;
+import com.mattelogic.inchfab.base.model.FieldValues;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import lombok.Getter;
+import org.bson.Document;
+
+/**
+ * Immutable, fully normalized snapshot of every reference collection used by the cost
+ * calculators. A snapshot is built once per catalog generation and then only read, so lookups are
+ * plain map accesses and never touch Mongo.
+ * <p>
+ * The lookup methods mirror the aggregation pipelines of the catalog repositories: a lookup that
+ * would have produced no document returns an empty Optional, and sums over matched but missing
+ * fields contribute zero.
+ */
+public final class ReferenceCatalog {
+
+  private static final String NAME = "name";
+  private static final String SETTINGS = "settings";
+  private static final String STEPS = "steps";
+  private static final String PRICING = "pricing";
+  private static final String QUANTITY = "quantity";
+  private static final String UNIT_COST = "unitCost";
+  private static final String PHOTORESISTS = "photoresists";
+  private static final String GASES = "gases";
+  private static final String PRICE = "price";
+  private static final String TYPE = "type";
+  private static final String PROCESSES = "processes";
+  private static final String SUBPROCESSES = "subprocesses";
+  private static final String PARAMETERS = "parameters";
+  private static final String METRIC = "metric";
+  private static final String VALUE = "value";
+  private static final String LABOR_COST = "laborCost";
+  private static final String ELECTRICITY_COST = "electricityCost";
+  private static final String TOTAL_EFFECTIVE_PROCESS = "totalEffectiveProcess";
+  private static final String TOTAL_EFFECTIVE_LATENT = "totalEffectiveLatent";
+  private static final String EFFECTIVE_PROCESS = "effectiveProcess";
+  private static final String EFFECTIVE_LATENT = "effectiveLatent";
+
+  @Getter
+  private final long generation;
+  @Getter
+  private final Instant loadedAt;
+  /**
+   * SHA-256 of the raw documents, whatever order they are read in. Unlike the generation, it is
+   * the same for the same catalog content in every process and across restarts, compactions and
+   * restores, so it can be stored with calculated costs.
+   */
+  @Getter
+  private final String fingerprint;
+  private final Map<CatalogCollection, Map<String, CatalogDocument>> documents;
+  private final Map<CatalogCollection, CatalogDocument> firstDocuments;
+  private final Map<String, Map<String, RecipeView>> vacuumRecipes;
+  private final Map<String, PhotoresistProfile> photoresistProfiles;
+  private final Map<String, Double> gasPrices;
+  private final Map<String, Map<String, Double>> constants;
+
+  private ReferenceCatalog(
+      long generation,
+      String fingerprint,
+      Map<CatalogCollection, Map<String, CatalogDocument>> documents,
+      Map<CatalogCollection, CatalogDocument> firstDocuments,
+      Map<String, Map<String, RecipeView>> vacuumRecipes,
+      Map<String, Double> gasPrices,
+      Map<String, Map<String, Double>> constants
+  ) {
+    this.generation = generation;
+    this.loadedAt = Instant.now();
+    this.fingerprint = fingerprint;
+    this.documents = documents;
+    this.firstDocuments = firstDocuments;
+    this.vacuumRecipes = vacuumRecipes;
+    this.photoresistProfiles = toPhotoresistProfiles(
+        documents.getOrDefault(CatalogCollection.LITHOGRAPHY_DATA, Map.of()));
+    this.gasPrices = gasPrices;
+    this.constants = constants;
+  }
+
+  /**
+   * Builds a snapshot from the raw documents of each catalog collection.
+   *
+   * @param generation the generation number of the snapshot
+   * @param raw        raw documents keyed by collection, in natural order
+   * @return the normalized snapshot
+   */
+  public static ReferenceCatalog from(long generation,
+      Map<CatalogCollection, List<Document>> raw) {
+    Map<CatalogCollection, Map<String, CatalogDocument>> documents =
+        new EnumMap<>(CatalogCollection.class);
+    Map<CatalogCollection, CatalogDocument> firstDocuments =
+        new EnumMap<>(CatalogCollection.class);
+
+    raw.forEach((collection, rawDocuments) -> {
+      List<Document> sources = collection == CatalogCollection.LITHOGRAPHY_DATA
+          ? rawDocuments.stream().flatMap(doc -> documentList(doc, PHOTORESISTS).stream()).toList()
+          : rawDocuments;
+      Map<String, CatalogDocument> byName = new HashMap<>();
+      for (Document source : sources) {
+        CatalogDocument document = toCatalogDocument(source);
+        firstDocuments.putIfAbsent(collection, document);
+        if (document.name() != null) {
+          byName.putIfAbsent(document.name(), document);
+        }
+      }
+      documents.put(collection, Collections.unmodifiableMap(byName));
+    });
+
+    return new ReferenceCatalog(
+        generation,
+        fingerprint(raw),
+        Collections.unmodifiableMap(documents),
+        Collections.unmodifiableMap(firstDocuments),
+        toVacuumRecipes(raw.getOrDefault(CatalogCollection.VACUUM_PROCESS, List.of())),
+        toGasPrices(raw.getOrDefault(CatalogCollection.GAS, List.of())),
+        toConstants(raw.getOrDefault(CatalogCollection.CONSTANT, List.of()))
+    );
+  }
+
+  /**
+   * Reads a numeric field of a named document.
+   *
+   * @param collection the catalog collection
+   * @param name       the document name
+   * @param path       the field name, followed by nested field names for embedded documents
+   * @return the field value if the document and field exist
+   */
+  public Optional<Double> findValue(CatalogCollection collection, String name, String... path) {
+    String field = toPath(path);
+    return findDocument(collection, name).flatMap(document -> document.value(field));
+  }
+
+  /**
+   * Reads several numeric fields of a named document at once.
+   *
+   * @param collection the catalog collection
+   * @param name       the document name
+   * @param fields     the dotted field paths the caller needs
+   * @return the requested values, reading {@code 0.0} for fields the document does not have
+   */
+  public FieldValues findValues(CatalogCollection collection, String name,
+      Collection<String> fields) {
+    return memoize("findValues",
+        () -> FieldValues.of(fields, findDocument(collection, name)
+            .map(CatalogDocument::values)
+            .orElse(Map.of())),
+        collection, name, fields);
+  }
+
+  /**
+   * Reads a numeric field of the first document of a collection, for single document
+   * collections such as {@code essential}.
+   */
+  public Optional<Double> findFirstValue(CatalogCollection collection, String... path) {
+    String field = toPath(path);
+    return Optional.ofNullable(firstDocuments.get(collection))
+        .flatMap(document -> document.value(field));
+  }
+
+  /**
+   * @return hourly labor rate from the {@code essential} collection
+   * @throws ReferenceCatalogException if the rate is not configured
+   */
+  public double laborCost() {
+    return findFirstValue(CatalogCollection.ESSENTIAL, LABOR_COST)
+        .orElseThrow(() -> new ReferenceCatalogException("Labor cost is not configured"));
+  }
+
+  /**
+   * @return electricity rate per kWh from the {@code essential} collection
+   * @throws ReferenceCatalogException if the rate is not configured
+   */
+  public double electricityCost() {
+    return findFirstValue(CatalogCollection.ESSENTIAL, ELECTRICITY_COST)
+        .orElseThrow(() -> new ReferenceCatalogException("Electricity cost is not configured"));
+  }
+
+  public Optional<CatalogDocument> findDocument(CatalogCollection collection, String name) {
+    return Optional.ofNullable(documents.getOrDefault(collection, Map.of()).get(name));
+  }
+
+  /**
+   * Reads a numeric field of a settings entry of a named document.
+   */
+  public Optional<Double> findSettingValue(
+      CatalogCollection collection,
+      String name,
+      String settingsName,
+      String field
+  ) {
+    return findDocument(collection, name)
+        .flatMap(document -> document.setting(settingsName))
+        .flatMap(setting -> setting.value(field));
+  }
+
+  public Optional<Double> findTotalEffectiveProcess(CatalogCollection collection, String name,
+      String settingsName) {
+    return findSettingValue(collection, name, settingsName, TOTAL_EFFECTIVE_PROCESS);
+  }
+
+  public Optional<Double> findTotalEffectiveLatent(CatalogCollection collection, String name,
+      String settingsName) {
+    return findSettingValue(collection, name, settingsName, TOTAL_EFFECTIVE_LATENT);
+  }
+
+  public Optional<Double> findEffectiveLatent(CatalogCollection collection, String name,
+      String settingsName) {
+    return findSettingValue(collection, name, settingsName, EFFECTIVE_LATENT);
+  }
+
+  /**
+   * Reads a numeric field of a step nested in a settings entry of a named document.
+   */
+  public Optional<Double> findSettingStepValue(
+      CatalogCollection collection,
+      String name,
+      String settingsName,
+      String stepName,
+      String field
+  ) {
+    return findDocument(collection, name)
+        .flatMap(document -> document.setting(settingsName))
+        .flatMap(setting -> setting.stepValue(stepName, field));
+  }
+
+  public Optional<Double> findStepEffectiveLatent(CatalogCollection collection, String name,
+      String settingsName, String stepName) {
+    return findSettingStepValue(collection, name, settingsName, stepName, EFFECTIVE_LATENT);
+  }
+
+  /**
+   * Reads the effective process value of a settings step. Steps whose value is calculated
+   * separately hold a non-numeric marker and resolve to an empty Optional.
+   */
+  public Optional<Double> findStepEffectiveProcess(CatalogCollection collection, String name,
+      String settingsName, String stepName) {
+    return findSettingStepValue(collection, name, settingsName, stepName, EFFECTIVE_PROCESS);
+  }
+
+  /**
+   * Finds the unit cost of the pricing tier whose quantity matches exactly.
+   */
+  public Optional<Double> findUnitCost(CatalogCollection collection, String name,
+      double quantity) {
+    return findDocument(collection, name)
+        .flatMap(document -> boxed(document.pricing().exact(quantity)));
+  }
+
+  /**
+   * Finds the unit cost of the pricing tier whose quantity is nearest to the requested one. Ties
+   * resolve to the smaller quantity.
+   */
+  public Optional<Double> findNearestUnitCost(CatalogCollection collection, String name,
+      double quantity) {
+    return findDocument(collection, name)
+        .flatMap(document -> boxed(document.pricing().nearest(quantity)));
+  }
+
+  /**
+   * Finds the unit costs of the pricing tiers nearest to each requested quantity, ties resolving
+   * to the smaller quantity.
+   *
+   * @return unit costs in request order, {@code NaN} where the document has no pricing; empty if
+   * the document does not exist
+   */
+  public Optional<double[]> findNearestUnitCosts(CatalogCollection collection, String name,
+      double... quantities) {
+    return findDocument(collection, name).map(document -> document.pricing().nearest(quantities));
+  }
+
+  /**
+   * Finds the unit costs of the pricing tiers matching each requested quantity exactly.
+   *
+   * @return unit costs in request order, {@code NaN} where no tier matches; empty if the document
+   * does not exist
+   */
+  public Optional<double[]> findUnitCosts(CatalogCollection collection, String name,
+      double... quantities) {
+    return findDocument(collection, name).map(document -> document.pricing().exact(quantities));
+  }
+
+  /**
+   * Sums a process level parameter of a vacuum recipe.
+   */
+  public Optional<Double> findProcessValue(String type, String processName, String key) {
+    return findRecipe(type, processName).processValue(key);
+  }
+
+  /**
+   * Sums a parameter across the named subprocesses of a vacuum recipe.
+   */
+  public Optional<Double> findSubprocessValue(
+      String type,
+      String processName,
+      Collection<String> subprocessNames,
+      String key
+  ) {
+    return memoize("findSubprocessValue",
+        () -> findRecipe(type, processName).subprocessValue(subprocessNames, key),
+        type, processName, subprocessNames, key);
+  }
+
+  /**
+   * Finds the maximum of a parameter across all subprocesses of a vacuum recipe.
+   */
+  public Optional<Double> findMaxSubprocessValue(String type, String processName, String key) {
+    return findRecipe(type, processName).maxSubprocessValue(key);
+  }
+
+  /**
+   * @return the view over every recipe of the given type and process name, empty if none exist
+   */
+  public RecipeView findRecipe(String type, String processName) {
+    return vacuumRecipes.getOrDefault(type, Map.of()).getOrDefault(processName, RecipeView.EMPTY);
+  }
+
+  public List<VacuumRecipe> findRecipes(String type, String processName) {
+    return findRecipe(type, processName).recipes();
+  }
+
+  /**
+   * @return the resolved profile of a photoresist, with all values zero if it does not exist
+   */
+  public PhotoresistProfile findPhotoresistProfile(String name) {
+    return photoresistProfiles.getOrDefault(name, PhotoresistProfile.EMPTY);
+  }
+
+  public Optional<Double> findGasPrice(String name) {
+    return Optional.ofNullable(gasPrices.get(name));
+  }
+
+  public Optional<Double> findConstant(String type, String metric) {
+    return Optional.ofNullable(constants.getOrDefault(type, Map.of()).get(metric));
+  }
+
+  /**
+   * @return number of named documents held by the snapshot, per collection
+   */
+  public Map<CatalogCollection, Integer> documentCounts() {
+    Map<CatalogCollection, Integer> counts = new EnumMap<>(CatalogCollection.class);
+    documents.forEach((collection, byName) -> counts.put(collection, byName.size()));
+    return counts;
+  }
+
+  /**
+   * Resolves a derived lookup through the calculation context bound to the current thread, when
+   * that context pinned this snapshot; otherwise resolves it directly. Plain reads of the
+   * normalized maps are cheaper than a memoized lookup and are not routed through here.
+   */
+  private <T> T memoize(String lookup, Supplier<T> loader, Object... arguments) {
+    CalculationContext context = CalculationContext.current().orElse(null);
+    if (context == null || context.getCatalog() != this) {
+      return loader.get();
+    }
+    return context.memoize(lookup, loader, arguments);
+  }
+
+  private static String fingerprint(Map<CatalogCollection, List<Document>> raw) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    // The documents are digested in the order of their JSON, as their natural order changes when
+    // Mongo moves them
+    new TreeMap<>(raw).forEach((collection, rawDocuments) -> {
+      digest.update(collection.name().getBytes(StandardCharsets.UTF_8));
+      rawDocuments.stream().map(Document::toJson).sorted().forEach(json -> {
+        digest.update((byte) 0);
+        digest.update(json.getBytes(StandardCharsets.UTF_8));
+      });
+      digest.update((byte) 1);
+    });
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static String toPath(String... path) {
+    return path.length == 1 ? path[0] : String.join(".", path);
+  }
+
+  private static Optional<Double> boxed(OptionalDouble value) {
+    return value.isPresent() ? Optional.of(value.getAsDouble()) : Optional.empty();
+  }
+
+  private static CatalogDocument toCatalogDocument(Document source) {
+    Map<String, CatalogDocument.Setting> settings = new HashMap<>();
+    for (Document setting : documentList(source, SETTINGS)) {
+      Map<String, Map<String, Double>> steps = new HashMap<>();
+      for (Document step : documentList(setting, STEPS)) {
+        steps.putIfAbsent(step.getString(NAME), flatten(step));
+      }
+      settings.putIfAbsent(setting.getString(NAME), new CatalogDocument.Setting(
+          setting.getString(NAME),
+          flatten(setting),
+          Collections.unmodifiableMap(steps)
+      ));
+    }
+
+    SortedMap<Double, Double> pricing = new TreeMap<>();
+    for (Document tier : documentList(source, PRICING)) {
+      Double quantity = toDouble(tier.get(QUANTITY));
+      Double unitCost = toDouble(tier.get(UNIT_COST));
+      if (quantity != null && unitCost != null) {
+        pricing.putIfAbsent(quantity, unitCost);
+      }
+    }
+
+    return new CatalogDocument(
+        source.getString(NAME),
+        flatten(source),
+        Collections.unmodifiableMap(settings),
+        PriceLadder.from(pricing)
+    );
+  }
+
+  private static Map<String, Map<String, RecipeView>> toVacuumRecipes(
+      List<Document> sources) {
+    Map<String, Map<String, List<VacuumRecipe>>> recipes = new HashMap<>();
+    for (Document source : sources) {
+      String type = source.getString(TYPE);
+      for (Document process : documentList(source, PROCESSES)) {
+        List<VacuumRecipe.Subprocess> subprocesses = documentList(process, SUBPROCESSES).stream()
+            .map(subprocess -> new VacuumRecipe.Subprocess(
+                subprocess.getString(NAME),
+                flatten(subprocess.get(PARAMETERS, Document.class))
+            ))
+            .toList();
+        VacuumRecipe recipe = new VacuumRecipe(
+            type,
+            process.getString(NAME),
+            flatten(process.get(PARAMETERS, Document.class)),
+            subprocesses
+        );
+        recipes.computeIfAbsent(type, key -> new HashMap<>())
+            .computeIfAbsent(recipe.name(), key -> new ArrayList<>())
+            .add(recipe);
+      }
+    }
+    Map<String, Map<String, RecipeView>> views = new HashMap<>();
+    recipes.forEach((type, byName) -> {
+      Map<String, RecipeView> viewsByName = new HashMap<>();
+      byName.forEach((name, list) -> viewsByName.put(name, RecipeView.of(list)));
+      views.put(type, Collections.unmodifiableMap(viewsByName));
+    });
+    return Collections.unmodifiableMap(views);
+  }
+
+  private static Map<String, PhotoresistProfile> toPhotoresistProfiles(
+      Map<String, CatalogDocument> photoresists) {
+    Map<String, PhotoresistProfile> profiles = new HashMap<>();
+    photoresists.forEach((name, document) -> profiles.put(name, PhotoresistProfile.from(document)));
+    return Collections.unmodifiableMap(profiles);
+  }
+
+  private static Map<String, Double> toGasPrices(List<Document> sources) {
+    Map<String, Double> prices = new HashMap<>();
+    for (Document source : sources) {
+      for (Document gas : documentList(source, GASES)) {
+        Double price = toDouble(gas.get(PRICE));
+        if (gas.getString(NAME) != null && price != null) {
+          prices.putIfAbsent(gas.getString(NAME), price);
+        }
+      }
+    }
+    return Collections.unmodifiableMap(prices);
+  }
+
+  private static Map<String, Map<String, Double>> toConstants(List<Document> sources) {
+    Map<String, Map<String, Double>> constants = new HashMap<>();
+    for (Document source : sources) {
+      for (String type : source.keySet()) {
+        for (Document conversion : documentList(source, type)) {
+          Double value = toDouble(conversion.get(VALUE));
+          if (conversion.getString(METRIC) != null && value != null) {
+            constants.computeIfAbsent(type, key -> new HashMap<>())
+                .putIfAbsent(conversion.getString(METRIC), value);
+          }
+        }
+      }
+    }
+    constants.replaceAll((type, byMetric) -> Collections.unmodifiableMap(byMetric));
+    return Collections.unmodifiableMap(constants);
+  }
+
+  private static List<Document> documentList(Document source, String field) {
+    if (source == null || !(source.get(field) instanceof List<?> list)) {
+      return List.of();
+    }
+    return list.stream()
+        .filter(Document.class::isInstance)
+        .map(Document.class::cast)
+        .toList();
+  }
+
+  private static Map<String, Double> flatten(Document source) {
+    Map<String, Double> values = new LinkedHashMap<>();
+    if (source != null) {
+      flatten("", source, values);
+    }
+    return Collections.unmodifiableMap(values);
+  }
+
+  private static void flatten(String prefix, Map<?, ?> source, Map<String, Double> values) {
+    source.forEach((key, value) -> {
+      String path = prefix + key;
+      if (value instanceof Map<?, ?> nested) {
+        flatten(path + ".", nested, values);
+      } else {
+        Double number = toDouble(value);
+        if (number != null) {
+          values.put(path, number);
+        }
+      }
+    });
+  }
+
+  private static Double toDouble(Object value) {
+    if (value instanceof Number number) {
+      return number.doubleValue();
+    }
+    if (value instanceof String text) {
+      try {
+        return Double.valueOf(text.trim());
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+}
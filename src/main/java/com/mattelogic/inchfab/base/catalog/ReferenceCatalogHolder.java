@@ -0,0 +1,124 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the current {@link ReferenceCatalog} snapshot. Readers always see a complete
+ * generation: a reload builds the next snapshot off to the side and swaps it in atomically.
+ * <p>
+ * In warm-start mode the snapshot file is published first at startup, so calculations are served
+ * immediately, and the live catalog replaces it once loaded in the background.
+ * <p>
+ * Loads are serialized with a lock rather than a monitor: the first calculation may load the
+ * catalog from Mongo, and a virtual thread blocking inside a monitor pins its carrier thread.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceCatalogHolder {
+
+  private final ReferenceCatalogLoader referenceCatalogLoader;
+  private final AtomicReference<ReferenceCatalog> current = new AtomicReference<>();
+  private final AtomicLong generations = new AtomicLong();
+  private final ReentrantLock loadLock = new ReentrantLock();
+
+  @Getter
+  private volatile Duration lastReloadLatency = Duration.ZERO;
+
+  /**
+   * @return the snapshot pinned by the calculation context bound to the current thread, or else
+   * the current snapshot, loading the first generation if none has been published yet
+   */
+  public ReferenceCatalog current() {
+    CalculationContext context = CalculationContext.current().orElse(null);
+    if (context != null) {
+      return context.getCatalog();
+    }
+    ReferenceCatalog catalog = current.get();
+    return catalog != null ? catalog : initialize();
+  }
+
+  /**
+   * @return the current snapshot, or {@code null} if none has been published yet
+   */
+  public ReferenceCatalog peek() {
+    return current.get();
+  }
+
+  /**
+   * Loads a new generation of the catalog and publishes it.
+   *
+   * @return the published snapshot
+   */
+  public ReferenceCatalog reload() {
+    loadLock.lock();
+    try {
+      long start = System.nanoTime();
+      ReferenceCatalog next = referenceCatalogLoader.load(generations.incrementAndGet());
+      current.set(next);
+      lastReloadLatency = Duration.ofNanos(System.nanoTime() - start);
+      log.info("Reference catalog generation {} published in {} ms",
+          next.getGeneration(), lastReloadLatency.toMillis());
+      return next;
+    } finally {
+      loadLock.unlock();
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (publishSnapshot()) {
+      Thread.ofPlatform().name("catalog-loader").daemon().start(this::reloadAtStartup);
+    } else {
+      reloadAtStartup();
+    }
+  }
+
+  private void reloadAtStartup() {
+    try {
+      reload();
+    } catch (RuntimeException e) {
+      log.warn("Reference catalog could not be loaded at startup, retrying on first use", e);
+    }
+  }
+
+  private boolean publishSnapshot() {
+    loadLock.lock();
+    try {
+      if (current.get() != null) {
+        return false;
+      }
+      long start = System.nanoTime();
+      Optional<ReferenceCatalog> snapshot =
+          referenceCatalogLoader.loadSnapshot(generations::incrementAndGet);
+      snapshot.ifPresent(catalog -> {
+        current.set(catalog);
+        log.info("Reference catalog generation {} published from snapshot in {} ms",
+            catalog.getGeneration(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+      });
+      return snapshot.isPresent();
+    } finally {
+      loadLock.unlock();
+    }
+  }
+
+  private ReferenceCatalog initialize() {
+    loadLock.lock();
+    try {
+      ReferenceCatalog catalog = current.get();
+      return catalog != null ? catalog : reload();
+    } finally {
+      loadLock.unlock();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import com.mattelogic.inchfab.base.exception.ReferenceCatalogException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads every catalog collection from the {@link CatalogSource} and normalizes it into a
+ * {@link ReferenceCatalog}. In warm-start mode every load also refreshes the local snapshot file.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceCatalogLoader {
+
+  private final CatalogSource catalogSource;
+  private final CatalogSnapshotStore catalogSnapshotStore;
+
+  /**
+   * Loads a complete snapshot of the catalog.
+   *
+   * @param generation the generation number to assign to the snapshot
+   * @return the loaded snapshot
+   * @throws ReferenceCatalogException if any collection cannot be read
+   */
+  public ReferenceCatalog load(long generation) {
+    Map<CatalogCollection, List<Document>> raw = catalogSource.readAll();
+    ReferenceCatalog catalog = ReferenceCatalog.from(generation, raw);
+    if (catalogSnapshotStore.isWarmStart()) {
+      catalogSnapshotStore.write(raw);
+    }
+    return catalog;
+  }
+
+  /**
+   * Loads the catalog from the local snapshot file, for serving while the live load runs.
+   *
+   * @param generation supplies the generation number, only drawn if a snapshot is loaded
+   * @return the loaded snapshot, empty unless in warm-start mode with a readable snapshot file
+   */
+  public Optional<ReferenceCatalog> loadSnapshot(LongSupplier generation) {
+    if (!catalogSnapshotStore.isWarmStart()) {
+      return Optional.empty();
+    }
+    return catalogSnapshotStore.read()
+        .map(raw -> ReferenceCatalog.from(generation.getAsLong(), raw));
+  }
+}
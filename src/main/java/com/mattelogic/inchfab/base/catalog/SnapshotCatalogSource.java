@@ -0,0 +1,36 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link CatalogSource} backed by the local snapshot file, used in the embedded catalog mode. All
+ * collections share the file's version marker, so replacing the file reloads the catalog.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "catalog.snapshot", name = "mode", havingValue = "embedded")
+public class SnapshotCatalogSource implements CatalogSource {
+
+  private final CatalogSnapshotStore catalogSnapshotStore;
+
+  @Override
+  public Map<CatalogCollection, List<Document>> readAll() {
+    return catalogSnapshotStore.readRequired();
+  }
+
+  @Override
+  public Map<CatalogCollection, String> readVersions() {
+    String version = catalogSnapshotStore.version();
+    Map<CatalogCollection, String> versions = new EnumMap<>(CatalogCollection.class);
+    for (CatalogCollection collection : CatalogCollection.values()) {
+      versions.put(collection, version);
+    }
+    return versions;
+  }
+}
@@ -0,0 +1,81 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import com.mattelogic.inchfab.base.entity.VacuumProcess;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Normalized vacuum-process recipe: a named process of a given equipment type with its own
+ * parameters and the parameters of each subprocess.
+ *
+ * @param type         the vacuum process type (drie, rie, ald, ...)
+ * @param name         the process name
+ * @param parameters   process level parameters
+ * @param subprocesses subprocesses in document order
+ */
+public record VacuumRecipe(
+    String type,
+    String name,
+    Map<String, Double> parameters,
+    List<Subprocess> subprocesses
+) {
+
+  /**
+   * Converts a process fetched through
+   * {@link com.mattelogic.inchfab.base.repository.VacuumProcessRepository#findProcesses}.
+   */
+  public static VacuumRecipe from(String type, VacuumProcess.Process process) {
+    List<Subprocess> subprocesses = process.subprocesses() == null
+        ? List.of()
+        : process.subprocesses().stream()
+            .map(subprocess -> new Subprocess(subprocess.name(),
+                toParameters(subprocess.parameters())))
+            .toList();
+    return new VacuumRecipe(type, process.name(), toParameters(process.parameters()),
+        subprocesses);
+  }
+
+  private static Map<String, Double> toParameters(VacuumProcess.Parameters source) {
+    Map<String, Double> parameters = new HashMap<>();
+    if (source == null) {
+      return parameters;
+    }
+    put(parameters, "baseProcessRate", source.baseProcessRate());
+    put(parameters, "sf6", source.sf6());
+    put(parameters, "o2", source.o2());
+    put(parameters, "ar", source.ar());
+    put(parameters, "cl2", source.cl2());
+    put(parameters, "bcl3", source.bcl3());
+    put(parameters, "he", source.he());
+    put(parameters, "c4f8", source.c4f8());
+    put(parameters, "cf4", source.cf4());
+    put(parameters, "sih4", source.sih4());
+    put(parameters, "n2", source.n2());
+    put(parameters, "sih2cl2", source.sih2cl2());
+    put(parameters, "n2o", source.n2o());
+    put(parameters, "nh3", source.nh3());
+    put(parameters, "tma", source.tma());
+    put(parameters, "h2o", source.h2o());
+    put(parameters, "tdmat", source.tdmat());
+    put(parameters, "icpPower", source.icpPower());
+    put(parameters, "substratePower", source.substratePower());
+    put(parameters, "pressure", source.pressure());
+    put(parameters, "temperature", source.temperature());
+    put(parameters, "stepTime", source.stepTime());
+    return parameters;
+  }
+
+  private static void put(Map<String, Double> parameters, String key, Number value) {
+    if (value != null) {
+      parameters.put(key, value.doubleValue());
+    }
+  }
+
+  public record Subprocess(
+      String name,
+      Map<String, Double> parameters
+  ) {
+
+  }
+}
@@ -0,0 +1,12 @@
+package com.mattelogic.inchfab.base.exception;
+
+public class ReferenceCatalogException extends RuntimeException {
+
+  public ReferenceCatalogException(String message) {
+    super(message);
+  }
+
+  public ReferenceCatalogException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,116 @@
+package com.mattelogic.inchfab.base.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import org.bson.Document;
+
+/**
+ * Numeric fields of one document, fetched together for a declared set of field names. Missing or
+ * non-numeric fields read as {@code 0.0} through {@link #get(String)}, matching the
+ * {@code orElse(0.0)} convention of the single field lookups. Reading a field that was not
+ * declared is a programming error.
+ */
+public final class FieldValues {
+
+  private final Set<String> fields;
+  private final Map<String, Double> values;
+
+  private FieldValues(Set<String> fields, Map<String, Double> values) {
+    this.fields = fields;
+    this.values = values;
+  }
+
+  /**
+   * @param fields the declared field names
+   * @param values values of the declared fields that exist, keyed by field name
+   */
+  public static FieldValues of(Collection<String> fields, Map<String, Double> values) {
+    Map<String, Double> declared = new HashMap<>();
+    for (String field : fields) {
+      Double value = values.get(field);
+      if (value != null) {
+        declared.put(field, value);
+      }
+    }
+    return new FieldValues(Set.copyOf(fields), Collections.unmodifiableMap(declared));
+  }
+
+  /**
+   * Reads the declared fields from a document, following dotted names into embedded documents.
+   * Numbers and numeric strings are converted to doubles.
+   *
+   * @param source the document, or {@code null} if none matched
+   * @param fields the declared field names
+   */
+  public static FieldValues from(Document source, Collection<String> fields) {
+    Map<String, Double> values = new HashMap<>();
+    if (source != null) {
+      for (String field : fields) {
+        Double value = toDouble(resolve(source, field));
+        if (value != null) {
+          values.put(field, value);
+        }
+      }
+    }
+    return of(fields, values);
+  }
+
+  /**
+   * @return the field value, or {@code 0.0} if the document has no numeric value for it
+   * @throws IllegalArgumentException if the field was not declared
+   */
+  public double get(String field) {
+    requireDeclared(field);
+    Double value = values.get(field);
+    return value != null ? value : 0.0;
+  }
+
+  /**
+   * @return the field value, empty if the document has no numeric value for it
+   * @throws IllegalArgumentException if the field was not declared
+   */
+  public OptionalDouble find(String field) {
+    requireDeclared(field);
+    Double value = values.get(field);
+    return value != null ? OptionalDouble.of(value) : OptionalDouble.empty();
+  }
+
+  public Map<String, Double> asMap() {
+    return values;
+  }
+
+  private void requireDeclared(String field) {
+    if (!fields.contains(field)) {
+      throw new IllegalArgumentException("Field was not requested: " + field);
+    }
+  }
+
+  private static Object resolve(Document source, String field) {
+    Object current = source;
+    for (String segment : field.split("\\.")) {
+      if (!(current instanceof Map<?, ?> map)) {
+        return null;
+      }
+      current = map.get(segment);
+    }
+    return current;
+  }
+
+  private static Double toDouble(Object value) {
+    if (value instanceof Number number) {
+      return number.doubleValue();
+    }
+    if (value instanceof String text) {
+      try {
+        return Double.parseDouble(text.trim());
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+}
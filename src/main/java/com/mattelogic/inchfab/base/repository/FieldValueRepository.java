@@ -1,6 +1,9 @@
 package com.mattelogic.inchfab.base.repository;
 
+import com.mattelogic.inchfab.base.model.FieldValues;
+import java.util.Collection;
 import java.util.Optional;
+import org.bson.Document;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.repository.NoRepositoryBean;
@@ -31,4 +34,31 @@ public interface FieldValueRepository<T> extends MongoRepository<T, String> {
       String name,
       @Param("fieldName") String fieldName
   );
+
+  /**
+   * Retrieves several numeric fields of a document by its name in a single query.
+   *
+   * @param name   the name of the document
+   * @param fields the names of the fields to retrieve; dotted names address embedded fields
+   * @return the requested values, reading {@code 0.0} for fields the document does not have
+   */
+  default FieldValues findValuesByNameAndFields(String name, Collection<String> fields) {
+    Document projection = new Document("_id", 0);
+    fields.forEach(field -> projection.append(field, 1));
+    return FieldValues.from(findProjectionByName(name, projection).orElse(null), fields);
+  }
+
+  /**
+   * Retrieves the first document with the given name, projected to the given fields.
+   *
+   * @param name       the name of the document
+   * @param projection the {@code $project} specification
+   * @return an Optional containing the projected document if found, empty Optional otherwise
+   */
+  @Aggregation(pipeline = {
+      "{ $match: { 'name': ?0 } }",
+      "{ $limit: 1 }",
+      "{ $project: ?1 }"
+  })
+  Optional<Document> findProjectionByName(String name, Document projection);
 }
\ No newline at end of file
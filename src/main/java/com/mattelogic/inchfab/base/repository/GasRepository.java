@@ -17,15 +17,17 @@ public interface GasRepository extends MongoRepository<Gas, String> {
    * Finds the price of a gas by its name.
    * <p>
    * Pipeline explanation:
-   * 1. Unwinds the gases array into separate documents
-   * 2. Matches documents with the specified gas name
-   * 3. Replaces root to elevate gas document
-   * 4. Projects only the price field
+   * 1. Matches documents containing the gas, using the gases.name index
+   * 2. Unwinds the gases array into separate documents
+   * 3. Matches documents with the specified gas name
+   * 4. Replaces root to elevate gas document
+   * 5. Projects only the price field
    *
    * @param name the name of the gas
    * @return Optional containing the gas price if found
    */
   @Aggregation(pipeline = {
+      "{ $match: { 'gases.name': :#{#name} } }",
       "{ $unwind: '$gases' }",
       "{ $match: { 'gases.name': :#{#name} } }",
       "{ $replaceRoot: { newRoot: '$gases' } }",
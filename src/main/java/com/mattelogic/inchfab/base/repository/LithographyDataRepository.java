@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 public interface LithographyDataRepository extends TotalEffectiveRepository<LithographyData> {
 
   @Aggregation(pipeline = {
+      "{ $match: { 'photoresists.name': ?0 } }",
       "{ $unwind: '$photoresists' }",
       "{ $match: { 'photoresists.name': ?0 } }",
       "{ $project: { totalValue: { $getField: { input: { $getField: { input: '$photoresists', field: ?1 } }, field: ?2 } } } }"
@@ -20,6 +21,7 @@ public interface LithographyDataRepository extends TotalEffectiveRepository<Lith
   );
 
   @Aggregation(pipeline = {
+      "{ $match: { 'photoresists.name': ?0 } }",
       "{ $unwind: '$photoresists' }",
       "{ $match: { 'photoresists.name': ?0 } }",
       "{ $match: { $expr: { $ne: [{ $getField: { field: ?1, input: '$photoresists.materials' } }, null] } } }",
@@ -27,4 +29,17 @@ public interface LithographyDataRepository extends TotalEffectiveRepository<Lith
       "{ $project: { value: 1, _id: 0 } }"
   })
   Optional<Double> findMaterialValue(String photoresistName, String materialType, String fieldName);
+
+  /**
+   * Fetches a whole photoresist, with its temperatures, times, run sizes and materials, in one
+   * query.
+   */
+  @Aggregation(pipeline = {
+      "{ $match: { 'photoresists.name': ?0 } }",
+      "{ $unwind: '$photoresists' }",
+      "{ $match: { 'photoresists.name': ?0 } }",
+      "{ $replaceRoot: { newRoot: '$photoresists' } }",
+      "{ $limit: 1 }"
+  })
+  Optional<LithographyData.Photoresist> findPhotoresistByName(String photoresistName);
 }
@@ -3,12 +3,11 @@ package com.mattelogic.inchfab.base.repository;
 import com.mattelogic.inchfab.base.entity.MetrologyInspection;
 import java.util.Optional;
 import org.springframework.data.mongodb.repository.Aggregation;
-import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MetrologyInspectionRepository extends
-    MongoRepository<MetrologyInspection, String> {
+    FieldValueRepository<MetrologyInspection> {
 
   @Aggregation(pipeline = {
       "{ $match: { name: ?0 } }",
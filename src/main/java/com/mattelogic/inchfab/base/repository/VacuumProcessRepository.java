@@ -113,4 +113,31 @@ public interface VacuumProcessRepository extends MongoRepository<VacuumProcess,
       String processName,
       String gasProperty
   );
+
+  /**
+   * Finds every process with the given name for a vacuum process type, including all of its
+   * subprocesses and parameters, in a single round trip. Wrap the result in a
+   * {@link com.mattelogic.inchfab.base.catalog.RecipeView} to answer step-time sums, gas maxima
+   * and process parameter lookups in memory.
+   *
+   * @param type        the vacuum process type
+   * @param processName the name of the process
+   * @return the matching processes, empty if none exist
+   * <p>
+   * Pipeline explanation:
+   * 1. Matches documents with the specified type that contain the process
+   * 2. Unwinds the processes array
+   * 3. Matches the specific process by name
+   * 4. Promotes the process to the root document
+   */
+  @Aggregation(pipeline = {
+      "{ $match: { 'type': ?0, 'processes.name': ?1 } }",
+      "{ $unwind: '$processes' }",
+      "{ $match: { 'processes.name': ?1 } }",
+      "{ $replaceRoot: { newRoot: '$processes' } }"
+  })
+  List<VacuumProcess.Process> findProcesses(
+      String type,
+      String processName
+  );
 }
\ No newline at end of file
@@ -83,6 +83,13 @@ public final class ErrorTypeConstant {
       HttpStatus.CONFLICT
   );
 
+  public static final ErrorType PROJECT_MODIFIED = new ErrorType(
+      "project-modified",
+      "Project Modified",
+      "The project was modified by another request. Reload it and retry.",
+      HttpStatus.CONFLICT
+  );
+
   public static final ErrorType UNSUPPORTED_PROCESS_TYPE = new ErrorType(
       "unsupported_process_type",
       "Unsupported Process Type",
@@ -97,6 +104,13 @@ public final class ErrorTypeConstant {
       HttpStatus.INTERNAL_SERVER_ERROR
   );
 
+  public static final ErrorType CALCULATION_TIMEOUT = new ErrorType(
+      "calculation-timeout",
+      "Calculation Timeout",
+      "The calculation did not complete before its deadline",
+      HttpStatus.GATEWAY_TIMEOUT
+  );
+
   public static final ErrorType DATABASE_ERROR = new ErrorType(
       "database-error",
       "Database Error",
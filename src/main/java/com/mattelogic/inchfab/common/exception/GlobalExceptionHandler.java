@@ -7,10 +7,12 @@ import com.mattelogic.inchfab.common.constant.ErrorTypeConstant.ErrorType;
 import com.mattelogic.inchfab.common.dto.ErrorResponseDto;
 import com.mattelogic.inchfab.common.model.ErrorDetail;
 import com.mattelogic.inchfab.common.model.ValidationErrorDetail;
+import com.mattelogic.inchfab.core.exception.CalculationTimeoutException;
 import com.mattelogic.inchfab.core.exception.CompanyNotFoundException;
 import com.mattelogic.inchfab.core.exception.DuplicateCompanyException;
 import com.mattelogic.inchfab.core.exception.DuplicateProjectException;
 import com.mattelogic.inchfab.core.exception.ProcessingStepException;
+import com.mattelogic.inchfab.core.exception.ProjectModifiedException;
 import com.mattelogic.inchfab.core.exception.ProjectNotFoundException;
 import com.mattelogic.inchfab.core.exception.UnsupportedProcessTypeException;
 import com.mattelogic.inchfab.domain.exception.GasCalculationException;
@@ -45,7 +47,9 @@ public class GlobalExceptionHandler {
       DuplicateProjectException.class,
       CompanyNotFoundException.class,
       ProjectNotFoundException.class,
+      ProjectModifiedException.class,
       UnsupportedProcessTypeException.class,
+      CalculationTimeoutException.class,
       // Remove ProcessingStepException from here since it has its own handler
       DataAccessException.class
   })
@@ -66,7 +70,9 @@ public class GlobalExceptionHandler {
       case CompanyNotFoundException ignored -> ErrorTypeConstant.COMPANY_NOT_FOUND;
       case DuplicateProjectException ignored -> ErrorTypeConstant.DUPLICATE_PROJECT;
       case ProjectNotFoundException ignored -> ErrorTypeConstant.PROJECT_NOT_FOUND;
+      case ProjectModifiedException ignored -> ErrorTypeConstant.PROJECT_MODIFIED;
       case UnsupportedProcessTypeException ignored -> ErrorTypeConstant.UNSUPPORTED_PROCESS_TYPE;
+      case CalculationTimeoutException ignored -> ErrorTypeConstant.CALCULATION_TIMEOUT;
       default -> throw new IllegalStateException("Unexpected exception type: " + ex.getClass());
     };
 
@@ -0,0 +1,169 @@
+package com.mattelogic.inchfab.core.cache;
+
+import com.mattelogic.inchfab.core.model.CostVector;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of step costs. Projects repeat the same steps with the same parameters, and a step
+ * costs the same as long as its fingerprint, the project wafer count and substrate and the
+ * reference catalog generation are the same.
+ * <p>
+ * Entries are weighed by their estimated size and the least recently used ones are evicted once
+ * the total weight exceeds the configured maximum. Entries of an older catalog generation can
+ * never be hit again, so they are dropped as soon as a newer generation is seen. Failed
+ * calculations are not cached. The map is guarded by a lock rather than a monitor, so step threads
+ * waiting for it never pin a carrier thread when they are virtual.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(StepCostCacheProperties.class)
+public class StepCostCache {
+
+  /**
+   * Estimated size of an entry besides its fingerprint: the map node, the key, the vector and its
+   * value array.
+   */
+  static final long ENTRY_OVERHEAD_BYTES = 320;
+
+  private final boolean enabled;
+  private final long maxWeight;
+  private final LinkedHashMap<StepCostKey, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final ReentrantLock lock = new ReentrantLock();
+  private long weight;
+  private long generation = Long.MIN_VALUE;
+
+  public StepCostCache(StepCostCacheProperties properties) {
+    this.enabled = properties.enabled();
+    this.maxWeight = properties.maxWeight().toBytes();
+  }
+
+  /**
+   * Returns the cached cost of the step, or calculates and caches it. The calculation runs outside
+   * the cache lock, so two threads missing the same key may both calculate it.
+   *
+   * @param key        the step key
+   * @param calculator calculates the cost on a miss
+   * @return a vector the caller may modify
+   */
+  public CostVector get(StepCostKey key, Supplier<CostVector> calculator) {
+    if (!enabled) {
+      return calculator.get();
+    }
+    CostVector cached = lookup(key);
+    if (cached != null) {
+      hits.increment();
+      return cached.copy();
+    }
+    misses.increment();
+    CostVector result = calculator.get();
+    store(key, result.copy());
+    return result;
+  }
+
+  /**
+   * Drops every entry.
+   */
+  public void clear() {
+    lock.lock();
+    try {
+      entries.clear();
+      weight = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Stats stats() {
+    lock.lock();
+    try {
+      return new Stats(enabled, hits.sum(), misses.sum(), evictions.sum(), entries.size(), weight,
+          maxWeight);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private CostVector lookup(StepCostKey key) {
+    lock.lock();
+    try {
+      advanceGeneration(key.generation());
+      Entry entry = entries.get(key);
+      return entry != null ? entry.vector() : null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void store(StepCostKey key, CostVector vector) {
+    lock.lock();
+    try {
+      advanceGeneration(key.generation());
+      if (key.generation() < generation) {
+        return;
+      }
+      long entryWeight = weigh(key);
+      if (entryWeight > maxWeight) {
+        return;
+      }
+      Entry previous = entries.put(key, new Entry(vector, entryWeight));
+      weight += entryWeight - (previous != null ? previous.weight() : 0);
+      Iterator<Entry> eldest = entries.values().iterator();
+      while (weight > maxWeight && eldest.hasNext()) {
+        weight -= eldest.next().weight();
+        eldest.remove();
+        evictions.increment();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void advanceGeneration(long keyGeneration) {
+    if (keyGeneration > generation) {
+      if (!entries.isEmpty()) {
+        log.debug("Dropping {} cached step costs of catalog generation {}", entries.size(),
+            generation);
+      }
+      entries.clear();
+      weight = 0;
+      generation = keyGeneration;
+    }
+  }
+
+  private static long weigh(StepCostKey key) {
+    return ENTRY_OVERHEAD_BYTES + 2L * String.valueOf(key.fingerprint()).length();
+  }
+
+  private record Entry(CostVector vector, long weight) {
+
+  }
+
+  /**
+   * Counters of the cache since startup.
+   */
+  public record Stats(
+      boolean enabled,
+      long hits,
+      long misses,
+      long evictions,
+      int size,
+      long weight,
+      long maxWeight
+  ) {
+
+    public double hitRatio() {
+      long requests = hits + misses;
+      return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+  }
+}
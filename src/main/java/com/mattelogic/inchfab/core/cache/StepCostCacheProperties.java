@@ -0,0 +1,23 @@
+package com.mattelogic.inchfab.core.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the step cost cache.
+ *
+ * @param enabled   whether step costs are cached
+ * @param maxWeight estimated memory the cached entries may take before the least recently used
+ *                  ones are evicted
+ */
+@ConfigurationProperties(prefix = "calculation.step-cache")
+public record StepCostCacheProperties(
+    Boolean enabled,
+    DataSize maxWeight
+) {
+
+  public StepCostCacheProperties {
+    enabled = enabled != null ? enabled : Boolean.TRUE;
+    maxWeight = maxWeight != null ? maxWeight : DataSize.ofMegabytes(16);
+  }
+}
@@ -0,0 +1,23 @@
+package com.mattelogic.inchfab.core.cache;
+
+import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
+
+/**
+ * Identifies the cost of one process step. Two steps with equal keys cost the same.
+ *
+ * @param process       the process the step runs
+ * @param fingerprint   the process request the step maps to, holding every step field the result
+ *                      depends on
+ * @param waferSize     the wafer count of the project
+ * @param substrateType the substrate of the project
+ * @param generation    the reference catalog generation the cost was computed against
+ */
+public record StepCostKey(
+    ProcessDefinition process,
+    Object fingerprint,
+    Integer waferSize,
+    String substrateType,
+    long generation
+) {
+
+}
@@ -2,44 +2,51 @@ package com.mattelogic.inchfab.core.config;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import org.springframework.web.context.request.RequestAttributes;
-import org.springframework.web.context.request.RequestContextHolder;
 
+@Slf4j
 @Configuration
 @EnableAsync
+@EnableConfigurationProperties(ProcessExecutorProperties.class)
 public class AsyncConfiguration {
 
   @Bean(name = "processTaskExecutor")
-  public Executor processTaskExecutor() {
+  public Executor processTaskExecutor(ProcessExecutorProperties properties) {
+    log.info("Project steps run on {} threads", properties.mode().name().toLowerCase());
+    return switch (properties.mode()) {
+      case PLATFORM -> platformExecutor(properties);
+      case VIRTUAL -> virtualExecutor(properties);
+    };
+  }
+
+  private static Executor platformExecutor(ProcessExecutorProperties properties) {
     ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-    executor.setCorePoolSize(10);
-    executor.setMaxPoolSize(20);
-    executor.setQueueCapacity(500);
+    executor.setCorePoolSize(properties.corePoolSize());
+    executor.setMaxPoolSize(properties.maxPoolSize());
+    executor.setQueueCapacity(properties.queueCapacity());
     executor.setThreadNamePrefix("ProcessAsync-");
     executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-
-    // Updated task decorator to handle non-web requests
-    executor.setTaskDecorator(task -> () -> {
-      RequestAttributes context = null;
-      context = RequestContextHolder.getRequestAttributes();
-
-      if (context != null) {
-        try {
-          RequestContextHolder.setRequestAttributes(context, true);
-          task.run();
-        } finally {
-          RequestContextHolder.resetRequestAttributes();
-        }
-      } else {
-        task.run();
-      }
-    });
-
+    executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
     executor.initialize();
     return executor;
   }
+
+  /**
+   * One virtual thread per step, so a step blocked on I/O holds no platform thread. The
+   * concurrency limit, if any, bounds the load the steps put on the catalog store instead of a
+   * pool size.
+   */
+  private static Executor virtualExecutor(ProcessExecutorProperties properties) {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ProcessVirtual-");
+    executor.setVirtualThreads(true);
+    executor.setConcurrencyLimit(properties.concurrencyLimit());
+    executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+    return executor;
+  }
 }
\ No newline at end of file
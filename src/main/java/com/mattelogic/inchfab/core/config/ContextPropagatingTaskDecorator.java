@@ -0,0 +1,44 @@
+package com.mattelogic.inchfab.core.config;
+
+import com.mattelogic.inchfab.base.catalog.CalculationContext;
+import java.util.Map;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Carries the request attributes, the MDC and the calculation context of the submitting thread
+ * to the thread that runs the task. All three are captured when the task is submitted, and the
+ * running thread's own values are restored afterwards, so a task the submitting thread runs itself
+ * does not clear them.
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+  @Override
+  public Runnable decorate(Runnable task) {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    Map<String, String> mdc = MDC.getCopyOfContextMap();
+    Runnable bound = CalculationContext.wrap(task);
+    return () -> {
+      RequestAttributes previousAttributes = RequestContextHolder.getRequestAttributes();
+      Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+      RequestContextHolder.setRequestAttributes(attributes);
+      setMdc(mdc);
+      try {
+        bound.run();
+      } finally {
+        RequestContextHolder.setRequestAttributes(previousAttributes);
+        setMdc(previousMdc);
+      }
+    };
+  }
+
+  private static void setMdc(Map<String, String> context) {
+    if (context != null) {
+      MDC.setContextMap(context);
+    } else {
+      MDC.clear();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.mattelogic.inchfab.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the executor that evaluates project steps.
+ *
+ * @param mode             whether steps run on a bounded platform thread pool or on one virtual
+ *                         thread each
+ * @param corePoolSize     core threads of the platform pool
+ * @param maxPoolSize      maximum threads of the platform pool
+ * @param queueCapacity    steps the platform pool queues before the submitting thread runs them
+ *                         itself
+ * @param concurrencyLimit steps running at once on virtual threads, unbounded if negative
+ */
+@ConfigurationProperties(prefix = "calculation.executor")
+public record ProcessExecutorProperties(
+    Mode mode,
+    Integer corePoolSize,
+    Integer maxPoolSize,
+    Integer queueCapacity,
+    Integer concurrencyLimit
+) {
+
+  public ProcessExecutorProperties {
+    mode = mode != null ? mode : Mode.PLATFORM;
+    corePoolSize = corePoolSize != null ? corePoolSize : 10;
+    maxPoolSize = maxPoolSize != null ? maxPoolSize : 20;
+    queueCapacity = queueCapacity != null ? queueCapacity : 500;
+    concurrencyLimit = concurrencyLimit != null ? concurrencyLimit : -1;
+  }
+
+  public enum Mode {
+    PLATFORM,
+    VIRTUAL
+  }
+}
@@ -0,0 +1,63 @@
+package com.mattelogic.inchfab.core.controller;
+
+import com.mattelogic.inchfab.common.dto.ApiResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.CatalogStatusResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.IndexDiagnosticsResponseDto;
+import com.mattelogic.inchfab.core.service.CatalogServiceImpl;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/catalog")
+public class CatalogController {
+
+  private final CatalogServiceImpl service;
+
+  @Operation(summary = "Get the published reference catalog generation")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Catalog status",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = CatalogStatusResponseDto.class)))
+  })
+  @GetMapping
+  public ResponseEntity<ApiResponseDto<CatalogStatusResponseDto>> getStatus() {
+    log.debug("REST request to get catalog status");
+    return ResponseEntity.ok(service.getStatus());
+  }
+
+  @Operation(summary = "Reload the reference catalog from Mongo")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Catalog reloaded",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = CatalogStatusResponseDto.class)))
+  })
+  @PostMapping("/reload")
+  public ResponseEntity<ApiResponseDto<CatalogStatusResponseDto>> reload() {
+    log.debug("REST request to reload catalog");
+    return ResponseEntity.ok(service.reload());
+  }
+
+  @Operation(summary = "Explain every catalog repository pipeline and flag collection scans")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Pipeline query plans",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = IndexDiagnosticsResponseDto.class)))
+  })
+  @GetMapping("/indexes/explain")
+  public ResponseEntity<ApiResponseDto<IndexDiagnosticsResponseDto>> explainIndexes() {
+    log.debug("REST request to explain catalog pipelines");
+    return ResponseEntity.ok(service.explainIndexes());
+  }
+}
@@ -1,8 +1,18 @@
 package com.mattelogic.inchfab.core.controller;
 
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
+import com.mattelogic.inchfab.core.dtos.request.CostCurveRequestDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.RepriceRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.SimulationRequestDto;
+import com.mattelogic.inchfab.core.dtos.response.BatchCostResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.CostCurvePointResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.CostDecompositionResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.PartialCostResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.RateScenarioResponseDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.SimulationResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.StepCostCacheResponseDto;
 import com.mattelogic.inchfab.core.service.ProcessCostCalculatorServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,9 +20,12 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -42,4 +55,119 @@ public class CostCalculatorController {
     log.debug("REST request to calculate cost: {}", request);
     return ResponseEntity.ok(service.calculate(request));
   }
+
+  @Operation(summary = "Calculate cost over the steps that complete, with per-step errors")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Calculated cost and step errors",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = PartialCostResponseDto.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid input",
+          content = @Content)
+  })
+  @PostMapping("/partial")
+  public ResponseEntity<ApiResponseDto<PartialCostResponseDto>> calculatePartial(
+      @Valid @RequestBody CostRequestDto request) {
+    log.debug("REST request to calculate partial cost: {}", request);
+    return ResponseEntity.ok(service.calculatePartial(request));
+  }
+
+  @Operation(summary = "Calculate the cost of a project at several wafer counts")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Cost per wafer count",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = CostCurvePointResponseDto.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid input",
+          content = @Content)
+  })
+  @PostMapping("/curve")
+  public ResponseEntity<ApiResponseDto<List<CostCurvePointResponseDto>>> calculateCurve(
+      @Valid @RequestBody CostCurveRequestDto request) throws Throwable {
+    log.debug("REST request to calculate cost curve: {}", request);
+    return ResponseEntity.ok(service.calculateCurve(request));
+  }
+
+  @Operation(summary = "Split the cost of a project into fixed costs and quantities of rates")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Decomposed cost",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = CostDecompositionResponseDto.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid input",
+          content = @Content)
+  })
+  @PostMapping("/decompose")
+  public ResponseEntity<ApiResponseDto<CostDecompositionResponseDto>> decompose(
+      @Valid @RequestBody CostRequestDto request) throws Throwable {
+    log.debug("REST request to decompose cost: {}", request);
+    return ResponseEntity.ok(service.decompose(request));
+  }
+
+  @Operation(summary = "Price a cost decomposition under alternate rates")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Cost per scenario",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = RateScenarioResponseDto.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid input",
+          content = @Content)
+  })
+  @PostMapping("/reprice")
+  public ResponseEntity<ApiResponseDto<List<RateScenarioResponseDto>>> reprice(
+      @Valid @RequestBody RepriceRequestDto request) {
+    log.debug("REST request to reprice cost: {}", request);
+    return ResponseEntity.ok(service.reprice(request));
+  }
+
+  @Operation(summary = "Simulate the cost of a project with uncertain parameters")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Cost statistics and percentiles",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = SimulationResponseDto.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid input",
+          content = @Content)
+  })
+  @PostMapping("/simulate")
+  public ResponseEntity<ApiResponseDto<SimulationResponseDto>> simulate(
+      @Valid @RequestBody SimulationRequestDto request) throws Throwable {
+    log.debug("REST request to simulate cost: {}", request);
+    return ResponseEntity.ok(service.simulate(request));
+  }
+
+  @Operation(summary = "Calculate the cost of many projects, given as a JSON array")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Calculated costs, with per-item errors",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = BatchCostResponseDto.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid input",
+          content = @Content)
+  })
+  @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<ApiResponseDto<BatchCostResponseDto>> calculateBatch(
+      @RequestBody List<CostRequestDto> requests) {
+    log.debug("REST request to calculate {} costs", requests.size());
+    return ResponseEntity.ok(service.calculateBatch(requests));
+  }
+
+  @Operation(summary = "Calculate the cost of many projects, given as newline-delimited JSON")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Calculated costs, with per-item errors",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = BatchCostResponseDto.class)))
+  })
+  @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<ApiResponseDto<BatchCostResponseDto>> calculateBatchNdjson(
+      @RequestBody String requests) {
+    log.debug("REST request to calculate NDJSON costs");
+    return ResponseEntity.ok(service.calculateBatch(requests));
+  }
+
+  @Operation(summary = "Get the step cost cache statistics")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Cache statistics",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = StepCostCacheResponseDto.class)))
+  })
+  @GetMapping("/cache")
+  public ResponseEntity<ApiResponseDto<StepCostCacheResponseDto>> getCacheStats() {
+    log.debug("REST request to get step cost cache statistics");
+    return ResponseEntity.ok(service.getCacheStats());
+  }
 }
@@ -1,7 +1,10 @@
 package com.mattelogic.inchfab.core.controller;
 
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
+import com.mattelogic.inchfab.core.dtos.request.ProjectPageRequestDto;
 import com.mattelogic.inchfab.core.dtos.request.ProjectRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.StepPatchRequestDto;
+import com.mattelogic.inchfab.core.dtos.response.ProjectPageResponseDto;
 import com.mattelogic.inchfab.core.dtos.response.ProjectResponseDto;
 import com.mattelogic.inchfab.core.service.GenericService;
 import com.mattelogic.inchfab.core.service.ProjectServiceImpl;
@@ -16,10 +19,13 @@ import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -37,7 +43,8 @@ public class ProjectController {
 
   private final GenericService<ProjectResponseDto, ProjectRequestDto> projectService;
 
-  @Operation(summary = "Get all projects")
+  @Operation(summary = "Get all projects", deprecated = true,
+      description = "Loads every project with its steps; list /summaries page by page instead")
   @ApiResponse(
       responseCode = "200",
       description = "Found all projects",
@@ -50,6 +57,21 @@ public class ProjectController {
     return ResponseEntity.ok(projectService.all());
   }
 
+  @Operation(summary = "List project summaries, one page at a time")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Found a page of projects",
+          content = @Content(mediaType = "application/json",
+              schema = @Schema(implementation = ProjectPageResponseDto.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid filter, limit or cursor")
+  })
+  @GetMapping("/summaries")
+  public ResponseEntity<ApiResponseDto<ProjectPageResponseDto>> getSummaries(
+      @ParameterObject @Valid ProjectPageRequestDto request
+  ) {
+    log.debug("REST request to get a page of Projects : {}", request);
+    return ResponseEntity.ok(((ProjectServiceImpl) projectService).page(request));
+  }
+
   @Operation(summary = "Get a project by id")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Found the project",
@@ -140,6 +162,25 @@ public class ProjectController {
     return ResponseEntity.ok(projectService.update(id, request));
   }
 
+  @Operation(summary = "Edit the steps of a project with JSON Patch operations")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Project steps updated successfully"),
+      @ApiResponse(responseCode = "400", description = "Invalid patch operation"),
+      @ApiResponse(responseCode = "404", description = "Project not found")
+  })
+  @PatchMapping(value = "/{id}/steps",
+      consumes = {"application/json-patch+json", MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<ApiResponseDto<ProjectResponseDto>> patchSteps(
+      @Parameter(description = "id of project to be updated")
+      @PathVariable Long id,
+      @Parameter(description = "RFC 6902 add, replace, remove and move operations on the steps",
+          required = true)
+      @Valid @RequestBody List<@Valid StepPatchRequestDto> operations
+  ) {
+    log.debug("REST request to patch steps of Project : {}, {}", id, operations);
+    return ResponseEntity.ok(((ProjectServiceImpl) projectService).patchSteps(id, operations));
+  }
+
   @Operation(summary = "Delete a project")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "204", description = "Project deleted successfully"),
@@ -0,0 +1,23 @@
+package com.mattelogic.inchfab.core.dtos.request;
+
+import com.mattelogic.inchfab.core.model.ProjectStep;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * A project to price at several wafer counts, given either as a list or as a range from
+ * {@code waferSizeFrom} to {@code waferSizeTo} inclusive in increments of {@code waferSizeStep}
+ * (1 by default).
+ */
+public record CostCurveRequestDto(
+    String substrateType,
+    List<Integer> waferSizes,
+    Integer waferSizeFrom,
+    Integer waferSizeTo,
+    Integer waferSizeStep,
+
+    @NotEmpty(message = "Project steps are required")
+    List<ProjectStep> projectSteps
+) {
+
+}
@@ -0,0 +1,37 @@
+package com.mattelogic.inchfab.core.dtos.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Distribution of one uncertain parameter of a simulation. The parameter names a plan term, such
+ * as {@code thickness}, {@code depth}, {@code recipe.etchRate} or {@code stepTime}, which covers
+ * every {@code stepTime.*} term. A normal distribution uses {@code mean} and {@code stdDev}, a
+ * uniform one {@code min} and {@code max} and a triangular one {@code min}, {@code mode} and
+ * {@code max}. If {@code relative} is set, the sampled values are factors of the nominal value.
+ *
+ * @param sequenceId the step the distribution applies to, every step if {@code null}
+ */
+public record ParameterDistributionDto(
+    @NotBlank(message = "Parameter is required")
+    String parameter,
+
+    Long sequenceId,
+
+    @NotNull(message = "Distribution type is required")
+    Type type,
+
+    Boolean relative,
+    Double mean,
+    Double stdDev,
+    Double min,
+    Double mode,
+    Double max
+) {
+
+  public enum Type {
+    NORMAL,
+    UNIFORM,
+    TRIANGULAR
+  }
+}
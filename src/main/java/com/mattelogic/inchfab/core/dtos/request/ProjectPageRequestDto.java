@@ -0,0 +1,54 @@
+package com.mattelogic.inchfab.core.dtos.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.time.LocalDateTime;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * Filters, order and position of one page of the project listing. A filter left {@code null}
+ * matches every project. Projects with equal sort values are ordered by id.
+ *
+ * @param createdFrom the earliest creation time, inclusive
+ * @param createdTo   the latest creation time, exclusive
+ * @param namePrefix  the start of the project name, ignoring case
+ * @param sort        the sort value, the creation time if {@code null}
+ * @param direction   the sort direction, descending if {@code null}
+ * @param cursor      the {@code nextCursor} of the previous page, the first page if {@code null}
+ * @param limit       the page size, 20 if {@code null}
+ */
+public record ProjectPageRequestDto(
+    Long companyId,
+    Boolean status,
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    LocalDateTime createdFrom,
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    LocalDateTime createdTo,
+
+    String namePrefix,
+    SortField sort,
+    Sort.Direction direction,
+    String cursor,
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 100, message = "Limit must be at most 100")
+    Integer limit
+) {
+
+  private static final int DEFAULT_LIMIT = 20;
+
+  public ProjectPageRequestDto {
+    sort = sort != null ? sort : SortField.CREATED;
+    direction = direction != null ? direction : Sort.Direction.DESC;
+    limit = limit != null ? limit : DEFAULT_LIMIT;
+  }
+
+  public enum SortField {
+    CREATED,
+    UPDATED,
+    TOTAL_COST
+  }
+}
@@ -0,0 +1,13 @@
+package com.mattelogic.inchfab.core.dtos.request;
+
+import java.util.Map;
+
+/**
+ * Rates replacing the ones of a decomposition, by rate key. Rates not listed keep their value.
+ */
+public record RateScenarioRequestDto(
+    String name,
+    Map<String, Double> rates
+) {
+
+}
@@ -0,0 +1,22 @@
+package com.mattelogic.inchfab.core.dtos.request;
+
+import com.mattelogic.inchfab.core.dtos.response.RateQuantityResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * A decomposition as returned by the decompose endpoint, to price under each scenario.
+ */
+public record RepriceRequestDto(
+    @NotNull(message = "Fixed costs are required")
+    ResultResponseDto fixedCosts,
+
+    List<RateQuantityResponseDto> quantities,
+
+    @NotEmpty(message = "Scenarios are required")
+    List<RateScenarioRequestDto> scenarios
+) {
+
+}
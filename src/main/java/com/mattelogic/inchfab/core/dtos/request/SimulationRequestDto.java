@@ -0,0 +1,33 @@
+package com.mattelogic.inchfab.core.dtos.request;
+
+import com.mattelogic.inchfab.core.model.ProjectStep;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * A project to simulate with some of its parameters drawn from distributions.
+ *
+ * @param samples     the number of samples, the configured default if {@code null}
+ * @param seed        the seed, for reproducible results; random if {@code null}
+ * @param percentiles the percentiles to report, 5, 50 and 95 if {@code null}
+ */
+public record SimulationRequestDto(
+    String substrateType,
+
+    @NotNull(message = "Wafer size is required")
+    Integer waferSize,
+
+    @NotEmpty(message = "Project steps are required")
+    List<ProjectStep> projectSteps,
+
+    @NotEmpty(message = "Parameters are required")
+    List<@Valid ParameterDistributionDto> parameters,
+
+    Integer samples,
+    Long seed,
+    List<Double> percentiles
+) {
+
+}
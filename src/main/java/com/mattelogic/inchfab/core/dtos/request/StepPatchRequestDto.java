@@ -0,0 +1,22 @@
+package com.mattelogic.inchfab.core.dtos.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * One RFC 6902 operation on the steps of a project. Paths are JSON pointers into the step array,
+ * e.g. {@code /2} for the third step or {@code /2/depth} for one of its fields.
+ */
+public record StepPatchRequestDto(
+
+    @NotBlank(message = "Operation is required")
+    String op,
+
+    @NotBlank(message = "Path is required")
+    String path,
+
+    String from,
+    JsonNode value
+) {
+
+}
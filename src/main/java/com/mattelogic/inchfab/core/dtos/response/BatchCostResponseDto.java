@@ -0,0 +1,13 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+import java.util.List;
+
+public record BatchCostResponseDto(
+    Integer requests,
+    Integer succeeded,
+    Integer failed,
+    Integer uniqueSteps,
+    List<BatchItemResponseDto> items
+) {
+
+}
@@ -0,0 +1,13 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResponseDto(
+    Integer index,
+    Integer status,
+    String error,
+    ResultResponseDto result
+) {
+
+}
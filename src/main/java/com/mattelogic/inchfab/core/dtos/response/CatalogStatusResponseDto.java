@@ -0,0 +1,15 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import java.time.Instant;
+import java.util.Map;
+
+public record CatalogStatusResponseDto(
+    Long generation,
+    Instant loadedAt,
+    Long reloadLatencyMs,
+    String watchMode,
+    Map<CatalogCollection, Integer> documentCounts
+) {
+
+}
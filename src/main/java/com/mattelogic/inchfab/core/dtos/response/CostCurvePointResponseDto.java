@@ -0,0 +1,10 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+public record CostCurvePointResponseDto(
+    Integer waferSize,
+    Double totalCost,
+    Double costPerWafer,
+    ResultResponseDto result
+) {
+
+}
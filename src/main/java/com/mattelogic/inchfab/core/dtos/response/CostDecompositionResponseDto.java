@@ -0,0 +1,15 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+import java.util.List;
+
+/**
+ * Costs of a project as {@code total = fixedCosts + sum(quantity * rate)}. Posted back with
+ * alternate rates, the fixed costs and quantities reprice the project without recalculating it.
+ */
+public record CostDecompositionResponseDto(
+    ResultResponseDto fixedCosts,
+    List<RateQuantityResponseDto> quantities,
+    ResultResponseDto total
+) {
+
+}
@@ -0,0 +1,12 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+import com.mattelogic.inchfab.base.catalog.CatalogIndexManager.PipelineExplanation;
+import java.util.List;
+
+public record IndexDiagnosticsResponseDto(
+    Integer pipelines,
+    Integer collectionScans,
+    List<PipelineExplanation> explanations
+) {
+
+}
@@ -0,0 +1,15 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+import java.util.List;
+
+/**
+ * A calculation over the steps that completed, with the error of every step that did not.
+ */
+public record PartialCostResponseDto(
+    Integer completedSteps,
+    Integer failedSteps,
+    ResultResponseDto result,
+    List<StepErrorResponseDto> errors
+) {
+
+}
@@ -0,0 +1,8 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+public record PercentileResponseDto(
+    Double percentile,
+    ResultResponseDto result
+) {
+
+}
@@ -0,0 +1,13 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+import java.util.List;
+
+/**
+ * @param nextCursor the cursor of the next page, {@code null} on the last page
+ */
+public record ProjectPageResponseDto(
+    List<ProjectSummaryResponseDto> items,
+    String nextCursor
+) {
+
+}
@@ -0,0 +1,23 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * A project in the project listing. It is selected column by column, so listing projects never
+ * reads their steps.
+ */
+public record ProjectSummaryResponseDto(
+    Long id,
+    Long companyId,
+    String name,
+    String requesterName,
+    String submitterName,
+    Integer waferSize,
+    String substrateType,
+    Boolean status,
+    Double totalCost,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+
+}
@@ -0,0 +1,13 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+/**
+ * The quantity of one rate, e.g. labor hours or liters of a gas, with the rate it is currently
+ * priced at. The quantity holds every component the rate enters.
+ */
+public record RateQuantityResponseDto(
+    String rateKey,
+    Double rate,
+    ResultResponseDto quantity
+) {
+
+}
@@ -0,0 +1,9 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+public record RateScenarioResponseDto(
+    String name,
+    Double totalCost,
+    ResultResponseDto result
+) {
+
+}
@@ -0,0 +1,20 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+import java.util.List;
+
+/**
+ * Summary of a cost simulation. Each statistic is taken per cost component, and the total cost of
+ * a statistic is taken over the sampled total costs.
+ *
+ * @param seed the seed the samples were drawn with, to reproduce them
+ */
+public record SimulationResponseDto(
+    Integer samples,
+    Long seed,
+    List<String> parameters,
+    ResultResponseDto mean,
+    ResultResponseDto stdDev,
+    List<PercentileResponseDto> percentiles
+) {
+
+}
@@ -0,0 +1,14 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+public record StepCostCacheResponseDto(
+    Boolean enabled,
+    Long hits,
+    Long misses,
+    Double hitRatio,
+    Long evictions,
+    Integer size,
+    Long weightBytes,
+    Long maxWeightBytes
+) {
+
+}
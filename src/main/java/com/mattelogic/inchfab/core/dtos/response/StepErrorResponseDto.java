@@ -0,0 +1,8 @@
+package com.mattelogic.inchfab.core.dtos.response;
+
+public record StepErrorResponseDto(
+    Long sequenceId,
+    String error
+) {
+
+}
@@ -2,15 +2,19 @@ package com.mattelogic.inchfab.core.entity;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.vladmihalcea.hibernate.type.json.JsonBinaryType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
@@ -20,7 +24,6 @@ import java.util.stream.Stream;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.Type;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Getter
@@ -30,6 +33,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 public class Project {
 
   private static final ObjectMapper objectMapper = new ObjectMapper();
+  private static final Pattern COPY_NAME_PATTERN =
+      Pattern.compile("^(.+?)(?:\\s+-\\s+Copy\\s+(\\d+))*$");
+  private static final Pattern COPY_SUFFIX_PATTERN = Pattern.compile("\\s+-\\s+Copy\\s+(\\d+)");
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -62,9 +68,26 @@ public class Project {
   private Double totalExternalProcessCost;
   private Double totalManuallyInputProcessCost;
   private Double totalSubstrateCost;
-  @Type(JsonBinaryType.class)
-  @Column(columnDefinition = "json")
+  /**
+   * The {@link #calculateTotalCost() sum of the cost totals}, stored on every save so the project
+   * listing can sort by it with an index.
+   */
+  private Double totalCost;
+  /**
+   * The stored steps, shared with every project that has the same steps. It is cleared when the
+   * steps are replaced and set again from the new steps when the project is saved. It is loaded
+   * lazily, so only the paths that load a project with its steps read them.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "step_list_hash")
+  private ProjectStepList stepList;
+  @Transient
   private JsonNode projectStep;
+  /**
+   * Fingerprint of the reference catalog the stored costs were calculated with, or {@code null}
+   * if they were not all calculated with the same one.
+   */
+  private String catalogFingerprint;
   private Boolean status;
   @Column(name = "created_at", nullable = false, updatable = false)
   @CreationTimestamp
@@ -72,6 +95,8 @@ public class Project {
   @Column(name = "updated_at", nullable = false)
   @UpdateTimestamp
   private LocalDateTime updatedAt;
+  @Version
+  private Long version;
 
   public static Project create(
       Company company,
@@ -109,9 +134,7 @@ public class Project {
     return project;
   }
 
-  public static Project copyFrom(Project project, List<Project> existingProjects) {
-    String newName = generateCopyName(project.getName(), existingProjects);
-
+  public static Project copyFrom(Project project, String name) {
     Project copiedProject = new Project();
     copiedProject.setCompany(project.getCompany());
     copiedProject.setRequesterId(project.getRequesterId());
@@ -121,7 +144,7 @@ public class Project {
     copiedProject.setRootFolderId(project.getRootFolderId());
     copiedProject.setProjectFolderId(project.getProjectFolderId());
     copiedProject.setUploadFile(project.getUploadFile());
-    copiedProject.setName(newName);
+    copiedProject.setName(name);
     copiedProject.setWaferSize(project.getWaferSize());
     copiedProject.setSubstrateType(project.getSubstrateType());
     copiedProject.setStatus(false);
@@ -140,46 +163,61 @@ public class Project {
     copiedProject.setTotalExternalProcessCost(project.getTotalExternalProcessCost());
     copiedProject.setTotalManuallyInputProcessCost(project.getTotalManuallyInputProcessCost());
     copiedProject.setTotalSubstrateCost(project.getTotalSubstrateCost());
+    copiedProject.setCatalogFingerprint(project.getCatalogFingerprint());
     copiedProject.setCreatedAt(null);
     copiedProject.setUpdatedAt(null);
-    copiedProject.setProjectStep(
-        project.getProjectStep() == null || project.getProjectStep().isEmpty()
-            ? objectMapper.createArrayNode()
-            : project.getProjectStep());
+    if (project.getProjectStep() == null || project.getProjectStep().isEmpty()) {
+      copiedProject.setProjectStep(objectMapper.createArrayNode());
+    } else if (project.getStepList() != null) {
+      copiedProject.setStepList(project.getStepList());
+    } else {
+      copiedProject.setProjectStep(project.getProjectStep());
+    }
 
     return copiedProject;
   }
 
-  private static String generateCopyName(String originalName, List<Project> existingProjects) {
-    Pattern copyPattern = Pattern.compile("^(.+?)(?:\\s+-\\s+Copy\\s+(\\d+))*$");
-    Matcher matcher = copyPattern.matcher(originalName);
-
-    if (!matcher.matches()) {
-      return originalName + " - Copy 1";
-    }
-
-    String baseName = matcher.group(1);
+  /**
+   * @return the name without its trailing {@code - Copy N} suffixes, which the names of all copies
+   * of the project start with
+   */
+  public static String copyBaseName(String name) {
+    Matcher matcher = COPY_NAME_PATTERN.matcher(name);
+    return matcher.matches() ? matcher.group(1) : name;
+  }
 
-    int highestCopyNumber = existingProjects.stream()
-        .map(Project::getName)
+  /**
+   * @param baseName the base name of the copied project
+   * @param names    the project names that start with the base name
+   * @return the base name with the copy number after the highest among the names
+   */
+  public static String nextCopyName(String baseName, List<String> names) {
+    int highestCopyNumber = names.stream()
         .filter(name -> name.startsWith(baseName))
-        .map(name -> {
-          Pattern numberPattern = Pattern.compile(
-              Pattern.quote(baseName) + "\\s+-\\s+Copy\\s+(\\d+)$");
-          Matcher m = numberPattern.matcher(name);
-          if (!m.matches()) {
-            return 0;
-          }
-          return Integer.parseInt(m.group(1));
-        })
-        .max(Integer::compareTo)
+        .map(name -> COPY_SUFFIX_PATTERN.matcher(name.substring(baseName.length())))
+        .filter(Matcher::matches)
+        .mapToInt(matcher -> Integer.parseInt(matcher.group(1)))
+        .max()
         .orElse(0);
 
     return baseName + " - Copy " + (highestCopyNumber + 1);
   }
 
+  /**
+   * @return the steps, which are shared with other projects while they are stored ones; replace
+   * them with {@link #setProjectStep(JsonNode)} rather than modifying them in place
+   */
+  public JsonNode getProjectStep() {
+    return projectStep == null && stepList != null ? stepList.getSteps() : projectStep;
+  }
+
+  public void setProjectStep(JsonNode projectStep) {
+    this.projectStep = projectStep;
+    this.stepList = null;
+  }
+
   public void clearProjectStep() {
-    this.projectStep = null;
+    setProjectStep(null);
   }
 
   public Double calculateTotalCost() {
@@ -199,4 +237,10 @@ public class Project {
         .filter(Objects::nonNull)
         .reduce(0.0, Double::sum);
   }
+
+  @PrePersist
+  @PreUpdate
+  void updateTotalCost() {
+    totalCost = calculateTotalCost();
+  }
 }
\ No newline at end of file
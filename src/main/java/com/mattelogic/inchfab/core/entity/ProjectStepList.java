@@ -0,0 +1,62 @@
+package com.mattelogic.inchfab.core.entity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.hypersistence.utils.hibernate.type.json.JsonBinaryType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Type;
+
+/**
+ * The steps of one or more projects, stored once per distinct content under the SHA-256 of their
+ * JSON. Projects with the same steps, such as a copy and its source, reference the same row; a
+ * project whose steps are edited references a new one. A row is never updated, so sharing it is
+ * safe.
+ */
+@Getter
+@Entity
+@Immutable
+@BatchSize(size = 32)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "project_step_lists")
+public class ProjectStepList {
+
+  @Id
+  @Column(length = 64)
+  private String hash;
+  @Type(JsonBinaryType.class)
+  @Column(columnDefinition = "json", nullable = false)
+  private JsonNode steps;
+
+  private ProjectStepList(String hash, JsonNode steps) {
+    this.hash = hash;
+    this.steps = steps;
+  }
+
+  public static ProjectStepList of(JsonNode steps) {
+    return new ProjectStepList(hash(steps), steps);
+  }
+
+  /**
+   * @return the SHA-256 of the compact JSON of the steps, as hex
+   */
+  public static String hash(JsonNode steps) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(
+          digest.digest(steps.toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
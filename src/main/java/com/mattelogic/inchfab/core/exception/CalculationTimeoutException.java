@@ -0,0 +1,8 @@
+package com.mattelogic.inchfab.core.exception;
+
+public class CalculationTimeoutException extends RuntimeException {
+
+  public CalculationTimeoutException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.mattelogic.inchfab.core.exception;
+
+public class ProjectModifiedException extends RuntimeException {
+
+  public ProjectModifiedException(Long id, Throwable cause) {
+    super(String.format("Project with ID %d was modified by another request", id), cause);
+  }
+}
@@ -57,6 +57,17 @@ public class ProjectMapper {
   }
 
   public ProjectResponseDto toResponseDto(Project project) {
+    return toResponseDto(project, true);
+  }
+
+  /**
+   * Maps a project without its steps, so that they are never loaded.
+   */
+  public ProjectResponseDto toResponseDtoWithoutProjectStep(Project project) {
+    return toResponseDto(project, false);
+  }
+
+  private ProjectResponseDto toResponseDto(Project project, boolean withProjectStep) {
     return Optional.ofNullable(project)
         .map(p -> new ProjectResponseDto(
             p.getId(),
@@ -87,7 +98,7 @@ public class ProjectMapper {
             p.getTotalSubstrateCost(),
             p.calculateTotalCost(),
             p.getStatus(),
-            p.getProjectStep(),
+            withProjectStep ? p.getProjectStep() : null,
             p.getCreatedAt(),
             p.getUpdatedAt()
         ))
@@ -0,0 +1,44 @@
+package com.mattelogic.inchfab.core.model;
+
+import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto.ResultResponseDtoBuilder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Components of a {@link CostVector}, in the order the total cost sums them. Each component maps
+ * to one field of the REST result.
+ */
+public enum CostComponent {
+  LABOR_TIME(ResultResponseDtoBuilder::laborTime, ResultResponseDto::laborTime),
+  PERIODIC_COST(ResultResponseDtoBuilder::periodicCost, ResultResponseDto::periodicCost),
+  POWER(ResultResponseDtoBuilder::power, ResultResponseDto::power),
+  GAS(ResultResponseDtoBuilder::gas, ResultResponseDto::gas),
+  TARGET_MATERIAL(ResultResponseDtoBuilder::targetMaterial, ResultResponseDto::targetMaterial),
+  WET_ETCHANT(ResultResponseDtoBuilder::wetEtchant, ResultResponseDto::wetEtchant),
+  LITHOGRAPHY_REAGENT(ResultResponseDtoBuilder::lithographyReagent,
+      ResultResponseDto::lithographyReagent),
+  METROLOGY_INSPECTION_COST(ResultResponseDtoBuilder::metrologyInspectionCost,
+      ResultResponseDto::metrologyInspectionCost),
+  EXTERNAL_COST(ResultResponseDtoBuilder::externalCost, ResultResponseDto::externalCost),
+  MANUAL_COST(ResultResponseDtoBuilder::manualCost, ResultResponseDto::manualCost),
+  SUBSTRATE_COST(ResultResponseDtoBuilder::substrateCost, ResultResponseDto::substrateCost),
+  TOTAL_TIME(ResultResponseDtoBuilder::totalTime, ResultResponseDto::totalTime);
+
+  private final BiConsumer<ResultResponseDtoBuilder, Double> setter;
+  private final Function<ResultResponseDto, Double> getter;
+
+  CostComponent(BiConsumer<ResultResponseDtoBuilder, Double> setter,
+      Function<ResultResponseDto, Double> getter) {
+    this.setter = setter;
+    this.getter = getter;
+  }
+
+  void writeTo(ResultResponseDtoBuilder builder, double value) {
+    setter.accept(builder, value);
+  }
+
+  Double readFrom(ResultResponseDto response) {
+    return getter.apply(response);
+  }
+}
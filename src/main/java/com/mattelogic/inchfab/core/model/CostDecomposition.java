@@ -0,0 +1,92 @@
+package com.mattelogic.inchfab.core.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Costs split into a price-independent quantity per rate and a fixed remainder, so that
+ * {@code cost = fixed + sum(quantity * rate)} for every component.
+ * <p>
+ * A rate is a unit price read from the catalog, such as the labor cost per hour, the electricity
+ * cost per kWh or the price of a gas, keyed by a name like {@code laborCost} or {@code gasPrice.Ar}.
+ * The quantity of a rate is a vector, since in general a rate could enter several components.
+ * Repricing under other rates is then plain arithmetic, without recalculating any step.
+ */
+public final class CostDecomposition {
+
+  private final CostVector fixed;
+  private final Map<String, CostVector> quantities = new LinkedHashMap<>();
+  private final Map<String, Double> rates = new LinkedHashMap<>();
+
+  public CostDecomposition(CostVector fixed) {
+    this.fixed = fixed;
+  }
+
+  /**
+   * Sums the decompositions of several steps.
+   */
+  public static CostDecomposition sum(String processName, Iterable<CostDecomposition> parts) {
+    CostDecomposition sum = new CostDecomposition(new CostVector(processName));
+    for (CostDecomposition part : parts) {
+      sum.fixed.add(part.fixed);
+      part.quantities.forEach((rateKey, quantity) ->
+          sum.addQuantity(rateKey, part.rates.get(rateKey), quantity));
+    }
+    return sum;
+  }
+
+  public CostVector getFixed() {
+    return fixed;
+  }
+
+  public Map<String, CostVector> getQuantities() {
+    return Collections.unmodifiableMap(quantities);
+  }
+
+  public Map<String, Double> getRates() {
+    return Collections.unmodifiableMap(rates);
+  }
+
+  /**
+   * Adds a quantity of a rate, summing it with any quantity of the same rate.
+   */
+  public CostDecomposition addQuantity(String rateKey, double rate, CostVector quantity) {
+    quantities.computeIfAbsent(rateKey, key -> new CostVector(key)).add(quantity);
+    rates.put(rateKey, rate);
+    return this;
+  }
+
+  /**
+   * Moves a fixed component into the quantity of a rate, e.g. labor hours priced by the labor
+   * cost.
+   */
+  public CostDecomposition extract(CostComponent component, String rateKey, double rate) {
+    addQuantity(rateKey, rate, new CostVector(rateKey).set(component, fixed.get(component)));
+    fixed.set(component, 0.0);
+    return this;
+  }
+
+  /**
+   * Scales one component of the fixed costs and of every quantity, e.g. a per-wafer cost by the
+   * wafer count.
+   */
+  public CostDecomposition scale(CostComponent component, double factor) {
+    fixed.scale(component, factor);
+    quantities.values().forEach(quantity -> quantity.scale(component, factor));
+    return this;
+  }
+
+  /**
+   * Prices the quantities.
+   *
+   * @param overrides rates replacing the current ones, by rate key
+   * @return the costs, named as the fixed costs
+   */
+  public CostVector price(Map<String, Double> overrides) {
+    CostVector costs = fixed.copy();
+    quantities.forEach((rateKey, quantity) ->
+        costs.addScaled(quantity, overrides.getOrDefault(rateKey, rates.get(rateKey))));
+    return costs;
+  }
+}
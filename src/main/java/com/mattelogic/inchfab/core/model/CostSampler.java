@@ -0,0 +1,39 @@
+package com.mattelogic.inchfab.core.model;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Draws the costs of one step with some of its parameters sampled from distributions. A sampler
+ * holds everything it needs in memory and is safe to call from several threads, each with its
+ * own random stream.
+ */
+public interface CostSampler {
+
+  /**
+   * @return the costs of one sample; callers must not modify it
+   */
+  CostVector sample(SplittableRandom random);
+
+  /**
+   * @return the names of the distributions this sampler draws from
+   */
+  Set<String> parameters();
+
+  /**
+   * @return a sampler that always returns the given costs
+   */
+  static CostSampler fixed(CostVector costs) {
+    return new CostSampler() {
+      @Override
+      public CostVector sample(SplittableRandom random) {
+        return costs;
+      }
+
+      @Override
+      public Set<String> parameters() {
+        return Set.of();
+      }
+    };
+  }
+}
@@ -0,0 +1,179 @@
+package com.mattelogic.inchfab.core.model;
+
+import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Costs of one process step, or the sum of several, as one primitive value per
+ * {@link CostComponent}.
+ * <p>
+ * This is the internal form of a result: the calculation services produce it and the calculator
+ * aggregates it in place. It is only converted to a {@link ResultResponseDto} at the REST
+ * boundary. A component a step never set is absent and stays {@code null} in the response, as a
+ * builder field that was never called would.
+ */
+public final class CostVector {
+
+  private static final CostComponent[] COMPONENTS = CostComponent.values();
+
+  private final String processName;
+  private final double[] values = new double[COMPONENTS.length];
+  private int present;
+
+  public CostVector(String processName) {
+    this.processName = processName;
+  }
+
+  /**
+   * Sums the vectors component by component in one pass over them. Every component of the sum is
+   * present; the components are summed with compensation, as {@code DoubleStream.sum()} does. Zero
+   * values are skipped, so a component stored as {@code 0.0} sums exactly as an absent one.
+   *
+   * @param processName the name of the sum
+   * @param vectors     the vectors to sum
+   * @return a new vector
+   */
+  public static CostVector sum(String processName, List<CostVector> vectors) {
+    double[] compensations = new double[COMPONENTS.length];
+    double[] simpleSums = new double[COMPONENTS.length];
+    CostVector sum = new CostVector(processName);
+    for (CostVector vector : vectors) {
+      for (int i = 0; i < COMPONENTS.length; i++) {
+        double value = vector.values[i];
+        if ((vector.present & 1 << i) != 0 && value != 0.0) {
+          simpleSums[i] += value;
+          double corrected = value - compensations[i];
+          double next = sum.values[i] + corrected;
+          compensations[i] = (next - sum.values[i]) - corrected;
+          sum.values[i] = next;
+        }
+      }
+    }
+    for (int i = 0; i < COMPONENTS.length; i++) {
+      double total = sum.values[i] - compensations[i];
+      sum.values[i] = Double.isNaN(total) && Double.isInfinite(simpleSums[i])
+          ? simpleSums[i]
+          : total;
+    }
+    sum.present = (1 << COMPONENTS.length) - 1;
+    return sum;
+  }
+
+  /**
+   * Reads a vector back from a result, e.g. the cost details stored with a project step. Every
+   * non-null field is present.
+   */
+  public static CostVector fromResponse(ResultResponseDto response) {
+    CostVector vector = new CostVector(response.processName());
+    for (CostComponent component : COMPONENTS) {
+      Double value = component.readFrom(response);
+      if (value != null) {
+        vector.set(component, value);
+      }
+    }
+    return vector;
+  }
+
+  /**
+   * @return a new vector with the same name, values and present components
+   */
+  public CostVector copy() {
+    CostVector copy = new CostVector(processName);
+    System.arraycopy(values, 0, copy.values, 0, values.length);
+    copy.present = present;
+    return copy;
+  }
+
+  public String getProcessName() {
+    return processName;
+  }
+
+  public boolean has(CostComponent component) {
+    return (present & bit(component)) != 0;
+  }
+
+  /**
+   * @return the value of the component, {@code 0.0} if it is absent
+   */
+  public double get(CostComponent component) {
+    return values[component.ordinal()];
+  }
+
+  public CostVector set(CostComponent component, double value) {
+    values[component.ordinal()] = value;
+    present |= bit(component);
+    return this;
+  }
+
+  /**
+   * Adds another vector to this one in place. A component present in either vector is present in
+   * the result.
+   */
+  public CostVector add(CostVector other) {
+    for (int i = 0; i < COMPONENTS.length; i++) {
+      values[i] += other.values[i];
+    }
+    present |= other.present;
+    return this;
+  }
+
+  /**
+   * Adds another vector times a factor to this one in place, e.g. a quantity times its rate.
+   */
+  public CostVector addScaled(CostVector other, double factor) {
+    for (int i = 0; i < COMPONENTS.length; i++) {
+      values[i] += other.values[i] * factor;
+    }
+    present |= other.present;
+    return this;
+  }
+
+  /**
+   * @return the sum of every cost component, which excludes the total time
+   */
+  public double totalCost() {
+    double totalCost = 0.0;
+    for (CostComponent component : COMPONENTS) {
+      if (component != CostComponent.TOTAL_TIME) {
+        totalCost += get(component);
+      }
+    }
+    return totalCost;
+  }
+
+  /**
+   * Scales one component in place, e.g. hours by an hourly rate.
+   */
+  public CostVector scale(CostComponent component, double factor) {
+    values[component.ordinal()] *= factor;
+    return this;
+  }
+
+  /**
+   * @return a builder with the process name and every present component set
+   */
+  public ResultResponseDto.ResultResponseDtoBuilder toResponseBuilder() {
+    ResultResponseDto.ResultResponseDtoBuilder builder =
+        ResultResponseDto.builder().processName(processName);
+    for (int i = 0; i < COMPONENTS.length; i++) {
+      if ((present & 1 << i) != 0) {
+        COMPONENTS[i].writeTo(builder, values[i]);
+      }
+    }
+    return builder;
+  }
+
+  public ResultResponseDto toResponse() {
+    return toResponseBuilder().build();
+  }
+
+  @Override
+  public String toString() {
+    return "CostVector[" + processName + ", " + Arrays.toString(values) + "]";
+  }
+
+  private static int bit(CostComponent component) {
+    return 1 << component.ordinal();
+  }
+}
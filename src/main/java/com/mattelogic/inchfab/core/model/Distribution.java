@@ -0,0 +1,77 @@
+package com.mattelogic.inchfab.core.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribution of an uncertain parameter, such as an etch rate or a step time, sampled in a cost
+ * simulation.
+ */
+public sealed interface Distribution {
+
+  /**
+   * Draws one value.
+   *
+   * @param nominal the value the calculation would use, which relative distributions scale
+   * @param random  the random stream of the calling task
+   * @return the sampled value
+   */
+  double sample(double nominal, SplittableRandom random);
+
+  record Normal(double mean, double stdDev) implements Distribution {
+
+    public Normal {
+      if (!(stdDev >= 0.0)) {
+        throw new IllegalArgumentException("Standard deviation must not be negative");
+      }
+    }
+
+    @Override
+    public double sample(double nominal, SplittableRandom random) {
+      return mean + stdDev * random.nextGaussian();
+    }
+  }
+
+  record Uniform(double min, double max) implements Distribution {
+
+    public Uniform {
+      if (!(min <= max)) {
+        throw new IllegalArgumentException("Minimum must not exceed maximum");
+      }
+    }
+
+    @Override
+    public double sample(double nominal, SplittableRandom random) {
+      return min + (max - min) * random.nextDouble();
+    }
+  }
+
+  record Triangular(double min, double mode, double max) implements Distribution {
+
+    public Triangular {
+      if (!(min <= mode && mode <= max)) {
+        throw new IllegalArgumentException("Mode must lie between minimum and maximum");
+      }
+    }
+
+    @Override
+    public double sample(double nominal, SplittableRandom random) {
+      double u = random.nextDouble();
+      double range = max - min;
+      return u * range < mode - min
+          ? min + Math.sqrt(u * range * (mode - min))
+          : max - Math.sqrt((1.0 - u) * range * (max - mode));
+    }
+  }
+
+  /**
+   * A distribution of factors applied to the nominal value, e.g. a normal distribution with mean
+   * 1 and standard deviation 0.05 for a drift of 5%.
+   */
+  record Relative(Distribution factor) implements Distribution {
+
+    @Override
+    public double sample(double nominal, SplittableRandom random) {
+      return nominal * factor.sample(nominal, random);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.mattelogic.inchfab.core.model;
+
+import com.mattelogic.inchfab.core.dtos.request.ProjectPageRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.ProjectPageRequestDto.SortField;
+import com.mattelogic.inchfab.core.dtos.response.ProjectSummaryResponseDto;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the project listing: the sort value and id of the last project of a page. The next
+ * page starts after it, so inserts and deletes before the position do not shift later pages.
+ * <p>
+ * Clients get it as an opaque token that also records the order it was taken in.
+ *
+ * @param key the sort value, a {@link LocalDateTime} or, for the total cost, a {@link Double}
+ */
+public record ProjectCursor(Comparable<?> key, long id) {
+
+  private static final String SEPARATOR = ",";
+
+  public static ProjectCursor after(ProjectSummaryResponseDto project, SortField sort) {
+    Comparable<?> key = switch (sort) {
+      case CREATED -> project.createdAt();
+      case UPDATED -> project.updatedAt();
+      case TOTAL_COST -> project.totalCost();
+    };
+    return new ProjectCursor(key, project.id());
+  }
+
+  /**
+   * @throws IllegalArgumentException if the token is malformed or was taken in another order
+   */
+  public static ProjectCursor decode(String token, ProjectPageRequestDto request) {
+    String[] parts;
+    try {
+      parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+          .split(SEPARATOR, -1);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Malformed cursor", e);
+    }
+    if (parts.length != 4) {
+      throw new IllegalArgumentException("Malformed cursor");
+    }
+    if (!parts[0].equals(request.sort().name()) || !parts[1].equals(request.direction().name())) {
+      throw new IllegalArgumentException(
+          "Cursor was taken with sort " + parts[0] + " " + parts[1]);
+    }
+    try {
+      Comparable<?> key = request.sort() == SortField.TOTAL_COST
+          ? Double.valueOf(parts[2])
+          : LocalDateTime.parse(parts[2]);
+      return new ProjectCursor(key, Long.parseLong(parts[3]));
+    } catch (NumberFormatException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Malformed cursor", e);
+    }
+  }
+
+  public String encode(ProjectPageRequestDto request) {
+    String value = String.join(SEPARATOR, request.sort().name(), request.direction().name(),
+        key.toString(), Long.toString(id));
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -1,13 +1,47 @@
 package com.mattelogic.inchfab.core.repository;
 
 import com.mattelogic.inchfab.core.entity.Project;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ProjectRepository extends JpaRepository<Project, Long> {
+public interface ProjectRepository extends JpaRepository<Project, Long>,
+    ProjectSummaryRepository {
+
+  /**
+   * Loads a project with its steps, which {@link #findById} leaves to be loaded lazily.
+   */
+  @EntityGraph(attributePaths = "stepList")
+  Optional<Project> findWithStepsById(Long id);
+
+  @EntityGraph(attributePaths = "stepList")
+  @Query("SELECT p FROM Project p")
+  List<Project> findAllWithSteps();
+
+  /**
+   * Looks the names up through the pattern operator class index on the name. Wildcards in the
+   * prefix match literally, so the lookup stays a range scan of the names with that prefix.
+   */
+  default List<String> findNamesStartingWith(String prefix) {
+    return findNamesLike(ProjectSummaryRepositoryImpl.escapeLike(prefix) + "%");
+  }
+
+  @Query("SELECT p.name FROM Project p WHERE p.name LIKE :pattern ESCAPE '\\'")
+  List<String> findNamesLike(@Param("pattern") String pattern);
+
+  /**
+   * Locks the copy names of a project until the transaction ends, so that concurrent copies of it
+   * look the names up one after the other. Project names are not unique, so nothing else would
+   * keep two copies from taking the same name.
+   */
+  @Query(value = "SELECT pg_advisory_xact_lock(hashtext(:baseName))", nativeQuery = true)
+  void lockCopyNames(@Param("baseName") String baseName);
 
   @Modifying
   @Query(
@@ -0,0 +1,45 @@
+package com.mattelogic.inchfab.core.repository;
+
+import com.mattelogic.inchfab.core.entity.ProjectStepList;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProjectStepListRepository extends JpaRepository<ProjectStepList, String> {
+
+  /**
+   * Stores a step list unless one with the same hash exists. An existing row is locked until the
+   * transaction ends, so it cannot be released before the project referencing it is saved.
+   */
+  @Modifying
+  @Query(value = """
+      INSERT INTO project_step_lists (hash, steps) VALUES (:hash, CAST(:steps AS json))
+      ON CONFLICT (hash) DO UPDATE SET hash = EXCLUDED.hash
+      """, nativeQuery = true)
+  void insertIfAbsent(@Param("hash") String hash, @Param("steps") String steps);
+
+  /**
+   * Locks a step list until the transaction ends, so it cannot be released before the project
+   * referencing it is saved.
+   *
+   * @return the hash, or empty if no such step list exists any more
+   */
+  @Query(value = "SELECT hash FROM project_step_lists WHERE hash = :hash FOR SHARE",
+      nativeQuery = true)
+  Optional<String> lockByHash(@Param("hash") String hash);
+
+  /**
+   * Deletes a step list no project references any more. The foreign key from the projects rejects
+   * the delete if a project started referencing it concurrently.
+   */
+  @Modifying
+  @Query(value = """
+      DELETE FROM project_step_lists l WHERE l.hash = :hash
+      AND NOT EXISTS (SELECT 1 FROM projects p WHERE p.step_list_hash = l.hash)
+      """, nativeQuery = true)
+  void deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -0,0 +1,19 @@
+package com.mattelogic.inchfab.core.repository;
+
+import com.mattelogic.inchfab.core.dtos.request.ProjectPageRequestDto;
+import com.mattelogic.inchfab.core.dtos.response.ProjectSummaryResponseDto;
+import com.mattelogic.inchfab.core.model.ProjectCursor;
+import java.util.List;
+
+public interface ProjectSummaryRepository {
+
+  /**
+   * Selects the summaries of the projects that match the filters of the request, in its order,
+   * without reading their steps or loading their companies.
+   *
+   * @param after the position to start after, the start of the listing if {@code null}
+   * @param limit the maximum number of summaries
+   */
+  List<ProjectSummaryResponseDto> findSummaries(ProjectPageRequestDto request,
+      ProjectCursor after, int limit);
+}
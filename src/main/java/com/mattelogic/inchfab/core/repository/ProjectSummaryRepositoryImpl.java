@@ -0,0 +1,117 @@
+package com.mattelogic.inchfab.core.repository;
+
+import com.mattelogic.inchfab.core.dtos.request.ProjectPageRequestDto;
+import com.mattelogic.inchfab.core.dtos.response.ProjectSummaryResponseDto;
+import com.mattelogic.inchfab.core.entity.Project;
+import com.mattelogic.inchfab.core.model.ProjectCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+@RequiredArgsConstructor
+public class ProjectSummaryRepositoryImpl implements ProjectSummaryRepository {
+
+  private final EntityManager entityManager;
+
+  @Override
+  public List<ProjectSummaryResponseDto> findSummaries(ProjectPageRequestDto request,
+      ProjectCursor after, int limit) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<ProjectSummaryResponseDto> query =
+        cb.createQuery(ProjectSummaryResponseDto.class);
+    Root<Project> project = query.from(Project.class);
+    Path<Long> id = project.get("id");
+    Path<Long> companyId = project.get("company").get("id");
+    Path<Double> totalCost = project.get("totalCost");
+    boolean ascending = request.direction() == Sort.Direction.ASC;
+
+    List<Predicate> predicates = filters(cb, project, companyId, request);
+    if (after != null) {
+      predicates.add(switch (request.sort()) {
+        case CREATED -> startAfter(cb, project.get("createdAt"), (LocalDateTime) after.key(), id,
+            after.id(), ascending);
+        case UPDATED -> startAfter(cb, project.get("updatedAt"), (LocalDateTime) after.key(), id,
+            after.id(), ascending);
+        case TOTAL_COST -> startAfter(cb, totalCost, (Double) after.key(), id, after.id(),
+            ascending);
+      });
+    }
+    Expression<?> key = switch (request.sort()) {
+      case CREATED -> project.get("createdAt");
+      case UPDATED -> project.get("updatedAt");
+      case TOTAL_COST -> totalCost;
+    };
+
+    query
+        .select(cb.construct(ProjectSummaryResponseDto.class,
+            id,
+            companyId,
+            project.get("name"),
+            project.get("requesterName"),
+            project.get("submitterName"),
+            project.get("waferSize"),
+            project.get("substrateType"),
+            project.get("status"),
+            totalCost,
+            project.get("createdAt"),
+            project.get("updatedAt")))
+        .where(predicates.toArray(Predicate[]::new))
+        .orderBy(ascending
+            ? List.of(cb.asc(key), cb.asc(id))
+            : List.of(cb.desc(key), cb.desc(id)));
+
+    return entityManager.createQuery(query)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  private static List<Predicate> filters(CriteriaBuilder cb, Root<Project> project,
+      Path<Long> companyId, ProjectPageRequestDto request) {
+    List<Predicate> predicates = new ArrayList<>();
+    if (request.companyId() != null) {
+      predicates.add(cb.equal(companyId, request.companyId()));
+    }
+    if (request.status() != null) {
+      predicates.add(cb.equal(project.get("status"), request.status()));
+    }
+    if (request.createdFrom() != null) {
+      predicates.add(cb.greaterThanOrEqualTo(project.get("createdAt"), request.createdFrom()));
+    }
+    if (request.createdTo() != null) {
+      predicates.add(cb.lessThan(project.get("createdAt"), request.createdTo()));
+    }
+    if (request.namePrefix() != null && !request.namePrefix().isEmpty()) {
+      predicates.add(cb.like(cb.lower(project.get("name")),
+          escapeLike(request.namePrefix().toLowerCase()) + "%", '\\'));
+    }
+    return predicates;
+  }
+
+  /**
+   * Matches the rows after {@code (lastKey, lastId)} in {@code (key, id)} order.
+   */
+  private static <T extends Comparable<? super T>> Predicate startAfter(CriteriaBuilder cb,
+      Expression<T> key, T lastKey, Path<Long> id, long lastId, boolean ascending) {
+    return ascending
+        ? cb.or(cb.greaterThan(key, lastKey),
+            cb.and(cb.equal(key, lastKey), cb.greaterThan(id, lastId)))
+        : cb.or(cb.lessThan(key, lastKey),
+            cb.and(cb.equal(key, lastKey), cb.lessThan(id, lastId)));
+  }
+
+  /**
+   * @return the value with the {@code LIKE} wildcards and the {@code \} escape character escaped
+   */
+  static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
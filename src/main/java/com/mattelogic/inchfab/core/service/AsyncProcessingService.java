@@ -1,18 +1,23 @@
 package com.mattelogic.inchfab.core.service;
 
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
+import com.mattelogic.inchfab.core.cache.StepCostCache;
+import com.mattelogic.inchfab.core.cache.StepCostKey;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
-import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
 import com.mattelogic.inchfab.core.model.ProjectStep;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
 import com.mattelogic.inchfab.domain.service.ProcessServiceRegistryImpl;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Slf4j
@@ -20,45 +25,91 @@ import org.springframework.transaction.annotation.Transactional;
 public class AsyncProcessingService {
 
   private final ProcessServiceRegistryImpl processServiceRegistry;
+  private final StepCostCache stepCostCache;
+  private final ReferenceCatalogHolder referenceCatalogHolder;
 
   @Async("processTaskExecutor")
-  @Transactional(readOnly = true)
-  public CompletableFuture<ResultResponseDto> processStepAsync(ProjectStep step,
+  public CompletableFuture<CostVector> processStepAsync(ProjectStep step,
       CostRequestDto request) {
     log.info("Starting async processing for step: {}", step.sequenceId());
     try {
-      ResultResponseDto result = processStep(step, request);
+      return CompletableFuture.completedFuture(processStep(step, request));
+    } catch (Exception e) {
+      log.error("Error processing step {}: {}", step.sequenceId(), e.getMessage(), e);
+      return CompletableFuture.failedFuture(e);
+    }
+  }
 
-      List<ResultResponseDto> unitCosts = new ArrayList<>();
-      unitCosts.add(result);
+  /**
+   * Calculates a step for several requests that differ only in their wafer count.
+   */
+  @Async("processTaskExecutor")
+  public CompletableFuture<List<CostVector>> processStepCurveAsync(ProjectStep step,
+      List<CostRequestDto> requests) {
+    log.info("Starting async curve processing for step: {}", step.sequenceId());
+    try {
+      ProcessDefinition processDefinition = ProcessDefinition.fromValue(step.processType());
+      return CompletableFuture.completedFuture(
+          processServiceRegistry.calculateCurve(processDefinition, step, requests));
+    } catch (Exception e) {
+      log.error("Error processing step {}: {}", step.sequenceId(), e.getMessage(), e);
+      return CompletableFuture.failedFuture(e);
+    }
+  }
 
-      ResultResponseDto resultWithUnits = ResultResponseDto.builder()
-          .processName(result.processName())
-          .laborTime(result.laborTime())
-          .periodicCost(result.periodicCost())
-          .power(result.power())
-          .gas(result.gas())
-          .targetMaterial(result.targetMaterial())
-          .wetEtchant(result.wetEtchant())
-          .lithographyReagent(result.lithographyReagent())
-          .metrologyInspectionCost(result.metrologyInspectionCost())
-          .externalCost(result.externalCost())
-          .manualCost(result.manualCost())
-          .substrateCost(result.substrateCost())
-          .totalTime(result.totalTime())
-          .unitTotalCosts(unitCosts)
-          .build();
+  /**
+   * Decomposes the costs of a step into quantities of the catalog prices they are linear in.
+   */
+  @Async("processTaskExecutor")
+  public CompletableFuture<CostDecomposition> processStepDecompositionAsync(ProjectStep step,
+      CostRequestDto request) {
+    log.info("Starting async decomposition for step: {}", step.sequenceId());
+    try {
+      ProcessDefinition processDefinition = ProcessDefinition.fromValue(step.processType());
+      return CompletableFuture.completedFuture(
+          processServiceRegistry.decompose(processDefinition, step, request));
+    } catch (Exception e) {
+      log.error("Error processing step {}: {}", step.sequenceId(), e.getMessage(), e);
+      return CompletableFuture.failedFuture(e);
+    }
+  }
 
-      return CompletableFuture.completedFuture(resultWithUnits);
+  /**
+   * Prepares sampling a step with some of its parameters drawn from distributions.
+   */
+  @Async("processTaskExecutor")
+  public CompletableFuture<CostSampler> processStepSamplerAsync(ProjectStep step,
+      CostRequestDto request, Map<String, Distribution> distributions) {
+    log.info("Starting async sampler preparation for step: {}", step.sequenceId());
+    try {
+      ProcessDefinition processDefinition = ProcessDefinition.fromValue(step.processType());
+      return CompletableFuture.completedFuture(
+          processServiceRegistry.sampler(processDefinition, step, request, distributions));
     } catch (Exception e) {
       log.error("Error processing step {}: {}", step.sequenceId(), e.getMessage(), e);
       return CompletableFuture.failedFuture(e);
     }
   }
 
-  private ResultResponseDto processStep(ProjectStep step, CostRequestDto request) {
-    log.debug("Processing step {} with parameters: {}", step.sequenceId(), step);
+  /**
+   * @return the key of the step cost, against the catalog generation of the current calculation;
+   * steps with equal keys cost the same
+   */
+  public StepCostKey stepKey(ProjectStep step, CostRequestDto request) {
     ProcessDefinition processDefinition = ProcessDefinition.fromValue(step.processType());
-    return processServiceRegistry.calculate(processDefinition, step, request);
+    return new StepCostKey(
+        processDefinition,
+        processServiceRegistry.fingerprint(processDefinition, step, request),
+        request.waferSize(),
+        request.substrateType(),
+        referenceCatalogHolder.current().getGeneration()
+    );
+  }
+
+  private CostVector processStep(ProjectStep step, CostRequestDto request) {
+    log.debug("Processing step {} with parameters: {}", step.sequenceId(), step);
+    StepCostKey key = stepKey(step, request);
+    return stepCostCache.get(key,
+        () -> processServiceRegistry.calculate(key.process(), step, request));
   }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.mattelogic.inchfab.core.service;
+
+import com.mattelogic.inchfab.base.catalog.CatalogChangeWatcher;
+import com.mattelogic.inchfab.base.catalog.CatalogIndexManager;
+import com.mattelogic.inchfab.base.catalog.CatalogIndexManager.PipelineExplanation;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
+import com.mattelogic.inchfab.common.dto.ApiResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.CatalogStatusResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.IndexDiagnosticsResponseDto;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogServiceImpl {
+
+  private final ReferenceCatalogHolder referenceCatalogHolder;
+  private final CatalogChangeWatcher catalogChangeWatcher;
+  private final CatalogIndexManager catalogIndexManager;
+
+  public ApiResponseDto<CatalogStatusResponseDto> getStatus() {
+    return buildResponse("Catalog status fetched successfully", referenceCatalogHolder.peek());
+  }
+
+  public ApiResponseDto<CatalogStatusResponseDto> reload() {
+    log.info("Manual reload of the reference catalog requested");
+    return buildResponse("Catalog reloaded successfully", referenceCatalogHolder.reload());
+  }
+
+  public ApiResponseDto<IndexDiagnosticsResponseDto> explainIndexes() {
+    List<PipelineExplanation> explanations = catalogIndexManager.explain();
+    int collectionScans = (int) explanations.stream()
+        .filter(PipelineExplanation::collectionScan)
+        .count();
+    return ApiResponseDto.<IndexDiagnosticsResponseDto>builder()
+        .status(HttpStatus.OK.value())
+        .message(collectionScans == 0
+            ? "All catalog pipelines use an index"
+            : "%d catalog pipelines scan a whole collection".formatted(collectionScans))
+        .data(new IndexDiagnosticsResponseDto(
+            explanations.size(),
+            collectionScans,
+            explanations
+        ))
+        .build();
+  }
+
+  private ApiResponseDto<CatalogStatusResponseDto> buildResponse(String message,
+      ReferenceCatalog catalog) {
+    return ApiResponseDto.<CatalogStatusResponseDto>builder()
+        .status(HttpStatus.OK.value())
+        .message(message)
+        .data(new CatalogStatusResponseDto(
+            catalog != null ? catalog.getGeneration() : null,
+            catalog != null ? catalog.getLoadedAt() : null,
+            referenceCatalogHolder.getLastReloadLatency().toMillis(),
+            catalogChangeWatcher.getActiveMode().name(),
+            catalog != null ? catalog.documentCounts() : null
+        ))
+        .build();
+  }
+}
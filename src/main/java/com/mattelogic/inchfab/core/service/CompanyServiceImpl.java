@@ -81,8 +81,7 @@ public class CompanyServiceImpl implements
         .orElseThrow(() -> new CompanyNotFoundException(companyId));
 
     List<ProjectResponseDto> projects = company.getProjects().stream()
-        .map(projectMapper::toResponseDto)
-        .map(ProjectResponseDto::withoutProjectStep)
+        .map(projectMapper::toResponseDtoWithoutProjectStep)
         .toList();
 
     return ApiResponseDto.<CompanyResponseDto>builder()
@@ -0,0 +1,19 @@
+package com.mattelogic.inchfab.core.service;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the step fan-out of a calculation.
+ *
+ * @param deadline time a calculation waits for its steps before cancelling those still pending
+ */
+@ConfigurationProperties(prefix = "calculation.fan-out")
+public record FanOutProperties(
+    Duration deadline
+) {
+
+  public FanOutProperties {
+    deadline = deadline != null ? deadline : Duration.ofSeconds(30);
+  }
+}
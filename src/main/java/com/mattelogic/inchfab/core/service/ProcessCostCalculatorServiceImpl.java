@@ -1,66 +1,621 @@
 package com.mattelogic.inchfab.core.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mattelogic.inchfab.base.catalog.CalculationContext;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
+import com.mattelogic.inchfab.core.cache.StepCostCache;
+import com.mattelogic.inchfab.core.cache.StepCostKey;
+import com.mattelogic.inchfab.core.dtos.request.CostCurveRequestDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.ParameterDistributionDto;
+import com.mattelogic.inchfab.core.dtos.request.RateScenarioRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.RepriceRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.SimulationRequestDto;
+import com.mattelogic.inchfab.core.dtos.response.BatchCostResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.BatchItemResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.CostCurvePointResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.CostDecompositionResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.PartialCostResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.PercentileResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.RateQuantityResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.RateScenarioResponseDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.SimulationResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.StepCostCacheResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.StepErrorResponseDto;
 import com.mattelogic.inchfab.core.exception.ProcessingStepException;
-import com.mattelogic.inchfab.domain.repository.EssentialRepository;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
+import com.mattelogic.inchfab.core.model.ProjectStep;
+import com.mattelogic.inchfab.core.simulation.MonteCarloSimulator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@EnableConfigurationProperties(FanOutProperties.class)
 public class ProcessCostCalculatorServiceImpl {
 
+  private static final int MAX_CURVE_POINTS = 1000;
+  private static final String LABOR_RATE = "laborCost";
+  private static final String ELECTRICITY_RATE = "electricityCost";
+  private static final double[] DEFAULT_PERCENTILES = {5.0, 50.0, 95.0};
+
   private final AsyncProcessingService asyncProcessingService;
-  private final EssentialRepository essentialRepository;
+  private final ReferenceCatalogHolder referenceCatalogHolder;
+  private final StepCostCache stepCostCache;
+  private final ObjectMapper objectMapper;
+  private final MonteCarloSimulator monteCarloSimulator;
+  private final FanOutProperties fanOutProperties;
 
-  @Transactional(readOnly = true)
   public ApiResponseDto<ResultResponseDto> calculate(CostRequestDto request) throws Throwable {
     log.info("Starting cost calculation for {} steps", request.projectSteps().size());
-    return executeCalculation(request, this::createSuccessResponse);
+    return executeCalculation(request, allUnknown(request), this::createSuccessResponse);
   }
 
-  @Transactional(readOnly = true)
   public ResultResponseDto calculatePriceTotalResult(CostRequestDto request) throws Throwable {
     log.info("Starting price calculation result for {} steps", request.projectSteps().size());
-    return executeCalculation(request, result -> result);
+    return executeCalculation(request, allUnknown(request), result -> result);
   }
 
-  private <T> T executeCalculation(CostRequestDto request,
-      Function<ResultResponseDto, T> resultHandler) throws Throwable {
+  /**
+   * Calculates a project, tolerating failed steps. The steps still pending at the deadline are
+   * cancelled, and the totals are aggregated over the steps that completed.
+   */
+  public ApiResponseDto<PartialCostResponseDto> calculatePartial(CostRequestDto request) {
+    log.info("Starting partial cost calculation for {} steps", request.projectSteps().size());
+    CalculationContext context = CalculationContext.open(referenceCatalogHolder.current());
+    try (CalculationContext.Scope ignored = context.bind()) {
+      List<StepScope.Outcome<CostVector>> outcomes = forkSteps(request.projectSteps(),
+          step -> asyncProcessingService.processStepAsync(step, request)).joinSettled();
+
+      List<CostVector> completed = outcomes.stream()
+          .filter(outcome -> outcome.error() == null)
+          .map(StepScope.Outcome::result)
+          .toList();
+      List<StepErrorResponseDto> errors = outcomes.stream()
+          .filter(outcome -> outcome.error() != null)
+          .map(outcome -> new StepErrorResponseDto(outcome.stepId(), outcome.error()))
+          .toList();
+      if (!errors.isEmpty()) {
+        log.warn("Partial cost calculation completed {} of {} steps", completed.size(),
+            outcomes.size());
+      }
+      return ApiResponseDto.<PartialCostResponseDto>builder()
+          .status(HttpStatus.OK.value())
+          .message("Calculated %d of %d steps".formatted(completed.size(), outcomes.size()))
+          .data(new PartialCostResponseDto(
+              completed.size(),
+              errors.size(),
+              aggregateResults(completed, request.waferSize()),
+              errors
+          ))
+          .build();
+    }
+  }
+
+  /**
+   * Prices a project of which only some step costs have to be calculated. The totals are
+   * aggregated over every step exactly as for a full calculation.
+   *
+   * @param request    the project, with only the steps to calculate, in project order
+   * @param knownCosts the cost of every project step in order, {@code null} for each step of the
+   *                   request
+   * @return the totals, with the cost of every project step in order as unit costs
+   */
+  public ResultResponseDto calculatePriceTotalResult(CostRequestDto request,
+      List<CostVector> knownCosts) throws Throwable {
+    log.info("Starting price calculation result for {} of {} steps",
+        request.projectSteps().size(), knownCosts.size());
+    return executeCalculation(request, knownCosts, result -> result);
+  }
+
+  /**
+   * Prices a project at several wafer counts in one pass. Every step is evaluated once for the
+   * whole curve: only its wafer-dependent terms are computed per wafer count, and each point is
+   * aggregated with its own per-wafer multipliers.
+   */
+  public ApiResponseDto<List<CostCurvePointResponseDto>> calculateCurve(
+      CostCurveRequestDto request) throws Throwable {
+    List<Integer> waferSizes = resolveWaferSizes(request);
+    log.info("Starting cost curve calculation for {} steps at {} wafer counts",
+        request.projectSteps().size(), waferSizes.size());
+    List<CostRequestDto> requests = waferSizes.stream()
+        .map(waferSize -> new CostRequestDto(
+            request.substrateType(),
+            waferSize,
+            request.projectSteps()
+        ))
+        .toList();
+
+    CalculationContext context = CalculationContext.open(referenceCatalogHolder.current());
+    try (CalculationContext.Scope ignored = context.bind()) {
+      List<List<CostVector>> stepCurves = forkSteps(request.projectSteps(),
+          step -> asyncProcessingService.processStepCurveAsync(step, requests)).join();
+
+      List<CostCurvePointResponseDto> points = new ArrayList<>(waferSizes.size());
+      for (int point = 0; point < waferSizes.size(); point++) {
+        int index = point;
+        int waferSize = waferSizes.get(point);
+        ResultResponseDto result = aggregateResults(
+            stepCurves.stream().map(curve -> curve.get(index)).toList(), waferSize);
+        points.add(new CostCurvePointResponseDto(
+            waferSize,
+            result.totalCost(),
+            result.totalCost() / waferSize,
+            result
+        ));
+      }
+      return ApiResponseDto.<List<CostCurvePointResponseDto>>builder()
+          .status(HttpStatus.OK.value())
+          .message("Calculate cost curve successfully")
+          .data(points)
+          .build();
+    } catch (CompletionException e) {
+      log.error("Error during cost curve calculation", e);
+      throw ExceptionUtils.getRootCause(e);
+    }
+  }
+
+  private static List<Integer> resolveWaferSizes(CostCurveRequestDto request) {
+    List<Integer> waferSizes;
+    if (request.waferSizes() != null && !request.waferSizes().isEmpty()) {
+      waferSizes = request.waferSizes().stream().distinct().toList();
+    } else if (request.waferSizeFrom() != null && request.waferSizeTo() != null) {
+      int step = request.waferSizeStep() != null ? request.waferSizeStep() : 1;
+      if (step <= 0 || request.waferSizeTo() < request.waferSizeFrom()) {
+        throw new IllegalArgumentException("Invalid wafer size range");
+      }
+      long count = ((long) request.waferSizeTo() - request.waferSizeFrom()) / step + 1;
+      if (count > MAX_CURVE_POINTS) {
+        throw new IllegalArgumentException(
+            "A cost curve has at most %d wafer counts".formatted(MAX_CURVE_POINTS));
+      }
+      waferSizes = IntStream.iterate(request.waferSizeFrom(),
+              waferSize -> waferSize <= request.waferSizeTo(), waferSize -> waferSize + step)
+          .limit(count)
+          .boxed()
+          .toList();
+    } else {
+      throw new IllegalArgumentException("Wafer sizes or a wafer size range are required");
+    }
+    if (waferSizes.size() > MAX_CURVE_POINTS) {
+      throw new IllegalArgumentException(
+          "A cost curve has at most %d wafer counts".formatted(MAX_CURVE_POINTS));
+    }
+    if (waferSizes.stream().anyMatch(waferSize -> waferSize == null || waferSize <= 0)) {
+      throw new IllegalArgumentException("Wafer sizes must be positive");
+    }
+    return waferSizes;
+  }
+
+  /**
+   * Splits the costs of a project into a fixed part and the quantity of every rate they are linear
+   * in: the labor cost, the electricity cost and the gas, target and wet chemical prices. The
+   * lithography reagent and the costs of processes without a compiled plan stay fixed.
+   */
+  public ApiResponseDto<CostDecompositionResponseDto> decompose(CostRequestDto request)
+      throws Throwable {
+    log.info("Starting cost decomposition for {} steps", request.projectSteps().size());
+    CalculationContext context = CalculationContext.open(referenceCatalogHolder.current());
+    try (CalculationContext.Scope ignored = context.bind()) {
+      List<CostDecomposition> steps = forkSteps(request.projectSteps(),
+          step -> asyncProcessingService.processStepDecompositionAsync(step, request)).join();
+
+      ReferenceCatalog catalog = referenceCatalogHolder.current();
+      CostDecomposition decomposition = CostDecomposition.sum("Total", steps)
+          .extract(CostComponent.LABOR_TIME, LABOR_RATE, catalog.laborCost())
+          .extract(CostComponent.POWER, ELECTRICITY_RATE, catalog.electricityCost())
+          .scale(CostComponent.METROLOGY_INSPECTION_COST, request.waferSize())
+          .scale(CostComponent.EXTERNAL_COST, request.waferSize());
+
+      CostVector total = decomposition.price(Map.of());
+      return ApiResponseDto.<CostDecompositionResponseDto>builder()
+          .status(HttpStatus.OK.value())
+          .message("Decompose cost result successfully")
+          .data(new CostDecompositionResponseDto(
+              decomposition.getFixed().toResponse(),
+              decomposition.getQuantities().entrySet().stream()
+                  .map(quantity -> new RateQuantityResponseDto(
+                      quantity.getKey(),
+                      decomposition.getRates().get(quantity.getKey()),
+                      quantity.getValue().toResponse()
+                  ))
+                  .toList(),
+              total.toResponseBuilder().totalCost(total.totalCost()).build()
+          ))
+          .build();
+    } catch (CompletionException e) {
+      log.error("Error during cost decomposition", e);
+      throw ExceptionUtils.getRootCause(e);
+    }
+  }
+
+  /**
+   * Prices a decomposition under each scenario. Nothing is recalculated, so the totals match a
+   * calculation at the scenario rates up to rounding.
+   */
+  public ApiResponseDto<List<RateScenarioResponseDto>> reprice(RepriceRequestDto request) {
+    CostDecomposition decomposition =
+        new CostDecomposition(CostVector.fromResponse(request.fixedCosts()));
+    if (request.quantities() != null) {
+      for (RateQuantityResponseDto quantity : request.quantities()) {
+        if (quantity.rateKey() == null || quantity.rate() == null || quantity.quantity() == null) {
+          throw new IllegalArgumentException("Every quantity needs a rate key, rate and quantity");
+        }
+        decomposition.addQuantity(quantity.rateKey(), quantity.rate(),
+            CostVector.fromResponse(quantity.quantity()));
+      }
+    }
+
+    List<RateScenarioResponseDto> results = new ArrayList<>(request.scenarios().size());
+    for (RateScenarioRequestDto scenario : request.scenarios()) {
+      Map<String, Double> rates = scenario.rates() != null ? scenario.rates() : Map.of();
+      rates.forEach((rateKey, rate) -> {
+        if (!decomposition.getRates().containsKey(rateKey)) {
+          throw new IllegalArgumentException("Unknown rate: " + rateKey);
+        }
+        if (rate == null) {
+          throw new IllegalArgumentException("Rate " + rateKey + " is null");
+        }
+      });
+      CostVector costs = decomposition.price(rates);
+      double totalCost = costs.totalCost();
+      results.add(new RateScenarioResponseDto(scenario.name(), totalCost,
+          costs.toResponseBuilder().totalCost(totalCost).build()));
+    }
+    return ApiResponseDto.<List<RateScenarioResponseDto>>builder()
+        .status(HttpStatus.OK.value())
+        .message("Reprice cost result successfully")
+        .data(results)
+        .build();
+  }
+
+  /**
+   * Simulates a project with some of its parameters drawn from distributions. Every step is
+   * evaluated against the catalog once; each sample then recomputes in memory only the terms that
+   * depend on a sampled parameter and is aggregated as a calculation would be.
+   */
+  public ApiResponseDto<SimulationResponseDto> simulate(SimulationRequestDto request)
+      throws Throwable {
+    int samples = request.samples() != null
+        ? request.samples()
+        : monteCarloSimulator.getProperties().defaultSamples();
+    if (samples <= 0 || samples > monteCarloSimulator.getProperties().maxSamples()) {
+      throw new IllegalArgumentException("Samples must be between 1 and %d"
+          .formatted(monteCarloSimulator.getProperties().maxSamples()));
+    }
+    double[] percentiles = resolvePercentiles(request.percentiles());
+    long seed = request.seed() != null ? request.seed() : new SplittableRandom().nextLong();
+
+    Map<String, Distribution> shared = new HashMap<>();
+    Map<Long, Map<String, Distribution>> perStep = new HashMap<>();
+    for (ParameterDistributionDto parameter : request.parameters()) {
+      Map<String, Distribution> scope = parameter.sequenceId() == null
+          ? shared
+          : perStep.computeIfAbsent(parameter.sequenceId(), id -> new HashMap<>());
+      if (scope.put(parameter.parameter(), toDistribution(parameter)) != null) {
+        throw new IllegalArgumentException("Duplicate distribution of " + parameter.parameter());
+      }
+    }
+    log.info("Starting cost simulation for {} steps with {} samples",
+        request.projectSteps().size(), samples);
+
+    CostRequestDto costRequest = new CostRequestDto(
+        request.substrateType(),
+        request.waferSize(),
+        request.projectSteps()
+    );
+    CalculationContext context = CalculationContext.open(referenceCatalogHolder.current());
+    try (CalculationContext.Scope ignored = context.bind()) {
+      List<CostSampler> samplers = forkSteps(request.projectSteps(), step -> {
+        Map<String, Distribution> distributions = new HashMap<>(shared);
+        distributions.putAll(perStep.getOrDefault(step.sequenceId(), Map.of()));
+        return asyncProcessingService.processStepSamplerAsync(step, costRequest, distributions);
+      }).join();
+
+      Set<String> drawn = new TreeSet<>();
+      samplers.forEach(sampler -> drawn.addAll(sampler.parameters()));
+      List<String> unmatched = request.parameters().stream()
+          .map(ParameterDistributionDto::parameter)
+          .filter(parameter -> !drawn.contains(parameter))
+          .distinct()
+          .toList();
+      if (!unmatched.isEmpty()) {
+        throw new IllegalArgumentException("Parameters match no term of the steps: " + unmatched);
+      }
+
+      ReferenceCatalog catalog = referenceCatalogHolder.current();
+      int waferSize = request.waferSize();
+      MonteCarloSimulator.Summary summary = monteCarloSimulator.run(samples, seed, percentiles,
+          random -> {
+            List<CostVector> steps = new ArrayList<>(samplers.size());
+            for (CostSampler sampler : samplers) {
+              steps.add(sampler.sample(random));
+            }
+            return priceTotal(CostVector.sum("Total", steps), catalog, waferSize);
+          });
+
+      return ApiResponseDto.<SimulationResponseDto>builder()
+          .status(HttpStatus.OK.value())
+          .message("Simulate cost result successfully")
+          .data(new SimulationResponseDto(
+              summary.samples(),
+              summary.seed(),
+              List.copyOf(drawn),
+              toResponse(summary.mean()),
+              toResponse(summary.stdDev()),
+              summary.percentiles().entrySet().stream()
+                  .map(percentile -> new PercentileResponseDto(
+                      percentile.getKey(),
+                      toResponse(percentile.getValue())
+                  ))
+                  .toList()
+          ))
+          .build();
+    } catch (CompletionException e) {
+      log.error("Error during cost simulation", e);
+      throw ExceptionUtils.getRootCause(e);
+    }
+  }
+
+  private static double[] resolvePercentiles(List<Double> percentiles) {
+    if (percentiles == null || percentiles.isEmpty()) {
+      return DEFAULT_PERCENTILES;
+    }
+    if (percentiles.stream().anyMatch(p -> p == null || !(p >= 0.0 && p <= 100.0))) {
+      throw new IllegalArgumentException("Percentiles must be between 0 and 100");
+    }
+    return percentiles.stream().distinct().mapToDouble(Double::doubleValue).toArray();
+  }
+
+  private static Distribution toDistribution(ParameterDistributionDto parameter) {
+    Distribution distribution = switch (parameter.type()) {
+      case NORMAL -> new Distribution.Normal(
+          required(parameter.mean(), "mean", parameter),
+          required(parameter.stdDev(), "stdDev", parameter));
+      case UNIFORM -> new Distribution.Uniform(
+          required(parameter.min(), "min", parameter),
+          required(parameter.max(), "max", parameter));
+      case TRIANGULAR -> new Distribution.Triangular(
+          required(parameter.min(), "min", parameter),
+          required(parameter.mode(), "mode", parameter),
+          required(parameter.max(), "max", parameter));
+    };
+    return Boolean.TRUE.equals(parameter.relative())
+        ? new Distribution.Relative(distribution)
+        : distribution;
+  }
+
+  private static double required(Double value, String field, ParameterDistributionDto parameter) {
+    if (value == null) {
+      throw new IllegalArgumentException("A %s distribution of %s needs a %s"
+          .formatted(parameter.type(), parameter.parameter(), field));
+    }
+    return value;
+  }
+
+  private static ResultResponseDto toResponse(MonteCarloSimulator.Statistic statistic) {
+    return statistic.costs().toResponseBuilder().totalCost(statistic.totalCost()).build();
+  }
+
+  /**
+   * Calculates many projects at once. Steps that are identical across the projects are evaluated
+   * once, and every project is aggregated on its own. A project that fails, e.g. on an unknown
+   * recipe, is reported in its item and does not fail the others.
+   */
+  public ApiResponseDto<BatchCostResponseDto> calculateBatch(List<CostRequestDto> requests) {
+    log.info("Starting batch cost calculation for {} requests", requests.size());
+    return executeBatch(requests, new HashMap<>());
+  }
+
+  /**
+   * Calculates many projects given as newline-delimited JSON, one project per non-blank line. A
+   * malformed line is reported in its item.
+   */
+  public ApiResponseDto<BatchCostResponseDto> calculateBatch(String ndjson) {
+    List<CostRequestDto> requests = new ArrayList<>();
+    Map<Integer, String> errors = new HashMap<>();
+    for (String line : ndjson.split("\\r?\\n")) {
+      if (line.isBlank()) {
+        continue;
+      }
+      try {
+        requests.add(objectMapper.readValue(line, CostRequestDto.class));
+      } catch (JsonProcessingException e) {
+        errors.put(requests.size(), "Malformed JSON: " + e.getOriginalMessage());
+        requests.add(null);
+      }
+    }
+    log.info("Starting batch cost calculation for {} NDJSON requests", requests.size());
+    return executeBatch(requests, errors);
+  }
+
+  private ApiResponseDto<BatchCostResponseDto> executeBatch(List<CostRequestDto> requests,
+      Map<Integer, String> errors) {
+    CalculationContext context = CalculationContext.open(referenceCatalogHolder.current());
+    try (CalculationContext.Scope ignored = context.bind()) {
+      Map<StepCostKey, CompletableFuture<CostVector>> uniqueSteps = new HashMap<>();
+      StepScope<CostVector> scope = new StepScope<>(fanOutProperties.deadline());
+      List<List<CompletableFuture<CostVector>>> futures = new ArrayList<>(requests.size());
+      for (int i = 0; i < requests.size(); i++) {
+        futures.add(errors.containsKey(i)
+            ? null
+            : createBatchStepFutures(requests.get(i), i, uniqueSteps, scope, errors));
+      }
+      scope.joinSettled();
+
+      List<BatchItemResponseDto> items = new ArrayList<>(requests.size());
+      for (int i = 0; i < requests.size(); i++) {
+        items.add(errors.containsKey(i)
+            ? failedItem(i, errors.get(i))
+            : aggregateBatchItem(requests.get(i), i, futures.get(i)));
+      }
+
+      int failed = (int) items.stream().filter(item -> item.error() != null).count();
+      log.info("Batch of {} requests evaluated {} unique steps, {} requests failed",
+          requests.size(), uniqueSteps.size(), failed);
+      return ApiResponseDto.<BatchCostResponseDto>builder()
+          .status(HttpStatus.OK.value())
+          .message("Calculate batch cost results successfully")
+          .data(new BatchCostResponseDto(
+              requests.size(),
+              requests.size() - failed,
+              failed,
+              uniqueSteps.size(),
+              items
+          ))
+          .build();
+    }
+  }
+
+  private List<CompletableFuture<CostVector>> createBatchStepFutures(CostRequestDto request,
+      int index, Map<StepCostKey, CompletableFuture<CostVector>> uniqueSteps,
+      StepScope<CostVector> scope, Map<Integer, String> errors) {
+    String invalid = validateBatchRequest(request);
+    if (invalid != null) {
+      errors.put(index, invalid);
+      return null;
+    }
+    List<CompletableFuture<CostVector>> futures = new ArrayList<>(request.projectSteps().size());
+    for (ProjectStep step : request.projectSteps()) {
+      try {
+        futures.add(uniqueSteps
+            .computeIfAbsent(asyncProcessingService.stepKey(step, request), key -> {
+              CompletableFuture<CostVector> future =
+                  asyncProcessingService.processStepAsync(step, request);
+              scope.fork(step.sequenceId(), future);
+              return future;
+            })
+            .exceptionally(throwable -> handleStepProcessingError(throwable, step.sequenceId())));
+      } catch (RuntimeException e) {
+        errors.put(index, String.format("Failed to process step %d: %s",
+            step.sequenceId(), e.getMessage()));
+        return null;
+      }
+    }
+    return futures;
+  }
+
+  private BatchItemResponseDto aggregateBatchItem(CostRequestDto request, int index,
+      List<CompletableFuture<CostVector>> futures) {
     try {
-      List<ResultResponseDto> results = calculateStepsInParallel(request);
+      List<CostVector> results = futures.stream().map(CompletableFuture::join).toList();
+      return new BatchItemResponseDto(index, HttpStatus.OK.value(), null,
+          aggregateResults(results, request.waferSize()));
+    } catch (CompletionException e) {
+      return failedItem(index, e.getCause().getMessage());
+    }
+  }
+
+  private static String validateBatchRequest(CostRequestDto request) {
+    if (request == null) {
+      return "Request is required";
+    }
+    if (request.waferSize() == null) {
+      return "Wafer size is required";
+    }
+    if (request.projectSteps() == null
+        || request.projectSteps().stream().anyMatch(Objects::isNull)) {
+      return "Project steps are required";
+    }
+    return null;
+  }
+
+  private static BatchItemResponseDto failedItem(int index, String error) {
+    log.warn("Batch request {} failed: {}", index, error);
+    return new BatchItemResponseDto(index, HttpStatus.BAD_REQUEST.value(), error, null);
+  }
+
+  public ApiResponseDto<StepCostCacheResponseDto> getCacheStats() {
+    StepCostCache.Stats stats = stepCostCache.stats();
+    return ApiResponseDto.<StepCostCacheResponseDto>builder()
+        .status(HttpStatus.OK.value())
+        .message("Step cost cache statistics fetched successfully")
+        .data(new StepCostCacheResponseDto(
+            stats.enabled(),
+            stats.hits(),
+            stats.misses(),
+            stats.hitRatio(),
+            stats.evictions(),
+            stats.size(),
+            stats.weight(),
+            stats.maxWeight()
+        ))
+        .build();
+  }
+
+  private <T> T executeCalculation(CostRequestDto request, List<CostVector> knownCosts,
+      Function<ResultResponseDto, T> resultHandler) throws Throwable {
+    CalculationContext context = CalculationContext.open(referenceCatalogHolder.current());
+    try (CalculationContext.Scope ignored = context.bind()) {
+      List<CostVector> results = mergeResults(knownCosts, calculateStepsInParallel(request));
       ResultResponseDto aggregatedResult = aggregateResults(results, request.waferSize());
       return resultHandler.apply(aggregatedResult);
     } catch (CompletionException e) {
       log.error("Error during cost calculation", e);
       throw ExceptionUtils.getRootCause(e);
+    } finally {
+      log.debug("Catalog lookups for generation {}: {} hits, {} misses",
+          context.getCatalog().getGeneration(), context.getHits(), context.getMisses());
     }
   }
 
-  private List<ResultResponseDto> calculateStepsInParallel(CostRequestDto request) {
-    List<CompletableFuture<ResultResponseDto>> futures = createStepFutures(request);
-    return waitForAllFutures(futures);
+  private List<CostVector> calculateStepsInParallel(CostRequestDto request) {
+    return forkSteps(request.projectSteps(),
+        step -> asyncProcessingService.processStepAsync(step, request)).join();
   }
 
-  private List<CompletableFuture<ResultResponseDto>> createStepFutures(CostRequestDto request) {
-    return request.projectSteps().stream()
-        .map(step -> asyncProcessingService.processStepAsync(step, request)
-            .exceptionally(throwable -> handleStepProcessingError(throwable, step.sequenceId())))
-        .toList();
+  /**
+   * Starts one task per step in a scope bounded by the calculation deadline.
+   */
+  private <V> StepScope<V> forkSteps(List<ProjectStep> steps,
+      Function<ProjectStep, CompletableFuture<V>> task) {
+    StepScope<V> scope = new StepScope<>(fanOutProperties.deadline());
+    steps.forEach(step -> scope.fork(step.sequenceId(), task.apply(step)));
+    return scope;
   }
 
-  private ResultResponseDto handleStepProcessingError(Throwable throwable, Long stepId) {
+  private static List<CostVector> allUnknown(CostRequestDto request) {
+    return Collections.nCopies(request.projectSteps().size(), null);
+  }
+
+  private List<CostVector> mergeResults(List<CostVector> knownCosts,
+      List<CostVector> calculated) {
+    Iterator<CostVector> next = calculated.iterator();
+    List<CostVector> results = new ArrayList<>(knownCosts.size());
+    for (CostVector known : knownCosts) {
+      results.add(known != null ? known : next.next());
+    }
+    return results;
+  }
+
+  private CostVector handleStepProcessingError(Throwable throwable, Long stepId) {
     Throwable rootCause = ExceptionUtils.getRootCause(throwable);
     String errorMessage = String.format("Failed to process step %d: %s",
         stepId,
@@ -68,99 +623,27 @@ public class ProcessCostCalculatorServiceImpl {
     throw new ProcessingStepException(errorMessage, rootCause);
   }
 
-  private List<ResultResponseDto> waitForAllFutures(
-      List<CompletableFuture<ResultResponseDto>> futures) {
-    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-        .thenApply(v -> futures.stream()
-            .map(CompletableFuture::join)
-            .filter(Objects::nonNull)
-            .toList())
-        .join();
-  }
-
-  private ResultResponseDto aggregateResults(List<ResultResponseDto> results, int waferSize) {
-    double laborCost = essentialRepository.findLaborCost();
-    double electricityCost = essentialRepository.findElectricityCost();
-
-    List<ResultResponseDto> allUnitCosts = extractUnitCosts(results);
-
-    double laborTimeCost = calculateLaborCost(results, laborCost);
-    double periodicCost = sumValue(results, ResultResponseDto::periodicCost);
-    double powerCost = calculatePowerCost(results, electricityCost);
-    double gasCost = sumValue(results, ResultResponseDto::gas);
-    double targetMaterialCost = sumValue(results, ResultResponseDto::targetMaterial);
-    double wetEtchantCost = sumValue(results, ResultResponseDto::wetEtchant);
-    double lithographyReagentCost = sumValue(results, ResultResponseDto::lithographyReagent);
-
-    double metrologyInspectionCost = calculateWaferSizeDependentCost(
-        results, ResultResponseDto::metrologyInspectionCost, waferSize);
-    double externalCost = calculateWaferSizeDependentCost(
-        results, ResultResponseDto::externalCost, waferSize);
-
-    double manualCost = sumValue(results, ResultResponseDto::manualCost);
-    double substrateCost = sumValue(results, ResultResponseDto::substrateCost);
-    double totalTime = sumValue(results, ResultResponseDto::totalTime);
-
-    double totalCost = laborTimeCost +
-        periodicCost +
-        powerCost +
-        gasCost +
-        targetMaterialCost +
-        wetEtchantCost +
-        lithographyReagentCost +
-        metrologyInspectionCost +
-        externalCost +
-        manualCost +
-        substrateCost;
-
-    return ResultResponseDto.builder()
-        .processName("Total")
-        .laborTime(laborTimeCost)
-        .periodicCost(periodicCost)
-        .power(powerCost)
-        .gas(gasCost)
-        .targetMaterial(targetMaterialCost)
-        .wetEtchant(wetEtchantCost)
-        .lithographyReagent(lithographyReagentCost)
-        .metrologyInspectionCost(metrologyInspectionCost)
-        .externalCost(externalCost)
-        .manualCost(manualCost)
-        .substrateCost(substrateCost)
-        .totalTime(totalTime)
-        .totalCost(totalCost)
-        .unitTotalCosts(allUnitCosts)
-        .build();
-  }
-
-  private double calculateLaborCost(List<ResultResponseDto> results, double laborCost) {
-    return sumValue(results, ResultResponseDto::laborTime) * laborCost;
-  }
+  /**
+   * Sums the step costs in one pass, then prices the labor and power components and scales the
+   * per-wafer components by the wafer count. The step costs become response objects only here.
+   */
+  private ResultResponseDto aggregateResults(List<CostVector> results, int waferSize) {
+    CostVector total = priceTotal(CostVector.sum("Total", results),
+        referenceCatalogHolder.current(), waferSize);
 
-  private double calculatePowerCost(List<ResultResponseDto> results, double electricityCost) {
-    return sumValue(results, ResultResponseDto::power) * electricityCost;
+    return total.toResponseBuilder()
+        .totalCost(total.totalCost())
+        .unitTotalCosts(results.stream().map(CostVector::toResponse).toList())
+        .build();
   }
 
-  private double calculateWaferSizeDependentCost(
-      List<ResultResponseDto> results,
-      Function<ResultResponseDto, Double> valueExtractor,
+  private static CostVector priceTotal(CostVector total, ReferenceCatalog catalog,
       int waferSize) {
-    return sumValue(results, valueExtractor) * waferSize;
-  }
-
-  private Double sumValue(List<ResultResponseDto> results,
-      Function<ResultResponseDto, Double> valueExtractor) {
-    return results.stream()
-        .map(valueExtractor)
-        .filter(Objects::nonNull)
-        .mapToDouble(Double::doubleValue)
-        .sum();
-  }
-
-  private List<ResultResponseDto> extractUnitCosts(List<ResultResponseDto> results) {
-    return results.stream()
-        .filter(result -> result.unitTotalCosts() != null)
-        .flatMap(result -> result.unitTotalCosts().stream())
-        .toList();
+    return total
+        .scale(CostComponent.LABOR_TIME, catalog.laborCost())
+        .scale(CostComponent.POWER, catalog.electricityCost())
+        .scale(CostComponent.METROLOGY_INSPECTION_COST, waferSize)
+        .scale(CostComponent.EXTERNAL_COST, waferSize);
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
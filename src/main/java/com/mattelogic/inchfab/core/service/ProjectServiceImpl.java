@@ -4,50 +4,73 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mattelogic.inchfab.base.catalog.CalculationContext;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.ProjectPageRequestDto;
 import com.mattelogic.inchfab.core.dtos.request.ProjectRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.StepPatchRequestDto;
+import com.mattelogic.inchfab.core.dtos.response.ProjectPageResponseDto;
 import com.mattelogic.inchfab.core.dtos.response.ProjectResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.ProjectSummaryResponseDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
 import com.mattelogic.inchfab.core.entity.Project;
+import com.mattelogic.inchfab.core.entity.ProjectStepList;
 import com.mattelogic.inchfab.core.exception.DuplicateProjectException;
 import com.mattelogic.inchfab.core.exception.ProjectCostCalculationException;
+import com.mattelogic.inchfab.core.exception.ProjectModifiedException;
 import com.mattelogic.inchfab.core.exception.ProjectNotFoundException;
 import com.mattelogic.inchfab.core.exception.ProjectStepConversionException;
 import com.mattelogic.inchfab.core.mapper.ProjectMapper;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.ProjectCursor;
 import com.mattelogic.inchfab.core.model.ProjectStep;
 import com.mattelogic.inchfab.core.repository.ProjectRepository;
-import com.mattelogic.inchfab.domain.repository.EssentialRepository;
-import jakarta.transaction.Transactional;
-import java.util.HashMap;
+import com.mattelogic.inchfab.core.repository.ProjectStepListRepository;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates and updates projects in three steps: load the project, calculate its costs outside any
+ * transaction, then save it. The load and the save run in short transactions of their own, so no
+ * connection is held while the steps are calculated.
+ * <p>
+ * The steps are stored as shared {@link ProjectStepList step lists}: saving a project stores its
+ * steps only if no project has the same ones yet, and a step list no project references any more
+ * is deleted.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProjectServiceImpl implements GenericService<ProjectResponseDto, ProjectRequestDto> {
 
   private final ProjectRepository projectRepository;
+  private final ProjectStepListRepository projectStepListRepository;
+  private final TransactionTemplate transactionTemplate;
   private final ProjectMapper projectMapper;
   private final ObjectMapper objectMapper;
   private final ProcessCostCalculatorServiceImpl processCostCalculatorService;
-  private final EssentialRepository essentialRepository;
+  private final ReferenceCatalogHolder referenceCatalogHolder;
 
-  @Transactional
   @Override
   public ApiResponseDto<ProjectResponseDto> create(ProjectRequestDto projectRequestDto) {
     try {
       log.debug("Creating new project with name: {}", projectRequestDto.name());
 
-      double laborCost = essentialRepository.findLaborCost();
-      double electricalCost = essentialRepository.findElectricityCost();
+      ReferenceCatalog catalog = referenceCatalogHolder.current();
+      double laborCost = catalog.laborCost();
+      double electricalCost = catalog.electricityCost();
 
       Project project = projectMapper.toEntity(projectRequestDto, laborCost, electricalCost);
 
@@ -66,7 +89,7 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
               ? objectMapper.createArrayNode()
               : project.getProjectStep());
 
-      project = projectRepository.save(project);
+      project = persist(project);
 
       return ApiResponseDto.<ProjectResponseDto>builder()
           .status(HttpStatus.CREATED.value())
@@ -74,7 +97,7 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
           .data(projectMapper.toResponseDto(project))
           .build();
     } catch (DataIntegrityViolationException e) {
-      if (e.getMessage().contains("projects_name_key")) {
+      if (isDuplicateName(e)) {
         throw new DuplicateProjectException(
             String.format("Project with name '%s' already exists", projectRequestDto.name()));
       }
@@ -85,7 +108,7 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
   @Override
   public ApiResponseDto<List<ProjectResponseDto>> all() {
     log.debug("Fetching all projects");
-    List<Project> projects = projectRepository.findAll();
+    List<Project> projects = projectRepository.findAllWithSteps();
     return ApiResponseDto.<List<ProjectResponseDto>>builder()
         .status(HttpStatus.OK.value())
         .message("Projects fetched successfully")
@@ -95,10 +118,37 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
         .build();
   }
 
+  /**
+   * Lists one page of project summaries. The page after it starts after its last project, so
+   * paging never skips or repeats a project, however deep.
+   */
+  public ApiResponseDto<ProjectPageResponseDto> page(ProjectPageRequestDto request) {
+    log.debug("Fetching projects page: {}", request);
+    ProjectCursor after = request.cursor() != null
+        ? ProjectCursor.decode(request.cursor(), request)
+        : null;
+    List<ProjectSummaryResponseDto> summaries =
+        projectRepository.findSummaries(request, after, request.limit() + 1);
+
+    boolean hasNext = summaries.size() > request.limit();
+    List<ProjectSummaryResponseDto> items = hasNext
+        ? summaries.subList(0, request.limit())
+        : summaries;
+    String nextCursor = hasNext
+        ? ProjectCursor.after(items.getLast(), request.sort()).encode(request)
+        : null;
+
+    return ApiResponseDto.<ProjectPageResponseDto>builder()
+        .status(HttpStatus.OK.value())
+        .message("Projects fetched successfully")
+        .data(new ProjectPageResponseDto(items, nextCursor))
+        .build();
+  }
+
   @Override
   public ApiResponseDto<ProjectResponseDto> getById(Long id) {
     log.debug("Fetching project with id: {}", id);
-    Project project = projectRepository.findById(id)
+    Project project = projectRepository.findWithStepsById(id)
         .orElseThrow(() -> new ProjectNotFoundException(id));
 
     return ApiResponseDto.<ProjectResponseDto>builder()
@@ -109,13 +159,13 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
   }
 
   @Override
-  @Transactional
   public ApiResponseDto<ProjectResponseDto> update(Long id, ProjectRequestDto projectRequestDto) {
     try {
       log.debug("Updating project with id: {} and name: {}", id, projectRequestDto.name());
 
-      Project project = projectRepository.findById(id)
+      Project project = projectRepository.findWithStepsById(id)
           .orElseThrow(() -> new ProjectNotFoundException(id));
+      ProjectStepList previousSteps = project.getStepList();
 
       projectMapper.updateEntityFromDto(project, projectRequestDto);
 
@@ -131,7 +181,8 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
             ResultResponseDto.builder().build());
       }
 
-      Project updatedProject = projectRepository.save(project);
+      Project updatedProject = persist(project);
+      releaseStepList(previousSteps, updatedProject);
 
       return ApiResponseDto.<ProjectResponseDto>builder()
           .status(HttpStatus.OK.value())
@@ -139,7 +190,7 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
           .data(projectMapper.toResponseDto(updatedProject))
           .build();
     } catch (DataIntegrityViolationException e) {
-      if (e.getMessage().contains("projects_name_key")) {
+      if (isDuplicateName(e)) {
         throw new DuplicateProjectException(
             String.format("Cannot update: Project with name '%s' already exists",
                 projectRequestDto.name()));
@@ -149,14 +200,13 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
   }
 
   @Override
-  @Transactional
   public ApiResponseDto<Boolean> delete(Long id) {
     log.debug("Deleting project with id: {}", id);
-    if (!projectRepository.existsById(id)) {
-      throw new ProjectNotFoundException(id);
-    }
+    Project project = projectRepository.findById(id)
+        .orElseThrow(() -> new ProjectNotFoundException(id));
 
     projectRepository.deleteById(id);
+    releaseStepList(project.getStepList(), null);
     return ApiResponseDto.<Boolean>builder()
         .status(HttpStatus.OK.value())
         .message("Project deleted successfully")
@@ -164,16 +214,22 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
         .build();
   }
 
-  @Transactional
+  /**
+   * Copies a project under the next free copy name. A copy has the steps, wafer size and substrate
+   * of its source, so if the source costs were calculated with the current catalog the copy keeps
+   * them and shares the stored steps of its source instead of calculating them again.
+   */
   public ApiResponseDto<ProjectResponseDto> copyProject(Long id) {
     log.debug("Copying project with id: {}", id);
-    Project sourceProject = projectRepository.findById(id)
+    Project sourceProject = projectRepository.findWithStepsById(id)
         .orElseThrow(() -> new ProjectNotFoundException(id));
 
-    List<Project> existingProjects = projectRepository.findAll();
-    Project copiedProject = Project.copyFrom(sourceProject, existingProjects);
+    String baseName = Project.copyBaseName(sourceProject.getName());
+    Project copiedProject = Project.copyFrom(sourceProject, baseName);
 
-    if (copiedProject.getProjectStep() != null && !copiedProject.getProjectStep().isEmpty()) {
+    String catalogFingerprint = referenceCatalogHolder.current().getFingerprint();
+    if (copiedProject.getProjectStep() != null && !copiedProject.getProjectStep().isEmpty()
+        && !catalogFingerprint.equals(copiedProject.getCatalogFingerprint())) {
       calculateAndUpdateProjectCosts(
           copiedProject,
           copiedProject.getSubstrateType(),
@@ -181,7 +237,7 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
       );
     }
 
-    Project savedProject = projectRepository.save(copiedProject);
+    Project savedProject = persistCopy(copiedProject, baseName);
 
     return ApiResponseDto.<ProjectResponseDto>builder()
         .status(HttpStatus.CREATED.value())
@@ -190,24 +246,171 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
         .build();
   }
 
-  private void calculateAndUpdateProjectCosts(Project project, String substrateType,
-      Integer waferSize) {
+  /**
+   * Applies RFC 6902 operations to the steps of a project and recalculates only the steps they
+   * touched. The other steps keep their stored cost details if those were calculated with the
+   * current catalog and name their process, and are recalculated otherwise; the totals are
+   * aggregated over every step as a full recalculation would.
+   */
+  public ApiResponseDto<ProjectResponseDto> patchSteps(Long id,
+      List<StepPatchRequestDto> operations) {
+    log.debug("Patching steps of project with id: {} with {} operations", id, operations.size());
+    Project project = projectRepository.findWithStepsById(id)
+        .orElseThrow(() -> new ProjectNotFoundException(id));
+    ProjectStepList previousSteps = project.getStepList();
+
+    // The stored steps are shared, so the patch edits a new array holding the same step nodes and
+    // copies only the steps it changes
+    ArrayNode steps = objectMapper.createArrayNode();
+    if (project.getProjectStep() instanceof ArrayNode array) {
+      steps.addAll(array);
+    }
+    Set<JsonNode> touched = ProjectStepPatch.apply(steps, operations);
+    project.setProjectStep(steps);
+
+    if (steps.isEmpty()) {
+      projectMapper.updateProjectWithCalculationResult(project,
+          ResultResponseDto.builder().build());
+    } else {
+      recalculateTouchedSteps(project, steps, touched);
+    }
+
+    Project updatedProject = persist(project);
+    releaseStepList(previousSteps, updatedProject);
+
+    return ApiResponseDto.<ProjectResponseDto>builder()
+        .status(HttpStatus.OK.value())
+        .message("Project steps updated successfully")
+        .data(projectMapper.toResponseDto(updatedProject))
+        .build();
+  }
+
+  /**
+   * Saves a project, and its steps if they were replaced, in a transaction of its own. A project
+   * loaded before its costs were calculated is only saved if no other request updated it in the
+   * meantime.
+   * <p>
+   * Saving a loaded project returns a copy whose step list is an unloaded reference, so the copy
+   * is given the step list the project was saved with.
+   *
+   * @throws ProjectModifiedException if its version is stale
+   */
+  private Project persist(Project project) {
     try {
-      List<ProjectStep> projectSteps = convertJsonNodesToProjectSteps(project.getProjectStep());
+      Project savedProject = transactionTemplate.execute(status -> {
+        storeSteps(project);
+        return projectRepository.save(project);
+      });
+      savedProject.setStepList(project.getStepList());
+      return savedProject;
+    } catch (OptimisticLockingFailureException e) {
+      throw new ProjectModifiedException(project.getId(), e);
+    }
+  }
+
+  /**
+   * Points a project whose steps were replaced to the step list with the same content, storing it
+   * if no project has those steps yet. A step list the project already references, such as the
+   * one a copy shares with its source, is locked instead, and stored again if a concurrent save
+   * released it in the meantime. Either way it cannot be deleted before the project is saved.
+   */
+  private void storeSteps(Project project) {
+    ProjectStepList stepList = project.getStepList();
+    if (stepList != null) {
+      if (projectStepListRepository.lockByHash(stepList.getHash()).isEmpty()) {
+        projectStepListRepository.insertIfAbsent(stepList.getHash(),
+            stepList.getSteps().toString());
+      }
+    } else if (project.getProjectStep() != null) {
+      stepList = ProjectStepList.of(project.getProjectStep());
+      projectStepListRepository.insertIfAbsent(stepList.getHash(),
+          stepList.getSteps().toString());
+      project.setStepList(stepList);
+    }
+  }
+
+  /**
+   * Deletes the step list a project referenced before it was saved or deleted, unless the project
+   * still references it or another project shares it.
+   *
+   * @param project the saved project, or {@code null} if it was deleted
+   */
+  private void releaseStepList(ProjectStepList stepList, Project project) {
+    if (stepList == null || project != null && project.getStepList() != null
+        && stepList.getHash().equals(project.getStepList().getHash())) {
+      return;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> projectStepListRepository.deleteIfUnreferenced(stepList.getHash()));
+    } catch (DataIntegrityViolationException e) {
+      log.debug("Step list {} was shared concurrently, keeping it", stepList.getHash());
+    }
+  }
+
+  /**
+   * Saves a copy under the next free copy name, in a transaction of its own. The copy names are
+   * looked up under a lock on their base name, held until the copy is saved, so concurrent copies
+   * of the same project take consecutive copy numbers.
+   */
+  private Project persistCopy(Project copy, String baseName) {
+    return transactionTemplate.execute(status -> {
+      projectRepository.lockCopyNames(baseName);
+      copy.setName(Project.nextCopyName(baseName,
+          projectRepository.findNamesStartingWith(baseName)));
+      storeSteps(copy);
+      return projectRepository.save(copy);
+    });
+  }
+
+  private static boolean isDuplicateName(DataIntegrityViolationException e) {
+    return e.getMessage().contains("projects_name_key");
+  }
+
+  private void recalculateTouchedSteps(Project project, ArrayNode steps, Set<JsonNode> touched) {
+    // Pins the catalog, so the stored costs are only reused if they were calculated with the one
+    // the touched steps are calculated with
+    ReferenceCatalog catalog = referenceCatalogHolder.current();
+    boolean storedCostsCurrent = catalog.getFingerprint().equals(project.getCatalogFingerprint());
+    ArrayNode stepsToCalculate = objectMapper.createArrayNode();
+    List<CostVector> knownCosts = new ArrayList<>(steps.size());
+    for (JsonNode stepNode : steps) {
+      JsonNode costDetails = stepNode.get("costDetails");
+      if (!storedCostsCurrent || touched.contains(stepNode) || costDetails == null
+          || !costDetails.hasNonNull("processName")) {
+        stepsToCalculate.add(stepNode);
+        knownCosts.add(null);
+      } else {
+        knownCosts.add(CostVector.fromResponse(convertCostDetails(costDetails)));
+      }
+    }
 
+    try {
       CostRequestDto costRequestDto = new CostRequestDto(
-          substrateType,
-          waferSize,
-          projectSteps
+          project.getSubstrateType(),
+          project.getWaferSize(),
+          convertJsonNodesToProjectSteps(stepsToCalculate)
       );
 
-      ResultResponseDto resultResponseDto = processCostCalculatorService
-          .calculatePriceTotalResult(costRequestDto);
+      ResultResponseDto resultResponseDto;
+      try (CalculationContext.Scope ignored = CalculationContext.open(catalog).bind()) {
+        resultResponseDto = processCostCalculatorService
+            .calculatePriceTotalResult(costRequestDto, knownCosts);
+      }
 
-      Map<Long, ResultResponseDto> unitCostsMap = createUnitCostsMap(resultResponseDto,
-          projectSteps);
-      updateProjectStepsWithCosts(project, unitCostsMap);
+      List<ResultResponseDto> unitCosts = resultResponseDto.unitTotalCosts();
+      for (int i = 0; i < steps.size(); i++) {
+        if (knownCosts.get(i) == null) {
+          ObjectNode step = (ObjectNode) steps.get(i);
+          if (!touched.contains(step)) {
+            step = step.deepCopy();
+            steps.set(i, step);
+          }
+          step.set("costDetails", createCostDetailsNode(unitCosts.get(i)));
+        }
+      }
       projectMapper.updateProjectWithCalculationResult(project, resultResponseDto);
+      project.setCatalogFingerprint(catalog.getFingerprint());
 
     } catch (Throwable e) {
       log.error("Error calculating price total result: {}", e.getMessage());
@@ -215,57 +418,57 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
     }
   }
 
-  private Map<Long, ResultResponseDto> createUnitCostsMap(
-      ResultResponseDto resultResponseDto,
-      List<ProjectStep> projectSteps
-  ) {
-    Map<String, ResultResponseDto> processTypeToResultMap = new HashMap<>();
-    Map<Long, ResultResponseDto> sequenceIdToResultMap = new HashMap<>();
-
-    if (resultResponseDto.unitTotalCosts() != null) {
-      resultResponseDto.unitTotalCosts().forEach(unitCost -> {
-        if (unitCost.processName() != null) {
-          processTypeToResultMap.put(unitCost.processName(), unitCost);
-        }
-      });
+  private ResultResponseDto convertCostDetails(JsonNode costDetails) {
+    try {
+      return objectMapper.treeToValue(costDetails, ResultResponseDto.class);
+    } catch (Exception e) {
+      log.error("Error converting cost details: {}", e.getMessage());
+      throw new ProjectStepConversionException("Failed to convert step cost details", e);
     }
+  }
 
-    projectSteps.forEach(step -> {
-      ResultResponseDto matchingResult = processTypeToResultMap.get(step.processType());
-      if (matchingResult != null) {
-        sequenceIdToResultMap.put(step.sequenceId(), matchingResult);
-      } else {
-        sequenceIdToResultMap.put(step.sequenceId(), ResultResponseDto.builder()
-            .processName(step.processType())
-            .laborTime(0.0)
-            .periodicCost(0.0)
-            .power(0.0)
-            .gas(0.0)
-            .targetMaterial(0.0)
-            .wetEtchant(0.0)
-            .lithographyReagent(0.0)
-            .metrologyInspectionCost(0.0)
-            .externalCost(0.0)
-            .manualCost(0.0)
-            .substrateCost(0.0)
-            .totalTime(0.0)
-            .build());
+  private void calculateAndUpdateProjectCosts(Project project, String substrateType,
+      Integer waferSize) {
+    try {
+      List<ProjectStep> projectSteps = convertJsonNodesToProjectSteps(project.getProjectStep());
+
+      CostRequestDto costRequestDto = new CostRequestDto(
+          substrateType,
+          waferSize,
+          projectSteps
+      );
+
+      // Pins the catalog, so the fingerprint recorded is the one the costs were calculated with
+      ReferenceCatalog catalog = referenceCatalogHolder.current();
+      ResultResponseDto resultResponseDto;
+      try (CalculationContext.Scope ignored = CalculationContext.open(catalog).bind()) {
+        resultResponseDto = processCostCalculatorService.calculatePriceTotalResult(costRequestDto);
       }
-    });
 
-    return sequenceIdToResultMap;
+      updateProjectStepsWithCosts(project, resultResponseDto.unitTotalCosts());
+      projectMapper.updateProjectWithCalculationResult(project, resultResponseDto);
+      project.setCatalogFingerprint(catalog.getFingerprint());
+
+    } catch (Throwable e) {
+      log.error("Error calculating price total result: {}", e.getMessage());
+      throw new ProjectCostCalculationException("Failed to calculate price total", e);
+    }
   }
 
-  private void updateProjectStepsWithCosts(Project project,
-      Map<Long, ResultResponseDto> unitCostsMap) {
+  /**
+   * Stores the cost of every step with it. The unit costs are in step order, so each step gets its
+   * own cost even when several steps run the same process.
+   */
+  private void updateProjectStepsWithCosts(Project project, List<ResultResponseDto> unitCosts) {
     ArrayNode updatedProjectSteps = objectMapper.createArrayNode();
     JsonNode originalSteps = project.getProjectStep();
 
-    for (JsonNode stepNode : originalSteps) {
-      ObjectNode updatedStep = stepNode.deepCopy();
-      Long sequenceId = stepNode.get("sequenceId").asLong();
+    for (int i = 0; i < originalSteps.size(); i++) {
+      ObjectNode updatedStep = originalSteps.get(i).deepCopy();
 
-      ResultResponseDto unitCost = unitCostsMap.get(sequenceId);
+      ResultResponseDto unitCost = unitCosts != null && i < unitCosts.size()
+          ? unitCosts.get(i)
+          : null;
 
       ObjectNode costDetails = createCostDetailsNode(unitCost);
       updatedStep.set("costDetails", costDetails);
@@ -276,8 +479,15 @@ public class ProjectServiceImpl implements GenericService<ProjectResponseDto, Pr
     project.setProjectStep(updatedProjectSteps);
   }
 
+  /**
+   * @return the costs of a step as stored with it, named after the process that calculated them,
+   * so they can be read back as the unit costs a calculation would return
+   */
   private ObjectNode createCostDetailsNode(ResultResponseDto unitCost) {
     ObjectNode costDetails = objectMapper.createObjectNode();
+    if (unitCost != null && unitCost.processName() != null) {
+      costDetails.put("processName", unitCost.processName());
+    }
 
     Double laborTime = nullToZero(unitCost != null ? unitCost.laborTime() : null);
     Double periodicCost = nullToZero(unitCost != null ? unitCost.periodicCost() : null);
@@ -0,0 +1,203 @@
+package com.mattelogic.inchfab.core.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mattelogic.inchfab.core.dtos.request.StepPatchRequestDto;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies RFC 6902 add, replace, remove and move operations to the step array of a project, in
+ * place, and records which steps they touched. A step is touched when it is added or replaced, or
+ * when any of its fields changes; moved and untouched steps keep their cost details.
+ * <p>
+ * Step nodes are copied on write: a step whose fields change is replaced in the array by a copy
+ * the first time, so a shallow copy of stored steps can be patched without modifying them.
+ * <p>
+ * Invalid operations throw {@link IllegalArgumentException}. The caller discards the partly patched
+ * array in that case, so the patch applies atomically.
+ */
+final class ProjectStepPatch {
+
+  private static final String END_OF_ARRAY = "-";
+
+  private final ArrayNode steps;
+  private final Set<JsonNode> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private ProjectStepPatch(ArrayNode steps) {
+    this.steps = steps;
+  }
+
+  /**
+   * @return the steps the operations touched, by identity
+   */
+  static Set<JsonNode> apply(ArrayNode steps, List<StepPatchRequestDto> operations) {
+    ProjectStepPatch patch = new ProjectStepPatch(steps);
+    operations.forEach(patch::apply);
+    return patch.touched;
+  }
+
+  private void apply(StepPatchRequestDto operation) {
+    if (operation.op() == null) {
+      throw new IllegalArgumentException("Missing patch operation");
+    }
+    List<String> path = parse(operation.path());
+    switch (operation.op()) {
+      case "add" -> add(path, requireValue(operation));
+      case "replace" -> replace(path, requireValue(operation));
+      case "remove" -> remove(path);
+      case "move" -> move(parse(operation.from()), path);
+      default -> throw new IllegalArgumentException(
+          "Unsupported patch operation: " + operation.op());
+    }
+  }
+
+  private void add(List<String> path, JsonNode value) {
+    if (path.size() == 1) {
+      ObjectNode step = requireStep(value);
+      steps.insert(position(path.get(0), steps.size()), step);
+      touched.add(step);
+      return;
+    }
+    JsonNode parent = parent(path);
+    String name = path.get(path.size() - 1);
+    if (parent instanceof ObjectNode object) {
+      object.set(name, value.deepCopy());
+    } else if (parent instanceof ArrayNode array) {
+      array.insert(position(name, array.size()), value.deepCopy());
+    } else {
+      throw new IllegalArgumentException("No container at path: " + pointer(path));
+    }
+  }
+
+  private void replace(List<String> path, JsonNode value) {
+    if (path.size() == 1) {
+      ObjectNode step = requireStep(value);
+      steps.set(element(path.get(0), steps.size()), step);
+      touched.add(step);
+      return;
+    }
+    remove(path);
+    add(path, value);
+  }
+
+  private JsonNode remove(List<String> path) {
+    if (path.size() == 1) {
+      return steps.remove(element(path.get(0), steps.size()));
+    }
+    JsonNode parent = parent(path);
+    String name = path.get(path.size() - 1);
+    JsonNode removed = null;
+    if (parent instanceof ObjectNode object) {
+      removed = object.remove(name);
+    } else if (parent instanceof ArrayNode array) {
+      removed = array.remove(element(name, array.size()));
+    }
+    if (removed == null) {
+      throw new IllegalArgumentException("Nothing to remove at path: " + pointer(path));
+    }
+    return removed;
+  }
+
+  private void move(List<String> from, List<String> path) {
+    if (from.size() != 1 || path.size() != 1) {
+      throw new IllegalArgumentException("Only whole steps can be moved");
+    }
+    JsonNode step = remove(from);
+    steps.insert(position(path.get(0), steps.size()), step);
+  }
+
+  private JsonNode parent(List<String> path) {
+    JsonNode node = editableStep(path.get(0));
+    for (String name : path.subList(1, path.size() - 1)) {
+      node = node.isArray() ? node.get(element(name, node.size())) : node.get(name);
+      if (node == null) {
+        throw new IllegalArgumentException("No value at path: " + pointer(path));
+      }
+    }
+    return node;
+  }
+
+  /**
+   * @return the step at the index, replaced by a touched copy unless it is touched already
+   */
+  private JsonNode editableStep(String token) {
+    int index = element(token, steps.size());
+    JsonNode step = steps.get(index);
+    if (!touched.contains(step)) {
+      step = step.deepCopy();
+      steps.set(index, step);
+      touched.add(step);
+    }
+    return step;
+  }
+
+  /**
+   * @return the index of an existing element
+   */
+  private static int element(String token, int size) {
+    int index = parseIndex(token);
+    if (index >= size) {
+      throw new IllegalArgumentException("Array index out of bounds: " + token);
+    }
+    return index;
+  }
+
+  /**
+   * @return the index to insert at, {@code -} meaning after the last element
+   */
+  private static int position(String token, int size) {
+    if (END_OF_ARRAY.equals(token)) {
+      return size;
+    }
+    int index = parseIndex(token);
+    if (index > size) {
+      throw new IllegalArgumentException("Array index out of bounds: " + token);
+    }
+    return index;
+  }
+
+  private static int parseIndex(String token) {
+    if (!token.matches("0|[1-9][0-9]*")) {
+      throw new IllegalArgumentException("Invalid array index: " + token);
+    }
+    try {
+      return Integer.parseInt(token);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid array index: " + token, e);
+    }
+  }
+
+  private static List<String> parse(String pointer) {
+    if (pointer == null || !pointer.startsWith("/") || pointer.length() == 1) {
+      throw new IllegalArgumentException("Invalid step path: " + pointer);
+    }
+    List<String> tokens = new ArrayList<>();
+    for (String token : pointer.substring(1).split("/", -1)) {
+      tokens.add(token.replace("~1", "/").replace("~0", "~"));
+    }
+    return tokens;
+  }
+
+  private static String pointer(List<String> path) {
+    return "/" + String.join("/", path);
+  }
+
+  private static JsonNode requireValue(StepPatchRequestDto operation) {
+    if (operation.value() == null) {
+      throw new IllegalArgumentException("Missing value for operation: " + operation.op());
+    }
+    return operation.value();
+  }
+
+  private static ObjectNode requireStep(JsonNode value) {
+    if (!(value instanceof ObjectNode step)) {
+      throw new IllegalArgumentException("A step must be a JSON object");
+    }
+    return step.deepCopy();
+  }
+}
@@ -0,0 +1,140 @@
+package com.mattelogic.inchfab.core.service;
+
+import com.mattelogic.inchfab.core.exception.CalculationTimeoutException;
+import com.mattelogic.inchfab.core.exception.ProcessingStepException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+/**
+ * The steps one calculation fans out, joined the way a structured task scope joins its subtasks:
+ * once a join returns or throws, no step of the scope is left pending.
+ * <p>
+ * Every scope has a deadline counted from its creation. A {@link #join() fail-fast join} cancels
+ * the other steps as soon as one fails, and every step at the deadline; a
+ * {@link #joinSettled() settled join} lets every step finish or fail on its own until the
+ * deadline. A cancelled step that has not started yet never runs; a running one finishes, but
+ * its result is discarded.
+ *
+ * @param <V> the result type of the steps
+ */
+final class StepScope<V> {
+
+  private final Duration deadline;
+  private final long deadlineNanos;
+  private final List<Long> stepIds = new ArrayList<>();
+  private final List<CompletableFuture<V>> futures = new ArrayList<>();
+
+  StepScope(Duration deadline) {
+    this.deadline = deadline;
+    this.deadlineNanos = System.nanoTime() + deadline.toNanos();
+  }
+
+  /**
+   * Adds a step to the scope.
+   *
+   * @param stepId the step, for error messages
+   * @param future the future of the step as returned by the executor, so cancelling it skips the
+   *               step if it has not started
+   */
+  void fork(Long stepId, CompletableFuture<V> future) {
+    stepIds.add(stepId);
+    futures.add(future);
+  }
+
+  /**
+   * Waits for every step, failing fast.
+   *
+   * @return the results of the steps, in fork order
+   * @throws ProcessingStepException     if a step failed; the other steps are cancelled
+   * @throws CalculationTimeoutException if the deadline passed first; every step is cancelled
+   */
+  List<V> join() {
+    CompletableFuture<Void> failure = new CompletableFuture<>();
+    futures.forEach(future -> future.whenComplete((result, throwable) -> {
+      if (throwable != null) {
+        failure.complete(null);
+      }
+    }));
+    if (!await(CompletableFuture.anyOf(settled(), failure))) {
+      cancelAll("Deadline of %d ms exceeded".formatted(deadline.toMillis()));
+      throw new CalculationTimeoutException(
+          "Calculation exceeded its deadline of %d ms".formatted(deadline.toMillis()));
+    }
+    for (int i = 0; i < futures.size(); i++) {
+      if (futures.get(i).isCompletedExceptionally()) {
+        ProcessingStepException error = stepFailure(i);
+        cancelAll("Cancelled after step %d failed".formatted(stepIds.get(i)));
+        throw error;
+      }
+    }
+    return futures.stream().map(CompletableFuture::join).toList();
+  }
+
+  /**
+   * Waits for every step until the deadline, cancelling the steps still pending then. A failed or
+   * cancelled step does not affect the others.
+   *
+   * @return the outcome of every step, in fork order
+   */
+  List<Outcome<V>> joinSettled() {
+    if (!await(settled())) {
+      cancelAll("Deadline of %d ms exceeded".formatted(deadline.toMillis()));
+    }
+    List<Outcome<V>> outcomes = new ArrayList<>(futures.size());
+    for (int i = 0; i < futures.size(); i++) {
+      outcomes.add(futures.get(i).isCompletedExceptionally()
+          ? new Outcome<>(stepIds.get(i), null, stepFailure(i).getMessage())
+          : new Outcome<>(stepIds.get(i), futures.get(i).join(), null));
+    }
+    return outcomes;
+  }
+
+  private CompletableFuture<Void> settled() {
+    return CompletableFuture.allOf(futures.stream()
+        .map(future -> future.handle((result, throwable) -> null))
+        .toArray(CompletableFuture[]::new));
+  }
+
+  /**
+   * @return false if the deadline passed first
+   */
+  private boolean await(CompletableFuture<?> done) {
+    try {
+      done.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+      return true;
+    } catch (TimeoutException e) {
+      return false;
+    } catch (ExecutionException e) {
+      return true;
+    } catch (InterruptedException e) {
+      cancelAll("Calculation interrupted");
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Calculation interrupted");
+    }
+  }
+
+  private void cancelAll(String reason) {
+    futures.forEach(future -> future.completeExceptionally(new CancellationException(reason)));
+  }
+
+  private ProcessingStepException stepFailure(int index) {
+    Throwable rootCause = futures.get(index).handle((result, throwable) ->
+        ExceptionUtils.getRootCause(throwable)).join();
+    return new ProcessingStepException(String.format("Failed to process step %d: %s",
+        stepIds.get(index), rootCause.getMessage()), rootCause);
+  }
+
+  /**
+   * The result of a step, or the error it failed with.
+   */
+  record Outcome<V>(Long stepId, V result, String error) {
+
+  }
+}
@@ -0,0 +1,183 @@
+package com.mattelogic.inchfab.core.simulation;
+
+import com.mattelogic.inchfab.base.catalog.CalculationContext;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostVector;
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs Monte-Carlo cost simulations on a dedicated fork/join pool.
+ * <p>
+ * The samples are split into ranges recursively, and every range draws from its own
+ * {@link SplittableRandom} split off its parent's. Since the split tree depends only on the number
+ * of samples, a seeded simulation draws the same samples whatever the parallelism or scheduling.
+ * The calculation context of the calling thread is bound in the pool threads, so the samples read
+ * the same catalog generation.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(SimulationProperties.class)
+public class MonteCarloSimulator {
+
+  static final int SAMPLES_PER_TASK = 1024;
+
+  private static final CostComponent[] COMPONENTS = CostComponent.values();
+  private static final int TOTAL_COST = COMPONENTS.length;
+
+  private final SimulationProperties properties;
+  private final ForkJoinPool pool;
+
+  public MonteCarloSimulator(SimulationProperties properties) {
+    this.properties = properties;
+    this.pool = new ForkJoinPool(properties.parallelism());
+  }
+
+  public SimulationProperties getProperties() {
+    return properties;
+  }
+
+  /**
+   * Draws the samples and summarizes every cost component and the total cost.
+   *
+   * @param samples     the number of samples
+   * @param seed        the seed of the root random stream
+   * @param percentiles the percentiles to report, between 0 and 100
+   * @param draw        draws the costs of one sample from the given stream
+   * @return the summary
+   */
+  public Summary run(int samples, long seed, double[] percentiles,
+      Function<SplittableRandom, CostVector> draw) {
+    long start = System.nanoTime();
+    double[][] columns = new double[TOTAL_COST + 1][samples];
+    Optional<CalculationContext> context = CalculationContext.current();
+    pool.invoke(new SampleTask(0, samples, new SplittableRandom(seed), columns, draw, context));
+
+    double[][] values = new double[percentiles.length][TOTAL_COST + 1];
+    double[] mean = new double[TOTAL_COST + 1];
+    double[] stdDev = new double[TOTAL_COST + 1];
+    pool.submit(() -> IntStream.rangeClosed(0, TOTAL_COST).parallel().forEach(column -> {
+      double[] sorted = columns[column];
+      Arrays.sort(sorted);
+      mean[column] = Arrays.stream(sorted).sum() / samples;
+      stdDev[column] = standardDeviation(sorted, mean[column]);
+      for (int i = 0; i < percentiles.length; i++) {
+        values[i][column] = percentile(sorted, percentiles[i]);
+      }
+    })).join();
+
+    Map<Double, Statistic> summaries = new LinkedHashMap<>();
+    for (int i = 0; i < percentiles.length; i++) {
+      summaries.put(percentiles[i], statistic(values[i]));
+    }
+    log.info("Simulated {} samples in {} ms", samples, (System.nanoTime() - start) / 1_000_000);
+    return new Summary(samples, seed, statistic(mean), statistic(stdDev), summaries);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * @return the percentile of sorted values, interpolated linearly between the closest ranks
+   */
+  static double percentile(double[] sorted, double percentile) {
+    double rank = percentile / 100.0 * (sorted.length - 1);
+    int lower = (int) Math.floor(rank);
+    int upper = Math.min(lower + 1, sorted.length - 1);
+    return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+  }
+
+  private static double standardDeviation(double[] values, double mean) {
+    if (values.length < 2) {
+      return 0.0;
+    }
+    double squares = 0.0;
+    for (double value : values) {
+      squares += (value - mean) * (value - mean);
+    }
+    return Math.sqrt(squares / (values.length - 1));
+  }
+
+  private static Statistic statistic(double[] values) {
+    CostVector costs = new CostVector("Total");
+    for (CostComponent component : COMPONENTS) {
+      costs.set(component, values[component.ordinal()]);
+    }
+    return new Statistic(costs, values[TOTAL_COST]);
+  }
+
+  /**
+   * One statistic of every cost component and of the total cost. The total cost statistic is
+   * taken over the sampled totals, so percentiles of the components do not add up to it.
+   */
+  public record Statistic(CostVector costs, double totalCost) {
+
+  }
+
+  /**
+   * @param percentiles the statistic at each requested percentile, in request order
+   */
+  public record Summary(int samples, long seed, Statistic mean, Statistic stdDev,
+                        Map<Double, Statistic> percentiles) {
+
+  }
+
+  private static final class SampleTask extends RecursiveAction {
+
+    private final int from;
+    private final int to;
+    private final SplittableRandom random;
+    private final double[][] columns;
+    private final Function<SplittableRandom, CostVector> draw;
+    private final Optional<CalculationContext> context;
+
+    private SampleTask(int from, int to, SplittableRandom random, double[][] columns,
+        Function<SplittableRandom, CostVector> draw, Optional<CalculationContext> context) {
+      this.from = from;
+      this.to = to;
+      this.random = random;
+      this.columns = columns;
+      this.draw = draw;
+      this.context = context;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > SAMPLES_PER_TASK) {
+        int middle = (from + to) >>> 1;
+        SplittableRandom left = random.split();
+        invokeAll(
+            new SampleTask(from, middle, left, columns, draw, context),
+            new SampleTask(middle, to, random, columns, draw, context));
+        return;
+      }
+      CalculationContext.Scope scope = context.map(CalculationContext::bind).orElse(null);
+      try {
+        for (int sample = from; sample < to; sample++) {
+          CostVector costs = draw.apply(random);
+          for (int i = 0; i < TOTAL_COST; i++) {
+            columns[i][sample] = costs.get(COMPONENTS[i]);
+          }
+          columns[TOTAL_COST][sample] = costs.totalCost();
+        }
+      } finally {
+        if (scope != null) {
+          scope.close();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.mattelogic.inchfab.core.simulation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the cost simulation.
+ *
+ * @param parallelism    threads of the simulation pool, the number of processors by default
+ * @param defaultSamples samples drawn when a request does not ask for a number
+ * @param maxSamples     samples a request may ask for at most; every sample keeps one value per
+ *                       cost component until the percentiles are taken
+ */
+@ConfigurationProperties(prefix = "calculation.simulation")
+public record SimulationProperties(
+    Integer parallelism,
+    Integer defaultSamples,
+    Integer maxSamples
+) {
+
+  public SimulationProperties {
+    parallelism = parallelism != null ? parallelism : Runtime.getRuntime().availableProcessors();
+    defaultSamples = defaultSamples != null ? defaultSamples : 10_000;
+    maxSamples = maxSamples != null ? maxSamples : 200_000;
+  }
+}
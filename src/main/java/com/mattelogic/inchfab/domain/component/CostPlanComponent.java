@@ -0,0 +1,93 @@
+package com.mattelogic.inchfab.domain.component;
+
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
+import com.mattelogic.inchfab.domain.plan.CostPlan;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component for evaluating compiled {@link CostPlan}s against the current catalog.
+ */
+@Component
+@RequiredArgsConstructor
+public class CostPlanComponent {
+
+  private final FormulaComponent formulaComponent;
+  private final UnitConverterComponent unitConverterComponent;
+  private final ReferenceCatalogHolder referenceCatalogHolder;
+
+  /**
+   * Evaluates a plan for one request
+   *
+   * @param plan    the compiled plan
+   * @param request the request
+   * @return the costs of the plan
+   */
+  public <R> CostVector evaluate(CostPlan<R> plan, R request) {
+    return plan.evaluate(
+        request,
+        referenceCatalogHolder.current(),
+        formulaComponent,
+        unitConverterComponent
+    );
+  }
+
+  /**
+   * Evaluates a plan for one request at several values of its variable input
+   *
+   * @param plan    the compiled plan
+   * @param request the request
+   * @param values  the values of the variable input
+   * @return the costs of the plan at each value
+   */
+  public <R> List<CostVector> evaluateCurve(CostPlan<R> plan, R request, double[] values) {
+    return plan.evaluateCurve(
+        request,
+        values,
+        referenceCatalogHolder.current(),
+        formulaComponent,
+        unitConverterComponent
+    );
+  }
+
+  /**
+   * Decomposes the costs of a plan for one request into quantities of its prices
+   *
+   * @param plan    the compiled plan
+   * @param request the request
+   * @return the decomposed costs of the plan
+   */
+  public <R> CostDecomposition decompose(CostPlan<R> plan, R request) {
+    return plan.decompose(
+        request,
+        referenceCatalogHolder.current(),
+        formulaComponent,
+        unitConverterComponent
+    );
+  }
+
+  /**
+   * Prepares sampling a plan for one request with some of its terms drawn from distributions
+   *
+   * @param plan          the compiled plan
+   * @param request       the request
+   * @param distributions the distributions by term name or name prefix
+   * @return the sampler
+   */
+  public <R> CostSampler sampler(CostPlan<R> plan, R request,
+      Map<String, Distribution> distributions) {
+    return plan.sampler(
+        request,
+        referenceCatalogHolder.current(),
+        formulaComponent,
+        unitConverterComponent,
+        distributions
+    );
+  }
+}
@@ -1,22 +1,32 @@
 package com.mattelogic.inchfab.domain.component;
 
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
 import com.mattelogic.inchfab.base.enums.UnitConstant;
 import com.mattelogic.inchfab.base.model.UnitConversion;
-import com.mattelogic.inchfab.base.repository.ConstantRepository;
 import com.mattelogic.inchfab.domain.enums.ConversionOperation;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
 import com.mattelogic.inchfab.domain.exception.UnitConversionException;
+import java.util.EnumMap;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 /**
  * Component responsible for converting between different units of measurement.
+ * <p>
+ * Conversion factors are resolved from the reference catalog once per catalog generation into a
+ * table indexed by {@link UnitConstant#ordinal()}, so conversions and the factor accessors are
+ * plain array reads. Factors missing from the catalog are held as {@code NaN}.
  */
 @Component
 @RequiredArgsConstructor
 public class UnitConverterComponent {
 
-  private final ConstantRepository constantRepository;
+  private static final Map<UnitConstant, UnitConversion> CONVERSIONS = createConversions();
+
+  private final ReferenceCatalogHolder referenceCatalogHolder;
+  private volatile FactorTable factorTable = new FactorTable(-1, new double[0]);
 
   /**
    * Converts between seconds and minutes
@@ -27,18 +37,7 @@ public class UnitConverterComponent {
    * @throws UnitConversionException if conversion fails
    */
   public double convertSecondsMinutes(double value, boolean isMultiply) {
-    validateInput(value);
-    UnitConversion conversion = UnitConversion.of(
-        ProcessDefinition.TIME,
-        UnitConstant.S_PER_MIN
-    );
-    return convert(
-        value,
-        conversion,
-        isMultiply
-            ? ConversionOperation.MULTIPLY
-            : ConversionOperation.DIVIDE
-    );
+    return convert(value, UnitConstant.S_PER_MIN, isMultiply);
   }
 
   /**
@@ -50,13 +49,7 @@ public class UnitConverterComponent {
    * @throws UnitConversionException if conversion fails
    */
   public double convertWattsKilowatts(double value, boolean isMultiply) {
-    validateInput(value);
-    UnitConversion conversion = UnitConversion.of(
-        ProcessDefinition.POWER,
-        UnitConstant.W_PER_KW
-    );
-    return convert(value, conversion,
-        isMultiply ? ConversionOperation.MULTIPLY : ConversionOperation.DIVIDE);
+    return convert(value, UnitConstant.W_PER_KW, isMultiply);
   }
 
   /**
@@ -68,42 +61,107 @@ public class UnitConverterComponent {
    * @throws UnitConversionException if conversion fails
    */
   public double convertSecondsHours(double value, boolean isMultiply) {
-    validateInput(value);
-    UnitConversion conversion = UnitConversion.of(
-        ProcessDefinition.TIME,
-        UnitConstant.S_PER_H
-    );
-    return convert(value, conversion,
-        isMultiply ? ConversionOperation.MULTIPLY : ConversionOperation.DIVIDE);
+    return convert(value, UnitConstant.S_PER_H, isMultiply);
   }
 
   public double convertAngstromsNanometers(double value, boolean isMultiply) {
-    validateInput(value);
-    UnitConversion conversion = UnitConversion.of(
-        ProcessDefinition.LENGTH,
-        UnitConstant.A_PER_NM
-    );
-    return convert(value, conversion,
-        isMultiply ? ConversionOperation.MULTIPLY : ConversionOperation.DIVIDE);
+    return convert(value, UnitConstant.A_PER_NM, isMultiply);
+  }
+
+  /**
+   * @return seconds per minute, or 0.0 if the factor is not configured
+   */
+  public double sPerMin() {
+    return factorOrZero(UnitConstant.S_PER_MIN);
+  }
+
+  /**
+   * @return seconds per hour, or 0.0 if the factor is not configured
+   */
+  public double sPerH() {
+    return factorOrZero(UnitConstant.S_PER_H);
+  }
+
+  /**
+   * @return minutes per hour, or 0.0 if the factor is not configured
+   */
+  public double minPerH() {
+    return factorOrZero(UnitConstant.MIN_PER_H);
+  }
+
+  /**
+   * @return watts per kilowatt, or 0.0 if the factor is not configured
+   */
+  public double wPerKw() {
+    return factorOrZero(UnitConstant.W_PER_KW);
   }
 
-  private double convert(double value, UnitConversion conversion, ConversionOperation operation) {
-    double conversionFactor = getConversionFactor(conversion);
-    validateConversionFactor(conversionFactor, conversion);
+  private double convert(double value, UnitConstant constant, boolean isMultiply) {
+    validateInput(value);
+    double conversionFactor = getConversionFactor(constant);
+    validateConversionFactor(conversionFactor, constant);
 
+    ConversionOperation operation = isMultiply
+        ? ConversionOperation.MULTIPLY
+        : ConversionOperation.DIVIDE;
     return switch (operation) {
       case MULTIPLY -> value * conversionFactor;
       case DIVIDE -> value / conversionFactor;
     };
   }
 
-  private double getConversionFactor(UnitConversion conversion) {
-    return constantRepository
-        .findValueByTypeAndMetric(conversion.type(), conversion.metric())
-        .orElseThrow(() -> new UnitConversionException(
-            "Conversion factor not found for type: %s and metric: %s"
-                .formatted(conversion.type(), conversion.metric())
-        ));
+  private double factorOrZero(UnitConstant constant) {
+    double factor = factor(constant);
+    return Double.isNaN(factor) ? 0.0 : factor;
+  }
+
+  private double getConversionFactor(UnitConstant constant) {
+    double factor = factor(constant);
+    if (Double.isNaN(factor)) {
+      UnitConversion conversion = CONVERSIONS.get(constant);
+      throw new UnitConversionException(
+          "Conversion factor not found for type: %s and metric: %s"
+              .formatted(conversion.type(), conversion.metric())
+      );
+    }
+    return factor;
+  }
+
+  private double factor(UnitConstant constant) {
+    ReferenceCatalog catalog = referenceCatalogHolder.current();
+    FactorTable table = factorTable;
+    if (table.generation() != catalog.getGeneration()) {
+      table = resolve(catalog);
+      factorTable = table;
+    }
+    return table.factors()[constant.ordinal()];
+  }
+
+  private static FactorTable resolve(ReferenceCatalog catalog) {
+    double[] factors = new double[UnitConstant.values().length];
+    for (UnitConstant constant : UnitConstant.values()) {
+      UnitConversion conversion = CONVERSIONS.get(constant);
+      factors[constant.ordinal()] = catalog
+          .findConstant(conversion.type(), conversion.metric())
+          .orElse(Double.NaN);
+    }
+    return new FactorTable(catalog.getGeneration(), factors);
+  }
+
+  private static Map<UnitConstant, UnitConversion> createConversions() {
+    Map<UnitConstant, UnitConversion> conversions = new EnumMap<>(UnitConstant.class);
+    for (UnitConstant constant : UnitConstant.values()) {
+      conversions.put(constant, switch (constant) {
+        case MIN_PER_H, S_PER_MIN, S_PER_H -> UnitConversion.of(ProcessDefinition.TIME, constant);
+        case W_PER_KW -> UnitConversion.of(ProcessDefinition.POWER, constant);
+        case A_PER_NM, NM_PER_UM -> UnitConversion.of(ProcessDefinition.LENGTH, constant);
+        default -> new UnitConversion(
+            constant.getCategory().name().toLowerCase(),
+            constant.getValue()
+        );
+      });
+    }
+    return conversions;
   }
 
   private void validateInput(double value) {
@@ -112,12 +170,20 @@ public class UnitConverterComponent {
     }
   }
 
-  private void validateConversionFactor(double factor, UnitConversion conversion) {
+  private void validateConversionFactor(double factor, UnitConstant constant) {
     if (factor == 0.0) {
+      UnitConversion conversion = CONVERSIONS.get(constant);
       throw new UnitConversionException(
           "Zero conversion factor found for type: %s and metric: %s"
               .formatted(conversion.type(), conversion.metric())
       );
     }
   }
+
+  /**
+   * Conversion factors of one catalog generation, indexed by {@link UnitConstant#ordinal()}.
+   */
+  private record FactorTable(long generation, double[] factors) {
+
+  }
 }
\ No newline at end of file
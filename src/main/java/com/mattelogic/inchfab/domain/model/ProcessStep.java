@@ -1,14 +0,0 @@
-package com.mattelogic.inchfab.domain.model;
-
-import java.util.function.Supplier;
-
-/**
- * Record for storing process step parameters to reduce code duplication
- */
-public record ProcessStep(
-    String processType,
-    Supplier<Double> timeCalculator,
-    String parameterValue
-) {
-
-}
\ No newline at end of file
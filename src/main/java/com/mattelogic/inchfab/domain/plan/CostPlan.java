@@ -0,0 +1,629 @@
+package com.mattelogic.inchfab.domain.plan;
+
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
+import com.mattelogic.inchfab.domain.component.FormulaComponent;
+import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compiled cost calculation of one process type.
+ * <p>
+ * A plan is a DAG of named terms (request inputs, catalog values, unit conversions and
+ * {@link FormulaComponent} formulas) declared once through a {@link Builder}. Terms can only
+ * depend on terms declared before them, so declaration order is a topological order. Compiling
+ * drops the terms no output depends on and assigns every remaining term a slot. An evaluation
+ * computes each term exactly once, in slot order, into a single {@code double[]}; terms shared by
+ * several outputs, such as the process or setup time, are therefore computed once per step.
+ * <p>
+ * A plan may declare one {@link Builder#variable variable} input, the wafer count. A curve
+ * evaluation computes the terms that do not depend on it once, and only the dependent terms once
+ * per value.
+ * <p>
+ * Catalog unit prices declared as {@link Builder#price price} terms enter the outputs linearly. A
+ * decomposition recovers the quantity each price is multiplied by, again recomputing only the
+ * terms that depend on it.
+ * <p>
+ * A {@link #sampler sampler} draws request inputs and catalog values from distributions and, per
+ * sample, recomputes only the terms that depend on them, without reading the catalog again.
+ *
+ * @param <R> the request type the inputs are read from
+ */
+public final class CostPlan<R> {
+
+  private final String processName;
+  private final String[] names;
+  private final TermKind[] kinds;
+  private final int[][] inputs;
+  private final Compute<R>[] computes;
+  private final Function<R, String>[] rateKeys;
+  private final CostComponent[] outputComponents;
+  private final int[] outputSlots;
+  private final boolean[] variableDependent;
+
+  private CostPlan(String processName, String[] names, TermKind[] kinds, int[][] inputs,
+      Compute<R>[] computes, Function<R, String>[] rateKeys, CostComponent[] outputComponents,
+      int[] outputSlots) {
+    this.processName = processName;
+    this.names = names;
+    this.kinds = kinds;
+    this.inputs = inputs;
+    this.computes = computes;
+    this.rateKeys = rateKeys;
+    this.outputComponents = outputComponents;
+    this.outputSlots = outputSlots;
+    this.variableDependent = dependents(slot -> kinds[slot] == TermKind.VARIABLE);
+  }
+
+  public static <R> Builder<R> builder(String processName) {
+    return new Builder<>(processName);
+  }
+
+  public String getProcessName() {
+    return processName;
+  }
+
+  /**
+   * @return the number of terms computed per evaluation
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Evaluates every term of the plan for one request.
+   *
+   * @param request  the request the inputs are read from
+   * @param catalog  the catalog snapshot catalog values are read from
+   * @param formulas the formulas
+   * @param units    the unit converter
+   * @return the costs with every declared output set
+   */
+  public CostVector evaluate(R request, ReferenceCatalog catalog, FormulaComponent formulas,
+      UnitConverterComponent units) {
+    Evaluation<R> evaluation =
+        new Evaluation<>(request, catalog, formulas, units, new double[names.length]);
+    double[] slots = evaluation.slots;
+    for (int slot = 0; slot < slots.length; slot++) {
+      slots[slot] = computes[slot].compute(evaluation, inputs[slot]);
+    }
+    return toVector(slots);
+  }
+
+  /**
+   * Evaluates the plan for one request at several values of its variable input. The terms that do
+   * not depend on the variable are computed once; catalog lookups must therefore not read the
+   * variable from the request.
+   *
+   * @param request  the request the other inputs are read from
+   * @param values   the values of the variable input
+   * @param catalog  the catalog snapshot catalog values are read from
+   * @param formulas the formulas
+   * @param units    the unit converter
+   * @return the costs at each value, in order
+   */
+  public List<CostVector> evaluateCurve(R request, double[] values, ReferenceCatalog catalog,
+      FormulaComponent formulas, UnitConverterComponent units) {
+    Evaluation<R> base =
+        new Evaluation<>(request, catalog, formulas, units, new double[names.length]);
+    for (int slot = 0; slot < names.length; slot++) {
+      if (!variableDependent[slot]) {
+        base.slots[slot] = computes[slot].compute(base, inputs[slot]);
+      }
+    }
+    List<CostVector> results = new ArrayList<>(values.length);
+    for (double value : values) {
+      Evaluation<R> evaluation =
+          new Evaluation<>(request, catalog, formulas, units, base.slots.clone());
+      for (int slot = 0; slot < names.length; slot++) {
+        if (kinds[slot] == TermKind.VARIABLE) {
+          evaluation.slots[slot] = value;
+        } else if (variableDependent[slot]) {
+          evaluation.slots[slot] = computes[slot].compute(evaluation, inputs[slot]);
+        }
+      }
+      results.add(toVector(evaluation.slots));
+    }
+    return results;
+  }
+
+  /**
+   * Evaluates the plan for one request and splits its costs into a fixed part, the costs with every
+   * price at zero, and the quantity each price is multiplied by. Since the prices enter the outputs
+   * linearly, the quantity of a price is the cost change when that price alone goes from 0 to 1.
+   *
+   * @param request  the request the inputs are read from
+   * @param catalog  the catalog snapshot catalog values are read from
+   * @param formulas the formulas
+   * @param units    the unit converter
+   * @return the decomposed costs, with the current price of every rate
+   */
+  public CostDecomposition decompose(R request, ReferenceCatalog catalog,
+      FormulaComponent formulas, UnitConverterComponent units) {
+    Evaluation<R> evaluation =
+        new Evaluation<>(request, catalog, formulas, units, new double[names.length]);
+    double[] slots = evaluation.slots;
+    for (int slot = 0; slot < slots.length; slot++) {
+      slots[slot] = computes[slot].compute(evaluation, inputs[slot]);
+    }
+
+    boolean[] priceDependent = dependents(slot -> kinds[slot] == TermKind.PRICE);
+    double[] zero = recompute(evaluation, slots, priceDependent, -1, 0.0);
+    CostVector fixed = toVector(zero);
+    CostDecomposition decomposition = new CostDecomposition(fixed);
+    for (int price = 0; price < names.length; price++) {
+      if (kinds[price] != TermKind.PRICE) {
+        continue;
+      }
+      int priceSlot = price;
+      boolean[] dependent = dependents(slot -> slot == priceSlot);
+      double[] unit = recompute(evaluation, zero, dependent, price, 1.0);
+      CostVector quantity = new CostVector(names[price]);
+      for (int i = 0; i < outputSlots.length; i++) {
+        if (dependent[outputSlots[i]]) {
+          quantity.set(outputComponents[i],
+              unit[outputSlots[i]] - fixed.get(outputComponents[i]));
+        }
+      }
+      decomposition.addQuantity(rateKeys[price].apply(request), slots[price], quantity);
+    }
+    return decomposition;
+  }
+
+  /**
+   * Evaluates the plan for one request and prepares sampling it with some of its input, catalog
+   * and price terms drawn from distributions. A distribution applies to the term of the same name,
+   * or to every term whose name starts with its name and a dot, so {@code stepTime} covers
+   * {@code stepTime.etch} and {@code stepTime.passivation}. Sampled values are clamped at zero, as
+   * every such term is a rate, time, size or price.
+   *
+   * @param request       the request the inputs are read from
+   * @param catalog       the catalog snapshot catalog values are read from
+   * @param formulas      the formulas
+   * @param units         the unit converter
+   * @param distributions the distributions by term name or name prefix
+   * @return the sampler, which draws the distributions matching a term of this plan
+   */
+  public CostSampler sampler(R request, ReferenceCatalog catalog, FormulaComponent formulas,
+      UnitConverterComponent units, Map<String, Distribution> distributions) {
+    Evaluation<R> base =
+        new Evaluation<>(request, catalog, formulas, units, new double[names.length]);
+    for (int slot = 0; slot < names.length; slot++) {
+      base.slots[slot] = computes[slot].compute(base, inputs[slot]);
+    }
+
+    Distribution[] sampled = new Distribution[names.length];
+    Set<String> parameters = new HashSet<>();
+    for (int slot = 0; slot < names.length; slot++) {
+      if (kinds[slot] != TermKind.INPUT && kinds[slot] != TermKind.CATALOG
+          && kinds[slot] != TermKind.PRICE) {
+        continue;
+      }
+      String name = names[slot];
+      int dot = name.indexOf('.');
+      String parameter = distributions.containsKey(name) || dot < 0
+          ? name
+          : name.substring(0, dot);
+      sampled[slot] = distributions.get(parameter);
+      if (sampled[slot] != null) {
+        parameters.add(parameter);
+      }
+    }
+    boolean[] dependent = dependents(slot -> sampled[slot] != null);
+    Set<String> drawn = Set.copyOf(parameters);
+
+    return new CostSampler() {
+      @Override
+      public CostVector sample(SplittableRandom random) {
+        Evaluation<R> evaluation = new Evaluation<>(request, catalog, formulas, units,
+            base.slots.clone());
+        double[] slots = evaluation.slots;
+        for (int slot = 0; slot < slots.length; slot++) {
+          if (sampled[slot] != null) {
+            slots[slot] = Math.max(0.0, sampled[slot].sample(base.slots[slot], random));
+          } else if (dependent[slot]) {
+            slots[slot] = computes[slot].compute(evaluation, inputs[slot]);
+          }
+        }
+        return toVector(slots);
+      }
+
+      @Override
+      public Set<String> parameters() {
+        return drawn;
+      }
+    };
+  }
+
+  /**
+   * @return a copy of the slots with every dependent slot recomputed, and every price slot, or
+   * only {@code priceSlot} if not negative, set to {@code price}
+   */
+  private double[] recompute(Evaluation<R> evaluation, double[] from, boolean[] dependent,
+      int priceSlot, double price) {
+    Evaluation<R> copy = new Evaluation<>(evaluation.request, evaluation.catalog,
+        evaluation.formulas, evaluation.units, from.clone());
+    for (int slot = 0; slot < names.length; slot++) {
+      if (kinds[slot] == TermKind.PRICE && (priceSlot < 0 || slot == priceSlot)) {
+        copy.slots[slot] = price;
+      } else if (dependent[slot] && kinds[slot] != TermKind.PRICE) {
+        copy.slots[slot] = computes[slot].compute(copy, inputs[slot]);
+      }
+    }
+    return copy.slots;
+  }
+
+  /**
+   * @return for every slot, whether it is a root or depends on one
+   */
+  private boolean[] dependents(IntPredicate root) {
+    boolean[] dependent = new boolean[names.length];
+    for (int slot = 0; slot < names.length; slot++) {
+      dependent[slot] = root.test(slot)
+          || Arrays.stream(inputs[slot]).anyMatch(input -> dependent[input]);
+    }
+    return dependent;
+  }
+
+  private CostVector toVector(double[] slots) {
+    CostVector result = new CostVector(processName);
+    for (int i = 0; i < outputSlots.length; i++) {
+      result.set(outputComponents[i], slots[outputSlots[i]]);
+    }
+    return result;
+  }
+
+  /**
+   * @return one line per term, {@code slot: name = KIND(input, ...)}
+   */
+  @Override
+  public String toString() {
+    StringBuilder description = new StringBuilder("CostPlan[").append(processName).append("]");
+    for (int slot = 0; slot < names.length; slot++) {
+      StringJoiner arguments = new StringJoiner(", ", "(", ")");
+      Arrays.stream(inputs[slot]).forEach(input -> arguments.add(names[input]));
+      description.append(System.lineSeparator())
+          .append(slot).append(": ").append(names[slot])
+          .append(" = ").append(kinds[slot]).append(arguments);
+    }
+    return description.toString();
+  }
+
+  /**
+   * Kind of a term, for diagnostics.
+   */
+  public enum TermKind {
+    INPUT,
+    VARIABLE,
+    CONSTANT,
+    CATALOG,
+    PRICE,
+    CONVERSION,
+    FORMULA,
+    DERIVED
+  }
+
+  /**
+   * Reads a catalog value for a request.
+   */
+  @FunctionalInterface
+  public interface CatalogLookup<R> {
+
+    double find(ReferenceCatalog catalog, R request);
+  }
+
+  /**
+   * Converts a value, e.g. {@code (units, value) -> units.convertSecondsHours(value, false)}.
+   */
+  @FunctionalInterface
+  public interface Conversion {
+
+    Conversion SECONDS_TO_HOURS = (units, value) -> units.convertSecondsHours(value, false);
+    Conversion WATT_SECONDS_TO_KILOWATT_HOURS = (units, value) ->
+        units.convertWattsKilowatts(units.convertSecondsHours(value, false), false);
+
+    double convert(UnitConverterComponent units, double value);
+  }
+
+  @FunctionalInterface
+  public interface BinaryFormula {
+
+    double apply(FormulaComponent formulas, double a, double b);
+  }
+
+  @FunctionalInterface
+  public interface TernaryFormula {
+
+    double apply(FormulaComponent formulas, double a, double b, double c);
+  }
+
+  @FunctionalInterface
+  public interface QuaternaryFormula {
+
+    double apply(FormulaComponent formulas, double a, double b, double c, double d);
+  }
+
+  @FunctionalInterface
+  public interface QuinaryFormula {
+
+    double apply(FormulaComponent formulas, double a, double b, double c, double d, double e);
+  }
+
+  @FunctionalInterface
+  public interface SenaryFormula {
+
+    double apply(FormulaComponent formulas, double a, double b, double c, double d, double e,
+        double f);
+  }
+
+  @FunctionalInterface
+  private interface Compute<R> {
+
+    double compute(Evaluation<R> evaluation, int[] inputs);
+  }
+
+  private static final class Evaluation<R> {
+
+    private final R request;
+    private final ReferenceCatalog catalog;
+    private final FormulaComponent formulas;
+    private final UnitConverterComponent units;
+    private final double[] slots;
+
+    private Evaluation(R request, ReferenceCatalog catalog, FormulaComponent formulas,
+        UnitConverterComponent units, double[] slots) {
+      this.request = request;
+      this.catalog = catalog;
+      this.formulas = formulas;
+      this.units = units;
+      this.slots = slots;
+    }
+
+    private double at(int[] inputs, int index) {
+      return slots[inputs[index]];
+    }
+  }
+
+  private record Node<R>(String name, TermKind kind, int[] inputs, Compute<R> compute) {
+
+  }
+
+  private record Output(CostComponent component, Term term) {
+
+  }
+
+  /**
+   * Declares the terms and outputs of a plan.
+   *
+   * @param <R> the request type the inputs are read from
+   */
+  public static final class Builder<R> {
+
+    private final String processName;
+    private final List<Node<R>> nodes = new ArrayList<>();
+    private final Map<String, Term> terms = new HashMap<>();
+    private final List<Output> outputs = new ArrayList<>();
+    private final Map<Integer, Function<R, String>> rateKeys = new HashMap<>();
+
+    private Builder(String processName) {
+      this.processName = processName;
+    }
+
+    public Term input(String name, ToDoubleFunction<R> input) {
+      return add(name, TermKind.INPUT, (e, in) -> input.applyAsDouble(e.request));
+    }
+
+    /**
+     * Declares the input a curve varies, the wafer count. A plan declares at most one.
+     */
+    public Term variable(String name, ToDoubleFunction<R> input) {
+      if (nodes.stream().anyMatch(node -> node.kind() == TermKind.VARIABLE)) {
+        throw new IllegalArgumentException("Cost plan already declares a variable: " + processName);
+      }
+      return add(name, TermKind.VARIABLE, (e, in) -> input.applyAsDouble(e.request));
+    }
+
+    public Term constant(String name, double value) {
+      return add(name, TermKind.CONSTANT, (e, in) -> value);
+    }
+
+    public Term catalog(String name, CatalogLookup<R> lookup) {
+      return add(name, TermKind.CATALOG, (e, in) -> lookup.find(e.catalog, e.request));
+    }
+
+    /**
+     * Declares a catalog unit price the outputs are linear in, keyed by the term name.
+     */
+    public Term price(String name, CatalogLookup<R> lookup) {
+      return price(name, request -> name, lookup);
+    }
+
+    /**
+     * Declares a catalog unit price the outputs are linear in, e.g. the price of the target
+     * material the request names.
+     *
+     * @param rateKey the key of the price for a request
+     */
+    public Term price(String name, Function<R, String> rateKey, CatalogLookup<R> lookup) {
+      Term term = add(name, TermKind.PRICE, (e, in) -> lookup.find(e.catalog, e.request));
+      rateKeys.put(term.index(), rateKey);
+      return term;
+    }
+
+    /**
+     * Declares a unit conversion factor, e.g. {@code UnitConverterComponent::sPerMin}.
+     */
+    public Term factor(String name, ToDoubleFunction<UnitConverterComponent> factor) {
+      return add(name, TermKind.CONVERSION, (e, in) -> factor.applyAsDouble(e.units));
+    }
+
+    public Term convert(String name, Conversion conversion, Term value) {
+      return add(name, TermKind.CONVERSION,
+          (e, in) -> conversion.convert(e.units, e.at(in, 0)), value);
+    }
+
+    public Term formula(String name, BinaryFormula formula, Term a, Term b) {
+      return add(name, TermKind.FORMULA,
+          (e, in) -> formula.apply(e.formulas, e.at(in, 0), e.at(in, 1)), a, b);
+    }
+
+    public Term formula(String name, TernaryFormula formula, Term a, Term b, Term c) {
+      return add(name, TermKind.FORMULA,
+          (e, in) -> formula.apply(e.formulas, e.at(in, 0), e.at(in, 1), e.at(in, 2)), a, b, c);
+    }
+
+    public Term formula(String name, QuaternaryFormula formula, Term a, Term b, Term c, Term d) {
+      return add(name, TermKind.FORMULA, (e, in) -> formula.apply(e.formulas,
+          e.at(in, 0), e.at(in, 1), e.at(in, 2), e.at(in, 3)), a, b, c, d);
+    }
+
+    public Term formula(String name, QuinaryFormula formula, Term a, Term b, Term c, Term d,
+        Term f) {
+      return add(name, TermKind.FORMULA, (e, in) -> formula.apply(e.formulas,
+          e.at(in, 0), e.at(in, 1), e.at(in, 2), e.at(in, 3), e.at(in, 4)), a, b, c, d, f);
+    }
+
+    public Term formula(String name, SenaryFormula formula, Term a, Term b, Term c, Term d,
+        Term f, Term g) {
+      return add(name, TermKind.FORMULA, (e, in) -> formula.apply(e.formulas,
+              e.at(in, 0), e.at(in, 1), e.at(in, 2), e.at(in, 3), e.at(in, 4), e.at(in, 5)),
+          a, b, c, d, f, g);
+    }
+
+    public Term derive(String name, DoubleUnaryOperator operator, Term a) {
+      return add(name, TermKind.DERIVED, (e, in) -> operator.applyAsDouble(e.at(in, 0)), a);
+    }
+
+    public Term derive(String name, DoubleBinaryOperator operator, Term a, Term b) {
+      return add(name, TermKind.DERIVED,
+          (e, in) -> operator.applyAsDouble(e.at(in, 0), e.at(in, 1)), a, b);
+    }
+
+    public Term product(String name, Term a, Term b) {
+      return derive(name, (left, right) -> left * right, a, b);
+    }
+
+    /**
+     * Declares the compensated sum of several terms, as {@code DoubleStream.sum()} computes it.
+     */
+    public Term sum(String name, List<Term> addends) {
+      return add(name, TermKind.DERIVED, (e, in) -> {
+        double sum = 0.0;
+        double compensation = 0.0;
+        double simpleSum = 0.0;
+        for (int input : in) {
+          double value = e.slots[input];
+          simpleSum += value;
+          double corrected = value - compensation;
+          double next = sum + corrected;
+          compensation = (next - sum) - corrected;
+          sum = next;
+        }
+        double total = sum - compensation;
+        return Double.isNaN(total) && Double.isInfinite(simpleSum) ? simpleSum : total;
+      }, addends.toArray(Term[]::new));
+    }
+
+    /**
+     * Binds a term to a component of the result, e.g. {@code output(CostComponent.POWER, power)}.
+     */
+    public Builder<R> output(CostComponent component, Term term) {
+      outputs.add(new Output(component, require(term)));
+      return this;
+    }
+
+    /**
+     * Compiles the declared terms into a plan, keeping only the terms some output depends on.
+     *
+     * @throws IllegalStateException if no output was declared
+     */
+    @SuppressWarnings("unchecked")
+    public CostPlan<R> compile() {
+      if (outputs.isEmpty()) {
+        throw new IllegalStateException("Cost plan declares no outputs: " + processName);
+      }
+      boolean[] needed = new boolean[nodes.size()];
+      outputs.forEach(output -> needed[output.term().index()] = true);
+      for (int index = nodes.size() - 1; index >= 0; index--) {
+        if (needed[index]) {
+          for (int input : nodes.get(index).inputs()) {
+            needed[input] = true;
+          }
+        }
+      }
+
+      int[] slotOf = new int[nodes.size()];
+      List<Node<R>> kept = new ArrayList<>();
+      for (int index = 0; index < nodes.size(); index++) {
+        slotOf[index] = needed[index] ? kept.size() : -1;
+        if (needed[index]) {
+          kept.add(nodes.get(index));
+        }
+      }
+
+      String[] names = new String[kept.size()];
+      TermKind[] kinds = new TermKind[kept.size()];
+      int[][] inputs = new int[kept.size()][];
+      Compute<R>[] computes = new Compute[kept.size()];
+      Function<R, String>[] slotRateKeys = new Function[kept.size()];
+      rateKeys.forEach((index, rateKey) -> {
+        if (slotOf[index] >= 0) {
+          slotRateKeys[slotOf[index]] = rateKey;
+        }
+      });
+      for (int slot = 0; slot < kept.size(); slot++) {
+        Node<R> node = kept.get(slot);
+        names[slot] = node.name();
+        kinds[slot] = node.kind();
+        inputs[slot] = Arrays.stream(node.inputs()).map(input -> slotOf[input]).toArray();
+        computes[slot] = node.compute();
+      }
+      return new CostPlan<>(
+          processName,
+          names,
+          kinds,
+          inputs,
+          computes,
+          slotRateKeys,
+          outputs.stream().map(Output::component).toArray(CostComponent[]::new),
+          outputs.stream().mapToInt(output -> slotOf[output.term().index()]).toArray()
+      );
+    }
+
+    private Term add(String name, TermKind kind, Compute<R> compute, Term... dependencies) {
+      if (terms.containsKey(name)) {
+        throw new IllegalArgumentException("Duplicate cost plan term: " + name);
+      }
+      int[] inputs = Arrays.stream(dependencies).mapToInt(term -> require(term).index())
+          .toArray();
+      Term term = new Term(name, nodes.size());
+      nodes.add(new Node<>(name, kind, inputs, compute));
+      terms.put(name, term);
+      return term;
+    }
+
+    private Term require(Term term) {
+      if (!term.equals(terms.get(term.name()))) {
+        throw new IllegalArgumentException("Term is not declared on this plan: " + term.name());
+      }
+      return term;
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.mattelogic.inchfab.domain.plan;
+
+/**
+ * Handle of a named term declared on a {@link CostPlan.Builder}.
+ *
+ * @param name  the term name, unique within its plan
+ * @param index declaration index of the term within its builder
+ */
+public record Term(
+    String name,
+    int index
+) {
+
+}
@@ -1,13 +1,13 @@
 package com.mattelogic.inchfab.domain.repository;
 
+import com.mattelogic.inchfab.base.repository.FieldValueRepository;
 import com.mattelogic.inchfab.domain.entity.ExternalProcess;
 import java.util.Optional;
 import org.springframework.data.mongodb.repository.Aggregation;
-import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ExternalProcessRepository extends MongoRepository<ExternalProcess, String> {
+public interface ExternalProcessRepository extends FieldValueRepository<ExternalProcess> {
 
   @Aggregation(pipeline = {
       "{ $match: { name: ?0 } }",
@@ -1,21 +1,30 @@
 package com.mattelogic.inchfab.domain.service;
 
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.RecipeView;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
 import com.mattelogic.inchfab.base.enums.GasConstant;
-import com.mattelogic.inchfab.base.enums.UnitConstant;
-import com.mattelogic.inchfab.base.repository.ConstantRepository;
-import com.mattelogic.inchfab.base.repository.GasRepository;
-import com.mattelogic.inchfab.base.repository.VacuumProcessRepository;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
 import com.mattelogic.inchfab.core.model.ProjectStep;
+import com.mattelogic.inchfab.domain.component.CostPlanComponent;
 import com.mattelogic.inchfab.domain.component.FormulaComponent;
 import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
 import com.mattelogic.inchfab.domain.dto.request.AldRequestDto;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
-import com.mattelogic.inchfab.domain.repository.AldRepository;
+import com.mattelogic.inchfab.domain.plan.CostPlan;
+import com.mattelogic.inchfab.domain.plan.CostPlan.Conversion;
+import com.mattelogic.inchfab.domain.plan.Term;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +37,14 @@ public final class AldServiceImpl implements
     CalculateService<ProjectStep, CostRequestDto, AldRequestDto> {
 
   private static final String PROCESS_NAME = ProcessDefinition.ALD.getValue();
+  private static final List<String> ALD_FIELDS = Stream.of(
+      ProcessDefinition.GAS_OVERHEAD,
+      ProcessDefinition.HEATER_POWER_DRAW,
+      ProcessDefinition.OVERHEAD_POWER,
+      ProcessDefinition.PERIODIC_COST,
+      ProcessDefinition.SETUP_TAKEDOWN_TIME,
+      ProcessDefinition.WAFER_PER_RUN
+  ).map(ProcessDefinition::getValue).toList();
   private static final double N2_GAS_RATE = 5.0;
   private static final List<GasConstant> PROCESS_GASES = List.of(
       GasConstant.TMA, GasConstant.TDMAT, GasConstant.H2O, GasConstant.N2
@@ -38,43 +55,51 @@ public final class AldServiceImpl implements
       ProcessDefinition.PURGE_A,
       ProcessDefinition.PURGE_B
   );
+  private static final CostPlan<AldRequestDto> PLAN = definePlan();
 
-  private final FormulaComponent formulaComponent;
-  private final AldRepository aldRepository;
-  private final GasRepository gasRepository;
-  private final VacuumProcessRepository vacuumProcessRepository;
-  private final UnitConverterComponent unitConverterComponent;
-  private final ConstantRepository constantRepository;
+  private final CostPlanComponent costPlanComponent;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new AldRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public AldRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new AldRequestDto(
         request.waferSize(),
         step.name(),
         step.thickness()
-    ));
+    );
+  }
+
+  @Override
+  public List<CostVector> calculateCurve(ProjectStep step, List<CostRequestDto> requests) {
+    return costPlanComponent.evaluateCurve(PLAN, toRequest(step, requests.get(0)),
+        requests.stream().mapToDouble(CostRequestDto::waferSize).toArray());
+  }
+
+  @Override
+  public CostDecomposition decompose(ProjectStep step, CostRequestDto request) {
+    return costPlanComponent.decompose(PLAN, toRequest(step, request));
+  }
+
+  @Override
+  public CostSampler sampler(ProjectStep step, CostRequestDto request,
+      Map<String, Distribution> distributions) {
+    return costPlanComponent.sampler(PLAN, toRequest(step, request), distributions);
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(AldRequestDto request) {
     log.info("Processing ALD calculation request: {}", request);
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("ALD calculation completed successfully");
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(AldRequestDto request) {
-    double waferPerRun = findAldValue(ProcessDefinition.WAFER_PER_RUN);
-    double runNeededPerJobStep = Math.ceil(request.waferSize() / waferPerRun);
-
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .laborTime(calculateLaborTime(request) * runNeededPerJobStep)
-        .periodicCost(calculatePeriodicCost(request) * runNeededPerJobStep)
-        .power(calculateTotalPower(request) * runNeededPerJobStep)
-        .gas(calculateGasUsage(request) * runNeededPerJobStep)
-        .totalTime(calculateTotalTime(request) * runNeededPerJobStep)
-        .build();
+  private CostVector calculateProcessResults(AldRequestDto request) {
+    return costPlanComponent.evaluate(PLAN, request);
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -85,226 +110,158 @@ public final class AldServiceImpl implements
         .build();
   }
 
-  private double calculateLaborTime(AldRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateSetupTakedownTime(request), false);
-  }
-
-  private double calculatePeriodicCost(AldRequestDto request) {
-    // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        findAldValue(ProcessDefinition.PERIODIC_COST),
-        calculateProcessTime(request)
-    );
-  }
+  private static CostPlan<AldRequestDto> definePlan() {
+    CostPlan.Builder<AldRequestDto> plan = CostPlan.builder(PROCESS_NAME);
+    Term waferSize = plan.variable("waferSize", AldRequestDto::waferSize);
+    Term thickness = plan.input("thickness", AldRequestDto::thickness);
+    Term one = plan.constant("one", 1.0);
+    Term zero = plan.constant("zero", 0.0);
+    Term n2GasRate = plan.constant("n2GasRate", N2_GAS_RATE);
+    Term sPerMin = plan.factor("sPerMin", UnitConverterComponent::sPerMin);
 
-  private double calculateTotalPower(AldRequestDto request) {
-    double gasOverhead = calculateGasOverheadPower(request);
-    double heaterLatentPower = calculateHeaterLatentPower(request);
-    double processStepsPower = calculateProcessStepsPower(request);
+    Term waferPerRun = aldValue(plan, ProcessDefinition.WAFER_PER_RUN);
+    Term runs = plan.derive("runNeededPerJobStep", (wafers, perRun) -> Math.ceil(wafers / perRun),
+        waferSize, waferPerRun);
 
-    // Using Formula4: A + B for each addition
-    return formulaComponent.calculateFormula3(
-        processStepsPower,
-        formulaComponent.calculateFormula3(gasOverhead, heaterLatentPower)
-    );
-  }
+    // Using Formula8: A / B * s_per_min
+    Term processTime = plan.formula("processTime", FormulaComponent::calculateFormula7,
+        thickness,
+        processValue(plan, ProcessDefinition.FLOW_PRECURSOR_A, ProcessDefinition.BASE_PROCESS_RATE),
+        sPerMin);
+    Term setupTakedownTime = plan.derive("setupTakedownTime",
+        (setup, process) -> process != 0.0 ? setup : 0.0,
+        aldValue(plan, ProcessDefinition.SETUP_TAKEDOWN_TIME), processTime);
+    // Using Formula4: A + B
+    Term totalUsageTime = plan.formula("totalUsageTime", FormulaComponent::calculateFormula3,
+        processTime, setupTakedownTime);
 
-  private double calculateProcessStepsPower(AldRequestDto request) {
-    return Stream.of(ProcessDefinition.values())
-        .filter(ALD_CYCLE_STEPS::contains)
-        .mapToDouble(step -> calculateStepPowerValue(request, step))
-        .sum();
-  }
+    // Using Formula8: A / B * s_per_min with s_per_min = 1.0
+    Term cycleTime = plan.catalog("cycleTime", (catalog, request) -> recipe(catalog, request)
+        .subprocessValue(
+            ALD_CYCLE_STEPS.stream().map(ProcessDefinition::getValue).toList(),
+            ProcessDefinition.STEP_TIME.getValue()
+        ).orElse(0.0));
+    Term numberOfCycles = plan.formula("numberOfCycles", FormulaComponent::calculateFormula7,
+        processTime, cycleTime, one);
+
+    // Using Formula5: A * B, the cycle count times the step time of each cycle step
+    Map<ProcessDefinition, Term> stepTimes = new EnumMap<>(ProcessDefinition.class);
+    for (ProcessDefinition step : ALD_CYCLE_STEPS) {
+      stepTimes.put(step, plan.formula("time." + step.getValue(),
+          FormulaComponent::calculateFormula4,
+          numberOfCycles, processValue(plan, step, ProcessDefinition.STEP_TIME)));
+    }
 
-  private double calculateGasOverheadPower(AldRequestDto request) {
+    Term laborTime = plan.convert("laborTime", Conversion.SECONDS_TO_HOURS, setupTakedownTime);
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateTotalUsageTime(request),
-        findAldValue(ProcessDefinition.OVERHEAD_POWER)
-    );
-  }
-
-  private double calculateHeaterLatentPower(AldRequestDto request) {
+    Term periodicCost = plan.formula("periodicCost", FormulaComponent::calculateFormula4,
+        aldValue(plan, ProcessDefinition.PERIODIC_COST), processTime);
+    Term totalTime = plan.convert("totalTime", Conversion.SECONDS_TO_HOURS, totalUsageTime);
+
+    Term heaterPowerDraw = aldValue(plan, ProcessDefinition.HEATER_POWER_DRAW);
+    List<Term> stepPowers = new ArrayList<>();
+    for (ProcessDefinition step : ProcessDefinition.values()) {
+      if (ALD_CYCLE_STEPS.contains(step)) {
+        // Using Formula7: A * B * C
+        Term power = plan.formula("power." + step.getValue(), FormulaComponent::calculateFormula6,
+            processValue(plan, step, ProcessDefinition.TEMPERATURE),
+            heaterPowerDraw,
+            stepTimes.get(step));
+        stepPowers.add(plan.convert("power.kWh." + step.getValue(),
+            Conversion.WATT_SECONDS_TO_KILOWATT_HOURS, power));
+      }
+    }
+    Term processStepsPower = plan.sum("processStepsPower", stepPowers);
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateSetupTakedownTime(request),
-        aldRepository.findEffectiveLatentValueBySettingsName(
+    Term gasOverheadPower = plan.formula("gasOverheadPower", FormulaComponent::calculateFormula4,
+        totalUsageTime, aldValue(plan, ProcessDefinition.OVERHEAD_POWER));
+    Term heaterLatentPower = plan.formula("heaterLatentPower",
+        FormulaComponent::calculateFormula4,
+        setupTakedownTime,
+        plan.catalog("heaterEffectiveLatent", (catalog, request) -> catalog.findEffectiveLatent(
+            CatalogCollection.ALD,
             PROCESS_NAME,
             ProcessDefinition.HEATER.getValue()
-        ).orElse(0.0)
-    );
-  }
-
-  private double calculateGasUsage(AldRequestDto request) {
-    return PROCESS_GASES.stream()
-        .mapToDouble(gas -> calculateGasCost(gas, request))
-        .sum();
-  }
-
-  private double calculateGasCost(GasConstant gas, AldRequestDto request) {
-    double purgeTimeA = calculateProcessTypeTime(request, ProcessDefinition.PURGE_A);
-    double purgeTimeB = calculateProcessTypeTime(request, ProcessDefinition.PURGE_B);
-    double precursorTimeA = calculateProcessTypeTime(request, ProcessDefinition.FLOW_PRECURSOR_A);
-    double precursorTimeB = calculateProcessTypeTime(request, ProcessDefinition.FLOW_PRECURSOR_B);
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
-
-    if (gas.equals(GasConstant.N2)) {
-      // Using Formula2: (A * B + C * D) / s_per_min * (1 + E) for N2 gas
-      double quantity = formulaComponent.calculateFormula2(
-          purgeTimeA,
-          N2_GAS_RATE,
-          purgeTimeB,
-          N2_GAS_RATE,
-          sPerMin,
-          0.0
-      );
-      double price = gasRepository.findPriceByName(gas.getValue()).orElse(0.0);
-      double gasOverhead = 1.0 + findAldValue(ProcessDefinition.GAS_OVERHEAD);
-
-      // Using Formula7: A * B * C
-      return formulaComponent.calculateFormula4(quantity, price);
-    } else {
-      double gasRateA = findGasValue(request, gas, ProcessDefinition.FLOW_PRECURSOR_A);
-      double gasRateB = findGasValue(request, gas, ProcessDefinition.FLOW_PRECURSOR_B);
-      double gasOverhead = findAldValue(ProcessDefinition.GAS_OVERHEAD);
-      double price = gasRepository.findPriceByName(gas.getValue()).orElse(0.0);
-
-      // Using Formula2: (A * B + C * D) / s_per_min * (1 + E) for process gases
-      double quantity = formulaComponent.calculateFormula2(
-          precursorTimeA,
-          gasRateA,
-          precursorTimeB,
-          gasRateB,
-          sPerMin,
-          gasOverhead
-      );
-
+        ).orElse(0.0)));
+    // Using Formula4: A + B for each addition
+    Term totalPower = plan.formula("totalPower", FormulaComponent::calculateFormula3,
+        processStepsPower,
+        plan.formula("overheadPower", FormulaComponent::calculateFormula3,
+            gasOverheadPower, heaterLatentPower));
+
+    Term gasOverhead = aldValue(plan, ProcessDefinition.GAS_OVERHEAD);
+    List<Term> gasCosts = new ArrayList<>();
+    for (GasConstant gas : PROCESS_GASES) {
+      Term quantity;
+      if (gas.equals(GasConstant.N2)) {
+        // Using Formula2: (A * B + C * D) / s_per_min * (1 + E) for N2 gas
+        quantity = plan.formula("gasQuantity." + gas.getValue(),
+            FormulaComponent::calculateFormula2,
+            stepTimes.get(ProcessDefinition.PURGE_A),
+            n2GasRate,
+            stepTimes.get(ProcessDefinition.PURGE_B),
+            n2GasRate,
+            sPerMin,
+            zero);
+      } else {
+        // Using Formula2: (A * B + C * D) / s_per_min * (1 + E) for process gases
+        quantity = plan.formula("gasQuantity." + gas.getValue(),
+            FormulaComponent::calculateFormula2,
+            stepTimes.get(ProcessDefinition.FLOW_PRECURSOR_A),
+            gasValue(plan, gas, ProcessDefinition.FLOW_PRECURSOR_A),
+            stepTimes.get(ProcessDefinition.FLOW_PRECURSOR_B),
+            gasValue(plan, gas, ProcessDefinition.FLOW_PRECURSOR_B),
+            sPerMin,
+            gasOverhead);
+      }
       // Using Formula7: A * B * C
-      return formulaComponent.calculateFormula4(quantity, price);
+      gasCosts.add(plan.formula("gasCost." + gas.getValue(), FormulaComponent::calculateFormula4,
+          quantity,
+          plan.price("gasPrice." + gas.getValue(),
+              (catalog, request) -> catalog.findGasPrice(gas.getValue()).orElse(0.0))));
     }
+    Term gasUsage = plan.sum("gasUsage", gasCosts);
+
+    return plan
+        .output(CostComponent.LABOR_TIME,
+            plan.product("laborTime.perJobStep", laborTime, runs))
+        .output(CostComponent.PERIODIC_COST,
+            plan.product("periodicCost.perJobStep", periodicCost, runs))
+        .output(CostComponent.POWER,
+            plan.product("power.perJobStep", totalPower, runs))
+        .output(CostComponent.GAS,
+            plan.product("gas.perJobStep", gasUsage, runs))
+        .output(CostComponent.TOTAL_TIME,
+            plan.product("totalTime.perJobStep", totalTime, runs))
+        .compile();
   }
 
-  private double calculateTotalUsageTime(AldRequestDto request) {
-    // Using Formula4: A + B
-    return formulaComponent.calculateFormula3(
-        calculateProcessTime(request),
-        calculateSetupTakedownTime(request)
-    );
-  }
-
-  private double calculateTotalTime(AldRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateTotalUsageTime(request),
-        false
-    );
-  }
-
-  private double calculateProcessTypeTime(AldRequestDto request, ProcessDefinition processType) {
-    double value = findProcessValue(
-        request,
-        processType,
-        ProcessDefinition.STEP_TIME
-    );
-    // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        value,
-        calculateNumberOfCycles(request)
-    );
-  }
-
-  private double calculateProcessTime(AldRequestDto request) {
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
-    double rate = findProcessValue(
-        request,
-        ProcessDefinition.FLOW_PRECURSOR_A,
-        ProcessDefinition.BASE_PROCESS_RATE
-    );
-    // Using Formula8: A / B * s_per_min
-    return formulaComponent.calculateFormula7(
-        request.thickness(),
-        rate,
-        sPerMin
-    );
-  }
-
-  private double calculateSetupTakedownTime(AldRequestDto request) {
-    return Optional.of(findAldValue(ProcessDefinition.SETUP_TAKEDOWN_TIME))
-        .filter(value -> calculateProcessTime(request) != 0.0)
-        .orElse(0.0);
+  private static Term aldValue(CostPlan.Builder<AldRequestDto> plan,
+      ProcessDefinition parameter) {
+    return plan.catalog(PROCESS_NAME + "." + parameter.getValue(), (catalog, request) -> catalog
+        .findValues(CatalogCollection.ALD, PROCESS_NAME, ALD_FIELDS)
+        .get(parameter.getValue()));
   }
 
-  private double calculateStepPowerValue(AldRequestDto request, ProcessDefinition process) {
-    double temperature = findProcessValue(request, process, ProcessDefinition.TEMPERATURE);
-    double heaterPowerDraw = findAldValue(ProcessDefinition.HEATER_POWER_DRAW);
-    double time = calculateProcessStepTime(request, process);
-
-    // Using Formula7: A * B * C
-    double powerValue = formulaComponent.calculateFormula6(temperature, heaterPowerDraw, time);
-    return convertToKilowattHours(powerValue);
-  }
-
-  private double calculateNumberOfCycles(AldRequestDto request) {
-    double processTime = calculateProcessTime(request);
-    double cycleTime = vacuumProcessRepository.findValueByTypeAndMetric(
-        PROCESS_NAME,
-        request.name(),
-        ALD_CYCLE_STEPS.stream().map(ProcessDefinition::getValue).toList(),
-        ProcessDefinition.STEP_TIME.getValue()
-    ).orElse(0.0);
-
-    // Using Formula8: A / B * s_per_min with s_per_min = 1.0
-    return formulaComponent.calculateFormula7(processTime, cycleTime, 1.0);
-  }
-
-  private double findAldValue(ProcessDefinition parameter) {
-    return aldRepository.findValueByNameAndField(
-        PROCESS_NAME,
-        parameter.getValue()
-    ).orElse(0.0);
-  }
-
-  private double findGasValue(AldRequestDto request, GasConstant gas,
+  private static Term gasValue(CostPlan.Builder<AldRequestDto> plan, GasConstant gas,
       ProcessDefinition processType) {
-    return vacuumProcessRepository.findValueByTypeAndMetric(
-        PROCESS_NAME,
-        request.name(),
-        List.of(processType.getValue()),
-        gas.getValue()
-    ).orElse(0.0);
+    return plan.catalog(processType.getValue() + "." + gas.getValue(),
+        (catalog, request) -> recipe(catalog, request).subprocessValue(
+            List.of(processType.getValue()),
+            gas.getValue()
+        ).orElse(0.0));
   }
 
-  private double findProcessValue(
-      AldRequestDto request,
-      ProcessDefinition process,
-      ProcessDefinition parameter
-  ) {
-    return vacuumProcessRepository.findValueByTypeAndMetric(
-        PROCESS_NAME,
-        request.name(),
-        List.of(process.getValue()),
-        parameter.getValue()
-    ).orElse(0.0);
+  private static Term processValue(CostPlan.Builder<AldRequestDto> plan,
+      ProcessDefinition process, ProcessDefinition parameter) {
+    return plan.catalog(process.getValue() + "." + parameter.getValue(),
+        (catalog, request) -> recipe(catalog, request).subprocessValue(
+            List.of(process.getValue()),
+            parameter.getValue()
+        ).orElse(0.0));
   }
 
-  private double convertToKilowattHours(double powerValue) {
-    return unitConverterComponent.convertWattsKilowatts(
-        unitConverterComponent.convertSecondsHours(powerValue, false),
-        false
-    );
-  }
-
-  private double calculateProcessStepTime(AldRequestDto request, ProcessDefinition process) {
-    // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateNumberOfCycles(request),
-        findProcessValue(request, process, ProcessDefinition.STEP_TIME)
-    );
+  private static RecipeView recipe(ReferenceCatalog catalog, AldRequestDto request) {
+    return catalog.findRecipe(PROCESS_NAME, request.name());
   }
 }
\ No newline at end of file
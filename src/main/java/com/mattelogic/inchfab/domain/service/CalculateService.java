@@ -2,13 +2,53 @@ package com.mattelogic.inchfab.domain.service;
 
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
+import java.util.List;
+import java.util.Map;
 
 public sealed interface CalculateService<S, T, U> permits AldServiceImpl, DrieServiceImpl,
     ExternalProcessServiceImpl, IcpcvdServiceImpl, LithographyServiceImpl, LpcvdServiceImpl,
     MagnetronSputteringServiceImpl, ManualProcessServiceImpl, MetrologyInspectionServiceImpl,
     RieServiceImpl, SubstrateServiceImpl, WetProcessServiceImpl {
 
-  ResultResponseDto calculate(S step, T request);
+  CostVector calculate(S step, T request);
+
+  /**
+   * Maps a project step to the request of this process. The request holds exactly the step fields
+   * the result depends on.
+   */
+  U toRequest(S step, T request);
+
+  /**
+   * Calculates a step for several requests that differ only in their wafer count. Services whose
+   * costs are compiled plans compute the parts that do not depend on the wafer count once.
+   *
+   * @return the costs for each request, in order
+   */
+  default List<CostVector> calculateCurve(S step, List<T> requests) {
+    return requests.stream().map(request -> calculate(step, request)).toList();
+  }
+
+  /**
+   * Decomposes the costs of a step into quantities of the catalog prices they are linear in.
+   * Services whose costs are not compiled plans report all their costs as fixed.
+   */
+  default CostDecomposition decompose(S step, T request) {
+    return new CostDecomposition(calculate(step, request));
+  }
+
+  /**
+   * Prepares sampling the costs of a step with some of its parameters drawn from distributions.
+   * Services whose costs are not compiled plans always return their calculated costs.
+   *
+   * @param distributions the distributions by parameter name
+   */
+  default CostSampler sampler(S step, T request, Map<String, Distribution> distributions) {
+    return CostSampler.fixed(calculate(step, request));
+  }
 
   ApiResponseDto<ResultResponseDto> calculate(U request);
 }
@@ -1,22 +1,30 @@
 package com.mattelogic.inchfab.domain.service;
 
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.RecipeView;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
 import com.mattelogic.inchfab.base.enums.GasConstant;
-import com.mattelogic.inchfab.base.enums.UnitConstant;
-import com.mattelogic.inchfab.base.repository.ConstantRepository;
-import com.mattelogic.inchfab.base.repository.GasRepository;
-import com.mattelogic.inchfab.base.repository.VacuumProcessRepository;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
 import com.mattelogic.inchfab.core.model.ProjectStep;
+import com.mattelogic.inchfab.domain.component.CostPlanComponent;
 import com.mattelogic.inchfab.domain.component.FormulaComponent;
 import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
 import com.mattelogic.inchfab.domain.dto.request.DrieRequestDto;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
-import com.mattelogic.inchfab.domain.model.ProcessStep;
-import com.mattelogic.inchfab.domain.repository.DrieRepository;
+import com.mattelogic.inchfab.domain.plan.CostPlan;
+import com.mattelogic.inchfab.domain.plan.CostPlan.Conversion;
+import com.mattelogic.inchfab.domain.plan.Term;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,6 +36,14 @@ public final class DrieServiceImpl implements
     CalculateService<ProjectStep, CostRequestDto, DrieRequestDto> {
 
   private static final String PROCESS_NAME = ProcessDefinition.DRIE.getValue();
+  private static final List<String> DRIE_FIELDS = Stream.of(
+      ProcessDefinition.ETCH_RATE,
+      ProcessDefinition.GAS_OVERHEAD,
+      ProcessDefinition.OVERHEAD_POWER,
+      ProcessDefinition.PERIODIC_COST,
+      ProcessDefinition.SETUP_TAKEDOWN_TIME,
+      ProcessDefinition.WAFER_PER_RUN
+  ).map(ProcessDefinition::getValue).toList();
   private static final double HE_BSP_RATE = 4.0;
   private static final List<GasConstant> PROCESS_GASES = List.of(
       GasConstant.SF6, GasConstant.C4F8, GasConstant.O2,
@@ -39,46 +55,54 @@ public final class DrieServiceImpl implements
       ProcessDefinition.DEPOSITION,
       ProcessDefinition.MATCHING
   );
+  private static final CostPlan<DrieRequestDto> PLAN = definePlan();
 
-  private final FormulaComponent formulaComponent;
-  private final DrieRepository drieRepository;
-  private final GasRepository gasRepository;
-  private final VacuumProcessRepository vacuumProcessRepository;
-  private final UnitConverterComponent unitConverterComponent;
-  private final ConstantRepository constantRepository;
+  private final CostPlanComponent costPlanComponent;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new DrieRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public DrieRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new DrieRequestDto(
         request.waferSize(),
         step.name(),
         step.depth(),
         step.maskArea()
-    ));
+    );
+  }
+
+  @Override
+  public List<CostVector> calculateCurve(ProjectStep step, List<CostRequestDto> requests) {
+    return costPlanComponent.evaluateCurve(PLAN, toRequest(step, requests.get(0)),
+        requests.stream().mapToDouble(CostRequestDto::waferSize).toArray());
+  }
+
+  @Override
+  public CostDecomposition decompose(ProjectStep step, CostRequestDto request) {
+    return costPlanComponent.decompose(PLAN, toRequest(step, request));
+  }
+
+  @Override
+  public CostSampler sampler(ProjectStep step, CostRequestDto request,
+      Map<String, Distribution> distributions) {
+    return costPlanComponent.sampler(PLAN, toRequest(step, request), distributions);
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(DrieRequestDto request) {
     log.info("Processing DRIE calculation request: {}", request);
 
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("DRIE calculation completed successfully");
 
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(DrieRequestDto request) {
-    double waferPerRun = findDrieValue(ProcessDefinition.WAFER_PER_RUN);
-    double runNeededPerJobStep = Math.ceil(request.waferSize() / waferPerRun);
-
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .laborTime(calculateLaborTime(request) * runNeededPerJobStep)
-        .periodicCost(calculatePeriodicCost(request) * runNeededPerJobStep)
-        .power(calculateTotalPower(request) * runNeededPerJobStep)
-        .gas(calculateGasUsage(request) * runNeededPerJobStep)
-        .totalTime(calculateTotalTime(request) * runNeededPerJobStep)
-        .build();
+  private CostVector calculateProcessResults(DrieRequestDto request) {
+    return costPlanComponent.evaluate(PLAN, request);
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -89,161 +113,107 @@ public final class DrieServiceImpl implements
         .build();
   }
 
-  private double calculateLaborTime(DrieRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(calculateSetupTakedownTime(request), false);
-  }
-
-  private double calculatePeriodicCost(DrieRequestDto request) {
-    // Using Formula6: A * B
-    return formulaComponent.calculateFormula4(
-        findDrieValue(ProcessDefinition.PERIODIC_COST),
-        calculateProcessTime(request)
-    );
-  }
-
-  private double calculateTotalPower(DrieRequestDto request) {
-    List<ProcessStep> steps = createProcessSteps(request);
-    return calculateOverhead(request) +
-        steps.stream()
-            .mapToDouble(step -> calculatePowerForStep(request, step))
-            .sum();
-  }
+  private static CostPlan<DrieRequestDto> definePlan() {
+    CostPlan.Builder<DrieRequestDto> plan = CostPlan.builder(PROCESS_NAME);
+    Term waferSize = plan.variable("waferSize", DrieRequestDto::waferSize);
+    Term depth = plan.input("depth", DrieRequestDto::depth);
+    Term one = plan.constant("one", 1.0);
+    Term sPerMin = plan.factor("sPerMin", UnitConverterComponent::sPerMin);
 
-  private List<ProcessStep> createProcessSteps(DrieRequestDto request) {
-    return PROCESS_STEPS.stream()
-        .map(step -> new ProcessStep(
-            step.getValue(),
-            () -> calculateStepTime(request, step),
-            step.getValue()))
-        .toList();
-  }
-
-  private double calculatePowerForStep(DrieRequestDto request, ProcessStep step) {
-    double processTime = step.timeCalculator().get();
-    double setupTakedownTime = calculateSetupTakedownTime(request);
-    double effectiveProcess = findEffectiveProcessValue(step.parameterValue());
-    double effectiveLatent = findEffectiveLatentValue(step.parameterValue());
-
-    // Using Formula7: A * B + C * D
-    return formulaComponent.calculateFormula5(
-        processTime,
-        effectiveProcess,
-        setupTakedownTime,
-        effectiveLatent
-    );
-  }
-
-  private double calculateGasUsage(DrieRequestDto request) {
-    return PROCESS_GASES.stream()
-        .mapToDouble(gas -> calculateGasCost(gas, request))
-        .sum();
-  }
+    Term runs = plan.derive("runNeededPerJobStep", (wafers, perRun) -> Math.ceil(wafers / perRun),
+        waferSize, drieValue(plan, ProcessDefinition.WAFER_PER_RUN));
 
-  private double calculateGasCost(GasConstant gas, DrieRequestDto request) {
-    double processTime = calculateProcessTime(request);
-    double gasValue = determineGasValue(gas, request);
-    double price = gasRepository.findPriceByName(gas.getValue()).orElse(0.0);
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
-    double gasOverhead = findDrieValue(ProcessDefinition.GAS_OVERHEAD);
-    double quantityPrice = formulaComponent.calculateFormula1(gasValue, processTime, sPerMin,
-        gasOverhead);
-
-    return quantityPrice * price;
-  }
-
-  private double determineGasValue(GasConstant gas, DrieRequestDto request) {
-    return gas.equals(GasConstant.HE)
-        ? HE_BSP_RATE
-        : vacuumProcessRepository.getMaxGasValue(
-            PROCESS_NAME,
-            request.name(),
-            gas.getValue()
-        ).orElse(0.0);
-  }
-
-  private Double findDrieValue(ProcessDefinition parameter) {
-    return drieRepository.findValueByNameAndField(
-        PROCESS_NAME,
-        parameter.getValue()
-    ).orElse(0.0);
-  }
-
-  private Double findEffectiveProcessValue(String processType) {
-    return drieRepository.findTotalEffectiveProcessValueBySettingsName(
-        PROCESS_NAME,
-        processType
-    ).orElse(0.0);
-  }
-
-  private Double findEffectiveLatentValue(String processType) {
-    return drieRepository.findTotalEffectiveLatentValueBySettingsName(
-        PROCESS_NAME,
-        processType
-    ).orElse(0.0);
-  }
-
-  private double calculateStepTime(DrieRequestDto request, ProcessDefinition processType) {
-    double numberOfCycles = calculateNumberOfCycles(request);
-    double stepTime = vacuumProcessRepository.findValueByTypeAndMetric(
-        PROCESS_NAME,
-        request.name(),
-        List.of(processType.getValue()),
-        ProcessDefinition.STEP_TIME.getValue()
-    ).orElse(0.0);
-
-    // Using Formula6: A * B
-    return formulaComponent.calculateFormula4(numberOfCycles, stepTime);
-  }
-
-  private double calculateProcessTime(DrieRequestDto request) {
-    double rate = findDrieValue(ProcessDefinition.ETCH_RATE);
-    return formulaComponent.calculateFormula7(request.depth(), rate, 60.0);
-  }
-
-  private double calculateSetupTakedownTime(DrieRequestDto request) {
-    return Optional.of(findDrieValue(ProcessDefinition.SETUP_TAKEDOWN_TIME))
-        .filter(value -> calculateProcessTime(request) != 0.0)
-        .orElse(0.0);
-  }
-
-  private double calculateTotalTime(DrieRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateTotalUsageTime(request),
-        false
-    );
-  }
-
-  private double calculateTotalUsageTime(DrieRequestDto request) {
+    Term processTime = plan.formula("processTime", FormulaComponent::calculateFormula7,
+        depth, drieValue(plan, ProcessDefinition.ETCH_RATE),
+        plan.constant("secondsPerMinute", 60.0));
+    Term setupTakedownTime = plan.derive("setupTakedownTime",
+        (setup, process) -> process != 0.0 ? setup : 0.0,
+        drieValue(plan, ProcessDefinition.SETUP_TAKEDOWN_TIME), processTime);
     // Using Formula5: A + B
-    return formulaComponent.calculateFormula3(
-        calculateProcessTime(request),
-        calculateSetupTakedownTime(request)
-    );
-  }
+    Term totalUsageTime = plan.formula("totalUsageTime", FormulaComponent::calculateFormula3,
+        processTime, setupTakedownTime);
 
-  private double calculateOverhead(DrieRequestDto request) {
-    double overheadPower = findDrieValue(ProcessDefinition.OVERHEAD_POWER);
+    Term laborTime = plan.convert("laborTime", Conversion.SECONDS_TO_HOURS, setupTakedownTime);
     // Using Formula6: A * B
-    return formulaComponent.calculateFormula4(overheadPower, calculateTotalUsageTime(request));
-  }
-
-  private double calculateNumberOfCycles(DrieRequestDto request) {
-    double processTime = calculateProcessTime(request);
-    double cycleTime = vacuumProcessRepository.findValueByTypeAndMetric(
-        PROCESS_NAME,
-        request.name(),
-        PROCESS_STEPS.stream()
-            .map(ProcessDefinition::getValue)
-            .toList(),
-        ProcessDefinition.STEP_TIME.getValue()
-    ).orElse(0.0);
+    Term periodicCost = plan.formula("periodicCost", FormulaComponent::calculateFormula4,
+        drieValue(plan, ProcessDefinition.PERIODIC_COST), processTime);
+    Term totalTime = plan.convert("totalTime", Conversion.SECONDS_TO_HOURS, totalUsageTime);
 
     // Using Formula9: A / B * s_per_min, with s_per_min = 1.0
-    return Math.ceil(Math.abs(
-        formulaComponent.calculateFormula7(processTime, cycleTime, 1.0)
-    ));
+    Term cycleTime = plan.catalog("cycleTime", (catalog, request) -> recipe(catalog, request)
+        .subprocessValue(
+            PROCESS_STEPS.stream()
+                .map(ProcessDefinition::getValue)
+                .toList(),
+            ProcessDefinition.STEP_TIME.getValue()
+        ).orElse(0.0));
+    Term numberOfCycles = plan.derive("numberOfCycles", cycles -> Math.ceil(Math.abs(cycles)),
+        plan.formula("cycles", FormulaComponent::calculateFormula7, processTime, cycleTime, one));
+
+    List<Term> stepPowers = new ArrayList<>();
+    for (ProcessDefinition step : PROCESS_STEPS) {
+      // Using Formula6: A * B
+      Term stepTime = plan.formula("time." + step.getValue(), FormulaComponent::calculateFormula4,
+          numberOfCycles,
+          plan.catalog("stepTime." + step.getValue(), (catalog, request) -> recipe(catalog, request)
+              .subprocessValue(
+                  List.of(step.getValue()),
+                  ProcessDefinition.STEP_TIME.getValue()
+              ).orElse(0.0)));
+      // Using Formula7: A * B + C * D
+      stepPowers.add(plan.formula("power." + step.getValue(), FormulaComponent::calculateFormula5,
+          stepTime,
+          plan.catalog("effectiveProcess." + step.getValue(), (catalog, request) -> catalog
+              .findTotalEffectiveProcess(CatalogCollection.DRIE, PROCESS_NAME, step.getValue())
+              .orElse(0.0)),
+          setupTakedownTime,
+          plan.catalog("effectiveLatent." + step.getValue(), (catalog, request) -> catalog
+              .findTotalEffectiveLatent(CatalogCollection.DRIE, PROCESS_NAME, step.getValue())
+              .orElse(0.0))));
+    }
+    // Using Formula6: A * B
+    Term overhead = plan.formula("overheadPower", FormulaComponent::calculateFormula4,
+        drieValue(plan, ProcessDefinition.OVERHEAD_POWER), totalUsageTime);
+    Term totalPower = plan.derive("totalPower", Double::sum,
+        overhead, plan.sum("stepsPower", stepPowers));
+
+    Term gasOverhead = drieValue(plan, ProcessDefinition.GAS_OVERHEAD);
+    List<Term> gasCosts = new ArrayList<>();
+    for (GasConstant gas : PROCESS_GASES) {
+      Term gasValue = gas.equals(GasConstant.HE)
+          ? plan.constant("gasRate." + gas.getValue(), HE_BSP_RATE)
+          : plan.catalog("gasRate." + gas.getValue(), (catalog, request) -> recipe(catalog, request)
+              .maxSubprocessValue(gas.getValue()).orElse(0.0));
+      Term quantityPrice = plan.formula("gasQuantity." + gas.getValue(),
+          FormulaComponent::calculateFormula1, gasValue, processTime, sPerMin, gasOverhead);
+      gasCosts.add(plan.product("gasCost." + gas.getValue(), quantityPrice,
+          plan.price("gasPrice." + gas.getValue(),
+              (catalog, request) -> catalog.findGasPrice(gas.getValue()).orElse(0.0))));
+    }
+    Term gasUsage = plan.sum("gasUsage", gasCosts);
+
+    return plan
+        .output(CostComponent.LABOR_TIME,
+            plan.product("laborTime.perJobStep", laborTime, runs))
+        .output(CostComponent.PERIODIC_COST,
+            plan.product("periodicCost.perJobStep", periodicCost, runs))
+        .output(CostComponent.POWER,
+            plan.product("power.perJobStep", totalPower, runs))
+        .output(CostComponent.GAS,
+            plan.product("gas.perJobStep", gasUsage, runs))
+        .output(CostComponent.TOTAL_TIME,
+            plan.product("totalTime.perJobStep", totalTime, runs))
+        .compile();
+  }
+
+  private static Term drieValue(CostPlan.Builder<DrieRequestDto> plan,
+      ProcessDefinition parameter) {
+    return plan.catalog(PROCESS_NAME + "." + parameter.getValue(), (catalog, request) -> catalog
+        .findValues(CatalogCollection.DRIE, PROCESS_NAME, DRIE_FIELDS)
+        .get(parameter.getValue()));
+  }
+
+  private static RecipeView recipe(ReferenceCatalog catalog, DrieRequestDto request) {
+    return catalog.findRecipe(PROCESS_NAME, request.name());
   }
 }
\ No newline at end of file
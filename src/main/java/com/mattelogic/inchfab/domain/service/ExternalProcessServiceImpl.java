@@ -1,12 +1,19 @@
 package com.mattelogic.inchfab.domain.service;
 
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
+import com.mattelogic.inchfab.base.model.FieldValues;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostVector;
 import com.mattelogic.inchfab.core.model.ProjectStep;
 import com.mattelogic.inchfab.domain.dto.request.ExternalProcessRequestDto;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
-import com.mattelogic.inchfab.domain.repository.ExternalProcessRepository;
+import java.util.List;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,33 +25,42 @@ public final class ExternalProcessServiceImpl implements
     CalculateService<ProjectStep, CostRequestDto, ExternalProcessRequestDto> {
 
   private static final String PROCESS_NAME = "External Process";
+  private static final List<String> EXTERNAL_COST_FIELDS = Stream.of(
+      ProcessDefinition.SETUP_COST,
+      ProcessDefinition.LOT_CHARGE,
+      ProcessDefinition.LOT_SIZE,
+      ProcessDefinition.AMOUNT_RATE
+  ).map(ProcessDefinition::getValue).toList();
 
-  private final ExternalProcessRepository externalProcessRepository;
+  private final ReferenceCatalogHolder referenceCatalogHolder;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new ExternalProcessRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public ExternalProcessRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new ExternalProcessRequestDto(
         request.waferSize(),
         step.name(),
         step.amount()
-    ));
+    );
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(ExternalProcessRequestDto request) {
     log.info("Processing External Process calculation request: {}", request);
 
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("External Process calculation completed successfully");
 
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(ExternalProcessRequestDto request) {
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .externalCost(calculateExternalCost(request))
-        .build();
+  private CostVector calculateProcessResults(ExternalProcessRequestDto request) {
+    return new CostVector(PROCESS_NAME)
+        .set(CostComponent.EXTERNAL_COST, calculateExternalCost(request));
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -56,21 +72,18 @@ public final class ExternalProcessServiceImpl implements
   }
 
   private double calculateExternalCost(ExternalProcessRequestDto request) {
-    double setupCost = findExternalProcessValue(request.name(),
-        ProcessDefinition.SETUP_COST.getValue());
-    double lotCharge = findExternalProcessValue(request.name(),
-        ProcessDefinition.LOT_CHARGE.getValue());
-    double lotSize = findExternalProcessValue(request.name(),
-        ProcessDefinition.LOT_SIZE.getValue());
-    double amountRate = findExternalProcessValue(request.name(),
-        ProcessDefinition.AMOUNT_RATE.getValue());
+    FieldValues values = catalog().findValues(CatalogCollection.EXTERNAL_PROCESS, request.name(),
+        EXTERNAL_COST_FIELDS);
+    double setupCost = values.get(ProcessDefinition.SETUP_COST.getValue());
+    double lotCharge = values.get(ProcessDefinition.LOT_CHARGE.getValue());
+    double lotSize = values.get(ProcessDefinition.LOT_SIZE.getValue());
+    double amountRate = values.get(ProcessDefinition.AMOUNT_RATE.getValue());
     double sum =
         Math.ceil(request.waferSize() / lotSize) * lotCharge + amountRate * request.amount();
     return (setupCost + sum) / request.waferSize();
   }
 
-  private double findExternalProcessValue(String name, String fieldName) {
-    return externalProcessRepository.findFieldByName(name, fieldName)
-        .orElse(0.0);
+  private ReferenceCatalog catalog() {
+    return referenceCatalogHolder.current();
   }
 }
@@ -1,22 +1,30 @@
 package com.mattelogic.inchfab.domain.service;
 
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.RecipeView;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
 import com.mattelogic.inchfab.base.enums.GasConstant;
-import com.mattelogic.inchfab.base.enums.UnitConstant;
-import com.mattelogic.inchfab.base.repository.ConstantRepository;
-import com.mattelogic.inchfab.base.repository.GasRepository;
-import com.mattelogic.inchfab.base.repository.VacuumProcessRepository;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
 import com.mattelogic.inchfab.core.model.ProjectStep;
+import com.mattelogic.inchfab.domain.component.CostPlanComponent;
 import com.mattelogic.inchfab.domain.component.FormulaComponent;
 import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
 import com.mattelogic.inchfab.domain.dto.request.IcpcvdRequestDto;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
-import com.mattelogic.inchfab.domain.model.ProcessStep;
-import com.mattelogic.inchfab.domain.repository.IcpcvdRepository;
+import com.mattelogic.inchfab.domain.plan.CostPlan;
+import com.mattelogic.inchfab.domain.plan.CostPlan.Conversion;
+import com.mattelogic.inchfab.domain.plan.Term;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,50 +36,65 @@ public final class IcpcvdServiceImpl implements
     CalculateService<ProjectStep, CostRequestDto, IcpcvdRequestDto> {
 
   private static final String PROCESS_NAME = ProcessDefinition.ICP_CVD.getValue();
+  private static final List<String> ICPCVD_FIELDS = Stream.of(
+      ProcessDefinition.GAS_OVERHEAD,
+      ProcessDefinition.OVERHEAD_POWER,
+      ProcessDefinition.PERIODIC_COST,
+      ProcessDefinition.SETUP_TAKEDOWN_TIME,
+      ProcessDefinition.WAFER_PER_RUN
+  ).map(ProcessDefinition::getValue).toList();
   private static final double CLEAN_TIME = 0.0;
   private static final double O2_GAS_RATE = 5.0;
   private static final List<GasConstant> PROCESS_GASES = List.of(
       GasConstant.SIH4HE, GasConstant.O2, GasConstant.N2, GasConstant.AR
   );
+  private static final CostPlan<IcpcvdRequestDto> PLAN = definePlan();
 
-  private final FormulaComponent formulaComponent;
-  private final UnitConverterComponent unitConverterComponent;
-  private final GasRepository gasRepository;
-  private final VacuumProcessRepository vacuumProcessRepository;
-  private final IcpcvdRepository icpcvdRepository;
-  private final ConstantRepository constantRepository;
+  private final CostPlanComponent costPlanComponent;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new IcpcvdRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public IcpcvdRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new IcpcvdRequestDto(
         request.waferSize(),
         step.name(),
         step.thickness(),
         step.refractiveIndex(),
         step.filmStress()
-    ));
+    );
+  }
+
+  @Override
+  public List<CostVector> calculateCurve(ProjectStep step, List<CostRequestDto> requests) {
+    return costPlanComponent.evaluateCurve(PLAN, toRequest(step, requests.get(0)),
+        requests.stream().mapToDouble(CostRequestDto::waferSize).toArray());
+  }
+
+  @Override
+  public CostDecomposition decompose(ProjectStep step, CostRequestDto request) {
+    return costPlanComponent.decompose(PLAN, toRequest(step, request));
+  }
+
+  @Override
+  public CostSampler sampler(ProjectStep step, CostRequestDto request,
+      Map<String, Distribution> distributions) {
+    return costPlanComponent.sampler(PLAN, toRequest(step, request), distributions);
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(IcpcvdRequestDto request) {
     log.info("Processing ICP-CVD calculation request: {}", request);
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("ICP-CVD calculation completed successfully");
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(IcpcvdRequestDto request) {
-    double waferPerRun = findIcpcvdValue(ProcessDefinition.WAFER_PER_RUN);
-    double runNeededPerJobStep = Math.ceil(request.waferSize() / waferPerRun);
-
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .laborTime(calculateLaborTime(request) * runNeededPerJobStep)
-        .periodicCost(calculatePeriodicCost(request) * runNeededPerJobStep)
-        .power(calculateTotalPower(request) * runNeededPerJobStep)
-        .gas(calculateGasUsage(request) * runNeededPerJobStep)
-        .totalTime(calculateTotalTime(request) * runNeededPerJobStep)
-        .build();
+  private CostVector calculateProcessResults(IcpcvdRequestDto request) {
+    return costPlanComponent.evaluate(PLAN, request);
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -82,179 +105,106 @@ public final class IcpcvdServiceImpl implements
         .build();
   }
 
-  private double calculateTotalPower(IcpcvdRequestDto request) {
-    List<ProcessStep> powerSteps = createPowerSteps(request);
-    return calculateOverheadPower(request) +
-        powerSteps.stream()
-            .mapToDouble(step -> calculatePowerForStep(request, step))
-            .sum();
-  }
-
-  private List<ProcessStep> createPowerSteps(IcpcvdRequestDto request) {
-    return List.of(
-        new ProcessStep(
-            ProcessDefinition.DEPOSITION.getValue(),
-            () -> calculateDepositionTime(request),
-            ProcessDefinition.DEPOSITION.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.CLEAN.getValue(),
-            () -> CLEAN_TIME,
-            ProcessDefinition.CLEAN.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.MATCHING.getValue(),
-            () -> calculateProcessTime(request),
-            ProcessDefinition.MATCHING.getValue()
-        )
-    );
-  }
-
-  private double calculatePowerForStep(IcpcvdRequestDto request, ProcessStep step) {
-    double processTime = step.timeCalculator().get();
-    double setupTakedownTime = calculateSetupTakedownTime(request);
-    double effectiveProcess = findEffectiveProcessValue(step.parameterValue());
-    double effectiveLatent = findEffectiveLatentValue(step.parameterValue());
-
-    // Using Formula6: A * B + C * D
-    return formulaComponent.calculateFormula5(
-        processTime,
-        effectiveProcess,
-        setupTakedownTime,
-        effectiveLatent
-    );
-  }
-
-  private double calculateGasUsage(IcpcvdRequestDto request) {
-    return PROCESS_GASES.stream()
-        .mapToDouble(gas -> calculateGasCost(gas, request))
-        .sum();
-  }
-
-  private double calculateGasCost(GasConstant gas, IcpcvdRequestDto request) {
-    double gasValue = findGasValue(gas, request);
-    double cleanGasValue = gas == GasConstant.O2 ? O2_GAS_RATE : 0.0;
-    double depositionTime = calculateDepositionTime(request);
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
-    double gasOverhead = findIcpcvdValue(ProcessDefinition.GAS_OVERHEAD);
-    double price = gasRepository.findPriceByName(gas.getValue()).orElse(0.0);
-
-    // Using Formula2: (A * B + C * D) / s_per_min * (1 + E)
-    double quantity = formulaComponent.calculateFormula2(
-        gasValue,
-        depositionTime,
-        cleanGasValue,
-        CLEAN_TIME,
-        sPerMin,
-        gasOverhead
-    );
-
-    return quantity * price;
-  }
-
-  private double calculateLaborTime(IcpcvdRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateSetupTakedownTime(request),
-        false
-    );
-  }
+  private static CostPlan<IcpcvdRequestDto> definePlan() {
+    CostPlan.Builder<IcpcvdRequestDto> plan = CostPlan.builder(PROCESS_NAME);
+    Term waferSize = plan.variable("waferSize", IcpcvdRequestDto::waferSize);
+    Term thickness = plan.input("thickness", IcpcvdRequestDto::thickness);
+    Term cleanTime = plan.constant("cleanTime", CLEAN_TIME);
+    Term sPerMin = plan.factor("sPerMin", UnitConverterComponent::sPerMin);
 
-  private double calculatePeriodicCost(IcpcvdRequestDto request) {
-    // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        findIcpcvdValue(ProcessDefinition.PERIODIC_COST),
-        calculateProcessTime(request)
-    );
-  }
+    Term runs = plan.derive("runNeededPerJobStep", (wafers, perRun) -> Math.ceil(wafers / perRun),
+        waferSize, icpcvdValue(plan, ProcessDefinition.WAFER_PER_RUN));
 
-  private double calculateDepositionTime(IcpcvdRequestDto request) {
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
-    double depositionRate = findProcessValue(request, ProcessDefinition.BASE_PROCESS_RATE);
     // Using Formula8: A / B * s_per_min
-    return formulaComponent.calculateFormula7(
-        request.thickness(),
-        depositionRate,
-        sPerMin
-    );
-  }
-
-  private double calculateProcessTime(IcpcvdRequestDto request) {
+    Term depositionTime = plan.formula("depositionTime", FormulaComponent::calculateFormula7,
+        thickness, processValue(plan, ProcessDefinition.BASE_PROCESS_RATE.getValue()), sPerMin);
     // Using Formula4: A + B
-    return formulaComponent.calculateFormula3(
-        calculateDepositionTime(request),
-        CLEAN_TIME
-    );
-  }
-
-  private double calculateSetupTakedownTime(IcpcvdRequestDto request) {
-    return Optional.of(findIcpcvdValue(ProcessDefinition.SETUP_TAKEDOWN_TIME))
-        .filter(value -> calculateDepositionTime(request) != 0.0)
-        .orElse(0.0);
-  }
-
-  private double calculateTotalTime(IcpcvdRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateTotalUsageTime(request),
-        false
-    );
-  }
-
-  private double calculateTotalUsageTime(IcpcvdRequestDto request) {
+    Term processTime = plan.formula("processTime", FormulaComponent::calculateFormula3,
+        depositionTime, cleanTime);
+    Term setupTakedownTime = plan.derive("setupTakedownTime",
+        (setup, deposition) -> deposition != 0.0 ? setup : 0.0,
+        icpcvdValue(plan, ProcessDefinition.SETUP_TAKEDOWN_TIME), depositionTime);
     // Using Formula4: A + B
-    return formulaComponent.calculateFormula3(
-        calculateProcessTime(request),
-        calculateSetupTakedownTime(request)
-    );
-  }
+    Term totalUsageTime = plan.formula("totalUsageTime", FormulaComponent::calculateFormula3,
+        processTime, setupTakedownTime);
 
-  private double calculateOverheadPower(IcpcvdRequestDto request) {
+    Term laborTime = plan.convert("laborTime", Conversion.SECONDS_TO_HOURS, setupTakedownTime);
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateTotalUsageTime(request),
-        findIcpcvdValue(ProcessDefinition.OVERHEAD_POWER)
+    Term periodicCost = plan.formula("periodicCost", FormulaComponent::calculateFormula4,
+        icpcvdValue(plan, ProcessDefinition.PERIODIC_COST), processTime);
+    Term totalTime = plan.convert("totalTime", Conversion.SECONDS_TO_HOURS, totalUsageTime);
+
+    List<Term> stepPowers = List.of(
+        stepPower(plan, ProcessDefinition.DEPOSITION, depositionTime, setupTakedownTime),
+        stepPower(plan, ProcessDefinition.CLEAN, cleanTime, setupTakedownTime),
+        stepPower(plan, ProcessDefinition.MATCHING, processTime, setupTakedownTime)
     );
+    // Using Formula5: A * B
+    Term overheadPower = plan.formula("overheadPower", FormulaComponent::calculateFormula4,
+        totalUsageTime, icpcvdValue(plan, ProcessDefinition.OVERHEAD_POWER));
+    Term totalPower = plan.derive("totalPower", Double::sum,
+        overheadPower, plan.sum("stepsPower", stepPowers));
+
+    Term gasOverhead = icpcvdValue(plan, ProcessDefinition.GAS_OVERHEAD);
+    List<Term> gasCosts = new ArrayList<>();
+    for (GasConstant gas : PROCESS_GASES) {
+      // Using Formula2: (A * B + C * D) / s_per_min * (1 + E)
+      Term quantity = plan.formula("gasQuantity." + gas.getValue(),
+          FormulaComponent::calculateFormula2,
+          processValue(plan, gas.getValue()),
+          depositionTime,
+          plan.constant("cleanGasRate." + gas.getValue(),
+              gas == GasConstant.O2 ? O2_GAS_RATE : 0.0),
+          cleanTime,
+          sPerMin,
+          gasOverhead);
+      gasCosts.add(plan.product("gasCost." + gas.getValue(), quantity,
+          plan.price("gasPrice." + gas.getValue(),
+              (catalog, request) -> catalog.findGasPrice(gas.getValue()).orElse(0.0))));
+    }
+    Term gasUsage = plan.sum("gasUsage", gasCosts);
+
+    return plan
+        .output(CostComponent.LABOR_TIME,
+            plan.product("laborTime.perJobStep", laborTime, runs))
+        .output(CostComponent.PERIODIC_COST,
+            plan.product("periodicCost.perJobStep", periodicCost, runs))
+        .output(CostComponent.POWER,
+            plan.product("power.perJobStep", totalPower, runs))
+        .output(CostComponent.GAS,
+            plan.product("gas.perJobStep", gasUsage, runs))
+        .output(CostComponent.TOTAL_TIME,
+            plan.product("totalTime.perJobStep", totalTime, runs))
+        .compile();
+  }
+
+  private static Term stepPower(CostPlan.Builder<IcpcvdRequestDto> plan, ProcessDefinition step,
+      Term time, Term setupTakedownTime) {
+    // Using Formula6: A * B + C * D
+    return plan.formula("power." + step.getValue(), FormulaComponent::calculateFormula5,
+        time,
+        plan.catalog("effectiveProcess." + step.getValue(), (catalog, request) -> catalog
+            .findTotalEffectiveProcess(CatalogCollection.ICP_CVD, PROCESS_NAME, step.getValue())
+            .orElse(0.0)),
+        setupTakedownTime,
+        plan.catalog("effectiveLatent." + step.getValue(), (catalog, request) -> catalog
+            .findTotalEffectiveLatent(CatalogCollection.ICP_CVD, PROCESS_NAME, step.getValue())
+            .orElse(0.0)));
   }
 
-  private Double findEffectiveProcessValue(String processType) {
-    return icpcvdRepository.findTotalEffectiveProcessValueBySettingsName(
-        PROCESS_NAME,
-        processType
-    ).orElse(0.0);
-  }
-
-  private Double findEffectiveLatentValue(String processType) {
-    return icpcvdRepository.findTotalEffectiveLatentValueBySettingsName(
-        PROCESS_NAME,
-        processType
-    ).orElse(0.0);
-  }
-
-  private double findGasValue(GasConstant gas, IcpcvdRequestDto request) {
-    return vacuumProcessRepository.findValueByTypeAndMetric(
-        PROCESS_NAME,
-        request.name(),
-        gas.getValue()
-    ).orElse(0.0);
+  private static Term icpcvdValue(CostPlan.Builder<IcpcvdRequestDto> plan,
+      ProcessDefinition parameter) {
+    return plan.catalog(PROCESS_NAME + "." + parameter.getValue(), (catalog, request) -> catalog
+        .findValues(CatalogCollection.ICP_CVD, PROCESS_NAME, ICPCVD_FIELDS)
+        .get(parameter.getValue()));
   }
 
-  private Double findIcpcvdValue(ProcessDefinition parameter) {
-    return icpcvdRepository.findValueByNameAndField(
-        PROCESS_NAME,
-        parameter.getValue()
-    ).orElse(0.0);
+  private static Term processValue(CostPlan.Builder<IcpcvdRequestDto> plan, String parameter) {
+    return plan.catalog("recipe." + parameter, (catalog, request) -> recipe(catalog, request)
+        .processValue(parameter).orElse(0.0));
   }
 
-  private double findProcessValue(IcpcvdRequestDto request, ProcessDefinition parameter) {
-    return vacuumProcessRepository.findValueByTypeAndMetric(
-        PROCESS_NAME,
-        request.name(),
-        parameter.getValue()
-    ).orElse(0.0);
+  private static RecipeView recipe(ReferenceCatalog catalog, IcpcvdRequestDto request) {
+    return catalog.findRecipe(PROCESS_NAME, request.name());
   }
 }
\ No newline at end of file
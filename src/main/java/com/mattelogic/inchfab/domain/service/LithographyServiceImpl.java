@@ -1,18 +1,21 @@
 package com.mattelogic.inchfab.domain.service;
 
-import com.mattelogic.inchfab.base.enums.UnitConstant;
-import com.mattelogic.inchfab.base.repository.ConstantRepository;
-import com.mattelogic.inchfab.base.repository.LithographyDataRepository;
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.PhotoresistProfile;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
+import com.mattelogic.inchfab.base.model.FieldValues;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostVector;
 import com.mattelogic.inchfab.core.model.ProjectStep;
 import com.mattelogic.inchfab.domain.component.FormulaComponent;
 import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
 import com.mattelogic.inchfab.domain.dto.request.LithographyRequestDto;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
 import com.mattelogic.inchfab.domain.exception.LithographyCalculationException;
-import com.mattelogic.inchfab.domain.repository.LithographyRepository;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -28,30 +31,38 @@ public final class LithographyServiceImpl implements
     CalculateService<ProjectStep, CostRequestDto, LithographyRequestDto> {
 
   private static final String PROCESS_NAME = ProcessDefinition.LITHOGRAPHY.getValue();
+  private static final List<String> LITHOGRAPHY_FIELDS = Stream.of(
+      ProcessDefinition.HEATER_POWER_DRAW,
+      ProcessDefinition.OVERHEAD_POWER,
+      ProcessDefinition.PERIODIC_COST
+  ).map(ProcessDefinition::getValue).toList();
   private static final String SNF_LETTER = "snf";
   private static final double HMDS_TEMPERATURE = 150.0;
 
   private final FormulaComponent formulaComponent;
   private final UnitConverterComponent unitConverter;
-  private final LithographyRepository lithographyRepository;
-  private final LithographyDataRepository lithographyDataRepository;
-  private final ConstantRepository constantRepository;
+  private final ReferenceCatalogHolder referenceCatalogHolder;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new LithographyRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public LithographyRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new LithographyRequestDto(
         request.waferSize(),
         step.name(),
         step.thickness(),
         step.aligner()
-    ));
+    );
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(LithographyRequestDto request) {
     log.info("Processing lithography calculation request: {}", request);
     try {
-      ResultResponseDto response = calculateProcessResults(request);
+      ResultResponseDto response = calculateProcessResults(request).toResponse();
       log.info("Lithography calculation completed successfully");
       return createSuccessResponse(response);
     } catch (Exception e) {
@@ -60,16 +71,14 @@ public final class LithographyServiceImpl implements
     }
   }
 
-  private ResultResponseDto calculateProcessResults(LithographyRequestDto request) {
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .laborTime(calculateLaborTime(request))
-        .periodicCost(calculatePeriodicCost(request))
-        .power(calculateTotalPower(request))
-        .lithographyReagent(calculateReagentCosts(request))
-        .externalCost(0.0)
-        .totalTime(calculateTotalTime(request))
-        .build();
+  private CostVector calculateProcessResults(LithographyRequestDto request) {
+    return new CostVector(PROCESS_NAME)
+        .set(CostComponent.LABOR_TIME, calculateLaborTime(request))
+        .set(CostComponent.PERIODIC_COST, calculatePeriodicCost(request))
+        .set(CostComponent.POWER, calculateTotalPower(request))
+        .set(CostComponent.LITHOGRAPHY_REAGENT, calculateReagentCosts(request))
+        .set(CostComponent.EXTERNAL_COST, 0.0)
+        .set(CostComponent.TOTAL_TIME, calculateTotalTime(request));
   }
 
   private List<ProcessStep> getProcessSteps() {
@@ -178,7 +187,11 @@ public final class LithographyServiceImpl implements
   }
 
   private double calculateExternalCost(LithographyRequestDto request) {
-    double price = lithographyRepository.findPrice(request.aligner()).orElse(0.0) / 60;
+    double price = catalog().findFirstValue(
+        CatalogCollection.LITHOGRAPHY,
+        ProcessDefinition.PRICE.getValue(),
+        request.aligner()
+    ).orElse(0.0) / 60;
 
     double total = getAlignmentExposureTime().stream()
         .mapToDouble(step -> calculateExternalCost(request, step))
@@ -236,14 +249,8 @@ public final class LithographyServiceImpl implements
     double heaterPowerDraw = findLithographyValue(ProcessDefinition.HEATER_POWER_DRAW);
     double processTemp = step.temperatureFunc().apply(request);
     double processTime = step.processTimeFunc().apply(request);
-    double sPerH = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_H.getValue()
-    ).orElse(0.0);
-    double wPerKw = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.POWER.getValue(),
-        UnitConstant.W_PER_KW.getValue()
-    ).orElse(0.0);
+    double sPerH = unitConverter.sPerH();
+    double wPerKw = unitConverter.wPerKw();
 
     // Using Formula11: A * B * C / s_per_h / W_per_kW
     double wattage = formulaComponent.calculateFormula8(
@@ -254,7 +261,8 @@ public final class LithographyServiceImpl implements
         wPerKw
     );
 
-    double effectiveLatent = lithographyRepository.findEffectiveLatentBySettingsAndStepName(
+    double effectiveLatent = catalog().findStepEffectiveLatent(
+        CatalogCollection.LITHOGRAPHY,
         PROCESS_NAME,
         ProcessDefinition.HEATER.getValue(),
         step.parameter().getValue()
@@ -403,17 +411,9 @@ public final class LithographyServiceImpl implements
   }
 
   private double calculateMaterialCost(LithographyRequestDto request, MaterialParameters params) {
-    double costPerRun = lithographyDataRepository.findMaterialValue(
-        request.name(),
-        params.material.getValue(),
-        ProcessDefinition.COST_PER_RUN.getValue()
-    ).orElse(0.0);
-
-    double runSize = lithographyDataRepository.findFieldByNameAndField(
-        request.name(),
-        ProcessDefinition.RUN_SIZE.getValue(),
-        params.processStep.getValue()
-    ).orElse(0.0);
+    PhotoresistProfile profile = profile(request);
+    double costPerRun = profile.materialCostPerRun(params.material);
+    double runSize = profile.runSize(params.processStep);
 
     if (runSize <= 0) {
       return 0.0;
@@ -439,11 +439,7 @@ public final class LithographyServiceImpl implements
   }
 
   private double findTemperature(LithographyRequestDto request, ProcessDefinition step) {
-    return lithographyDataRepository.findFieldByNameAndField(
-        request.name(),
-        ProcessDefinition.TEMPERATURE.getValue(),
-        step.getValue()
-    ).orElse(0.0);
+    return profile(request).temperature(step);
   }
 
   // Process Time Methods
@@ -619,11 +615,7 @@ public final class LithographyServiceImpl implements
 
   // Lookup Methods
   private double findProcessTime(LithographyRequestDto request, ProcessDefinition step) {
-    return lithographyDataRepository.findFieldByNameAndField(
-        request.name(),
-        ProcessDefinition.PROCESS_TIME.getValue(),
-        step.getValue()
-    ).orElse(0.0);
+    return profile(request).processTime(step);
   }
 
   private boolean checkProcessTimeIsZero(LithographyRequestDto request, ProcessDefinition step) {
@@ -634,23 +626,16 @@ public final class LithographyServiceImpl implements
   }
 
   private double findSetupTime(LithographyRequestDto request, ProcessDefinition step) {
-    return lithographyDataRepository.findFieldByNameAndField(
-        request.name(),
-        ProcessDefinition.SETUP_TAKEDOWN.getValue(),
-        step.getValue()
-    ).orElse(0.0);
+    return profile(request).setupTime(step);
   }
 
   private double findLaborTime(LithographyRequestDto request, ProcessDefinition step) {
-    return lithographyDataRepository.findFieldByNameAndField(
-        request.name(),
-        ProcessDefinition.LABOR_TIME.getValue(),
-        step.getValue()
-    ).orElse(0.0);
+    return profile(request).laborTime(step);
   }
 
   private double getEffectiveProcess(ProcessDefinition parameter) {
-    return lithographyRepository.findEffectiveProcessBySettingsAndStepName(
+    return catalog().findStepEffectiveProcess(
+        CatalogCollection.LITHOGRAPHY,
         PROCESS_NAME,
         ProcessDefinition.OTHER_POWER.getValue(),
         parameter.getValue()
@@ -658,7 +643,8 @@ public final class LithographyServiceImpl implements
   }
 
   private double getEffectiveLatent(ProcessDefinition parameter) {
-    return lithographyRepository.findEffectiveLatentBySettingsAndStepName(
+    return catalog().findStepEffectiveLatent(
+        CatalogCollection.LITHOGRAPHY,
         PROCESS_NAME,
         ProcessDefinition.OTHER_POWER.getValue(),
         parameter.getValue()
@@ -674,18 +660,15 @@ public final class LithographyServiceImpl implements
   }
 
   private Double findLithographyValue(ProcessDefinition parameter) {
-    return lithographyRepository.findValueByNameAndField(
-        PROCESS_NAME,
-        parameter.getValue()
-    ).orElse(0.0);
+    return lithographyValues().get(parameter.getValue());
+  }
+
+  private FieldValues lithographyValues() {
+    return catalog().findValues(CatalogCollection.LITHOGRAPHY, PROCESS_NAME, LITHOGRAPHY_FIELDS);
   }
 
   private double findRunSize(String processName, ProcessStep step) {
-    return lithographyDataRepository.findFieldByNameAndField(
-        processName,
-        ProcessDefinition.RUN_SIZE.getValue(),
-        step.parameter().getValue()
-    ).orElse(0.0);
+    return catalog().findPhotoresistProfile(processName).runSize(step.parameter());
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -746,5 +729,13 @@ public final class LithographyServiceImpl implements
   ) {
 
   }
+
+  private PhotoresistProfile profile(LithographyRequestDto request) {
+    return catalog().findPhotoresistProfile(request.name());
+  }
+
+  private ReferenceCatalog catalog() {
+    return referenceCatalogHolder.current();
+  }
 }
 
@@ -1,22 +1,30 @@
 package com.mattelogic.inchfab.domain.service;
 
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.RecipeView;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
 import com.mattelogic.inchfab.base.enums.GasConstant;
-import com.mattelogic.inchfab.base.enums.UnitConstant;
-import com.mattelogic.inchfab.base.repository.ConstantRepository;
-import com.mattelogic.inchfab.base.repository.GasRepository;
-import com.mattelogic.inchfab.base.repository.VacuumProcessRepository;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
 import com.mattelogic.inchfab.core.model.ProjectStep;
+import com.mattelogic.inchfab.domain.component.CostPlanComponent;
 import com.mattelogic.inchfab.domain.component.FormulaComponent;
 import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
 import com.mattelogic.inchfab.domain.dto.request.LpcvdRequestDto;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
-import com.mattelogic.inchfab.domain.model.ProcessStep;
-import com.mattelogic.inchfab.domain.repository.LpcvdRepository;
+import com.mattelogic.inchfab.domain.plan.CostPlan;
+import com.mattelogic.inchfab.domain.plan.CostPlan.Conversion;
+import com.mattelogic.inchfab.domain.plan.Term;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,47 +36,64 @@ public final class LpcvdServiceImpl implements
     CalculateService<ProjectStep, CostRequestDto, LpcvdRequestDto> {
 
   private static final String PROCESS_NAME = ProcessDefinition.LP_CVD.getValue();
+  private static final List<String> LPCVD_FIELDS = Stream.of(
+      ProcessDefinition.GAS_OVERHEAD,
+      ProcessDefinition.HEATER_POWER_DRAW,
+      ProcessDefinition.OVERHEAD_POWER,
+      ProcessDefinition.PERIODIC_COST,
+      ProcessDefinition.RAMP_UP_DOWN_TEMPERATURE,
+      ProcessDefinition.SETUP_TAKEDOWN_TIME,
+      ProcessDefinition.WAFER_PER_RUN
+  ).map(ProcessDefinition::getValue).toList();
   private static final List<GasConstant> PROCESS_GASES = List.of(
       GasConstant.SIH4, GasConstant.O2, GasConstant.N2, GasConstant.N2O,
       GasConstant.NH3, GasConstant.SIH2CL2
   );
+  private static final CostPlan<LpcvdRequestDto> PLAN = definePlan();
 
-  private final FormulaComponent formulaComponent;
-  private final LpcvdRepository lpcvdRepository;
-  private final GasRepository gasRepository;
-  private final VacuumProcessRepository vacuumProcessRepository;
-  private final UnitConverterComponent unitConverterComponent;
-  private final ConstantRepository constantRepository;
+  private final CostPlanComponent costPlanComponent;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new LpcvdRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public LpcvdRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new LpcvdRequestDto(
         request.waferSize(),
         step.name(),
         step.thickness()
-    ));
+    );
+  }
+
+  @Override
+  public List<CostVector> calculateCurve(ProjectStep step, List<CostRequestDto> requests) {
+    return costPlanComponent.evaluateCurve(PLAN, toRequest(step, requests.get(0)),
+        requests.stream().mapToDouble(CostRequestDto::waferSize).toArray());
+  }
+
+  @Override
+  public CostDecomposition decompose(ProjectStep step, CostRequestDto request) {
+    return costPlanComponent.decompose(PLAN, toRequest(step, request));
+  }
+
+  @Override
+  public CostSampler sampler(ProjectStep step, CostRequestDto request,
+      Map<String, Distribution> distributions) {
+    return costPlanComponent.sampler(PLAN, toRequest(step, request), distributions);
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(LpcvdRequestDto request) {
     log.info("Processing LPCVD calculation request: {}", request);
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("LPCVD calculation completed successfully");
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(LpcvdRequestDto request) {
-    double waferPerRun = findLpcvdValue(ProcessDefinition.WAFER_PER_RUN);
-    double runNeededPerJobStep = Math.ceil(request.waferSize() / waferPerRun);
-
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .laborTime(calculateLaborTime(request) * runNeededPerJobStep)
-        .periodicCost(calculatePeriodicCost(request) * runNeededPerJobStep)
-        .power(calculateTotalPower(request) * runNeededPerJobStep)
-        .gas(calculateGasUsage(request) * runNeededPerJobStep)
-        .totalTime(calculateTotalTime(request) * runNeededPerJobStep)
-        .build();
+  private CostVector calculateProcessResults(LpcvdRequestDto request) {
+    return costPlanComponent.evaluate(PLAN, request);
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -79,196 +104,117 @@ public final class LpcvdServiceImpl implements
         .build();
   }
 
-  private double calculateTotalPower(LpcvdRequestDto request) {
-    List<ProcessStep> powerSteps = createPowerSteps(request);
-    return calculateGasOverheadPower(request) +
-        powerSteps.stream()
-            .mapToDouble(step -> calculatePowerForStep(request, step))
-            .sum();
-  }
-
-  private List<ProcessStep> createPowerSteps(LpcvdRequestDto request) {
-    return List.of(
-        new ProcessStep(
-            ProcessDefinition.DEPOSITION.getValue(),
-            () -> calculateDepositionTime(request),
-            ProcessDefinition.DEPOSITION.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.CLEAN.getValue(),
-            () -> findProcessValue(request, ProcessDefinition.CLEAN_TIME),
-            ProcessDefinition.CLEAN.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.RAMP_UP_DOWN_TEMPERATURE.getValue(),
-            this::getRampUpDownTime,
-            ProcessDefinition.RAMP_UP_DOWN_TEMPERATURE.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.HEATER.getValue(),
-            () -> calculateSetupTakedownTime(request),
-            ProcessDefinition.HEATER.getValue()
-        )
-    );
-  }
-
-  private double calculatePowerForStep(LpcvdRequestDto request, ProcessStep step) {
-    double temperature = findProcessValue(request, ProcessDefinition.TEMPERATURE);
-    double heaterPowerDraw = findLpcvdValue(ProcessDefinition.HEATER_POWER_DRAW);
-    double time = step.timeCalculator().get();
-    double wPerKw = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.POWER.getValue(),
-        UnitConstant.W_PER_KW.getValue()
-    ).orElse(0.0);
-    double sPerH = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_H.getValue()
-    ).orElse(0.0);
-
-    if (ProcessDefinition.DEPOSITION.getValue().equals(step.parameterValue())) {
-      return formulaComponent.calculateFormula8(time,
-          temperature, heaterPowerDraw, wPerKw, sPerH);
-    } else {
-      return formulaComponent.calculateFormula4(time, getEffectiveLatentValue());
-    }
-  }
+  private static CostPlan<LpcvdRequestDto> definePlan() {
+    CostPlan.Builder<LpcvdRequestDto> plan = CostPlan.builder(PROCESS_NAME);
+    Term waferSize = plan.variable("waferSize", LpcvdRequestDto::waferSize);
+    Term thickness = plan.input("thickness", LpcvdRequestDto::thickness);
+    Term zero = plan.constant("zero", 0.0);
+    Term sPerMin = plan.factor("sPerMin", UnitConverterComponent::sPerMin);
+    Term sPerH = plan.factor("sPerH", UnitConverterComponent::sPerH);
+    Term wPerKw = plan.factor("wPerKw", UnitConverterComponent::wPerKw);
 
-  private double calculateGasUsage(LpcvdRequestDto request) {
-    return PROCESS_GASES.stream()
-        .mapToDouble(gas -> calculateGasCost(gas, request))
-        .sum();
-  }
+    Term runs = plan.derive("runNeededPerJobStep", (wafers, perRun) -> Math.ceil(wafers / perRun),
+        waferSize, lpcvdValue(plan, ProcessDefinition.WAFER_PER_RUN));
 
-  private double calculateDepositionTime(LpcvdRequestDto request) {
-    double depositionRate = findProcessValue(request, ProcessDefinition.BASE_PROCESS_RATE);
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
     // Using Formula8: A / B * s_per_min
-    return formulaComponent.calculateFormula7(
-        request.thickness(),
-        depositionRate,
-        sPerMin
-    );
-  }
-
-  private double calculateGasCost(GasConstant gas, LpcvdRequestDto request) {
-    double gasValue = findGasValue(gas, request);
-    double depositionTime = calculateDepositionTime(request);
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
-
-    // Using Formula2: (A * B + C * D) / s_per_min * (1 + E)
-    double quantity = formulaComponent.calculateFormula2(
-        gasValue,
-        depositionTime,
-        0.0,
-        0.0,
-        sPerMin,
-        0.0
-    );
-
-    double price = gasRepository.findPriceByName(gas.getValue()).orElse(0.0);
-    double gasOverhead = 1.0 + findLpcvdValue(ProcessDefinition.GAS_OVERHEAD);
-
-    // Using Formula7: A * B * C
-    return formulaComponent.calculateFormula6(quantity, gasOverhead, price);
-  }
-
-  private double getEffectiveLatentValue() {
-    return lpcvdRepository.findEffectiveLatentValueBySettingsName(
-        PROCESS_NAME,
-        ProcessDefinition.HEATER.getValue()
-    ).orElse(0.0);
-  }
-
-  private double getRampUpDownTime() {
-    return findLpcvdValue(ProcessDefinition.RAMP_UP_DOWN_TEMPERATURE);
-  }
-
-  private double calculateProcessTime(LpcvdRequestDto request) {
-    double cleanTime = findProcessValue(request, ProcessDefinition.CLEAN_TIME);
+    Term depositionTime = plan.formula("depositionTime", FormulaComponent::calculateFormula7,
+        thickness, processValue(plan, ProcessDefinition.BASE_PROCESS_RATE.getValue()), sPerMin);
+    Term cleanTime = processValue(plan, ProcessDefinition.CLEAN_TIME.getValue());
+    Term rampUpDownTime = lpcvdValue(plan, ProcessDefinition.RAMP_UP_DOWN_TEMPERATURE);
     // Using Formula4: A + B multiple times for summing
-    return formulaComponent.calculateFormula3(
-        calculateDepositionTime(request),
-        formulaComponent.calculateFormula3(getRampUpDownTime(), cleanTime)
-    );
-  }
+    Term processTime = plan.formula("processTime", FormulaComponent::calculateFormula3,
+        depositionTime,
+        plan.formula("rampAndCleanTime", FormulaComponent::calculateFormula3,
+            rampUpDownTime, cleanTime));
+    Term setupTakedownTime = plan.derive("setupTakedownTime",
+        (setup, deposition) -> deposition != 0.0 ? setup : 0.0,
+        lpcvdValue(plan, ProcessDefinition.SETUP_TAKEDOWN_TIME), depositionTime);
+    // Using Formula4: A + B
+    Term totalUsageTime = plan.formula("totalUsageTime", FormulaComponent::calculateFormula3,
+        processTime, setupTakedownTime);
 
-  private double calculateGasOverheadPower(LpcvdRequestDto request) {
+    Term laborTime = plan.convert("laborTime", Conversion.SECONDS_TO_HOURS, setupTakedownTime);
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateTotalUsageTime(request),
-        findLpcvdValue(ProcessDefinition.OVERHEAD_POWER)
-    );
-  }
-
-  private double calculateLaborTime(LpcvdRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateSetupTakedownTime(request),
-        false
+    Term periodicCost = plan.formula("periodicCost", FormulaComponent::calculateFormula4,
+        lpcvdValue(plan, ProcessDefinition.PERIODIC_COST), processTime);
+    Term totalTime = plan.convert("totalTime", Conversion.SECONDS_TO_HOURS, totalUsageTime);
+
+    Term heaterEffectiveLatent = plan.catalog("heaterEffectiveLatent",
+        (catalog, request) -> catalog.findEffectiveLatent(
+            CatalogCollection.LP_CVD,
+            PROCESS_NAME,
+            ProcessDefinition.HEATER.getValue()
+        ).orElse(0.0));
+    List<Term> stepPowers = List.of(
+        plan.formula("power." + ProcessDefinition.DEPOSITION.getValue(),
+            FormulaComponent::calculateFormula8,
+            depositionTime,
+            processValue(plan, ProcessDefinition.TEMPERATURE.getValue()),
+            lpcvdValue(plan, ProcessDefinition.HEATER_POWER_DRAW),
+            wPerKw,
+            sPerH),
+        latentPower(plan, ProcessDefinition.CLEAN, cleanTime, heaterEffectiveLatent),
+        latentPower(plan, ProcessDefinition.RAMP_UP_DOWN_TEMPERATURE, rampUpDownTime,
+            heaterEffectiveLatent),
+        latentPower(plan, ProcessDefinition.HEATER, setupTakedownTime, heaterEffectiveLatent)
     );
-  }
-
-  private double calculatePeriodicCost(LpcvdRequestDto request) {
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        findLpcvdValue(ProcessDefinition.PERIODIC_COST),
-        calculateProcessTime(request)
-    );
-  }
-
-  private double calculateTotalTime(LpcvdRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateTotalUsageTime(request),
-        false
-    );
-  }
-
-  private double calculateTotalUsageTime(LpcvdRequestDto request) {
-    // Using Formula4: A + B
-    return formulaComponent.calculateFormula3(
-        calculateProcessTime(request),
-        calculateSetupTakedownTime(request)
-    );
-  }
-
-  private double calculateSetupTakedownTime(LpcvdRequestDto request) {
-    return Optional.of(findLpcvdValue(ProcessDefinition.SETUP_TAKEDOWN_TIME))
-        .filter(value -> calculateDepositionTime(request) != 0.0)
-        .orElse(0.0);
-  }
-
-  private Double findLpcvdValue(ProcessDefinition parameter) {
-    return lpcvdRepository.findValueByNameAndField(
-        PROCESS_NAME,
-        parameter.getValue()
-    ).orElse(0.0);
+    Term gasOverheadPower = plan.formula("gasOverheadPower", FormulaComponent::calculateFormula4,
+        totalUsageTime, lpcvdValue(plan, ProcessDefinition.OVERHEAD_POWER));
+    Term totalPower = plan.derive("totalPower", Double::sum,
+        gasOverheadPower, plan.sum("stepsPower", stepPowers));
+
+    Term gasOverhead = plan.derive("gasOverheadFactor", overhead -> 1.0 + overhead,
+        lpcvdValue(plan, ProcessDefinition.GAS_OVERHEAD));
+    List<Term> gasCosts = new ArrayList<>();
+    for (GasConstant gas : PROCESS_GASES) {
+      // Using Formula2: (A * B + C * D) / s_per_min * (1 + E)
+      Term quantity = plan.formula("gasQuantity." + gas.getValue(),
+          FormulaComponent::calculateFormula2,
+          processValue(plan, gas.getValue()), depositionTime, zero, zero, sPerMin, zero);
+      // Using Formula7: A * B * C
+      gasCosts.add(plan.formula("gasCost." + gas.getValue(), FormulaComponent::calculateFormula6,
+          quantity,
+          gasOverhead,
+          plan.price("gasPrice." + gas.getValue(),
+              (catalog, request) -> catalog.findGasPrice(gas.getValue()).orElse(0.0))));
+    }
+    Term gasUsage = plan.sum("gasUsage", gasCosts);
+
+    return plan
+        .output(CostComponent.LABOR_TIME,
+            plan.product("laborTime.perJobStep", laborTime, runs))
+        .output(CostComponent.PERIODIC_COST,
+            plan.product("periodicCost.perJobStep", periodicCost, runs))
+        .output(CostComponent.POWER,
+            plan.product("power.perJobStep", totalPower, runs))
+        .output(CostComponent.GAS,
+            plan.product("gas.perJobStep", gasUsage, runs))
+        .output(CostComponent.TOTAL_TIME,
+            plan.product("totalTime.perJobStep", totalTime, runs))
+        .compile();
+  }
+
+  private static Term latentPower(CostPlan.Builder<LpcvdRequestDto> plan, ProcessDefinition step,
+      Term time, Term effectiveLatent) {
+    // Using Formula5: A * B
+    return plan.formula("power." + step.getValue(), FormulaComponent::calculateFormula4,
+        time, effectiveLatent);
   }
 
-  private double findGasValue(GasConstant gas, LpcvdRequestDto request) {
-    return vacuumProcessRepository.findValueByTypeAndMetric(
-        PROCESS_NAME,
-        request.name(),
-        gas.getValue()
-    ).orElse(0.0);
+  private static Term lpcvdValue(CostPlan.Builder<LpcvdRequestDto> plan,
+      ProcessDefinition parameter) {
+    return plan.catalog(PROCESS_NAME + "." + parameter.getValue(), (catalog, request) -> catalog
+        .findValues(CatalogCollection.LP_CVD, PROCESS_NAME, LPCVD_FIELDS)
+        .get(parameter.getValue()));
   }
 
-  private double findProcessValue(LpcvdRequestDto request, ProcessDefinition parameter) {
-    return vacuumProcessRepository.findValueByTypeAndMetric(
-        PROCESS_NAME,
-        request.name(),
-        parameter.getValue()
-    ).orElse(0.0);
+  private static Term processValue(CostPlan.Builder<LpcvdRequestDto> plan, String parameter) {
+    return plan.catalog("recipe." + parameter, (catalog, request) -> recipe(catalog, request)
+        .processValue(parameter).orElse(0.0));
   }
 
-  private double convertToPowerUnits(double power) {
-    return unitConverterComponent.convertSecondsHours(
-        unitConverterComponent.convertWattsKilowatts(power, false),
-        false
-    );
+  private static RecipeView recipe(ReferenceCatalog catalog, LpcvdRequestDto request) {
+    return catalog.findRecipe(PROCESS_NAME, request.name());
   }
 }
\ No newline at end of file
@@ -1,22 +1,27 @@
 package com.mattelogic.inchfab.domain.service;
 
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
 import com.mattelogic.inchfab.base.enums.GasConstant;
-import com.mattelogic.inchfab.base.enums.UnitConstant;
-import com.mattelogic.inchfab.base.repository.ConstantRepository;
-import com.mattelogic.inchfab.base.repository.GasRepository;
-import com.mattelogic.inchfab.base.repository.TargetRepository;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
 import com.mattelogic.inchfab.core.model.ProjectStep;
+import com.mattelogic.inchfab.domain.component.CostPlanComponent;
 import com.mattelogic.inchfab.domain.component.FormulaComponent;
 import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
 import com.mattelogic.inchfab.domain.dto.request.MagnetronSputteringRequestDto;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
-import com.mattelogic.inchfab.domain.model.ProcessStep;
-import com.mattelogic.inchfab.domain.repository.MagnetronSputteringRepository;
+import com.mattelogic.inchfab.domain.plan.CostPlan;
+import com.mattelogic.inchfab.domain.plan.CostPlan.Conversion;
+import com.mattelogic.inchfab.domain.plan.Term;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,49 +33,68 @@ public final class MagnetronSputteringServiceImpl implements
     CalculateService<ProjectStep, CostRequestDto, MagnetronSputteringRequestDto> {
 
   private static final String PROCESS_NAME = ProcessDefinition.MAGNETRON_SPUTTER.getValue();
+  private static final List<String> MAGNETRON_SPUTTERING_FIELDS = Stream.of(
+      ProcessDefinition.GAS_OVERHEAD,
+      ProcessDefinition.OVERHEAD_POWER,
+      ProcessDefinition.PERIODIC_COST,
+      ProcessDefinition.SETUP_TAKEDOWN_TIME,
+      ProcessDefinition.WAFER_PER_RUN
+  ).map(ProcessDefinition::getValue).toList();
+  private static final List<String> TARGET_FIELDS = Stream.of(
+      ProcessDefinition.LIFETIME_HOURS,
+      ProcessDefinition.PRICE
+  ).map(ProcessDefinition::getValue).toList();
   private static final double DEPOSITION_RATE = 6.0;
   private static final double PRESPUTTER_TIME = 60.0;
   private static final double PRESPUTTER_O2_GAS_RATE = 5.0;
   private static final double DEPOSITION_O2_GAS_RATE = 5.0;
+  private static final Conversion HOURS_TO_SECONDS =
+      (units, value) -> units.convertSecondsHours(value, true);
+  private static final CostPlan<MagnetronSputteringRequestDto> PLAN = definePlan();
 
-  private final FormulaComponent formulaComponent;
-  private final UnitConverterComponent unitConverterComponent;
-  private final MagnetronSputteringRepository magnetronSputteringRepository;
-  private final GasRepository gasRepository;
-  private final TargetRepository targetRepository;
-  private final ConstantRepository constantRepository;
+  private final CostPlanComponent costPlanComponent;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new MagnetronSputteringRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public MagnetronSputteringRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new MagnetronSputteringRequestDto(
         request.waferSize(),
         step.name(),
         step.thickness()
-    ));
+    );
+  }
+
+  @Override
+  public List<CostVector> calculateCurve(ProjectStep step, List<CostRequestDto> requests) {
+    return costPlanComponent.evaluateCurve(PLAN, toRequest(step, requests.get(0)),
+        requests.stream().mapToDouble(CostRequestDto::waferSize).toArray());
+  }
+
+  @Override
+  public CostDecomposition decompose(ProjectStep step, CostRequestDto request) {
+    return costPlanComponent.decompose(PLAN, toRequest(step, request));
+  }
+
+  @Override
+  public CostSampler sampler(ProjectStep step, CostRequestDto request,
+      Map<String, Distribution> distributions) {
+    return costPlanComponent.sampler(PLAN, toRequest(step, request), distributions);
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(MagnetronSputteringRequestDto request) {
     log.info("Processing Magnetron Sputtering calculation request: {}", request);
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("Magnetron Sputtering calculation completed successfully");
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(MagnetronSputteringRequestDto request) {
-    double waferPerRun = findMagnetronSputteringValue(
-        ProcessDefinition.WAFER_PER_RUN);
-    double runNeededPerJobStep = Math.ceil(request.waferSize() / waferPerRun);
-
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .laborTime(calculateLaborTime(request) * runNeededPerJobStep)
-        .periodicCost(calculatePeriodicCost(request) * runNeededPerJobStep)
-        .power(calculateTotalPower(request) * runNeededPerJobStep)
-        .gas(calculateGasUsage(request) * runNeededPerJobStep)
-        .targetMaterial(calculateTotalTargetMaterial(request) * runNeededPerJobStep)
-        .totalTime(calculateTotalTime(request) * runNeededPerJobStep)
-        .build();
+  private CostVector calculateProcessResults(MagnetronSputteringRequestDto request) {
+    return costPlanComponent.evaluate(PLAN, request);
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -81,194 +105,121 @@ public final class MagnetronSputteringServiceImpl implements
         .build();
   }
 
-  private double calculateTotalPower(MagnetronSputteringRequestDto request) {
-    List<ProcessStep> powerSteps = createPowerSteps(request);
-    return calculateOverhead(request) +
-        powerSteps.stream()
-            .mapToDouble(step -> calculatePowerForStep(request, step))
-            .sum();
-  }
-
-  private List<ProcessStep> createPowerSteps(MagnetronSputteringRequestDto request) {
-    return List.of(
-        new ProcessStep(
-            ProcessDefinition.PRESPUTTER.getValue(),
-            this::calculatePresputterTime,
-            ProcessDefinition.PRESPUTTER.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.DEPOSITION.getValue(),
-            () -> calculateDepositionTime(request),
-            ProcessDefinition.DEPOSITION.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.MATCHING.getValue(),
-            () -> calculateProcessTime(request),
-            ProcessDefinition.MATCHING.getValue()
-        )
-    );
-  }
-
-  private double calculateGasUsage(MagnetronSputteringRequestDto request) {
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
-    // Using Formula2: (A * B + C * D) / s_per_min * (1 + E)
-    double gasOverhead = findMagnetronSputteringValue(ProcessDefinition.GAS_OVERHEAD);
-    double price = gasRepository.findPriceByName(GasConstant.AR.getValue()).orElse(0.0);
-    double quantity = formulaComponent.calculateFormula2(
-        PRESPUTTER_O2_GAS_RATE,
-        calculatePresputterTime(),
-        DEPOSITION_O2_GAS_RATE,
-        calculateDepositionTime(request),
-        sPerMin,
-        gasOverhead
-    );
-
-    // Using Formula7: A * B * C
-    return formulaComponent.calculateFormula4(quantity, price);
-  }
+  private static CostPlan<MagnetronSputteringRequestDto> definePlan() {
+    CostPlan.Builder<MagnetronSputteringRequestDto> plan = CostPlan.builder(PROCESS_NAME);
+    Term waferSize = plan.variable("waferSize", MagnetronSputteringRequestDto::waferSize);
+    Term thickness = plan.input("thickness", MagnetronSputteringRequestDto::thickness);
+    Term one = plan.constant("one", 1.0);
+    Term presputterTime = plan.constant("presputterTime", PRESPUTTER_TIME);
+    Term sPerMin = plan.factor("sPerMin", UnitConverterComponent::sPerMin);
+    Term depositionRate = plan.factor("depositionRate", units ->
+        units.convertAngstromsNanometers(units.convertSecondsMinutes(DEPOSITION_RATE, true),
+            false));
 
-  private double calculateTotalTargetMaterial(MagnetronSputteringRequestDto request) {
-    // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateTargetsConsumed(request),
-        calculateTargetCost(request)
-    );
-  }
+    Term runs = plan.derive("runNeededPerJobStep", (wafers, perRun) -> Math.ceil(wafers / perRun),
+        waferSize, magnetronSputteringValue(plan, ProcessDefinition.WAFER_PER_RUN));
 
-  private double calculateProcessTime(MagnetronSputteringRequestDto request) {
-    // Using Formula4: A + B
-    return formulaComponent.calculateFormula3(
-        calculatePresputterTime(),
-        calculateDepositionTime(request)
-    );
-  }
-
-  private double calculatePresputterTime() {
-    return PRESPUTTER_TIME;
-  }
-
-  private double calculateDepositionTime(MagnetronSputteringRequestDto request) {
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
     // Using Formula8: A / B * s_per_min
-    return formulaComponent.calculateFormula7(
-        request.thickness(),
-        calculateDepositionRate(),
-        sPerMin
-    );
-  }
-
-  private double calculateDepositionRate() {
-    double convertToMinute = unitConverterComponent.convertSecondsMinutes(DEPOSITION_RATE, true);
-    return unitConverterComponent.convertAngstromsNanometers(convertToMinute, false);
-  }
-
-  private double calculateSetupTakedownTime(MagnetronSputteringRequestDto request) {
-    return Optional.of(findMagnetronSputteringValue(ProcessDefinition.SETUP_TAKEDOWN_TIME))
-        .filter(value -> calculateProcessTime(request) != 0.0)
-        .orElse(0.0);
-  }
-
-  private double calculatePowerForStep(MagnetronSputteringRequestDto request, ProcessStep step) {
-    double processTime = step.timeCalculator().get();
-    double setupTakedownTime = calculateSetupTakedownTime(request);
-    double effectiveProcess = findEffectiveProcessValue(step.parameterValue());
-    double effectiveLatent = findEffectiveLatentValue(step.parameterValue());
-
-    // Using Formula6: A * B + C * D
-    return formulaComponent.calculateFormula5(
-        processTime,
-        effectiveProcess,
-        setupTakedownTime,
-        effectiveLatent
-    );
-  }
-
-  private double calculateTotalTime(MagnetronSputteringRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(calculateTotalUsage(request), false);
-  }
-
-  private double calculateTotalUsage(MagnetronSputteringRequestDto request) {
+    Term depositionTime = plan.formula("depositionTime", FormulaComponent::calculateFormula7,
+        thickness, depositionRate, sPerMin);
     // Using Formula4: A + B
-    return formulaComponent.calculateFormula3(
-        calculateProcessTime(request),
-        calculateSetupTakedownTime(request)
-    );
-  }
-
-  private double calculateLaborTime(MagnetronSputteringRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateSetupTakedownTime(request),
-        false
-    );
-  }
+    Term processTime = plan.formula("processTime", FormulaComponent::calculateFormula3,
+        presputterTime, depositionTime);
+    Term setupTakedownTime = plan.derive("setupTakedownTime",
+        (setup, process) -> process != 0.0 ? setup : 0.0,
+        magnetronSputteringValue(plan, ProcessDefinition.SETUP_TAKEDOWN_TIME), processTime);
+    // Using Formula4: A + B
+    Term totalUsage = plan.formula("totalUsage", FormulaComponent::calculateFormula3,
+        processTime, setupTakedownTime);
 
-  private double calculatePeriodicCost(MagnetronSputteringRequestDto request) {
+    Term laborTime = plan.convert("laborTime", Conversion.SECONDS_TO_HOURS, setupTakedownTime);
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateProcessTime(request),
-        findMagnetronSputteringValue(ProcessDefinition.PERIODIC_COST)
+    Term periodicCost = plan.formula("periodicCost", FormulaComponent::calculateFormula4,
+        processTime, magnetronSputteringValue(plan, ProcessDefinition.PERIODIC_COST));
+    Term totalTime = plan.convert("totalTime", Conversion.SECONDS_TO_HOURS, totalUsage);
+
+    List<Term> stepPowers = List.of(
+        stepPower(plan, ProcessDefinition.PRESPUTTER, presputterTime, setupTakedownTime),
+        stepPower(plan, ProcessDefinition.DEPOSITION, depositionTime, setupTakedownTime),
+        stepPower(plan, ProcessDefinition.MATCHING, processTime, setupTakedownTime)
     );
-  }
-
-  private double calculateOverhead(MagnetronSputteringRequestDto request) {
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateTotalUsage(request),
-        findMagnetronSputteringValue(ProcessDefinition.OVERHEAD_POWER)
-    );
-  }
-
-  private double calculateTargetsConsumed(MagnetronSputteringRequestDto request) {
-    double targetLifetime = calculateTargetLifetime(request);
-    // Using Formula8: A / B * s_per_min with s_per_min = 1.0
-    return formulaComponent.calculateFormula7(
-        calculateProcessTime(request),
-        targetLifetime,
-        1.0
-    );
-  }
-
-  private double calculateTargetLifetime(MagnetronSputteringRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        targetRepository.findFieldByName(
-            request.name(),
-            ProcessDefinition.LIFETIME_HOURS.getValue()
-        ).orElse(0.0),
-        true
-    );
-  }
+    Term overhead = plan.formula("overheadPower", FormulaComponent::calculateFormula4,
+        totalUsage, magnetronSputteringValue(plan, ProcessDefinition.OVERHEAD_POWER));
+    Term totalPower = plan.derive("totalPower", Double::sum,
+        overhead, plan.sum("stepsPower", stepPowers));
 
-  private double calculateTargetCost(MagnetronSputteringRequestDto request) {
-    return targetRepository.findFieldByName(
-        request.name(),
-        ProcessDefinition.PRICE.getValue()
-    ).orElse(0.0);
-  }
+    // Using Formula2: (A * B + C * D) / s_per_min * (1 + E)
+    Term quantity = plan.formula("gasQuantity", FormulaComponent::calculateFormula2,
+        plan.constant("presputterO2GasRate", PRESPUTTER_O2_GAS_RATE),
+        presputterTime,
+        plan.constant("depositionO2GasRate", DEPOSITION_O2_GAS_RATE),
+        depositionTime,
+        sPerMin,
+        magnetronSputteringValue(plan, ProcessDefinition.GAS_OVERHEAD));
+    // Using Formula7: A * B * C
+    Term gasUsage = plan.formula("gasUsage", FormulaComponent::calculateFormula4,
+        quantity,
+        plan.price("gasPrice." + GasConstant.AR.getValue(),
+            (catalog, request) -> catalog.findGasPrice(GasConstant.AR.getValue()).orElse(0.0)));
 
-  private Double findMagnetronSputteringValue(ProcessDefinition parameter) {
-    return magnetronSputteringRepository.findValueByNameAndField(
-        PROCESS_NAME,
-        parameter.getValue()
-    ).orElse(0.0);
+    Term targetLifetime = plan.convert("targetLifetime", HOURS_TO_SECONDS,
+        targetValue(plan, ProcessDefinition.LIFETIME_HOURS));
+    // Using Formula8: A / B * s_per_min with s_per_min = 1.0
+    Term targetsConsumed = plan.formula("targetsConsumed", FormulaComponent::calculateFormula7,
+        processTime, targetLifetime, one);
+    // Using Formula5: A * B
+    Term targetMaterial = plan.formula("targetMaterial", FormulaComponent::calculateFormula4,
+        targetsConsumed,
+        plan.price("target." + ProcessDefinition.PRICE.getValue(),
+            request -> "targetPrice." + request.name(), (catalog, request) -> catalog
+                .findValues(CatalogCollection.TARGET, request.name(), TARGET_FIELDS)
+                .get(ProcessDefinition.PRICE.getValue())));
+
+    return plan
+        .output(CostComponent.LABOR_TIME,
+            plan.product("laborTime.perJobStep", laborTime, runs))
+        .output(CostComponent.PERIODIC_COST,
+            plan.product("periodicCost.perJobStep", periodicCost, runs))
+        .output(CostComponent.POWER,
+            plan.product("power.perJobStep", totalPower, runs))
+        .output(CostComponent.GAS,
+            plan.product("gas.perJobStep", gasUsage, runs))
+        .output(CostComponent.TARGET_MATERIAL,
+            plan.product("targetMaterial.perJobStep", targetMaterial, runs))
+        .output(CostComponent.TOTAL_TIME,
+            plan.product("totalTime.perJobStep", totalTime, runs))
+        .compile();
+  }
+
+  private static Term stepPower(CostPlan.Builder<MagnetronSputteringRequestDto> plan,
+      ProcessDefinition step, Term time, Term setupTakedownTime) {
+    // Using Formula6: A * B + C * D
+    return plan.formula("power." + step.getValue(), FormulaComponent::calculateFormula5,
+        time,
+        plan.catalog("effectiveProcess." + step.getValue(), (catalog, request) -> catalog
+            .findTotalEffectiveProcess(
+                CatalogCollection.MAGNETRON_SPUTTERING, PROCESS_NAME, step.getValue())
+            .orElse(0.0)),
+        setupTakedownTime,
+        plan.catalog("effectiveLatent." + step.getValue(), (catalog, request) -> catalog
+            .findTotalEffectiveLatent(
+                CatalogCollection.MAGNETRON_SPUTTERING, PROCESS_NAME, step.getValue())
+            .orElse(0.0)));
   }
 
-  private Double findEffectiveProcessValue(String processType) {
-    return magnetronSputteringRepository.findTotalEffectiveProcessValueBySettingsName(
-        PROCESS_NAME,
-        processType
-    ).orElse(0.0);
+  private static Term magnetronSputteringValue(
+      CostPlan.Builder<MagnetronSputteringRequestDto> plan, ProcessDefinition parameter) {
+    return plan.catalog(PROCESS_NAME + "." + parameter.getValue(), (catalog, request) -> catalog
+        .findValues(CatalogCollection.MAGNETRON_SPUTTERING, PROCESS_NAME,
+            MAGNETRON_SPUTTERING_FIELDS)
+        .get(parameter.getValue()));
   }
 
-  private Double findEffectiveLatentValue(String processType) {
-    return magnetronSputteringRepository.findTotalEffectiveLatentValueBySettingsName(
-        PROCESS_NAME,
-        processType
-    ).orElse(0.0);
+  private static Term targetValue(CostPlan.Builder<MagnetronSputteringRequestDto> plan,
+      ProcessDefinition parameter) {
+    return plan.catalog("target." + parameter.getValue(), (catalog, request) -> catalog
+        .findValues(CatalogCollection.TARGET, request.name(), TARGET_FIELDS)
+        .get(parameter.getValue()));
   }
 }
\ No newline at end of file
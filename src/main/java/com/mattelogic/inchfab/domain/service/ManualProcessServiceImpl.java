@@ -3,6 +3,8 @@ package com.mattelogic.inchfab.domain.service;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostVector;
 import com.mattelogic.inchfab.core.model.ProjectStep;
 import com.mattelogic.inchfab.domain.dto.request.ManualProcessRequestDto;
 import lombok.RequiredArgsConstructor;
@@ -18,32 +20,35 @@ public final class ManualProcessServiceImpl implements
   private static final String PROCESS_NAME = "Manual Process";
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new ManualProcessRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public ManualProcessRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new ManualProcessRequestDto(
         request.waferSize(),
         step.name(),
         step.lotCharge(),
         step.lotSize(),
         step.amount(),
         step.rate()
-    ));
+    );
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(ManualProcessRequestDto request) {
     log.info("Processing Manual Process calculation request: {}", request);
 
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("Manual Process calculation completed successfully");
 
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(ManualProcessRequestDto request) {
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .manualCost(calculateManualProcess(request))
-        .build();
+  private CostVector calculateProcessResults(ManualProcessRequestDto request) {
+    return new CostVector(PROCESS_NAME)
+        .set(CostComponent.MANUAL_COST, calculateManualProcess(request));
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
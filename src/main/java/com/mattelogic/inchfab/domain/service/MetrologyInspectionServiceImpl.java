@@ -1,9 +1,13 @@
 package com.mattelogic.inchfab.domain.service;
 
-import com.mattelogic.inchfab.base.repository.MetrologyInspectionRepository;
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostVector;
 import com.mattelogic.inchfab.core.model.ProjectStep;
 import com.mattelogic.inchfab.domain.dto.request.MetrologyInspectionRequestDto;
 import com.mattelogic.inchfab.domain.enums.PowerFormula;
@@ -20,30 +24,33 @@ public final class MetrologyInspectionServiceImpl implements
 
   private static final String PROCESS_NAME = ProcessDefinition.METROLOGY_INSPECTION.getValue();
 
-  private final MetrologyInspectionRepository metrologyInspectionRepository;
+  private final ReferenceCatalogHolder referenceCatalogHolder;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new MetrologyInspectionRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public MetrologyInspectionRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new MetrologyInspectionRequestDto(
         step.name(),
         step.location(),
         step.timeWaferHour()
-    ));
+    );
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(MetrologyInspectionRequestDto request) {
     log.info("Processing Metrology Inspection calculation request: {}", request);
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("Metrology Inspection calculation completed successfully");
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(MetrologyInspectionRequestDto request) {
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .metrologyInspectionCost(calculateCost(request))
-        .build();
+  private CostVector calculateProcessResults(MetrologyInspectionRequestDto request) {
+    return new CostVector(PROCESS_NAME)
+        .set(CostComponent.METROLOGY_INSPECTION_COST, calculateCost(request));
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -55,7 +62,8 @@ public final class MetrologyInspectionServiceImpl implements
   }
 
   private double calculateCost(MetrologyInspectionRequestDto request) {
-    double price = metrologyInspectionRepository.findFieldByName(
+    double price = catalog().findValue(
+        CatalogCollection.METROLOGY_INSPECTION,
         request.location(),
         ProcessDefinition.HOURLY_RATE.getValue()
     ).orElse(0.0);
@@ -65,4 +73,8 @@ public final class MetrologyInspectionServiceImpl implements
     );
   }
 
+
+  private ReferenceCatalog catalog() {
+    return referenceCatalogHolder.current();
+  }
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package com.mattelogic.inchfab.domain.service;
 
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
-import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
 import com.mattelogic.inchfab.core.exception.UnsupportedProcessTypeException;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
 import com.mattelogic.inchfab.core.model.ProjectStep;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,8 +49,37 @@ public class ProcessServiceRegistryImpl {
     serviceMap.put(ProcessDefinition.SUBSTRATE, substrateService);
   }
 
-  public ResultResponseDto calculate(ProcessDefinition processDefinition, ProjectStep step,
+  public CostVector calculate(ProcessDefinition processDefinition, ProjectStep step,
       CostRequestDto request) {
+    return getService(processDefinition).calculate(step, request);
+  }
+
+  public List<CostVector> calculateCurve(ProcessDefinition processDefinition, ProjectStep step,
+      List<CostRequestDto> requests) {
+    return getService(processDefinition).calculateCurve(step, requests);
+  }
+
+  public CostDecomposition decompose(ProcessDefinition processDefinition, ProjectStep step,
+      CostRequestDto request) {
+    return getService(processDefinition).decompose(step, request);
+  }
+
+  public CostSampler sampler(ProcessDefinition processDefinition, ProjectStep step,
+      CostRequestDto request, Map<String, Distribution> distributions) {
+    return getService(processDefinition).sampler(step, request, distributions);
+  }
+
+  /**
+   * @return the process request the step maps to, which holds every step field the result of the
+   * process depends on, so two steps with equal fingerprints cost the same
+   */
+  public Object fingerprint(ProcessDefinition processDefinition, ProjectStep step,
+      CostRequestDto request) {
+    return getService(processDefinition).toRequest(step, request);
+  }
+
+  private CalculateService<ProjectStep, CostRequestDto, ?> getService(
+      ProcessDefinition processDefinition) {
     CalculateService<ProjectStep, CostRequestDto, ?> service = serviceMap.get(processDefinition);
     if (service == null) {
       throw new UnsupportedProcessTypeException(
@@ -54,6 +87,6 @@ public class ProcessServiceRegistryImpl {
           new IllegalStateException()
       );
     }
-    return service.calculate(step, request);
+    return service;
   }
 }
\ No newline at end of file
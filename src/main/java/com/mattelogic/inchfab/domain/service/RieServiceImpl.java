@@ -1,22 +1,30 @@
 package com.mattelogic.inchfab.domain.service;
 
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.RecipeView;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
 import com.mattelogic.inchfab.base.enums.GasConstant;
-import com.mattelogic.inchfab.base.enums.UnitConstant;
-import com.mattelogic.inchfab.base.repository.ConstantRepository;
-import com.mattelogic.inchfab.base.repository.GasRepository;
-import com.mattelogic.inchfab.base.repository.VacuumProcessRepository;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
 import com.mattelogic.inchfab.core.model.ProjectStep;
+import com.mattelogic.inchfab.domain.component.CostPlanComponent;
 import com.mattelogic.inchfab.domain.component.FormulaComponent;
 import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
 import com.mattelogic.inchfab.domain.dto.request.RieRequestDto;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
-import com.mattelogic.inchfab.domain.model.ProcessStep;
-import com.mattelogic.inchfab.domain.repository.RieRepository;
+import com.mattelogic.inchfab.domain.plan.CostPlan;
+import com.mattelogic.inchfab.domain.plan.CostPlan.Conversion;
+import com.mattelogic.inchfab.domain.plan.Term;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,50 +36,67 @@ public final class RieServiceImpl implements
     CalculateService<ProjectStep, CostRequestDto, RieRequestDto> {
 
   private static final String PROCESS_NAME = ProcessDefinition.RIE.getValue();
+  private static final List<String> RIE_FIELDS = Stream.of(
+      ProcessDefinition.CLEAN_TIME,
+      ProcessDefinition.ETCH_RATE,
+      ProcessDefinition.GAS_OVERHEAD,
+      ProcessDefinition.OVERHEAD_POWER,
+      ProcessDefinition.PERIODIC_COST,
+      ProcessDefinition.SETUP_TAKEDOWN_TIME,
+      ProcessDefinition.WAFER_PER_RUN
+  ).map(ProcessDefinition::getValue).toList();
   private static final double O2_GAS_RATE = 5.0;
   private static final List<GasConstant> PROCESS_GASES = List.of(
       GasConstant.SF6, GasConstant.C4F8, GasConstant.CF4,
       GasConstant.CHF3, GasConstant.O2, GasConstant.AR,
       GasConstant.CL2, GasConstant.BCL3
   );
+  private static final CostPlan<RieRequestDto> PLAN = definePlan();
 
-  private final FormulaComponent formulaComponent;
-  private final RieRepository rieRepository;
-  private final GasRepository gasRepository;
-  private final VacuumProcessRepository vacuumProcessRepository;
-  private final UnitConverterComponent unitConverterComponent;
-  private final ConstantRepository constantRepository;
+  private final CostPlanComponent costPlanComponent;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new RieRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public RieRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new RieRequestDto(
         request.waferSize(),
         step.name(),
         step.depth(),
         step.maskArea()
-    ));
+    );
+  }
+
+  @Override
+  public List<CostVector> calculateCurve(ProjectStep step, List<CostRequestDto> requests) {
+    return costPlanComponent.evaluateCurve(PLAN, toRequest(step, requests.get(0)),
+        requests.stream().mapToDouble(CostRequestDto::waferSize).toArray());
+  }
+
+  @Override
+  public CostDecomposition decompose(ProjectStep step, CostRequestDto request) {
+    return costPlanComponent.decompose(PLAN, toRequest(step, request));
+  }
+
+  @Override
+  public CostSampler sampler(ProjectStep step, CostRequestDto request,
+      Map<String, Distribution> distributions) {
+    return costPlanComponent.sampler(PLAN, toRequest(step, request), distributions);
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(RieRequestDto request) {
     log.info("Processing RIE calculation request: {}", request);
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("RIE calculation completed successfully");
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(RieRequestDto request) {
-    double waferPerRun = findRieValue(ProcessDefinition.WAFER_PER_RUN);
-    double runNeededPerJobStep = Math.ceil(request.waferSize() / waferPerRun);
-
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .laborTime(calculateLaborTime(request) * runNeededPerJobStep)
-        .periodicCost(calculatePeriodicCost(request) * runNeededPerJobStep)
-        .power(calculateTotalPower(request) * runNeededPerJobStep)
-        .gas(calculateGasUsage(request) * runNeededPerJobStep)
-        .totalTime(calculateTotalTime(request) * runNeededPerJobStep)
-        .build();
+  private CostVector calculateProcessResults(RieRequestDto request) {
+    return costPlanComponent.evaluate(PLAN, request);
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -82,177 +107,104 @@ public final class RieServiceImpl implements
         .build();
   }
 
-  private double calculateTotalPower(RieRequestDto request) {
-    List<ProcessStep> powerSteps = createPowerSteps(request);
-    return calculateOverhead(request) +
-        powerSteps.stream()
-            .mapToDouble(step -> calculatePowerForStep(request, step))
-            .sum();
-  }
-
-  private List<ProcessStep> createPowerSteps(RieRequestDto request) {
-    return List.of(
-        new ProcessStep(
-            ProcessDefinition.DEPOSITION.getValue(),
-            () -> calculateEtchTime(request),
-            ProcessDefinition.DEPOSITION.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.CLEAN.getValue(),
-            this::calculateCleanTime,
-            ProcessDefinition.CLEAN.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.MATCHING.getValue(),
-            this::calculateCleanTime,
-            ProcessDefinition.MATCHING.getValue()
-        )
-    );
-  }
+  private static CostPlan<RieRequestDto> definePlan() {
+    CostPlan.Builder<RieRequestDto> plan = CostPlan.builder(PROCESS_NAME);
+    Term waferSize = plan.variable("waferSize", RieRequestDto::waferSize);
+    Term depth = plan.input("depth", RieRequestDto::depth);
+    Term sPerMin = plan.factor("sPerMin", UnitConverterComponent::sPerMin);
 
-  private double calculatePowerForStep(RieRequestDto request, ProcessStep step) {
-    double processTime = step.timeCalculator().get();
-    double setupTakedownTime = calculateSetupTakedownTime(request);
-    double effectiveProcess = findEffectiveProcessValue(step.parameterValue());
-    double effectiveLatent = findEffectiveLatentValue(step.parameterValue());
+    Term runs = plan.derive("runNeededPerJobStep", (wafers, perRun) -> Math.ceil(wafers / perRun),
+        waferSize, rieValue(plan, ProcessDefinition.WAFER_PER_RUN));
 
-    // Using Formula6: A * B + C * D
-    return formulaComponent.calculateFormula5(
-        processTime,
-        effectiveProcess,
-        setupTakedownTime,
-        effectiveLatent
-    );
-  }
-
-  private double calculateGasUsage(RieRequestDto request) {
-    return PROCESS_GASES.stream()
-        .mapToDouble(gas -> calculateGasCost(gas, request))
-        .sum();
-  }
-
-  private double calculateGasCost(GasConstant gas, RieRequestDto request) {
-    double etchGasValue = findGasValue(gas, request);
-    double cleanGasValue = gas.equals(GasConstant.O2) ? O2_GAS_RATE : 0.0;
-    double etchTime = calculateEtchTime(request);
-    double cleanTime = calculateCleanTime();
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
-    double gasOverhead = findRieValue(ProcessDefinition.GAS_OVERHEAD);
-    double price = gasRepository.findPriceByName(gas.getValue()).orElse(0.0);
-
-    double quantity = formulaComponent.calculateFormula2(
-        etchGasValue,
-        etchTime,
-        cleanGasValue,
-        cleanTime,
-        sPerMin,
-        gasOverhead
-    );
-
-    return quantity * price;
-  }
-
-  // Time Calculations
-  private double calculateProcessTime(RieRequestDto request) {
-    // Using Formula4: A + B
-    return formulaComponent.calculateFormula3(
-        calculateEtchTime(request),
-        calculateCleanTime()
-    );
-  }
-
-  private double calculateEtchTime(RieRequestDto request) {
-    double sPerMin = constantRepository.findValueByTypeAndMetric(
-        ProcessDefinition.TIME.getValue(),
-        UnitConstant.S_PER_MIN.getValue()
-    ).orElse(0.0);
+    // Time Calculations
     // Using Formula8: A / B * s_per_min
-    return formulaComponent.calculateFormula7(
-        request.depth(),
-        findRieValue(ProcessDefinition.ETCH_RATE),
-        sPerMin
-    );
-  }
-
-  private double calculateCleanTime() {
-    return findRieValue(ProcessDefinition.CLEAN_TIME);
-  }
-
-  private double calculateTotalTime(RieRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateTotalUsageTime(request),
-        false
-    );
-  }
-
-  private double calculateTotalUsageTime(RieRequestDto request) {
+    Term etchTime = plan.formula("etchTime", FormulaComponent::calculateFormula7,
+        depth, rieValue(plan, ProcessDefinition.ETCH_RATE), sPerMin);
+    Term cleanTime = rieValue(plan, ProcessDefinition.CLEAN_TIME);
     // Using Formula4: A + B
-    return formulaComponent.calculateFormula3(
-        calculateProcessTime(request),
-        calculateSetupTakedownTime(request)
-    );
-  }
-
-  private double calculateSetupTakedownTime(RieRequestDto request) {
-    return Optional.of(findRieValue(ProcessDefinition.SETUP_TAKEDOWN_TIME))
-        .filter(value -> calculateProcessTime(request) != 0.0)
-        .orElse(0.0);
-  }
-
-  // Cost and Labor Calculations
-  private double calculateLaborTime(RieRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateSetupTakedownTime(request),
-        false
-    );
-  }
+    Term processTime = plan.formula("processTime", FormulaComponent::calculateFormula3,
+        etchTime, cleanTime);
+    Term setupTakedownTime = plan.derive("setupTakedownTime",
+        (setup, process) -> process != 0.0 ? setup : 0.0,
+        rieValue(plan, ProcessDefinition.SETUP_TAKEDOWN_TIME), processTime);
+    // Using Formula4: A + B
+    Term totalUsageTime = plan.formula("totalUsageTime", FormulaComponent::calculateFormula3,
+        processTime, setupTakedownTime);
+    Term totalTime = plan.convert("totalTime", Conversion.SECONDS_TO_HOURS, totalUsageTime);
 
-  private double calculatePeriodicCost(RieRequestDto request) {
+    // Cost and Labor Calculations
+    Term laborTime = plan.convert("laborTime", Conversion.SECONDS_TO_HOURS, setupTakedownTime);
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        findRieValue(ProcessDefinition.PERIODIC_COST),
-        calculateProcessTime(request)
-    );
-  }
+    Term periodicCost = plan.formula("periodicCost", FormulaComponent::calculateFormula4,
+        rieValue(plan, ProcessDefinition.PERIODIC_COST), processTime);
 
-  private double calculateOverhead(RieRequestDto request) {
-    // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        findRieValue(ProcessDefinition.OVERHEAD_POWER),
-        calculateTotalUsageTime(request)
+    List<Term> stepPowers = List.of(
+        stepPower(plan, ProcessDefinition.DEPOSITION, etchTime, setupTakedownTime),
+        stepPower(plan, ProcessDefinition.CLEAN, cleanTime, setupTakedownTime),
+        stepPower(plan, ProcessDefinition.MATCHING, cleanTime, setupTakedownTime)
     );
+    // Using Formula5: A * B
+    Term overhead = plan.formula("overheadPower", FormulaComponent::calculateFormula4,
+        rieValue(plan, ProcessDefinition.OVERHEAD_POWER), totalUsageTime);
+    Term totalPower = plan.derive("totalPower", Double::sum,
+        overhead, plan.sum("stepsPower", stepPowers));
+
+    Term gasOverhead = rieValue(plan, ProcessDefinition.GAS_OVERHEAD);
+    List<Term> gasCosts = new ArrayList<>();
+    for (GasConstant gas : PROCESS_GASES) {
+      Term cleanGasValue = plan.constant("cleanGasRate." + gas.getValue(),
+          gas.equals(GasConstant.O2) ? O2_GAS_RATE : 0.0);
+      Term quantity = plan.formula("gasQuantity." + gas.getValue(),
+          FormulaComponent::calculateFormula2,
+          gasValue(plan, gas), etchTime, cleanGasValue, cleanTime, sPerMin, gasOverhead);
+      gasCosts.add(plan.product("gasCost." + gas.getValue(), quantity,
+          plan.price("gasPrice." + gas.getValue(),
+              (catalog, request) -> catalog.findGasPrice(gas.getValue()).orElse(0.0))));
+    }
+    Term gasUsage = plan.sum("gasUsage", gasCosts);
+
+    return plan
+        .output(CostComponent.LABOR_TIME,
+            plan.product("laborTime.perJobStep", laborTime, runs))
+        .output(CostComponent.PERIODIC_COST,
+            plan.product("periodicCost.perJobStep", periodicCost, runs))
+        .output(CostComponent.POWER,
+            plan.product("power.perJobStep", totalPower, runs))
+        .output(CostComponent.GAS,
+            plan.product("gas.perJobStep", gasUsage, runs))
+        .output(CostComponent.TOTAL_TIME,
+            plan.product("totalTime.perJobStep", totalTime, runs))
+        .compile();
+  }
+
+  private static Term stepPower(CostPlan.Builder<RieRequestDto> plan, ProcessDefinition step,
+      Term time, Term setupTakedownTime) {
+    // Using Formula6: A * B + C * D
+    return plan.formula("power." + step.getValue(), FormulaComponent::calculateFormula5,
+        time,
+        plan.catalog("effectiveProcess." + step.getValue(), (catalog, request) -> catalog
+            .findTotalEffectiveProcess(CatalogCollection.RIE, PROCESS_NAME, step.getValue())
+            .orElse(0.0)),
+        setupTakedownTime,
+        plan.catalog("effectiveLatent." + step.getValue(), (catalog, request) -> catalog
+            .findTotalEffectiveLatent(CatalogCollection.RIE, PROCESS_NAME, step.getValue())
+            .orElse(0.0)));
   }
 
-  // Repository Access Methods
-  private Double findRieValue(ProcessDefinition parameter) {
-    return rieRepository.findValueByNameAndField(
-        PROCESS_NAME,
-        parameter.getValue()
-    ).orElse(0.0);
-  }
-
-  private Double findEffectiveProcessValue(String processType) {
-    return rieRepository.findTotalEffectiveProcessValueBySettingsName(
-        PROCESS_NAME,
-        processType
-    ).orElse(0.0);
+  // Catalog Access Methods
+  private static Term rieValue(CostPlan.Builder<RieRequestDto> plan,
+      ProcessDefinition parameter) {
+    return plan.catalog(PROCESS_NAME + "." + parameter.getValue(), (catalog, request) -> catalog
+        .findValues(CatalogCollection.RIE, PROCESS_NAME, RIE_FIELDS)
+        .get(parameter.getValue()));
   }
 
-  private Double findEffectiveLatentValue(String processType) {
-    return rieRepository.findTotalEffectiveLatentValueBySettingsName(
-        PROCESS_NAME,
-        processType
-    ).orElse(0.0);
+  private static Term gasValue(CostPlan.Builder<RieRequestDto> plan, GasConstant gas) {
+    return plan.catalog("recipe." + gas.getValue(), (catalog, request) -> recipe(catalog, request)
+        .processValue(gas.getValue()).orElse(0.0));
   }
 
-  private double findGasValue(GasConstant gas, RieRequestDto request) {
-    return vacuumProcessRepository.findValueByTypeAndMetric(
-        PROCESS_NAME,
-        request.name(),
-        gas.getValue()
-    ).orElse(0.0);
+  private static RecipeView recipe(ReferenceCatalog catalog, RieRequestDto request) {
+    return catalog.findRecipe(PROCESS_NAME, request.name());
   }
 }
\ No newline at end of file
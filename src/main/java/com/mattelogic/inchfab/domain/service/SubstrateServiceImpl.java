@@ -1,11 +1,15 @@
 package com.mattelogic.inchfab.domain.service;
 
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostVector;
 import com.mattelogic.inchfab.core.model.ProjectStep;
 import com.mattelogic.inchfab.domain.dto.request.SubstrateRequestDto;
-import com.mattelogic.inchfab.domain.repository.SubstrateRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,31 +21,34 @@ public final class SubstrateServiceImpl implements
     CalculateService<ProjectStep, CostRequestDto, SubstrateRequestDto> {
 
   private static final String PROCESS_NAME = "Substrate";
-  private final SubstrateRepository substrateRepository;
+  private final ReferenceCatalogHolder referenceCatalogHolder;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new SubstrateRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public SubstrateRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new SubstrateRequestDto(
         request.waferSize(),
         step.name()
-    ));
+    );
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(SubstrateRequestDto request) {
     log.info("Processing Substrate calculation request: {}", request);
 
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("Substrate calculation completed successfully");
 
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(SubstrateRequestDto request) {
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .substrateCost(calculateSubstrate(request))
-        .build();
+  private CostVector calculateProcessResults(SubstrateRequestDto request) {
+    return new CostVector(PROCESS_NAME)
+        .set(CostComponent.SUBSTRATE_COST, calculateSubstrate(request));
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -53,9 +60,14 @@ public final class SubstrateServiceImpl implements
   }
 
   private double calculateSubstrate(SubstrateRequestDto request) {
-    return substrateRepository.findNearestPriceForMethod(
+    return catalog().findNearestUnitCost(
+        CatalogCollection.SUBSTRATE,
         request.name(),
         request.waferSize()
     ).orElse(0.0);
   }
+
+  private ReferenceCatalog catalog() {
+    return referenceCatalogHolder.current();
+  }
 }
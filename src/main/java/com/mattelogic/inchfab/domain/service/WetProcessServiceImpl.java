@@ -1,17 +1,25 @@
 package com.mattelogic.inchfab.domain.service;
 
-import com.mattelogic.inchfab.base.repository.WetChemicalRepository;
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
 import com.mattelogic.inchfab.common.dto.ApiResponseDto;
 import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
 import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
 import com.mattelogic.inchfab.core.model.ProjectStep;
+import com.mattelogic.inchfab.domain.component.CostPlanComponent;
 import com.mattelogic.inchfab.domain.component.FormulaComponent;
-import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
 import com.mattelogic.inchfab.domain.dto.request.WetProcessRequestDto;
 import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
-import com.mattelogic.inchfab.domain.model.ProcessStep;
-import com.mattelogic.inchfab.domain.repository.WetProcessRepository;
+import com.mattelogic.inchfab.domain.plan.CostPlan;
+import com.mattelogic.inchfab.domain.plan.CostPlan.Conversion;
+import com.mattelogic.inchfab.domain.plan.Term;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,38 +32,57 @@ public final class WetProcessServiceImpl implements
 
   private static final String PROCESS_NAME = ProcessDefinition.WET_PROCESS.getValue();
   private static final String DI_WATER = "di_water";
+  private static final List<String> WET_CHEMICAL_FIELDS = Stream.of(
+      ProcessDefinition.COST_PER_RUN,
+      ProcessDefinition.ETCH_RATE,
+      ProcessDefinition.ETCH_TEMP,
+      ProcessDefinition.LOT_SIZE
+  ).map(ProcessDefinition::getValue).toList();
+  private static final CostPlan<WetProcessRequestDto> PLAN = definePlan();
 
-  private final FormulaComponent formulaComponent;
-  private final UnitConverterComponent unitConverterComponent;
-  private final WetProcessRepository wetProcessRepository;
-  private final WetChemicalRepository wetChemicalRepository;
+  private final CostPlanComponent costPlanComponent;
 
   @Override
-  public ResultResponseDto calculate(ProjectStep step, CostRequestDto request) {
-    return calculateProcessResults(new WetProcessRequestDto(
+  public CostVector calculate(ProjectStep step, CostRequestDto request) {
+    return calculateProcessResults(toRequest(step, request));
+  }
+
+  @Override
+  public WetProcessRequestDto toRequest(ProjectStep step, CostRequestDto request) {
+    return new WetProcessRequestDto(
         request.waferSize(),
         step.name(),
         step.thickness()
-    ));
+    );
+  }
+
+  @Override
+  public List<CostVector> calculateCurve(ProjectStep step, List<CostRequestDto> requests) {
+    return costPlanComponent.evaluateCurve(PLAN, toRequest(step, requests.get(0)),
+        requests.stream().mapToDouble(CostRequestDto::waferSize).toArray());
+  }
+
+  @Override
+  public CostDecomposition decompose(ProjectStep step, CostRequestDto request) {
+    return costPlanComponent.decompose(PLAN, toRequest(step, request));
+  }
+
+  @Override
+  public CostSampler sampler(ProjectStep step, CostRequestDto request,
+      Map<String, Distribution> distributions) {
+    return costPlanComponent.sampler(PLAN, toRequest(step, request), distributions);
   }
 
   @Override
   public ApiResponseDto<ResultResponseDto> calculate(WetProcessRequestDto request) {
     log.info("Processing wet process calculation request: {}", request);
-    ResultResponseDto response = calculateProcessResults(request);
+    ResultResponseDto response = calculateProcessResults(request).toResponse();
     log.info("Wet process calculation completed successfully");
     return createSuccessResponse(response);
   }
 
-  private ResultResponseDto calculateProcessResults(WetProcessRequestDto request) {
-    return ResultResponseDto.builder()
-        .processName(PROCESS_NAME)
-        .laborTime(calculateLaborTime(request))
-        .periodicCost(calculatePeriodicCost(request))
-        .power(calculateTotalPower(request))
-        .wetEtchant(calculateWetChemical(request))
-        .totalTime(calculateTotalTime(request))
-        .build();
+  private CostVector calculateProcessResults(WetProcessRequestDto request) {
+    return costPlanComponent.evaluate(PLAN, request);
   }
 
   private ApiResponseDto<ResultResponseDto> createSuccessResponse(ResultResponseDto response) {
@@ -66,213 +93,123 @@ public final class WetProcessServiceImpl implements
         .build();
   }
 
-  private double calculateTotalPower(WetProcessRequestDto request) {
-    List<ProcessStep> powerSteps = createPowerSteps(request);
-    return calculateOverheadPower(request) +
-        powerSteps.stream()
-            .mapToDouble(step -> calculatePowerForStep(request, step))
-            .sum();
-  }
-
-  private List<ProcessStep> createPowerSteps(WetProcessRequestDto request) {
-    return List.of(
-        new ProcessStep(
-            ProcessDefinition.ETCH.getValue(),
-            () -> calculateEtchTime(request),
-            ProcessDefinition.ETCH.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.CLEAN.getValue(),
-            () -> calculateCleanTime(request),
-            ProcessDefinition.CLEAN.getValue()
-        ),
-        new ProcessStep(
-            ProcessDefinition.HEATER.getValue(),
-            () -> calculateSetupTakedownTime(request),
-            ProcessDefinition.HEATER.getValue()
-        )
-    );
-  }
-
-  private double calculatePowerForStep(WetProcessRequestDto request, ProcessStep step) {
-    double time = step.timeCalculator().get();
-    double heaterPowerDraw = findWetProcessValue(ProcessDefinition.HEATER_POWER_DRAW);
-
-    if (ProcessDefinition.HEATER.getValue().equals(step.parameterValue())) {
-      double latentPower = wetProcessRepository.findEffectiveLatentValueBySettingsName(
-          PROCESS_NAME,
-          step.parameterValue()
-      ).orElse(0.0);
-      // Using Formula5: A * B
-      return formulaComponent.calculateFormula4(time, latentPower);
-    }
-
-    double temperature = getTemperatureForStep(request, step.parameterValue());
-    // Using Formula11: A * B * C / s_per_h / W_per_kW
-    return formulaComponent.calculateFormula8(
-        time,
-        temperature,
-        heaterPowerDraw,
-        3600.0,  // s_per_h
-        1000.0   // W_per_kW
-    );
-  }
-
-  private double getTemperatureForStep(WetProcessRequestDto request, String stepType) {
-    return ProcessDefinition.ETCH.getValue().equals(stepType)
-        ? wetChemicalRepository.findFieldByName(
-        request.name(),
-        ProcessDefinition.ETCH_TEMP.getValue()
-    ).orElse(0.0)
-        : wetProcessRepository.findCleanFieldByName(
-            PROCESS_NAME,
-            ProcessDefinition.TEMPERATURE.getValue()
-        ).orElse(0.0);
-  }
-
-  private double calculateWetChemical(WetProcessRequestDto request) {
-    double lotSize = wetChemicalRepository.findFieldByName(
-        request.name(),
-        ProcessDefinition.LOT_SIZE.getValue()
-    ).orElse(0.0);
-    double runsNeededPerStep = Math.ceil(request.waferSize() / lotSize);
-
-    double mainChemical = wetChemicalRepository.findFieldByName(
-        request.name(),
-        ProcessDefinition.COST_PER_RUN.getValue()
-    ).orElse(0.0);
-
-    double diWater = wetChemicalRepository.findFieldByName(
-        DI_WATER,
-        ProcessDefinition.COST_PER_RUN.getValue()
-    ).orElse(0.0);
-
-    // Using Formula4: A + B
-    return formulaComponent.calculateFormula3(
-        mainChemical * runsNeededPerStep,
-        diWater * runsNeededPerStep
-    );
-  }
-
-  private double calculateEtchTime(WetProcessRequestDto request) {
-    double etchRate = wetChemicalRepository.findFieldByName(
-        request.name(),
-        ProcessDefinition.ETCH_RATE.getValue()
-    ).orElse(0.0);
-
-    if (etchRate == 0.0) {
-      return 0.0;
-    }
-
-    // Using Formula8: A / B * s_per_min for base etch time
-    double baseEtchTime = formulaComponent.calculateFormula7(
-        request.thickness(),
-        etchRate,
-        1.0
-    );
-
-    // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(baseEtchTime, calculateRunTime(request));
-  }
+  private static CostPlan<WetProcessRequestDto> definePlan() {
+    CostPlan.Builder<WetProcessRequestDto> plan = CostPlan.builder(PROCESS_NAME);
+    Term waferSize = plan.variable("waferSize", WetProcessRequestDto::waferSize);
+    Term thickness = plan.input("thickness", WetProcessRequestDto::thickness);
+    Term one = plan.constant("one", 1.0);
+    Term lotSize = wetChemicalValue(plan, ProcessDefinition.LOT_SIZE);
 
-  private double calculateCleanTime(WetProcessRequestDto request) {
+    // Using Formula8: A / B * s_per_min with s_per_min = 1.0
+    Term runTime = plan.derive("runTime", Math::ceil,
+        plan.formula("lots", FormulaComponent::calculateFormula7, waferSize, lotSize, one));
+    // Using Formula8: A / B * s_per_min for base etch time, then Formula5: A * B, skipped
+    // entirely when the chemical has no etch rate
+    Term etchTime = plan.formula("etchTime",
+        (formulas, depth, etchRate, runs) -> etchRate == 0.0
+            ? 0.0
+            : formulas.calculateFormula4(formulas.calculateFormula7(depth, etchRate, 1.0), runs),
+        thickness, wetChemicalValue(plan, ProcessDefinition.ETCH_RATE), runTime);
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        findWetProcessValue(ProcessDefinition.CLEAN_TIME),
-        calculateRunTime(request)
-    );
-  }
-
-  private double calculateDryTime(WetProcessRequestDto request) {
+    Term cleanTime = plan.formula("cleanTime", FormulaComponent::calculateFormula4,
+        wetProcessValue(plan, ProcessDefinition.CLEAN_TIME), runTime);
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateRunTime(request),
-        findWetProcessValue(ProcessDefinition.DRYING_RUN)
-    );
-  }
-
-  private double calculateRunTime(WetProcessRequestDto request) {
-    double runsNeededPerStep = wetChemicalRepository.findFieldByName(
-        request.name(),
-        ProcessDefinition.LOT_SIZE.getValue()
-    ).orElse(0.0);
-
-    // Using Formula8: A / B * s_per_min with s_per_min = 1.0
-    return Math.ceil(formulaComponent.calculateFormula7(
-        request.waferSize(),
-        runsNeededPerStep,
-        1.0
-    ));
-  }
-
-  private double calculateProcessTime(WetProcessRequestDto request) {
-    double etchTime = calculateEtchTime(request);
-    double cleanTime = calculateCleanTime(request);
-    double dryTime = calculateDryTime(request);
-
+    Term dryTime = plan.formula("dryTime", FormulaComponent::calculateFormula4,
+        runTime, wetProcessValue(plan, ProcessDefinition.DRYING_RUN));
     // Using Formula4: A + B for summing multiple times
-    return formulaComponent.calculateFormula3(
+    Term processTime = plan.formula("processTime", FormulaComponent::calculateFormula3,
         etchTime,
-        formulaComponent.calculateFormula3(cleanTime, dryTime)
-    );
-  }
-
-  private double calculateSetupTakedownTime(WetProcessRequestDto request) {
-    // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateRunTime(request),
-        findWetProcessValue(ProcessDefinition.SETUP_TAKEDOWN_TIME)
-    );
-  }
-
-  private double calculateLaborTime(WetProcessRequestDto request) {
-    double cleanTime = calculateCleanTime(request);
-    double dryTime = calculateDryTime(request);
-    double setupTime = calculateSetupTakedownTime(request);
-
-    double totalLaborTime = formulaComponent.calculateFormula3(
-        cleanTime,
-        formulaComponent.calculateFormula3(dryTime, setupTime)
-    );
-
-    return unitConverterComponent.convertSecondsHours(totalLaborTime, false);
-  }
-
-  private double calculatePeriodicCost(WetProcessRequestDto request) {
+        plan.formula("cleanAndDryTime", FormulaComponent::calculateFormula3, cleanTime, dryTime));
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateProcessTime(request),
-        findWetProcessValue(ProcessDefinition.PERIODIC_COST)
-    );
-  }
-
-  private double calculateTotalTime(WetProcessRequestDto request) {
-    return unitConverterComponent.convertSecondsHours(
-        calculateTotalUsage(request),
-        false
-    );
-  }
-
-  private double calculateTotalUsage(WetProcessRequestDto request) {
+    Term setupTakedownTime = plan.formula("setupTakedownTime",
+        FormulaComponent::calculateFormula4,
+        runTime, wetProcessValue(plan, ProcessDefinition.SETUP_TAKEDOWN_TIME));
     // Using Formula4: A + B
-    return formulaComponent.calculateFormula3(
-        calculateProcessTime(request),
-        calculateSetupTakedownTime(request)
-    );
-  }
-
-  private double calculateOverheadPower(WetProcessRequestDto request) {
+    Term totalUsage = plan.formula("totalUsage", FormulaComponent::calculateFormula3,
+        processTime, setupTakedownTime);
+
+    Term laborTime = plan.convert("laborTime", Conversion.SECONDS_TO_HOURS,
+        plan.formula("totalLaborTime", FormulaComponent::calculateFormula3,
+            cleanTime,
+            plan.formula("dryAndSetupTime", FormulaComponent::calculateFormula3,
+                dryTime, setupTakedownTime)));
     // Using Formula5: A * B
-    return formulaComponent.calculateFormula4(
-        calculateTotalUsage(request),
-        findWetProcessValue(ProcessDefinition.OVERHEAD_POWER)
+    Term periodicCost = plan.formula("periodicCost", FormulaComponent::calculateFormula4,
+        processTime, wetProcessValue(plan, ProcessDefinition.PERIODIC_COST));
+    Term totalTime = plan.convert("totalTime", Conversion.SECONDS_TO_HOURS, totalUsage);
+
+    Term heaterPowerDraw = wetProcessValue(plan, ProcessDefinition.HEATER_POWER_DRAW);
+    Term sPerH = plan.constant("sPerH", 3600.0);
+    Term wPerKw = plan.constant("wPerKw", 1000.0);
+    List<Term> stepPowers = List.of(
+        // Using Formula11: A * B * C / s_per_h / W_per_kW
+        plan.formula("power." + ProcessDefinition.ETCH.getValue(),
+            FormulaComponent::calculateFormula8,
+            etchTime, wetChemicalValue(plan, ProcessDefinition.ETCH_TEMP), heaterPowerDraw,
+            sPerH, wPerKw),
+        plan.formula("power." + ProcessDefinition.CLEAN.getValue(),
+            FormulaComponent::calculateFormula8,
+            cleanTime,
+            plan.catalog("cleanTemperature", (catalog, request) -> catalog.findValue(
+                CatalogCollection.WET_PROCESS,
+                PROCESS_NAME,
+                ProcessDefinition.CLEAN.getValue(),
+                ProcessDefinition.TEMPERATURE.getValue()
+            ).orElse(0.0)),
+            heaterPowerDraw, sPerH, wPerKw),
+        // Using Formula5: A * B
+        plan.formula("power." + ProcessDefinition.HEATER.getValue(),
+            FormulaComponent::calculateFormula4,
+            setupTakedownTime,
+            plan.catalog("heaterEffectiveLatent", (catalog, request) -> catalog.findEffectiveLatent(
+                CatalogCollection.WET_PROCESS,
+                PROCESS_NAME,
+                ProcessDefinition.HEATER.getValue()
+            ).orElse(0.0)))
     );
-  }
+    // Using Formula5: A * B
+    Term overheadPower = plan.formula("overheadPower", FormulaComponent::calculateFormula4,
+        totalUsage, wetProcessValue(plan, ProcessDefinition.OVERHEAD_POWER));
+    Term totalPower = plan.derive("totalPower", Double::sum,
+        overheadPower, plan.sum("stepsPower", stepPowers));
 
-  private Double findWetProcessValue(ProcessDefinition parameter) {
-    return wetProcessRepository.findValueByNameAndField(
-        PROCESS_NAME,
-        parameter.getValue()
-    ).orElse(0.0);
+    Term runsNeededPerStep = plan.derive("runsNeededPerStep",
+        (wafers, lot) -> Math.ceil(wafers / lot), waferSize, lotSize);
+    // Using Formula4: A + B
+    Term wetChemical = plan.formula("wetChemical", FormulaComponent::calculateFormula3,
+        plan.product("mainChemical",
+            plan.price("wetChemical." + ProcessDefinition.COST_PER_RUN.getValue(),
+                request -> "costPerRun." + request.name(), (catalog, request) -> catalog
+                    .findValues(CatalogCollection.WET_CHEMICAL, request.name(), WET_CHEMICAL_FIELDS)
+                    .get(ProcessDefinition.COST_PER_RUN.getValue())),
+            runsNeededPerStep),
+        plan.product("diWater",
+            plan.price("diWater." + ProcessDefinition.COST_PER_RUN.getValue(),
+                request -> "costPerRun." + DI_WATER, (catalog, request) -> catalog
+                    .findValues(CatalogCollection.WET_CHEMICAL, DI_WATER, WET_CHEMICAL_FIELDS)
+                    .get(ProcessDefinition.COST_PER_RUN.getValue())),
+            runsNeededPerStep));
+
+    return plan
+        .output(CostComponent.LABOR_TIME, laborTime)
+        .output(CostComponent.PERIODIC_COST, periodicCost)
+        .output(CostComponent.POWER, totalPower)
+        .output(CostComponent.WET_ETCHANT, wetChemical)
+        .output(CostComponent.TOTAL_TIME, totalTime)
+        .compile();
+  }
+
+  private static Term wetProcessValue(CostPlan.Builder<WetProcessRequestDto> plan,
+      ProcessDefinition parameter) {
+    return plan.catalog(PROCESS_NAME + "." + parameter.getValue(), (catalog, request) -> catalog
+        .findValue(CatalogCollection.WET_PROCESS, PROCESS_NAME, parameter.getValue())
+        .orElse(0.0));
+  }
+
+  private static Term wetChemicalValue(CostPlan.Builder<WetProcessRequestDto> plan,
+      ProcessDefinition parameter) {
+    return plan.catalog("wetChemical." + parameter.getValue(), (catalog, request) -> catalog
+        .findValues(CatalogCollection.WET_CHEMICAL, request.name(), WET_CHEMICAL_FIELDS)
+        .get(parameter.getValue()));
   }
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+package db.migration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Moves the steps of existing projects into the shared step lists. Each list is keyed by the
+ * SHA-256 of the compact JSON of its steps, written as the application wrote it when this
+ * migration was added, so saving the same steps again finds the migrated list. Hashing the stored
+ * text in SQL would keep its original whitespace and number formatting, and never match.
+ * <p>
+ * The compact JSON and the hash are computed here rather than by the application, so that what
+ * this migration stores never changes with the application.
+ * <p>
+ * The updated_at trigger is disabled meanwhile, as moving the steps does not modify a project.
+ */
+public class V6__Backfill_project_step_lists extends BaseJavaMigration {
+
+  private static final int BATCH_SIZE = 500;
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("ALTER TABLE projects DISABLE TRIGGER update_projects_updated_at");
+      backfill(connection);
+      statement.execute("ALTER TABLE projects ENABLE TRIGGER update_projects_updated_at");
+    }
+  }
+
+  private static void backfill(Connection connection) throws Exception {
+    try (Statement select = connection.createStatement();
+        PreparedStatement insert = connection.prepareStatement("""
+            INSERT INTO project_step_lists (hash, steps) VALUES (?, CAST(? AS json))
+            ON CONFLICT (hash) DO NOTHING""");
+        PreparedStatement update = connection.prepareStatement(
+            "UPDATE projects SET step_list_hash = ? WHERE id = ?")) {
+      select.setFetchSize(BATCH_SIZE);
+      try (ResultSet rows = select.executeQuery(
+          "SELECT id, project_step FROM projects WHERE project_step IS NOT NULL")) {
+        int pending = 0;
+        while (rows.next()) {
+          String steps = compactJson(OBJECT_MAPPER.readTree(rows.getString("project_step")));
+          String hash = sha256(steps);
+          insert.setString(1, hash);
+          insert.setString(2, steps);
+          insert.addBatch();
+          update.setString(1, hash);
+          update.setLong(2, rows.getLong("id"));
+          update.addBatch();
+          if (++pending == BATCH_SIZE) {
+            insert.executeBatch();
+            update.executeBatch();
+            pending = 0;
+          }
+        }
+        if (pending > 0) {
+          insert.executeBatch();
+          update.executeBatch();
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the hex SHA-256 of the UTF-8 bytes of the text
+   */
+  static String sha256(String text) throws NoSuchAlgorithmException {
+    return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+        .digest(text.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * @return the JSON without whitespace, fields in document order, floating-point numbers as
+   * {@link Double#toString(double)} writes them, and strings escaped as Jackson 2.17 escapes them
+   */
+  static String compactJson(JsonNode node) {
+    StringBuilder json = new StringBuilder();
+    writeCompact(node, json);
+    return json.toString();
+  }
+
+  private static void writeCompact(JsonNode node, StringBuilder json) {
+    switch (node.getNodeType()) {
+      case OBJECT -> {
+        json.append('{');
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+          Map.Entry<String, JsonNode> field = fields.next();
+          writeString(field.getKey(), json);
+          json.append(':');
+          writeCompact(field.getValue(), json);
+          if (fields.hasNext()) {
+            json.append(',');
+          }
+        }
+        json.append('}');
+      }
+      case ARRAY -> {
+        json.append('[');
+        for (int i = 0; i < node.size(); i++) {
+          if (i > 0) {
+            json.append(',');
+          }
+          writeCompact(node.get(i), json);
+        }
+        json.append(']');
+      }
+      case STRING -> writeString(node.textValue(), json);
+      case NUMBER -> json.append(node.isFloatingPointNumber()
+          ? Double.toString(node.doubleValue())
+          : node.bigIntegerValue().toString());
+      case BOOLEAN -> json.append(node.booleanValue());
+      case NULL -> json.append("null");
+      default -> throw new IllegalArgumentException("Unexpected JSON node: " + node.getNodeType());
+    }
+  }
+
+  private static void writeString(String value, StringBuilder json) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> json.append("\\\"");
+        case '\\' -> json.append("\\\\");
+        case '\b' -> json.append("\\b");
+        case '\t' -> json.append("\\t");
+        case '\n' -> json.append("\\n");
+        case '\f' -> json.append("\\f");
+        case '\r' -> json.append("\\r");
+        default -> {
+          if (c < 0x20) {
+            json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+          } else {
+            json.append(c);
+          }
+        }
+      }
+    }
+    json.append('"');
+  }
+}
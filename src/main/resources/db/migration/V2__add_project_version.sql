@@ -0,0 +1,3 @@
+-- Optimistic lock version of a project, incremented on every update
+ALTER TABLE "projects"
+    ADD COLUMN "version" BIGINT DEFAULT 0 NOT NULL;
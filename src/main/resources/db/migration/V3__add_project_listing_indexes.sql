@@ -0,0 +1,5 @@
+-- The project listing pages by keyset: it orders by a timestamp, then by id
+CREATE INDEX idx_projects_created_at_id ON projects (created_at, id);
+CREATE INDEX idx_projects_updated_at_id ON projects (updated_at, id);
+CREATE INDEX idx_projects_company_id_created_at_id ON projects (company_id, created_at, id);
+DROP INDEX idx_projects_created_at;
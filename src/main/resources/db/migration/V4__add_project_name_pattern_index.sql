@@ -0,0 +1,3 @@
+-- Serves name prefix queries, such as the lookup of the copies of a project, with a range scan.
+-- Names are not unique: copies are named under an advisory lock on their base name instead.
+CREATE INDEX idx_projects_name_pattern ON projects (name varchar_pattern_ops);
@@ -0,0 +1,16 @@
+-- Project steps are stored once per distinct content, keyed by the SHA-256 of their JSON, and
+-- shared by every project with the same steps. V6 moves the existing steps over. The old column
+-- is kept, no longer written, until a later release drops it.
+CREATE TABLE "project_step_lists"
+(
+    "hash"  VARCHAR(64) PRIMARY KEY,
+    "steps" JSON NOT NULL
+);
+
+ALTER TABLE "projects"
+    ADD COLUMN "step_list_hash" VARCHAR(64) REFERENCES project_step_lists (hash);
+
+-- Fingerprint of the reference catalog the costs of a project were calculated with. Existing
+-- projects have none, so their copies are calculated once more.
+ALTER TABLE "projects"
+    ADD COLUMN "catalog_fingerprint" VARCHAR(64);
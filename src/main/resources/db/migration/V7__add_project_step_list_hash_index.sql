@@ -0,0 +1,3 @@
+-- Finds the projects sharing a step list when it is released. The old project_step column is
+-- kept for one release, so a rollback still has the steps of the projects not saved since.
+CREATE INDEX idx_projects_step_list_hash ON projects (step_list_hash);
@@ -0,0 +1,18 @@
+-- The project listing sorts by total cost and filters by a case-insensitive name prefix. The total
+-- cost is stored by the application on every save, so both can be served by an index.
+ALTER TABLE "projects"
+    ADD COLUMN "total_cost" DOUBLE PRECISION DEFAULT 0 NOT NULL;
+
+-- Filling the column does not modify a project, so the updated_at trigger is disabled meanwhile
+ALTER TABLE projects DISABLE TRIGGER update_projects_updated_at;
+UPDATE projects
+SET total_cost = COALESCE(total_labor_cost, 0) + COALESCE(total_periodic_cost, 0)
+    + COALESCE(total_power_cost, 0) + COALESCE(total_gas_cost, 0)
+    + COALESCE(total_target_material_cost, 0) + COALESCE(total_wet_etchant_cost, 0)
+    + COALESCE(total_lithography_reagent_cost, 0) + COALESCE(total_metrology_inspection_cost, 0)
+    + COALESCE(total_external_process_cost, 0) + COALESCE(total_manually_input_process_cost, 0)
+    + COALESCE(total_substrate_cost, 0);
+ALTER TABLE projects ENABLE TRIGGER update_projects_updated_at;
+
+CREATE INDEX idx_projects_total_cost_id ON projects (total_cost, id);
+CREATE INDEX idx_projects_lower_name_pattern ON projects (lower(name) text_pattern_ops);
@@ -0,0 +1,134 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import java.time.Duration;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogChangeWatcherTest {
+
+  private static final int VERIFY_TIMEOUT_MS = 5000;
+
+  @Mock
+  private CatalogSource catalogSource;
+  @Mock
+  private ReferenceCatalogHolder referenceCatalogHolder;
+  @Mock
+  private CatalogSnapshotStore catalogSnapshotStore;
+  @Mock
+  private MongoTemplate mongoTemplate;
+  @Mock
+  private MongoDatabase database;
+  @Mock
+  private ChangeStreamIterable<Document> stream;
+  @Mock
+  private ChangeStreamIterable<Document> resumedStream;
+  @Mock
+  private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+  @Mock
+  private MongoChangeStreamCursor<ChangeStreamDocument<Document>> resumedCursor;
+  @Mock
+  private ChangeStreamDocument<Document> event;
+
+  private CatalogChangeWatcher watcher;
+
+  @BeforeEach
+  void setUp() {
+    watcher = new CatalogChangeWatcher(
+        new CatalogWatchProperties(CatalogWatchProperties.Mode.AUTO, null, Duration.ofMillis(1)),
+        catalogSource, referenceCatalogHolder, catalogSnapshotStore, mongoTemplate);
+    when(mongoTemplate.getDb()).thenReturn(database);
+  }
+
+  @AfterEach
+  void tearDown() {
+    watcher.stop();
+  }
+
+  @Test
+  void failedStreamResumesAfterTheLastEvent() {
+    BsonDocument openToken = token("open");
+    BsonDocument eventToken = token("event");
+    when(database.watch(anyList())).thenReturn(stream);
+    when(stream.cursor()).thenReturn(cursor);
+    when(cursor.getResumeToken()).thenReturn(openToken, eventToken);
+    when(cursor.next()).thenReturn(event).thenThrow(connectionReset());
+    when(stream.resumeAfter(eventToken)).thenReturn(resumedStream);
+    when(resumedStream.cursor()).thenReturn(resumedCursor);
+    when(resumedCursor.next()).thenAnswer(invocation -> stopWatching());
+
+    watcher.start();
+
+    verify(resumedCursor, timeout(VERIFY_TIMEOUT_MS)).next();
+    // Once when first opened, once for the event, and not again when resumed
+    verify(referenceCatalogHolder, times(2)).reload();
+    assertEquals(CatalogWatchProperties.Mode.CHANGE_STREAM, watcher.getActiveMode());
+  }
+
+  @Test
+  void streamWhoseHistoryIsLostIsReopenedAndTheCatalogReloaded() {
+    when(database.watch(anyList())).thenReturn(stream);
+    when(stream.cursor()).thenReturn(cursor);
+    when(cursor.getResumeToken()).thenReturn(token("open"));
+    when(cursor.next())
+        .thenThrow(new MongoCommandException(new BsonDocument("ok", new BsonInt32(0))
+            .append("code", new BsonInt32(286))
+            .append("codeName", new BsonString("ChangeStreamHistoryLost")), new ServerAddress()))
+        .thenAnswer(invocation -> stopWatching());
+
+    watcher.start();
+
+    verify(cursor, timeout(VERIFY_TIMEOUT_MS).times(2)).next();
+    verify(stream, never()).resumeAfter(any());
+    verify(referenceCatalogHolder, times(2)).reload();
+  }
+
+  @Test
+  void fallsBackToPollingOnlyAfterRepeatedFailures() {
+    when(database.watch(anyList())).thenThrow(connectionReset());
+
+    watcher.start();
+
+    verify(catalogSource, timeout(VERIFY_TIMEOUT_MS)).readVersions();
+    verify(database, times(CatalogChangeWatcher.RETRY_ATTEMPTS + 1)).watch(anyList());
+    assertEquals(CatalogWatchProperties.Mode.POLLING, watcher.getActiveMode());
+  }
+
+  private ChangeStreamDocument<Document> stopWatching() {
+    watcher.stop();
+    throw new IllegalStateException("Cursor closed");
+  }
+
+  private static BsonDocument token(String data) {
+    return new BsonDocument("_data", new BsonString(data));
+  }
+
+  private static MongoSocketReadException connectionReset() {
+    return new MongoSocketReadException("Connection reset", new ServerAddress());
+  }
+}
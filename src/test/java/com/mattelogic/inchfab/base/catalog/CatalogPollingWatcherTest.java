@@ -0,0 +1,112 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mattelogic.inchfab.base.exception.ReferenceCatalogException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CatalogPollingWatcherTest {
+
+  private InMemoryCatalogSource source;
+  private ReferenceCatalogHolder holder;
+  private CatalogPollingWatcher watcher;
+
+  @BeforeEach
+  void setUp() {
+    source = new InMemoryCatalogSource();
+    source.put(CatalogCollection.GAS, gases(12.5));
+    CatalogSnapshotStore snapshotStore =
+        new CatalogSnapshotStore(new CatalogSnapshotProperties(null, null));
+    holder = new ReferenceCatalogHolder(new ReferenceCatalogLoader(source, snapshotStore));
+    watcher = new CatalogPollingWatcher(source, holder);
+  }
+
+  @Test
+  void firstPollPublishesBaselineGeneration() {
+    assertTrue(watcher.poll());
+    assertEquals(1, holder.current().getGeneration());
+    assertEquals(12.5, holder.current().findGasPrice("sf6").orElseThrow());
+  }
+
+  @Test
+  void unchangedVersionsDoNotReload() {
+    watcher.poll();
+
+    assertFalse(watcher.poll());
+    assertEquals(1, holder.current().getGeneration());
+  }
+
+  @Test
+  void changedCollectionPublishesNewGeneration() {
+    watcher.poll();
+    ReferenceCatalog previous = holder.current();
+
+    source.put(CatalogCollection.GAS, gases(20.0));
+
+    assertTrue(watcher.poll());
+    assertEquals(2, holder.current().getGeneration());
+    assertEquals(20.0, holder.current().findGasPrice("sf6").orElseThrow());
+    assertEquals(12.5, previous.findGasPrice("sf6").orElseThrow());
+  }
+
+  @Test
+  void failedReloadKeepsGenerationAndRetries() {
+    watcher.poll();
+    source.put(CatalogCollection.GAS, gases(20.0));
+    source.failReads = true;
+
+    assertThrows(ReferenceCatalogException.class, watcher::poll);
+    assertEquals(12.5, holder.current().findGasPrice("sf6").orElseThrow());
+
+    source.failReads = false;
+    assertTrue(watcher.poll());
+    assertEquals(20.0, holder.current().findGasPrice("sf6").orElseThrow());
+  }
+
+  private static List<Document> gases(double sf6Price) {
+    return List.of(new Document("gases", List.of(
+        new Document("name", "sf6").append("price", sf6Price),
+        new Document("name", "o2").append("price", 3.0)
+    )));
+  }
+
+  /**
+   * In-process stand-in for Mongo: every write bumps the version of the written collection.
+   */
+  private static final class InMemoryCatalogSource implements CatalogSource {
+
+    private final Map<CatalogCollection, List<Document>> documents =
+        new EnumMap<>(CatalogCollection.class);
+    private final Map<CatalogCollection, Integer> versions =
+        new EnumMap<>(CatalogCollection.class);
+    private boolean failReads;
+
+    void put(CatalogCollection collection, List<Document> content) {
+      documents.put(collection, content);
+      versions.merge(collection, 1, Integer::sum);
+    }
+
+    @Override
+    public Map<CatalogCollection, List<Document>> readAll() {
+      if (failReads) {
+        throw new ReferenceCatalogException("Source unavailable");
+      }
+      return new EnumMap<>(documents);
+    }
+
+    @Override
+    public Map<CatalogCollection, String> readVersions() {
+      Map<CatalogCollection, String> result = new EnumMap<>(CatalogCollection.class);
+      versions.forEach((collection, version) -> result.put(collection, version.toString()));
+      return result;
+    }
+  }
+}
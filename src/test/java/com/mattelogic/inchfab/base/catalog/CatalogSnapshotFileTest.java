@@ -0,0 +1,47 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CatalogSnapshotFileTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void roundTripsDocuments() throws IOException {
+    Map<CatalogCollection, List<Document>> documents = new EnumMap<>(CatalogCollection.class);
+    documents.put(CatalogCollection.GAS, List.of(new Document("_id", new ObjectId())
+        .append("gases", List.of(new Document("name", "sf6").append("price", 12.5)))));
+    documents.put(CatalogCollection.CONSTANT, List.of());
+    Path path = directory.resolve("catalog.snapshot");
+
+    CatalogSnapshotFile.write(path, documents);
+
+    assertEquals(documents, CatalogSnapshotFile.read(path).documents());
+    assertEquals(12.5, ReferenceCatalog.from(1, CatalogSnapshotFile.read(path).documents())
+        .findGasPrice("sf6").orElseThrow());
+  }
+
+  @Test
+  void rejectsCorruptedFile() throws IOException {
+    Path path = directory.resolve("catalog.snapshot");
+    CatalogSnapshotFile.write(path, Map.of(CatalogCollection.GAS, List.of(new Document("a", 1))));
+    byte[] bytes = Files.readAllBytes(path);
+    bytes[20] ^= 1;
+    Files.write(path, bytes);
+
+    assertThrows(IOException.class, () -> CatalogSnapshotFile.read(path));
+  }
+}
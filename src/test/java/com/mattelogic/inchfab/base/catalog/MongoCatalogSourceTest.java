@@ -0,0 +1,76 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class MongoCatalogSourceTest {
+
+  @Mock
+  private MongoTemplate mongoTemplate;
+
+  private MongoCatalogSource source;
+
+  @BeforeEach
+  void setUp() {
+    source = new MongoCatalogSource(mongoTemplate);
+  }
+
+  @Test
+  void undeclaredCollectionsAreHashedOnTheServer() {
+    Document hashes = new Document();
+    for (CatalogCollection collection : CatalogCollection.values()) {
+      hashes.append(collection.getValue(), "hash-" + collection.getValue());
+    }
+    when(mongoTemplate.executeCommand(any(Document.class)))
+        .thenReturn(new Document("collections", hashes));
+    declareGasVersion();
+
+    Map<CatalogCollection, String> versions = source.readVersions();
+
+    assertEquals("v:3", versions.get(CatalogCollection.GAS));
+    assertEquals("md5:hash-drie", versions.get(CatalogCollection.DRIE));
+    assertEquals(CatalogCollection.values().length, versions.size());
+    verify(mongoTemplate, never()).findAll(eq(Document.class), eq("drie"));
+  }
+
+  @Test
+  void contentIsChecksummedWhereDbHashIsRefused() {
+    when(mongoTemplate.executeCommand(any(Document.class)))
+        .thenThrow(new UncategorizedMongoDbException("not authorized", null));
+    when(mongoTemplate.findAll(eq(Document.class), anyString()))
+        .thenReturn(List.of(new Document("name", "SF6").append("price", 12.5)));
+    declareGasVersion();
+
+    Map<CatalogCollection, String> first = source.readVersions();
+    when(mongoTemplate.findAll(Document.class, "drie"))
+        .thenReturn(List.of(new Document("name", "SF6").append("price", 20.0)));
+    Map<CatalogCollection, String> second = source.readVersions();
+
+    assertEquals("v:3", first.get(CatalogCollection.GAS));
+    assertEquals(first.get(CatalogCollection.RIE), second.get(CatalogCollection.RIE));
+    assertNotEquals(first.get(CatalogCollection.DRIE), second.get(CatalogCollection.DRIE));
+  }
+
+  private void declareGasVersion() {
+    when(mongoTemplate.findAll(Document.class, MongoCatalogSource.VERSION_COLLECTION))
+        .thenReturn(List.of(new Document("_id", "gas").append("version", 3)));
+  }
+}
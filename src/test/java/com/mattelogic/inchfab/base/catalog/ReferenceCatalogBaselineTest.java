@@ -0,0 +1,181 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mattelogic.inchfab.base.model.FieldValues;
+import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pins the in-memory catalog lookups to the figures the Mongo aggregations of the repositories
+ * they replaced returned for the same documents.
+ */
+class ReferenceCatalogBaselineTest {
+
+  private final ReferenceCatalog catalog = ReferenceCatalog.from(1, Map.of(
+      CatalogCollection.EXTERNAL_PROCESS, List.of(
+          new Document("name", "foundry")
+              .append("setupCost", 100.0)
+              .append("lotCharge", 50)
+              .append("lotSize", 25.0),
+          new Document("name", "foundry").append("setupCost", 999.0)),
+      CatalogCollection.VACUUM_PROCESS, List.of(
+          new Document("type", "rie").append("processes", List.of(
+              process("oxide etch", new Document("sf6", 20.0).append("o2", 5.0), List.of(
+                  subprocess("etch", new Document("sf6", 12.0).append("o2", 2.0)),
+                  subprocess("clean", new Document("o2", 7.0)),
+                  subprocess("etch", new Document("sf6", 4.0)))),
+              process("nitride etch", new Document("sf6", 50.0), List.of()))),
+          new Document("type", "rie").append("processes", List.of(
+              process("oxide etch", new Document("sf6", 10.0), List.of(
+                  subprocess("clean", new Document("sf6", -3.0).append("o2", 1.0)))))),
+          new Document("type", "drie").append("processes", List.of(
+              process("oxide etch", new Document("sf6", 80.0), List.of())))),
+      CatalogCollection.LITHOGRAPHY_DATA, List.of(
+          new Document("photoresists", List.of(new Document("name", "AZ1512")
+              .append("processTime", new Document("spin_coat", 30.0).append("softbake", 60))
+              .append("runSize", new Document("spin_coat", 1.0))
+              .append("temperature", new Document("softbake", 95.0))
+              .append("materials", new Document("photoresist", new Document("costPerRun", 2.5))
+                  .append("hmds", new Document("costPerRun", 0.4)))))),
+      CatalogCollection.SUBSTRATE, List.of(new Document("name", "si-100mm")
+          .append("pricing", List.of(
+              new Document("quantity", 25).append("unitCost", 30.0),
+              new Document("quantity", 50).append("unitCost", 28.0),
+              new Document("quantity", 100).append("unitCost", 25.0)))),
+      CatalogCollection.GAS, List.of(new Document("gases", List.of(
+          new Document("name", "sf6").append("price", 0.02),
+          new Document("name", "o2").append("price", 0.001)))),
+      CatalogCollection.CONSTANT, List.of(new Document("time", List.of(
+          new Document("metric", "s/min").append("value", 60.0),
+          new Document("metric", "s/h").append("value", 3600.0))))
+  ));
+
+  @Test
+  void fieldValuesReadTheFirstDocumentOfTheName() {
+    FieldValues values = catalog.findValues(CatalogCollection.EXTERNAL_PROCESS, "foundry",
+        List.of("setupCost", "lotCharge", "lotSize", "amountRate"));
+
+    // FieldValueRepository matched on name and projected the first result's field
+    assertEquals(100.0, values.get("setupCost"));
+    assertEquals(50.0, values.get("lotCharge"));
+    assertEquals(25.0, values.get("lotSize"));
+    // the services read a missing field as 0.0
+    assertEquals(0.0, values.get("amountRate"));
+    assertEquals(Optional.of(100.0),
+        catalog.findValue(CatalogCollection.EXTERNAL_PROCESS, "foundry", "setupCost"));
+    assertEquals(Optional.empty(),
+        catalog.findValue(CatalogCollection.EXTERNAL_PROCESS, "foundry", "amountRate"));
+    assertEquals(Optional.empty(),
+        catalog.findValue(CatalogCollection.EXTERNAL_PROCESS, "unknown", "setupCost"));
+  }
+
+  @Test
+  void subprocessValueSumsEveryMatchedSubprocessOfEveryRecipe() {
+    // $in on the names matched both "etch" subprocesses and the "clean" of both documents
+    assertEquals(Optional.of(16.0),
+        catalog.findSubprocessValue("rie", "oxide etch", List.of("etch"), "sf6"));
+    assertEquals(Optional.of(13.0),
+        catalog.findSubprocessValue("rie", "oxide etch", List.of("etch", "clean", "etch"), "sf6"));
+    assertEquals(Optional.of(8.0),
+        catalog.findSubprocessValue("rie", "oxide etch", List.of("clean"), "o2"));
+    // $sum over matched subprocesses without the parameter was 0, not missing
+    assertEquals(Optional.of(0.0),
+        catalog.findSubprocessValue("rie", "oxide etch", List.of("etch"), "ar"));
+    // no subprocess matched, so the group stage produced no document
+    assertEquals(Optional.empty(),
+        catalog.findSubprocessValue("rie", "oxide etch", List.of("strip"), "sf6"));
+    assertEquals(Optional.empty(),
+        catalog.findSubprocessValue("rie", "nitride etch", List.of("etch"), "sf6"));
+  }
+
+  @Test
+  void recipeViewMatchesTheProcessAggregations() {
+    RecipeView oxide = catalog.findRecipe("rie", "oxide etch");
+
+    // process sum with $ifNull 0 across the processes of every "rie" document
+    assertEquals(Optional.of(30.0), oxide.processValue("sf6"));
+    assertEquals(Optional.of(5.0), oxide.processValue("o2"));
+    assertEquals(Optional.of(0.0), oxide.processValue("ar"));
+    assertEquals(Optional.of(80.0), catalog.findProcessValue("drie", "oxide etch", "sf6"));
+    assertEquals(Optional.empty(), catalog.findProcessValue("rie", "unknown", "sf6"));
+
+    // max with $ifNull 0 across every subprocess, so a subprocess without sf6 counts as 0
+    assertEquals(Optional.of(12.0), oxide.maxSubprocessValue("sf6"));
+    assertEquals(Optional.of(7.0), oxide.maxSubprocessValue("o2"));
+    assertEquals(Optional.of(0.0), oxide.maxSubprocessValue("ar"));
+    // $unwind dropped processes without subprocesses
+    assertEquals(Optional.empty(), catalog.findMaxSubprocessValue("rie", "nitride etch", "sf6"));
+  }
+
+  @Test
+  void photoresistProfileMatchesTheFieldLookups() {
+    PhotoresistProfile profile = catalog.findPhotoresistProfile("AZ1512");
+
+    // $getField of photoresists.<group>.<step>, read as 0.0 by the service when missing
+    assertEquals(30.0, profile.processTime(ProcessDefinition.SPIN_COAT));
+    assertEquals(60.0, profile.processTime(ProcessDefinition.SOFT_BAKE));
+    assertEquals(0.0, profile.processTime(ProcessDefinition.HARD_BAKE));
+    assertEquals(1.0, profile.runSize(ProcessDefinition.SPIN_COAT));
+    assertEquals(95.0, profile.temperature(ProcessDefinition.SOFT_BAKE));
+    assertEquals(0.0, profile.setupTime(ProcessDefinition.SPIN_COAT));
+    // photoresists.materials.<material>.costPerRun
+    assertEquals(2.5, profile.materialCostPerRun(ProcessDefinition.PHOTORESIST));
+    assertEquals(0.4, profile.materialCostPerRun(ProcessDefinition.HMDS));
+    assertEquals(0.0, profile.materialCostPerRun(ProcessDefinition.DEVELOPER));
+
+    PhotoresistProfile unknown = catalog.findPhotoresistProfile("SU-8");
+    assertEquals(0.0, unknown.processTime(ProcessDefinition.SPIN_COAT));
+    assertEquals(0.0, unknown.materialCostPerRun(ProcessDefinition.PHOTORESIST));
+  }
+
+  @Test
+  void priceLadderMatchesTheTierLookups() {
+    // ExternalProcessRepository matched pricing.quantity exactly
+    assertEquals(Optional.of(28.0),
+        catalog.findUnitCost(CatalogCollection.SUBSTRATE, "si-100mm", 50));
+    assertEquals(Optional.empty(),
+        catalog.findUnitCost(CatalogCollection.SUBSTRATE, "si-100mm", 40));
+    // SubstrateRepository sorted the tiers by their distance to the quantity
+    assertEquals(Optional.of(30.0),
+        catalog.findNearestUnitCost(CatalogCollection.SUBSTRATE, "si-100mm", 1));
+    assertEquals(Optional.of(28.0),
+        catalog.findNearestUnitCost(CatalogCollection.SUBSTRATE, "si-100mm", 60));
+    assertEquals(Optional.of(25.0),
+        catalog.findNearestUnitCost(CatalogCollection.SUBSTRATE, "si-100mm", 400));
+    assertEquals(Optional.empty(),
+        catalog.findNearestUnitCost(CatalogCollection.SUBSTRATE, "unknown", 25));
+    assertArrayEquals(new double[]{30.0, 28.0, 25.0},
+        catalog.findNearestUnitCosts(CatalogCollection.SUBSTRATE, "si-100mm", 20, 45, 90)
+            .orElseThrow());
+    double[] exact = catalog.findUnitCosts(CatalogCollection.SUBSTRATE, "si-100mm", 25, 26)
+        .orElseThrow();
+    assertEquals(30.0, exact[0]);
+    assertTrue(Double.isNaN(exact[1]));
+  }
+
+  @Test
+  void gasPricesAndConstantsMatchTheArrayLookups() {
+    assertEquals(Optional.of(0.02), catalog.findGasPrice("sf6"));
+    assertEquals(Optional.empty(), catalog.findGasPrice("ar"));
+    assertEquals(Optional.of(3600.0), catalog.findConstant("time", "s/h"));
+    assertEquals(Optional.empty(), catalog.findConstant("time", "min/h"));
+  }
+
+  private static Document process(String name, Document parameters,
+      List<Document> subprocesses) {
+    return new Document("name", name)
+        .append("parameters", parameters)
+        .append("subprocesses", subprocesses);
+  }
+
+  private static Document subprocess(String name, Document parameters) {
+    return new Document("name", name).append("parameters", parameters);
+  }
+}
@@ -0,0 +1,29 @@
+package com.mattelogic.inchfab.base.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+class ReferenceCatalogTest {
+
+  @Test
+  void fingerprintDoesNotDependOnDocumentOrder() {
+    Document sf6 = new Document("_id", new ObjectId()).append("name", "sf6").append("price", 12.5);
+    Document c4f8 = new Document("_id", new ObjectId()).append("name", "c4f8").append("price", 9.0);
+    Document o2 = new Document("_id", new ObjectId()).append("name", "o2").append("price", 1.0);
+
+    String fingerprint = ReferenceCatalog.from(1,
+        Map.of(CatalogCollection.GAS, List.of(sf6, c4f8, o2))).getFingerprint();
+
+    assertEquals(fingerprint, ReferenceCatalog.from(2,
+        Map.of(CatalogCollection.GAS, List.of(o2, sf6, c4f8))).getFingerprint());
+    assertNotEquals(fingerprint, ReferenceCatalog.from(3,
+        Map.of(CatalogCollection.GAS, List.of(sf6, c4f8, o2.append("price", 1.5))))
+        .getFingerprint());
+  }
+}
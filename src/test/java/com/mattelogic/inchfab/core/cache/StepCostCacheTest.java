@@ -0,0 +1,76 @@
+package com.mattelogic.inchfab.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.domain.enums.ProcessDefinition;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class StepCostCacheTest {
+
+  private final AtomicInteger calculations = new AtomicInteger();
+
+  @Test
+  void hitsReturnCopiesOfTheCachedCost() {
+    StepCostCache cache = cache(DataSize.ofKilobytes(16));
+
+    cache.get(key("a", 1), this::calculate).set(CostComponent.GAS, -1.0);
+    CostVector hit = cache.get(key("a", 1), this::calculate);
+
+    assertEquals(1, calculations.get());
+    assertEquals(2.0, hit.get(CostComponent.GAS));
+    assertEquals(0.5, cache.stats().hitRatio());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedEntriesBeyondMaxWeight() {
+    long entryWeight = StepCostCache.ENTRY_OVERHEAD_BYTES + 2L * "a".length();
+    StepCostCache cache = cache(DataSize.ofBytes(2 * entryWeight));
+
+    cache.get(key("a", 1), this::calculate);
+    cache.get(key("b", 1), this::calculate);
+    cache.get(key("a", 1), this::calculate);
+    cache.get(key("c", 1), this::calculate);
+    cache.get(key("a", 1), this::calculate);
+    cache.get(key("b", 1), this::calculate);
+
+    StepCostCache.Stats stats = cache.stats();
+    assertEquals(4, calculations.get());
+    assertEquals(2, stats.hits());
+    assertEquals(2, stats.evictions());
+    assertEquals(2, stats.size());
+    assertEquals(2 * entryWeight, stats.weight());
+  }
+
+  @Test
+  void newerGenerationDropsOlderEntriesAndFailuresAreNotCached() {
+    StepCostCache cache = cache(DataSize.ofKilobytes(16));
+
+    cache.get(key("a", 1), this::calculate);
+    cache.get(key("a", 2), this::calculate);
+    cache.get(key("b", 1), this::calculate);
+    assertThrows(IllegalStateException.class, () -> cache.get(key("c", 2), () -> {
+      throw new IllegalStateException();
+    }));
+
+    assertEquals(3, calculations.get());
+    assertEquals(1, cache.stats().size());
+  }
+
+  private CostVector calculate() {
+    calculations.incrementAndGet();
+    return new CostVector("step").set(CostComponent.GAS, 2.0);
+  }
+
+  private static StepCostCache cache(DataSize maxWeight) {
+    return new StepCostCache(new StepCostCacheProperties(true, maxWeight));
+  }
+
+  private static StepCostKey key(String fingerprint, long generation) {
+    return new StepCostKey(ProcessDefinition.RIE, fingerprint, 1, "si", generation);
+  }
+}
@@ -0,0 +1,59 @@
+package com.mattelogic.inchfab.core.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class ContextPropagatingTaskDecoratorTest {
+
+  private final ContextPropagatingTaskDecorator decorator = new ContextPropagatingTaskDecorator();
+
+  @AfterEach
+  void clear() {
+    RequestContextHolder.resetRequestAttributes();
+    MDC.clear();
+  }
+
+  @Test
+  void carriesSubmittingThreadContextToVirtualThread() throws InterruptedException {
+    RequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+    RequestContextHolder.setRequestAttributes(attributes);
+    MDC.put("traceId", "abc");
+    AtomicReference<RequestAttributes> seenAttributes = new AtomicReference<>();
+    AtomicReference<String> seenTrace = new AtomicReference<>();
+
+    Runnable task = decorator.decorate(() -> {
+      seenAttributes.set(RequestContextHolder.getRequestAttributes());
+      seenTrace.set(MDC.get("traceId"));
+    });
+    RequestContextHolder.resetRequestAttributes();
+    MDC.clear();
+    Thread.ofVirtual().start(task).join();
+
+    assertSame(attributes, seenAttributes.get());
+    assertEquals("abc", seenTrace.get());
+  }
+
+  @Test
+  void restoresRunningThreadContextWhenCallerRunsTask() {
+    Runnable task = decorator.decorate(() -> MDC.put("step", "1"));
+    RequestAttributes own = new ServletRequestAttributes(new MockHttpServletRequest());
+    RequestContextHolder.setRequestAttributes(own);
+    MDC.put("traceId", "own");
+
+    task.run();
+
+    assertSame(own, RequestContextHolder.getRequestAttributes());
+    assertEquals("own", MDC.get("traceId"));
+    assertNull(MDC.get("step"));
+  }
+}
@@ -0,0 +1,70 @@
+package com.mattelogic.inchfab.core.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mattelogic.inchfab.core.config.ProcessExecutorProperties.Mode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Compares the step throughput of the platform pool and virtual thread executors. Concurrent
+ * requests each fan out steps that block as a catalog read would. Run it with
+ * {@code mvn test -Dtest=ProcessExecutorBenchmarkTest -Dbenchmark=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProcessExecutorBenchmarkTest {
+
+  private static final int REQUESTS = 50;
+  private static final int STEPS_PER_REQUEST = 40;
+  private static final long STEP_BLOCKING_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final Executor REQUEST_THREADS = task -> Thread.ofVirtual().start(task);
+
+  @Test
+  void virtualThreadsOutrunThePlatformPoolOnBlockingSteps() throws Exception {
+    double platform = throughput(Mode.PLATFORM);
+    double virtual = throughput(Mode.VIRTUAL);
+
+    log.info("Steps per second: platform {}, virtual {} ({}x)", Math.round(platform),
+        Math.round(virtual), String.format("%.1f", virtual / platform));
+    assertTrue(virtual > platform);
+  }
+
+  private static double throughput(Mode mode) throws Exception {
+    Executor executor = new AsyncConfiguration().processTaskExecutor(
+        new ProcessExecutorProperties(mode, null, null, null, null));
+    try {
+      run(executor);
+      long start = System.nanoTime();
+      run(executor);
+      return REQUESTS * STEPS_PER_REQUEST / ((System.nanoTime() - start) / 1e9);
+    } finally {
+      if (executor instanceof DisposableBean disposable) {
+        disposable.destroy();
+      }
+    }
+  }
+
+  private static void run(Executor executor) {
+    List<CompletableFuture<Void>> requests = new ArrayList<>(REQUESTS);
+    for (int request = 0; request < REQUESTS; request++) {
+      requests.add(CompletableFuture.runAsync(() -> {
+        List<CompletableFuture<Void>> steps = new ArrayList<>(STEPS_PER_REQUEST);
+        for (int step = 0; step < STEPS_PER_REQUEST; step++) {
+          steps.add(CompletableFuture.runAsync(
+              () -> LockSupport.parkNanos(STEP_BLOCKING_NANOS), executor));
+        }
+        CompletableFuture.allOf(steps.toArray(new CompletableFuture[0])).join();
+      }, REQUEST_THREADS));
+    }
+    CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).join();
+  }
+}
@@ -0,0 +1,54 @@
+package com.mattelogic.inchfab.core.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ProjectTest {
+
+  @Test
+  void copyBaseNameStripsEveryCopySuffix() {
+    assertEquals("Wafer run", Project.copyBaseName("Wafer run"));
+    assertEquals("Wafer run", Project.copyBaseName("Wafer run - Copy 2 - Copy 1"));
+    assertEquals("Wafer run - Copy", Project.copyBaseName("Wafer run - Copy"));
+  }
+
+  @Test
+  void nextCopyNameFollowsHighestCopyOfBaseName() {
+    List<String> names = List.of(
+        "Wafer run",
+        "Wafer run - Copy 1",
+        "Wafer run  -  Copy 7",
+        "Wafer run - Copy 3 - Copy 1",
+        "Wafer run 2 - Copy 9",
+        "Wafer runner - Copy 12");
+
+    assertEquals("Wafer run - Copy 8", Project.nextCopyName("Wafer run", names));
+    assertEquals("Other - Copy 1", Project.nextCopyName("Other", names));
+  }
+
+  @Test
+  void copySharesStepsUntilTheyAreReplaced() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    JsonNode steps = objectMapper.readTree("[{\"sequenceId\": 1, \"name\": \"foundry\"}]");
+    Project source = new Project();
+    source.setName("Wafer run");
+    source.setStepList(ProjectStepList.of(steps));
+
+    Project copy = Project.copyFrom(source, "Wafer run - Copy 1");
+
+    assertSame(source.getStepList(), copy.getStepList());
+    assertEquals(steps, copy.getProjectStep());
+    assertEquals(source.getStepList().getHash(), ProjectStepList.hash(steps.deepCopy()));
+
+    copy.setProjectStep(objectMapper.createArrayNode());
+
+    assertNull(copy.getStepList());
+    assertEquals(steps, source.getProjectStep());
+  }
+}
@@ -0,0 +1,70 @@
+package com.mattelogic.inchfab.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import java.util.List;
+import java.util.stream.DoubleStream;
+import org.junit.jupiter.api.Test;
+
+class CostVectorTest {
+
+  @Test
+  void responseLeavesAbsentComponentsNull() {
+    ResultResponseDto response = new CostVector("step")
+        .set(CostComponent.GAS, 2.0)
+        .set(CostComponent.POWER, 3.0)
+        .set(CostComponent.TOTAL_TIME, 5.0)
+        .toResponse();
+
+    assertEquals("step", response.processName());
+    assertEquals(2.0, response.gas());
+    assertEquals(3.0, response.power());
+    assertEquals(5.0, response.totalTime());
+    assertEquals(5.0, response.totalCost());
+    assertNull(response.laborTime());
+    assertNull(response.substrateCost());
+  }
+
+  @Test
+  void sumMatchesDoubleStreamSumOfPresentValues() {
+    double[] gas = {1e16, 1.0, -1e16, 0.1, 0.2, 0.3};
+    List<CostVector> steps = DoubleStream.of(gas)
+        .mapToObj(value -> new CostVector("step").set(CostComponent.GAS, value))
+        .toList();
+
+    CostVector sum = CostVector.sum("Total", steps);
+
+    assertEquals(DoubleStream.of(gas).sum(), sum.get(CostComponent.GAS));
+    assertEquals(0.0, sum.toResponse().manualCost());
+  }
+
+  @Test
+  void addAndScaleInPlace() {
+    CostVector vector = new CostVector("a").set(CostComponent.POWER, 2.0)
+        .add(new CostVector("b").set(CostComponent.POWER, 1.0).set(CostComponent.GAS, 4.0))
+        .scale(CostComponent.POWER, 10.0);
+
+    assertEquals(30.0, vector.get(CostComponent.POWER));
+    assertEquals(4.0, vector.get(CostComponent.GAS));
+    assertNull(vector.toResponse().wetEtchant());
+  }
+
+  @Test
+  void storedZeroSumsLikeAbsentComponent() {
+    List<CostVector> steps = List.of(
+        new CostVector("a").set(CostComponent.GAS, 1e16),
+        new CostVector("b").set(CostComponent.GAS, 1.0),
+        new CostVector("c").set(CostComponent.POWER, 2.0));
+    List<CostVector> stored = steps.stream()
+        .map(step -> CostVector.fromResponse(step.toResponseBuilder()
+            .gas(step.get(CostComponent.GAS))
+            .power(step.get(CostComponent.POWER))
+            .build()))
+        .toList();
+
+    assertEquals(CostVector.sum("Total", steps).toString(),
+        CostVector.sum("Total", stored).toString());
+  }
+}
@@ -0,0 +1,123 @@
+package com.mattelogic.inchfab.core.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.mattelogic.inchfab.core.dtos.request.ProjectPageRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.ProjectPageRequestDto.SortField;
+import com.mattelogic.inchfab.core.dtos.response.ProjectSummaryResponseDto;
+import com.mattelogic.inchfab.core.entity.Company;
+import com.mattelogic.inchfab.core.entity.Project;
+import com.mattelogic.inchfab.core.model.ProjectCursor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ProjectSummaryRepositoryTest {
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private CompanyRepository companyRepository;
+
+  private Company acme;
+  private Company other;
+
+  @BeforeEach
+  void setUp() {
+    acme = companyRepository.save(company("Acme"));
+    other = companyRepository.save(company("Other"));
+    projectRepository.saveAll(List.of(
+        project(acme, "Mems_1", true, 30.0),
+        project(acme, "mems_2", false, 10.0),
+        project(acme, "MemsX", true, 30.0),
+        project(other, "Optics", true, 20.0),
+        project(other, "Mems_3", true, null)));
+  }
+
+  @Test
+  void pagesVisitEveryProjectOnceInKeyOrder() {
+    ProjectPageRequestDto request = new ProjectPageRequestDto(null, null, null, null, null,
+        SortField.TOTAL_COST, Sort.Direction.ASC, null, 2);
+    List<ProjectSummaryResponseDto> visited = new ArrayList<>();
+    ProjectCursor after = null;
+    do {
+      List<ProjectSummaryResponseDto> page = projectRepository.findSummaries(request, after, 2);
+      visited.addAll(page);
+      after = page.size() < 2
+          ? null
+          : ProjectCursor.decode(ProjectCursor.after(page.getLast(), request.sort())
+              .encode(request), request);
+    } while (after != null);
+
+    List<ProjectSummaryResponseDto> expected = visited.stream()
+        .sorted(Comparator.comparing(ProjectSummaryResponseDto::totalCost)
+            .thenComparing(ProjectSummaryResponseDto::id))
+        .toList();
+    assertEquals(5, visited.size());
+    assertEquals(expected, visited);
+    assertEquals(0.0, visited.getFirst().totalCost());
+  }
+
+  @Test
+  void filtersCombine() {
+    ProjectPageRequestDto request = new ProjectPageRequestDto(acme.getId(), true, null, null,
+        "MEMS_", null, null, null, null);
+
+    List<ProjectSummaryResponseDto> summaries = projectRepository.findSummaries(request, null, 10);
+
+    assertEquals(List.of("Mems_1"), summaries.stream().map(ProjectSummaryResponseDto::name)
+        .toList());
+    assertEquals(acme.getId(), summaries.getFirst().companyId());
+    assertThrows(IllegalArgumentException.class, () -> ProjectCursor.decode(
+        new ProjectCursor(30.0, 1).encode(new ProjectPageRequestDto(null, null, null, null,
+            null, SortField.TOTAL_COST, null, null, null)), request));
+  }
+
+  @Test
+  void totalCostIsStoredOnEverySave() {
+    Project project = projectRepository.findAll().stream()
+        .filter(p -> p.getName().equals("Optics"))
+        .findFirst()
+        .orElseThrow();
+    project.setTotalLaborCost(5.0);
+    projectRepository.saveAndFlush(project);
+
+    ProjectPageRequestDto request = new ProjectPageRequestDto(other.getId(), null, null, null,
+        null, SortField.TOTAL_COST, Sort.Direction.DESC, null, null);
+    assertEquals(List.of(25.0, 0.0), projectRepository.findSummaries(request, null, 10).stream()
+        .map(ProjectSummaryResponseDto::totalCost)
+        .toList());
+  }
+
+  @Test
+  void namePrefixWildcardsMatchLiterally() {
+    assertEquals(List.of("Mems_1", "Mems_3"),
+        projectRepository.findNamesStartingWith("Mems_").stream().sorted().toList());
+    assertEquals(List.of(), projectRepository.findNamesStartingWith("Mems%"));
+  }
+
+  private static Company company(String name) {
+    Company company = new Company();
+    company.setName(name);
+    company.setEmail(name.toLowerCase() + "@example.com");
+    return company;
+  }
+
+  private static Project project(Company company, String name, boolean status,
+      Double gasCost) {
+    Project project = Project.create(company, name, "requester", "Requester", 25, 60.0, 0.2);
+    project.setStatus(status);
+    project.setTotalGasCost(gasCost);
+    return project;
+  }
+}
@@ -0,0 +1,160 @@
+package com.mattelogic.inchfab.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.CatalogSnapshotProperties;
+import com.mattelogic.inchfab.base.catalog.CatalogSnapshotStore;
+import com.mattelogic.inchfab.base.catalog.CatalogSource;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogLoader;
+import com.mattelogic.inchfab.core.cache.StepCostCache;
+import com.mattelogic.inchfab.core.config.AsyncConfiguration;
+import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
+import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.simulation.MonteCarloSimulator;
+import com.mattelogic.inchfab.domain.component.CostPlanComponent;
+import com.mattelogic.inchfab.domain.service.CalculateService;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the calculation pipeline, async step workers included, against a data source that refuses
+ * every connection. A calculation only reads the reference catalog, so it must never demarcate a
+ * JDBC transaction or otherwise take a connection from the pool.
+ */
+@SpringJUnitConfig(CalculationWithoutConnectionTest.PipelineConfiguration.class)
+class CalculationWithoutConnectionTest {
+
+  private static final AtomicInteger CONNECTIONS = new AtomicInteger();
+
+  @Autowired
+  private ProcessCostCalculatorServiceImpl calculator;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @BeforeEach
+  void setUp() {
+    CONNECTIONS.set(0);
+  }
+
+  @Test
+  void calculationAcquiresNoConnection() throws Throwable {
+    CostRequestDto request = objectMapper.readValue("""
+        {"waferSize": 25, "projectSteps": [
+          {"sequenceId": 1, "processType": "external_process", "name": "foundry", "amount": 10},
+          {"sequenceId": 2, "processType": "external_process", "name": "foundry", "amount": 20}
+        ]}""", CostRequestDto.class);
+
+    ResultResponseDto result = calculator.calculatePriceTotalResult(request);
+    calculator.calculatePartial(request);
+
+    assertEquals(0, CONNECTIONS.get());
+    assertEquals(360.0, result.totalCost(), 1e-9);
+  }
+
+  @Test
+  void transactionAcquiresConnection() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+    assertThrows(CannotCreateTransactionException.class,
+        () -> transaction.executeWithoutResult(status -> {
+        }));
+    assertEquals(1, CONNECTIONS.get());
+  }
+
+  @Configuration
+  @EnableTransactionManagement
+  @ComponentScan(basePackageClasses = {CalculateService.class, CostPlanComponent.class})
+  @Import({
+      AsyncConfiguration.class,
+      AsyncProcessingService.class,
+      ProcessCostCalculatorServiceImpl.class,
+      StepCostCache.class,
+      MonteCarloSimulator.class
+  })
+  static class PipelineConfiguration {
+
+    @Bean
+    DataSource dataSource() {
+      return new AbstractDataSource() {
+        @Override
+        public Connection getConnection() {
+          CONNECTIONS.incrementAndGet();
+          throw new IllegalStateException("A calculation must not acquire a connection");
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+          return getConnection();
+        }
+      };
+    }
+
+    /**
+     * Takes a connection to begin a transaction, as the JPA transaction manager does.
+     */
+    @Bean
+    PlatformTransactionManager transactionManager(DataSource dataSource) {
+      return new DataSourceTransactionManager(dataSource);
+    }
+
+    @Bean
+    ObjectMapper objectMapper() {
+      return new ObjectMapper();
+    }
+
+    @Bean
+    ReferenceCatalogHolder referenceCatalogHolder() {
+      ReferenceCatalogHolder holder = new ReferenceCatalogHolder(new ReferenceCatalogLoader(
+          new FixedCatalogSource(), new CatalogSnapshotStore(new CatalogSnapshotProperties(null,
+          null))));
+      holder.reload();
+      return holder;
+    }
+  }
+
+  private static final class FixedCatalogSource implements CatalogSource {
+
+    @Override
+    public Map<CatalogCollection, List<Document>> readAll() {
+      return Map.of(
+          CatalogCollection.ESSENTIAL, List.of(new Document("laborCost", 60.0)
+              .append("electricityCost", 0.2)),
+          CatalogCollection.EXTERNAL_PROCESS, List.of(new Document("name", "foundry")
+              .append("setupCost", 100.0)
+              .append("lotCharge", 50.0)
+              .append("lotSize", 25.0)
+              .append("amountRate", 2.0)));
+    }
+
+    @Override
+    public Map<CatalogCollection, String> readVersions() {
+      return Map.of();
+    }
+  }
+}
@@ -0,0 +1,327 @@
+package com.mattelogic.inchfab.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.CatalogSnapshotProperties;
+import com.mattelogic.inchfab.base.catalog.CatalogSnapshotStore;
+import com.mattelogic.inchfab.base.catalog.CatalogSource;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogLoader;
+import com.mattelogic.inchfab.core.cache.StepCostCache;
+import com.mattelogic.inchfab.core.config.AsyncConfiguration;
+import com.mattelogic.inchfab.core.dtos.request.CostCurveRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.RateScenarioRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.RepriceRequestDto;
+import com.mattelogic.inchfab.core.dtos.response.BatchCostResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.BatchItemResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.CostCurvePointResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.CostDecompositionResponseDto;
+import com.mattelogic.inchfab.core.dtos.response.RateScenarioResponseDto;
+import com.mattelogic.inchfab.core.simulation.MonteCarloSimulator;
+import com.mattelogic.inchfab.domain.component.CostPlanComponent;
+import com.mattelogic.inchfab.domain.service.CalculateService;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+/**
+ * Runs the batch, curve and repricing calculations through the async step pipeline against an
+ * in-memory catalog, and checks them against plain calculations of the same projects.
+ */
+@SpringJUnitConfig(ProcessCostCalculatorServiceImplTest.PipelineConfiguration.class)
+class ProcessCostCalculatorServiceImplTest {
+
+  private static final double TOLERANCE = 1e-9;
+  private static final String RIE_STEP = """
+      {"sequenceId": %d, "processType": "rie", "name": "oxide etch", "depth": %s}""";
+  private static final String EXTERNAL_STEP = """
+      {"sequenceId": %d, "processType": "external_process", "name": "foundry", "amount": 10}""";
+  private static final String METROLOGY_STEP = """
+      {"sequenceId": %d, "processType": "metrology_inspection", "name": "sem",
+       "location": "cleanroom", "timeWaferHour": 0.25}""";
+
+  @Autowired
+  private ProcessCostCalculatorServiceImpl calculator;
+
+  @Autowired
+  private StepCostCache stepCostCache;
+
+  @Autowired
+  private InMemoryCatalogSource catalogSource;
+
+  @Autowired
+  private ReferenceCatalogHolder referenceCatalogHolder;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @BeforeEach
+  void setUp() {
+    catalogSource.setRates(60.0, 0.2, 0.02);
+    referenceCatalogHolder.reload();
+    stepCostCache.clear();
+  }
+
+  @Test
+  void batchEvaluatesStepsSharedAcrossRequestsOnce() throws Throwable {
+    List<CostRequestDto> requests = List.of(
+        request(10, RIE_STEP.formatted(1, 500), EXTERNAL_STEP.formatted(2)),
+        request(10, EXTERNAL_STEP.formatted(1), RIE_STEP.formatted(2, 500),
+            RIE_STEP.formatted(3, 800)),
+        request(10, RIE_STEP.formatted(7, 800), METROLOGY_STEP.formatted(8)),
+        request(25, RIE_STEP.formatted(1, 500))
+    );
+    long misses = stepCostCache.stats().misses();
+
+    BatchCostResponseDto batch = calculator.calculateBatch(requests).getData();
+
+    // rie at 500 and 800 and the external process and metrology steps at 10 wafers, and rie at
+    // 500 again at 25 wafers
+    assertEquals(5, batch.uniqueSteps());
+    assertEquals(5, stepCostCache.stats().misses() - misses);
+    assertEquals(4, batch.succeeded());
+    assertEquals(0, batch.failed());
+    for (int i = 0; i < requests.size(); i++) {
+      BatchItemResponseDto item = batch.items().get(i);
+      assertEquals(i, item.index());
+      assertEquals(200, item.status());
+      assertEquals(calculator.calculatePriceTotalResult(requests.get(i)).totalCost(),
+          item.result().totalCost(), TOLERANCE);
+    }
+  }
+
+  @Test
+  void failedItemsAreReportedWithoutFailingTheBatch() throws Throwable {
+    CostRequestDto valid = request(10, RIE_STEP.formatted(1, 500));
+    List<CostRequestDto> requests = List.of(
+        valid,
+        request(10, RIE_STEP.formatted(1, 500),
+            "{\"sequenceId\": 2, \"processType\": \"plasma_ashing\", \"name\": \"asher\"}"),
+        objectMapper.readValue("{\"projectSteps\": [%s]}".formatted(RIE_STEP.formatted(1, 500)),
+            CostRequestDto.class)
+    );
+
+    BatchCostResponseDto batch = calculator.calculateBatch(requests).getData();
+
+    assertEquals(1, batch.succeeded());
+    assertEquals(2, batch.failed());
+    assertEquals(200, batch.items().get(0).status());
+    assertEquals(calculator.calculatePriceTotalResult(valid).totalCost(),
+        batch.items().get(0).result().totalCost(), TOLERANCE);
+    assertFailed(batch.items().get(1), "Failed to process step 2");
+    assertFailed(batch.items().get(2), "Wafer size is required");
+  }
+
+  @Test
+  void malformedNdjsonLinesAreReportedInTheirItem() {
+    String ndjson = String.join("\n",
+        "{\"waferSize\": 10, \"projectSteps\": [%s]}".formatted(EXTERNAL_STEP.formatted(1)),
+        "",
+        "{\"waferSize\": 10, \"projectSteps\": [",
+        "{\"waferSize\": 25, \"projectSteps\": [%s]}".formatted(EXTERNAL_STEP.formatted(1)));
+
+    BatchCostResponseDto batch = calculator.calculateBatch(ndjson).getData();
+
+    assertEquals(3, batch.requests());
+    assertEquals(2, batch.uniqueSteps());
+    assertEquals(200, batch.items().get(0).status());
+    assertFailed(batch.items().get(1), "Malformed JSON");
+    assertEquals(200, batch.items().get(2).status());
+  }
+
+  @Test
+  void curveMatchesACalculationAtEveryWaferCount() throws Throwable {
+    CostRequestDto project = request(1, RIE_STEP.formatted(1, 500), EXTERNAL_STEP.formatted(2),
+        METROLOGY_STEP.formatted(3));
+
+    List<CostCurvePointResponseDto> curve = calculator.calculateCurve(new CostCurveRequestDto(
+        null, List.of(5, 10, 25, 10, 100), null, null, null, project.projectSteps())).getData();
+
+    assertEquals(List.of(5, 10, 25, 100),
+        curve.stream().map(CostCurvePointResponseDto::waferSize).toList());
+    for (CostCurvePointResponseDto point : curve) {
+      double totalCost = calculator.calculatePriceTotalResult(new CostRequestDto(null,
+          point.waferSize(), project.projectSteps())).totalCost();
+      assertEquals(totalCost, point.totalCost(), TOLERANCE);
+      assertEquals(totalCost / point.waferSize(), point.costPerWafer(), TOLERANCE);
+    }
+  }
+
+  @Test
+  void curveIsCappedAtOneThousandWaferCounts() throws Throwable {
+    CostRequestDto project = request(1, EXTERNAL_STEP.formatted(1));
+
+    List<CostCurvePointResponseDto> curve = calculator.calculateCurve(new CostCurveRequestDto(
+        null, null, 1, 1999, 2, project.projectSteps())).getData();
+
+    assertEquals(1000, curve.size());
+    assertEquals(1999, curve.get(999).waferSize());
+    assertThrows(IllegalArgumentException.class, () -> calculator.calculateCurve(
+        new CostCurveRequestDto(null, null, 1, 1001, null, project.projectSteps())));
+    assertThrows(IllegalArgumentException.class, () -> calculator.calculateCurve(
+        new CostCurveRequestDto(null, IntStream.rangeClosed(1, 1001).boxed().toList(), null, null,
+            null, project.projectSteps())));
+    assertThrows(IllegalArgumentException.class, () -> calculator.calculateCurve(
+        new CostCurveRequestDto(null, null, 1, Integer.MAX_VALUE, null, project.projectSteps())));
+  }
+
+  @Test
+  void repricingMatchesACalculationAtTheScenarioRates() throws Throwable {
+    CostRequestDto project = request(10, RIE_STEP.formatted(1, 500), EXTERNAL_STEP.formatted(2),
+        METROLOGY_STEP.formatted(3));
+    double currentTotal = calculator.calculatePriceTotalResult(project).totalCost();
+    // posted back as the client received it
+    CostDecompositionResponseDto decomposition = objectMapper.readValue(
+        objectMapper.writeValueAsString(calculator.decompose(project).getData()),
+        CostDecompositionResponseDto.class);
+
+    List<RateScenarioResponseDto> scenarios = calculator.reprice(new RepriceRequestDto(
+        decomposition.fixedCosts(),
+        decomposition.quantities(),
+        List.of(
+            new RateScenarioRequestDto("current", Map.of()),
+            new RateScenarioRequestDto("labor", Map.of("laborCost", 90.0)),
+            new RateScenarioRequestDto("all", Map.of(
+                "laborCost", 90.0,
+                "electricityCost", 0.5,
+                "gasPrice.sf6", 0.05))
+        ))).getData();
+
+    assertEquals(currentTotal, decomposition.total().totalCost(), TOLERANCE);
+    assertEquals(currentTotal, scenarios.get(0).totalCost(), TOLERANCE);
+    assertEquals(recalculate(project, 90.0, 0.2, 0.02), scenarios.get(1).totalCost(), TOLERANCE);
+    assertEquals(recalculate(project, 90.0, 0.5, 0.05), scenarios.get(2).totalCost(), TOLERANCE);
+    assertEquals("all", scenarios.get(2).name());
+  }
+
+  @Test
+  void repricingRejectsRatesTheDecompositionDoesNotHave() throws Throwable {
+    CostDecompositionResponseDto decomposition = calculator.decompose(
+        request(10, EXTERNAL_STEP.formatted(1))).getData();
+
+    assertThrows(IllegalArgumentException.class, () -> calculator.reprice(new RepriceRequestDto(
+        decomposition.fixedCosts(),
+        decomposition.quantities(),
+        List.of(new RateScenarioRequestDto("gas", Map.of("gasPrice.sf6", 0.05))))));
+  }
+
+  private double recalculate(CostRequestDto project, double laborCost, double electricityCost,
+      double sf6Price) throws Throwable {
+    catalogSource.setRates(laborCost, electricityCost, sf6Price);
+    referenceCatalogHolder.reload();
+    return calculator.calculatePriceTotalResult(project).totalCost();
+  }
+
+  private static void assertFailed(BatchItemResponseDto item, String error) {
+    assertEquals(400, item.status());
+    assertTrue(item.error().startsWith(error), item.error());
+    assertNull(item.result());
+  }
+
+  private CostRequestDto request(int waferSize, String... steps) throws Exception {
+    return objectMapper.readValue("{\"waferSize\": %d, \"projectSteps\": [%s]}"
+        .formatted(waferSize, String.join(",", steps)), CostRequestDto.class);
+  }
+
+  @Configuration
+  @ComponentScan(basePackageClasses = {CalculateService.class, CostPlanComponent.class})
+  @Import({
+      AsyncConfiguration.class,
+      AsyncProcessingService.class,
+      ProcessCostCalculatorServiceImpl.class,
+      StepCostCache.class,
+      MonteCarloSimulator.class
+  })
+  static class PipelineConfiguration {
+
+    @Bean
+    ObjectMapper objectMapper() {
+      return new ObjectMapper();
+    }
+
+    @Bean
+    InMemoryCatalogSource catalogSource() {
+      return new InMemoryCatalogSource();
+    }
+
+    @Bean
+    ReferenceCatalogHolder referenceCatalogHolder(InMemoryCatalogSource catalogSource) {
+      ReferenceCatalogHolder holder = new ReferenceCatalogHolder(new ReferenceCatalogLoader(
+          catalogSource, new CatalogSnapshotStore(new CatalogSnapshotProperties(null, null))));
+      holder.reload();
+      return holder;
+    }
+  }
+
+  /**
+   * Catalog whose labor, electricity and sf6 rates can be changed between loads.
+   */
+  static final class InMemoryCatalogSource implements CatalogSource {
+
+    private volatile double laborCost = 60.0;
+    private volatile double electricityCost = 0.2;
+    private volatile double sf6Price = 0.02;
+
+    void setRates(double laborCost, double electricityCost, double sf6Price) {
+      this.laborCost = laborCost;
+      this.electricityCost = electricityCost;
+      this.sf6Price = sf6Price;
+    }
+
+    @Override
+    public Map<CatalogCollection, List<Document>> readAll() {
+      Map<CatalogCollection, List<Document>> documents = new EnumMap<>(CatalogCollection.class);
+      documents.put(CatalogCollection.ESSENTIAL, List.of(new Document("laborCost", laborCost)
+          .append("electricityCost", electricityCost)));
+      documents.put(CatalogCollection.CONSTANT, List.of(new Document("time", List.of(
+          new Document("metric", "s/min").append("value", 60.0),
+          new Document("metric", "s/h").append("value", 3600.0)))));
+      documents.put(CatalogCollection.GAS, List.of(new Document("gases", List.of(
+          new Document("name", "sf6").append("price", sf6Price),
+          new Document("name", "o2").append("price", 0.001)))));
+      documents.put(CatalogCollection.RIE, List.of(new Document("name", "rie")
+          .append("etchRate", 100.0)
+          .append("cleanTime", 600.0)
+          .append("gasOverhead", 0.1)
+          .append("overheadPower", 2.0)
+          .append("periodicCost", 0.01)
+          .append("setupTakedownTime", 900.0)
+          .append("waferPerRun", 4.0)
+          .append("settings", List.of(new Document("name", "deposition")
+              .append("totalEffectiveProcess", 0.5)
+              .append("totalEffectiveLatent", 0.1)))));
+      documents.put(CatalogCollection.VACUUM_PROCESS, List.of(new Document("type", "rie")
+          .append("processes", List.of(new Document("name", "oxide etch")
+              .append("parameters", new Document("sf6", 20.0).append("o2", 5.0))))));
+      documents.put(CatalogCollection.EXTERNAL_PROCESS, List.of(new Document("name", "foundry")
+          .append("setupCost", 100.0)
+          .append("lotCharge", 50.0)
+          .append("lotSize", 25.0)
+          .append("amountRate", 2.0)));
+      documents.put(CatalogCollection.METROLOGY_INSPECTION, List.of(
+          new Document("name", "cleanroom").append("hourlyRate", 80.0)));
+      return documents;
+    }
+
+    @Override
+    public Map<CatalogCollection, String> readVersions() {
+      return Map.of();
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package com.mattelogic.inchfab.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
+import com.mattelogic.inchfab.core.dtos.request.CostRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.ProjectRequestDto;
+import com.mattelogic.inchfab.core.dtos.request.StepPatchRequestDto;
+import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.core.entity.Company;
+import com.mattelogic.inchfab.core.entity.Project;
+import com.mattelogic.inchfab.core.entity.ProjectStepList;
+import com.mattelogic.inchfab.core.mapper.ProjectMapper;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.repository.ProjectRepository;
+import com.mattelogic.inchfab.core.repository.ProjectStepListRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectServiceImplTest {
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private final ReferenceCatalog catalog = ReferenceCatalog.from(1, Map.of());
+
+  @Mock
+  private ProjectRepository projectRepository;
+  @Mock
+  private ProjectStepListRepository projectStepListRepository;
+  @Mock
+  private TransactionTemplate transactionTemplate;
+  @Mock
+  private ProcessCostCalculatorServiceImpl calculator;
+  @Mock
+  private ReferenceCatalogHolder referenceCatalogHolder;
+
+  private ProjectServiceImpl projectService;
+
+  @BeforeEach
+  void setUp() {
+    projectService = new ProjectServiceImpl(projectRepository, projectStepListRepository,
+        transactionTemplate, new ProjectMapper(null), objectMapper, calculator,
+        referenceCatalogHolder);
+    when(referenceCatalogHolder.current()).thenReturn(catalog);
+    when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation
+        .<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    when(projectRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  @Test
+  void updateStoresTheOwnCostOfEveryStepOfTheSameProcess() throws Throwable {
+    Project project = project(objectMapper.createArrayNode(), catalog.getFingerprint());
+    when(projectRepository.findWithStepsById(1L)).thenReturn(Optional.of(project));
+    when(calculator.calculatePriceTotalResult(any(CostRequestDto.class)))
+        .thenReturn(ResultResponseDto.builder()
+            .periodicCost(16.0)
+            .unitTotalCosts(List.of(
+                ResultResponseDto.builder().processName("drie").periodicCost(7.0).build(),
+                ResultResponseDto.builder().processName("drie").periodicCost(9.0).build()))
+            .build());
+
+    projectService.update(1L, updateRequest(objectMapper.readTree("""
+        [{"sequenceId": 1, "processType": "drie", "name": "shallow", "depth": 10},
+         {"sequenceId": 2, "processType": "drie", "name": "deep", "depth": 300}]""")));
+
+    JsonNode steps = project.getProjectStep();
+    assertEquals(7.0, steps.get(0).get("costDetails").get("periodicCost").asDouble());
+    assertEquals(9.0, steps.get(1).get("costDetails").get("periodicCost").asDouble());
+    assertEquals(16.0, project.getTotalPeriodicCost());
+  }
+
+  @Test
+  void patchRecalculatesEveryStepWhenStoredCostsAreFromAnotherCatalog() throws Throwable {
+    JsonNode storedSteps = objectMapper.readTree("""
+        [{"sequenceId": 1, "processType": "external_process", "name": "foundry", "amount": 10,
+          "costDetails": {"externalCost": 5.0}},
+         {"sequenceId": 2, "processType": "external_process", "name": "foundry", "amount": 20,
+          "costDetails": {"externalCost": 5.0}}]""");
+    Project project = project(storedSteps, "stale");
+    when(projectRepository.findWithStepsById(1L)).thenReturn(Optional.of(project));
+    List<Integer> calculatedSteps = new ArrayList<>();
+    List<CostVector> knownCosts = new ArrayList<>();
+    when(calculator.calculatePriceTotalResult(any(CostRequestDto.class), anyList()))
+        .thenAnswer(invocation -> {
+          calculatedSteps.add(invocation.<CostRequestDto>getArgument(0).projectSteps().size());
+          knownCosts.addAll(invocation.getArgument(1));
+          return ResultResponseDto.builder()
+              .externalCost(16.0)
+              .unitTotalCosts(List.of(
+                  ResultResponseDto.builder().externalCost(7.0).build(),
+                  ResultResponseDto.builder().externalCost(9.0).build()))
+              .build();
+        });
+
+    projectService.patchSteps(1L, List.of(new StepPatchRequestDto("replace", "/0/amount", null,
+        objectMapper.readTree("15"))));
+
+    assertEquals(List.of(2), calculatedSteps);
+    assertEquals(2, knownCosts.size());
+    assertEquals(List.of(), knownCosts.stream().filter(cost -> cost != null).toList());
+    assertEquals(9.0,
+        project.getProjectStep().get(1).get("costDetails").get("externalCost").asDouble());
+    assertEquals(catalog.getFingerprint(), project.getCatalogFingerprint());
+    assertEquals(10, storedSteps.get(0).get("amount").asInt());
+    assertEquals(5.0, storedSteps.get(1).get("costDetails").get("externalCost").asDouble());
+  }
+
+  @Test
+  void patchReadsStoredCostsBackWithTheirProcessName() throws Throwable {
+    Project project = project(objectMapper.readTree("""
+        [{"sequenceId": 1, "processType": "external_process", "name": "foundry", "amount": 10,
+          "costDetails": {"processName": "External Process", "externalCost": 5.0}},
+         {"sequenceId": 2, "processType": "external_process", "name": "foundry", "amount": 20,
+          "costDetails": {"processName": "External Process", "externalCost": 6.0}},
+         {"sequenceId": 3, "processType": "external_process", "name": "foundry", "amount": 30,
+          "costDetails": {"externalCost": 7.0}}]"""), catalog.getFingerprint());
+    when(projectRepository.findWithStepsById(1L)).thenReturn(Optional.of(project));
+    List<Integer> calculatedSteps = new ArrayList<>();
+    List<CostVector> knownCosts = new ArrayList<>();
+    when(calculator.calculatePriceTotalResult(any(CostRequestDto.class), anyList()))
+        .thenAnswer(invocation -> {
+          invocation.<CostRequestDto>getArgument(0).projectSteps()
+              .forEach(step -> calculatedSteps.add(step.sequenceId().intValue()));
+          knownCosts.addAll(invocation.getArgument(1));
+          ResultResponseDto calculated = ResultResponseDto.builder()
+              .processName("External Process").externalCost(8.0).build();
+          return ResultResponseDto.builder()
+              .externalCost(22.0)
+              .unitTotalCosts(List.of(calculated, knownCosts.get(1).toResponse(), calculated))
+              .build();
+        });
+
+    projectService.patchSteps(1L, List.of(new StepPatchRequestDto("replace", "/0/amount", null,
+        objectMapper.readTree("15"))));
+
+    assertEquals(List.of(1, 3), calculatedSteps);
+    assertEquals("External Process", knownCosts.get(1).toResponse().processName());
+    for (JsonNode step : project.getProjectStep()) {
+      assertEquals("External Process", step.get("costDetails").get("processName").asText());
+    }
+  }
+
+  @Test
+  void copyWithCurrentCostsLocksTheSharedStepList() throws Throwable {
+    Project source = project(objectMapper.readTree("""
+        [{"sequenceId": 1, "processType": "external_process", "name": "foundry", "amount": 10,
+          "costDetails": {"externalCost": 5.0}}]"""), catalog.getFingerprint());
+    String hash = source.getStepList().getHash();
+    when(projectRepository.findWithStepsById(1L)).thenReturn(Optional.of(source));
+    when(projectStepListRepository.lockByHash(hash)).thenReturn(Optional.of(hash));
+
+    projectService.copyProject(1L);
+
+    verifyNoInteractions(calculator);
+    verify(projectRepository).lockCopyNames("Wafer run");
+    verify(projectStepListRepository).lockByHash(hash);
+    verify(projectStepListRepository, never()).insertIfAbsent(anyString(), anyString());
+    verify(projectRepository).save(argThat(copy -> copy.getStepList() == source.getStepList()
+        && "Wafer run - Copy 1".equals(copy.getName())));
+  }
+
+  private static ProjectRequestDto updateRequest(JsonNode steps) {
+    return new ProjectRequestDto(null, null, "requester", "Requester", "submitter", "Submitter",
+        "Wafer run", null, null, null, null, 25, null, null, null, null, null, null, null, null,
+        null, null, null, null, null, steps);
+  }
+
+  private static Project project(JsonNode steps, String catalogFingerprint) {
+    Company company = new Company();
+    company.setId(1L);
+    Project project = Project.create(company, "Wafer run", "requester", "Requester", 25, 60.0,
+        0.2);
+    project.setId(1L);
+    project.setStepList(ProjectStepList.of(steps));
+    project.setCatalogFingerprint(catalogFingerprint);
+    return project;
+  }
+}
@@ -0,0 +1,278 @@
+package com.mattelogic.inchfab.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
+import com.mattelogic.inchfab.core.dtos.request.StepPatchRequestDto;
+import com.mattelogic.inchfab.core.entity.Project;
+import com.mattelogic.inchfab.core.entity.ProjectStepList;
+import com.mattelogic.inchfab.core.mapper.ProjectMapper;
+import com.mattelogic.inchfab.core.repository.ProjectRepository;
+import com.mattelogic.inchfab.core.repository.ProjectStepListRepository;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import org.flywaydb.core.Flyway;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Migrates a PostgreSQL database holding projects saved before their steps were shared, then
+ * copies, patches and deletes projects against it as the service does in production. Each test
+ * commits, so it only touches projects of its own.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProjectStepListPostgresTest {
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:16-alpine");
+
+  private static final OffsetDateTime SEEDED_AT =
+      OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  // Stored as the application wrote it before V5, whitespace and exponent included
+  private static final String STEPS = """
+      [ { "processType" : "drie", "processName" : "Bosch",
+          "depth" : 2.50E1, "note" : "tab\\tand \\u00e9" } ]""";
+  private static final String OTHER_STEPS = """
+      [{"processType":"wet_etch","processName":"KOH"}]""";
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private final ReferenceCatalog catalog = ReferenceCatalog.from(1, Map.of());
+
+  @Autowired
+  private ProjectRepository projectRepository;
+  @Autowired
+  private ProjectStepListRepository projectStepListRepository;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private ProcessCostCalculatorServiceImpl calculator;
+  private ProjectServiceImpl projectService;
+
+  @DynamicPropertySource
+  static void postgres(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+    registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+    registry.add("spring.jpa.database-platform",
+        () -> "org.hibernate.dialect.PostgreSQLDialect");
+    registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+  }
+
+  /**
+   * Migrates up to the last version storing the steps with each project, saves projects as that
+   * version did, then runs the remaining migrations over them.
+   */
+  @BeforeAll
+  static void migrate() throws SQLException {
+    flyway("4").migrate();
+    try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(),
+        POSTGRES.getUsername(), POSTGRES.getPassword());
+        PreparedStatement insert = connection.prepareStatement("""
+            INSERT INTO projects (company_id, requester_id, submitter_id, requester_name,
+                submitter_name, name, project_step, created_at, updated_at)
+            VALUES (1, 'r', 's', 'Requester', 'Submitter', ?, CAST(? AS json), ?, ?)""")) {
+      connection.createStatement().execute("INSERT INTO companies (id, name) VALUES (1, 'Acme')");
+      for (String[] project : new String[][]{
+          {"Pretty", STEPS},
+          {"Compact", "[{\"processType\":\"drie\",\"processName\":\"Bosch\",\"depth\":25.0,"
+              + "\"note\":\"tab\\tand é\"}]"},
+          {"Other", OTHER_STEPS},
+          {"Without steps", null}}) {
+        insert.setString(1, project[0]);
+        insert.setString(2, project[1]);
+        insert.setObject(3, SEEDED_AT);
+        insert.setObject(4, SEEDED_AT);
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+    flyway("latest").migrate();
+  }
+
+  private static Flyway flyway(String target) {
+    return Flyway.configure()
+        .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+        .target(target)
+        .load();
+  }
+
+  @BeforeEach
+  void setUp() {
+    calculator = mock(ProcessCostCalculatorServiceImpl.class);
+    ReferenceCatalogHolder referenceCatalogHolder = mock(ReferenceCatalogHolder.class);
+    when(referenceCatalogHolder.current()).thenReturn(catalog);
+    projectService = new ProjectServiceImpl(projectRepository, projectStepListRepository,
+        new TransactionTemplate(transactionManager), new ProjectMapper(null), objectMapper,
+        calculator, referenceCatalogHolder);
+  }
+
+  @Test
+  void migrationSharesOneListBetweenProjectsWithTheSameSteps() throws Exception {
+    String hash = ProjectStepList.hash(objectMapper.readTree(STEPS));
+
+    assertEquals(hash, stepListHash("Pretty"));
+    assertEquals(hash, stepListHash("Compact"));
+    assertEquals(ProjectStepList.hash(objectMapper.readTree(OTHER_STEPS)),
+        stepListHash("Other"));
+    assertNull(stepListHash("Without steps"));
+    assertEquals(objectMapper.readTree(STEPS).toString(), jdbcTemplate.queryForObject(
+        "SELECT steps::text FROM project_step_lists WHERE hash = ?", String.class, hash));
+  }
+
+  @Test
+  void migrationKeepsTheUpdateTimesAndTheOldSteps() {
+    for (String name : List.of("Pretty", "Compact", "Other", "Without steps")) {
+      assertEquals(SEEDED_AT.toInstant(), jdbcTemplate.queryForObject(
+          "SELECT updated_at FROM projects WHERE name = ?", OffsetDateTime.class, name)
+          .toInstant());
+    }
+    assertEquals(STEPS, jdbcTemplate.queryForObject(
+        "SELECT project_step::text FROM projects WHERE name = 'Pretty'", String.class));
+  }
+
+  @Test
+  void stepsAreOnlyLoadedWhenAsked() throws Exception {
+    Long id = projectId("Pretty");
+
+    Project project = projectRepository.findById(id).orElseThrow();
+    Project withSteps = projectRepository.findWithStepsById(id).orElseThrow();
+
+    assertFalse(Hibernate.isInitialized(project.getStepList()));
+    assertTrue(Hibernate.isInitialized(withSteps.getStepList()));
+    assertEquals(objectMapper.readTree(STEPS), withSteps.getProjectStep());
+  }
+
+  @Test
+  void concurrentCopiesShareTheStepsOfTheirSourceUnderConsecutiveNames() throws Exception {
+    String steps = "[{\"processType\":\"drie\",\"processName\":\"Copied\"}]";
+    Long id = insertProject("Wafer run", steps);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Callable<String> copy = () -> projectService.copyProject(id).getData().name();
+      List<Future<String>> copies = executor.invokeAll(List.of(copy, copy));
+      Set<String> names = copies.stream().map(ProjectStepListPostgresTest::get)
+          .collect(Collectors.toSet());
+      assertEquals(Set.of("Wafer run - Copy 1", "Wafer run - Copy 2"), names);
+    } finally {
+      executor.shutdown();
+    }
+
+    String hash = ProjectStepList.hash(objectMapper.readTree(steps));
+    assertEquals(hash, stepListHash("Wafer run - Copy 1"));
+    assertEquals(hash, stepListHash("Wafer run - Copy 2"));
+    verifyNoInteractions(calculator);
+  }
+
+  @Test
+  void aListIsDeletedWithTheLastProjectReferencingIt() throws Exception {
+    String steps = "[{\"processType\":\"drie\",\"processName\":\"Shared\"}]";
+    String hash = ProjectStepList.hash(objectMapper.readTree(steps));
+    Long first = insertProject("Shared A", steps);
+    Long second = insertProject("Shared B", steps);
+
+    projectService.delete(first);
+    assertTrue(projectStepListRepository.existsById(hash));
+
+    projectService.delete(second);
+    assertFalse(projectStepListRepository.existsById(hash));
+  }
+
+  @Test
+  void patchingStoresTheNewStepsAndReleasesTheOldOnes() throws Exception {
+    String steps = "[{\"processType\":\"drie\",\"processName\":\"Patched\"}]";
+    String oldHash = ProjectStepList.hash(objectMapper.readTree(steps));
+    String newHash = ProjectStepList.hash(objectMapper.createArrayNode());
+    Long id = insertProject("Patched", steps);
+
+    projectService.patchSteps(id, List.of(new StepPatchRequestDto("remove", "/0", null, null)));
+
+    assertEquals(newHash, stepListHash("Patched"));
+    assertFalse(projectStepListRepository.existsById(oldHash));
+    assertNotNull(projectStepListRepository.findById(newHash).orElseThrow().getSteps());
+  }
+
+  /**
+   * Saves a project whose steps are stored and whose costs were calculated with the current
+   * catalog, as the service leaves it.
+   */
+  private Long insertProject(String name, String steps) throws Exception {
+    JsonNode stepsNode = objectMapper.readTree(steps);
+    String hash = ProjectStepList.hash(stepsNode);
+    jdbcTemplate.update("""
+        INSERT INTO project_step_lists (hash, steps) VALUES (?, CAST(? AS json))
+        ON CONFLICT (hash) DO NOTHING""", hash, stepsNode.toString());
+    return jdbcTemplate.queryForObject("""
+            INSERT INTO projects (company_id, requester_id, submitter_id, requester_name,
+                submitter_name, name, step_list_hash, catalog_fingerprint)
+            VALUES (1, 'r', 's', 'Requester', 'Submitter', ?, ?, ?)
+            RETURNING id""",
+        Long.class, name, hash, catalog.getFingerprint());
+  }
+
+  private Long projectId(String name) {
+    return jdbcTemplate.queryForObject("SELECT id FROM projects WHERE name = ?", Long.class,
+        name);
+  }
+
+  private String stepListHash(String name) {
+    return jdbcTemplate.queryForObject("SELECT step_list_hash FROM projects WHERE name = ?",
+        String.class, name);
+  }
+
+  private static <T> T get(Future<T> future) {
+    try {
+      return future.get();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
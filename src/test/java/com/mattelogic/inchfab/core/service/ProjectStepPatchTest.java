@@ -0,0 +1,67 @@
+package com.mattelogic.inchfab.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.mattelogic.inchfab.core.dtos.request.StepPatchRequestDto;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ProjectStepPatchTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void touchesOnlyAddedAndEditedSteps() throws Exception {
+    ArrayNode steps = steps("[{\"sequenceId\":1},{\"sequenceId\":2,\"depth\":1.0},"
+        + "{\"sequenceId\":3}]");
+    JsonNode first = steps.get(0);
+    JsonNode second = steps.get(1);
+
+    Set<JsonNode> touched = ProjectStepPatch.apply(steps, List.of(
+        operation("replace", "/1/depth", null, "2.5"),
+        operation("move", "/0", "/2", null),
+        operation("add", "/-", null, "{\"sequenceId\":4}"),
+        operation("remove", "/1", null, null)
+    ));
+
+    assertEquals(steps("[{\"sequenceId\":3},{\"sequenceId\":2,\"depth\":2.5},"
+        + "{\"sequenceId\":4}]"), steps);
+    assertEquals(2, touched.size());
+    assertTrue(touched.contains(steps.get(1)));
+    assertTrue(touched.contains(steps.get(2)));
+    assertEquals(steps("[{\"sequenceId\":2,\"depth\":1.0}]").get(0), second);
+    assertFalse(touched.contains(first));
+    assertFalse(touched.contains(steps.get(0)));
+  }
+
+  @Test
+  void rejectsInvalidOperations() throws Exception {
+    ArrayNode steps = steps("[{\"sequenceId\":1}]");
+
+    assertThrows(IllegalArgumentException.class, () -> ProjectStepPatch.apply(steps,
+        List.of(operation("copy", "/0", "/-", null))));
+    assertThrows(IllegalArgumentException.class, () -> ProjectStepPatch.apply(steps,
+        List.of(operation("remove", "/1", null, null))));
+    assertThrows(IllegalArgumentException.class, () -> ProjectStepPatch.apply(steps,
+        List.of(operation("remove", "/0/depth", null, null))));
+    assertThrows(IllegalArgumentException.class, () -> ProjectStepPatch.apply(steps,
+        List.of(operation("add", "/-", null, "1.0"))));
+  }
+
+  private ArrayNode steps(String json) throws Exception {
+    return (ArrayNode) objectMapper.readTree(json);
+  }
+
+  private StepPatchRequestDto operation(String op, String path, String from, String value)
+      throws Exception {
+    return new StepPatchRequestDto(op, path, from,
+        value != null ? objectMapper.readTree(value) : null);
+  }
+}
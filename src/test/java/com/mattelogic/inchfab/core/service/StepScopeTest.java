@@ -0,0 +1,88 @@
+package com.mattelogic.inchfab.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mattelogic.inchfab.core.exception.CalculationTimeoutException;
+import com.mattelogic.inchfab.core.exception.ProcessingStepException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class StepScopeTest {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void failureCancelsQueuedSiblingsBeforeTheyRun() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicBoolean queuedRan = new AtomicBoolean();
+    StepScope<Integer> scope = new StepScope<>(Duration.ofSeconds(10));
+    scope.fork(1L, new CompletableFuture<Integer>().completeAsync(() -> {
+      awaitQuietly(release);
+      return 1;
+    }, executor));
+    scope.fork(2L, new CompletableFuture<Integer>().completeAsync(() -> {
+      queuedRan.set(true);
+      return 2;
+    }, executor));
+    scope.fork(3L, CompletableFuture.failedFuture(new IllegalStateException("no recipe")));
+
+    ProcessingStepException error = assertThrows(ProcessingStepException.class, scope::join);
+    release.countDown();
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.SECONDS);
+
+    assertEquals("Failed to process step 3: no recipe", error.getMessage());
+    assertFalse(queuedRan.get());
+  }
+
+  @Test
+  void deadlineCancelsPendingSteps() {
+    CompletableFuture<Integer> pending = new CompletableFuture<>();
+    StepScope<Integer> scope = new StepScope<>(Duration.ofMillis(20));
+    scope.fork(1L, CompletableFuture.completedFuture(1));
+    scope.fork(2L, pending);
+
+    assertThrows(CalculationTimeoutException.class, scope::join);
+    assertTrue(pending.isCancelled());
+  }
+
+  @Test
+  void settledJoinReportsEveryStep() {
+    StepScope<Integer> scope = new StepScope<>(Duration.ofMillis(20));
+    scope.fork(1L, CompletableFuture.completedFuture(1));
+    scope.fork(2L, CompletableFuture.failedFuture(new IllegalStateException("no recipe")));
+    scope.fork(3L, new CompletableFuture<>());
+
+    List<StepScope.Outcome<Integer>> outcomes = scope.joinSettled();
+
+    assertEquals(1, outcomes.get(0).result());
+    assertNull(outcomes.get(0).error());
+    assertEquals("Failed to process step 2: no recipe", outcomes.get(1).error());
+    assertEquals("Failed to process step 3: Deadline of 20 ms exceeded", outcomes.get(2).error());
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.mattelogic.inchfab.core.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class MonteCarloSimulatorTest {
+
+  private static final Function<SplittableRandom, CostVector> DRAW = random -> new CostVector("s")
+      .set(CostComponent.GAS, new Distribution.Uniform(0.0, 10.0).sample(0.0, random))
+      .set(CostComponent.POWER, 1.0)
+      .set(CostComponent.TOTAL_TIME, 100.0);
+
+  @Test
+  void seededRunsDrawTheSameSamplesWhateverTheParallelism() {
+    MonteCarloSimulator.Summary serial = run(1, 50_000);
+    MonteCarloSimulator.Summary parallel = run(4, 50_000);
+
+    assertEquals(serial.mean().costs().toString(), parallel.mean().costs().toString());
+    assertEquals(serial.percentiles().get(95.0).totalCost(),
+        parallel.percentiles().get(95.0).totalCost());
+    assertEquals(5.0, serial.mean().costs().get(CostComponent.GAS), 0.05);
+    assertEquals(9.5, serial.percentiles().get(95.0).costs().get(CostComponent.GAS), 0.05);
+    assertEquals(10.5, serial.percentiles().get(95.0).totalCost(), 0.05);
+    assertEquals(0.0, serial.stdDev().costs().get(CostComponent.POWER));
+  }
+
+  @Test
+  void percentilesInterpolateBetweenClosestRanks() {
+    double[] sorted = {1.0, 2.0, 4.0, 8.0};
+
+    assertEquals(1.0, MonteCarloSimulator.percentile(sorted, 0.0));
+    assertEquals(3.0, MonteCarloSimulator.percentile(sorted, 50.0));
+    assertEquals(8.0, MonteCarloSimulator.percentile(sorted, 100.0));
+  }
+
+  private static MonteCarloSimulator.Summary run(int parallelism, int samples) {
+    MonteCarloSimulator simulator =
+        new MonteCarloSimulator(new SimulationProperties(parallelism, null, null));
+    try {
+      return simulator.run(samples, 42L, new double[]{50.0, 95.0}, DRAW);
+    } finally {
+      simulator.shutdown();
+    }
+  }
+}
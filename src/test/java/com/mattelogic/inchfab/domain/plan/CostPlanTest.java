@@ -0,0 +1,154 @@
+package com.mattelogic.inchfab.domain.plan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.mattelogic.inchfab.core.model.CostComponent;
+import com.mattelogic.inchfab.core.model.CostDecomposition;
+import com.mattelogic.inchfab.core.model.CostSampler;
+import com.mattelogic.inchfab.core.model.CostVector;
+import com.mattelogic.inchfab.core.model.Distribution;
+import com.mattelogic.inchfab.domain.component.FormulaComponent;
+import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.DoubleStream;
+import org.junit.jupiter.api.Test;
+
+class CostPlanTest {
+
+  private final UnitConverterComponent units = new UnitConverterComponent(null);
+  private final FormulaComponent formulas = new FormulaComponent(units);
+
+  @Test
+  void compilePrunesTermsNoOutputDependsOn() {
+    CostPlan.Builder<Double> plan = CostPlan.builder("test");
+    Term input = plan.input("input", Double::doubleValue);
+    Term two = plan.constant("two", 2.0);
+    plan.formula("unused", FormulaComponent::calculateFormula3, input, two);
+    Term doubled = plan.formula("doubled", FormulaComponent::calculateFormula4, input, two);
+
+    CostPlan<Double> compiled = plan
+        .output(CostComponent.POWER, doubled)
+        .output(CostComponent.GAS, plan.product("squared", doubled, doubled))
+        .compile();
+    CostVector result = compiled.evaluate(3.0, null, formulas, units);
+
+    assertEquals(4, compiled.size());
+    assertEquals("test", result.getProcessName());
+    assertEquals(6.0, result.get(CostComponent.POWER));
+    assertEquals(36.0, result.get(CostComponent.GAS));
+  }
+
+  @Test
+  void sumMatchesDoubleStreamSum() {
+    double[] values = {1e16, 1.0, -1e16, 0.1, 0.2, 0.3, 1e-3, 7.7};
+    CostPlan.Builder<Double> plan = CostPlan.builder("test");
+    List<Term> addends = DoubleStream.of(values).boxed()
+        .map(value -> plan.constant("value" + value, value))
+        .toList();
+
+    CostVector result = plan
+        .output(CostComponent.POWER, plan.sum("sum", addends))
+        .compile()
+        .evaluate(0.0, null, formulas, units);
+
+    assertEquals(DoubleStream.of(values).sum(), result.get(CostComponent.POWER));
+  }
+
+  @Test
+  void rejectsDuplicateAndForeignTerms() {
+    CostPlan.Builder<Double> plan = CostPlan.builder("test");
+    plan.constant("one", 1.0);
+    Term foreign = CostPlan.<Double>builder("other").constant("two", 2.0);
+
+    assertThrows(IllegalArgumentException.class, () -> plan.constant("one", 1.0));
+    assertThrows(IllegalArgumentException.class,
+        () -> plan.output(CostComponent.POWER, foreign));
+    assertThrows(IllegalStateException.class, plan::compile);
+  }
+
+  @Test
+  void curveComputesVariableIndependentTermsOnce() {
+    AtomicInteger lookups = new AtomicInteger();
+    CostPlan.Builder<Double> plan = CostPlan.builder("test");
+    Term waferSize = plan.variable("waferSize", Double::doubleValue);
+    Term perRun = plan.catalog("perRun", (catalog, request) -> {
+      lookups.incrementAndGet();
+      return 4.0;
+    });
+    Term runs = plan.derive("runs", (wafers, size) -> Math.ceil(wafers / size), waferSize, perRun);
+    CostPlan<Double> compiled = plan
+        .output(CostComponent.POWER, plan.product("power", runs, perRun))
+        .output(CostComponent.GAS, perRun)
+        .compile();
+
+    double[] waferSizes = {1.0, 5.0, 25.0};
+    List<CostVector> curve = compiled.evaluateCurve(1.0, waferSizes, null, formulas, units);
+
+    assertEquals(1, lookups.get());
+    for (int i = 0; i < curve.size(); i++) {
+      CostVector single = compiled.evaluate(waferSizes[i], null, formulas, units);
+      assertEquals(single.toString(), curve.get(i).toString());
+    }
+    assertEquals(28.0, curve.get(2).get(CostComponent.POWER));
+    assertThrows(IllegalArgumentException.class,
+        () -> plan.variable("other", Double::doubleValue));
+  }
+
+  @Test
+  void decompositionPricesBackToEvaluation() {
+    CostPlan.Builder<Double> plan = CostPlan.builder("test");
+    Term volume = plan.input("volume", Double::doubleValue);
+    Term gasPrice = plan.price("gasPrice", (catalog, request) -> 3.0);
+    Term targetPrice = plan.price("targetPrice", request -> "targetPrice." + request,
+        (catalog, request) -> 5.0);
+    Term overhead = plan.constant("overhead", 7.0);
+    Term gas = plan.product("gas", volume, gasPrice);
+    CostPlan<Double> compiled = plan
+        .output(CostComponent.GAS, gas)
+        .output(CostComponent.POWER,
+            plan.formula("power", FormulaComponent::calculateFormula3, gas, overhead))
+        .output(CostComponent.TARGET_MATERIAL, plan.product("target", targetPrice, volume))
+        .compile();
+
+    CostDecomposition decomposition = compiled.decompose(2.0, null, formulas, units);
+
+    assertEquals(compiled.evaluate(2.0, null, formulas, units).toString(),
+        decomposition.price(Map.of()).toString());
+    assertEquals(Map.of("gasPrice", 3.0, "targetPrice.2.0", 5.0), decomposition.getRates());
+    assertEquals(7.0, decomposition.getFixed().get(CostComponent.POWER));
+    assertEquals(2.0, decomposition.getQuantities().get("gasPrice").get(CostComponent.POWER));
+    assertEquals(8.0, decomposition.price(Map.of("gasPrice", 4.0)).get(CostComponent.GAS));
+  }
+
+  @Test
+  void samplerRecomputesTermsOfSampledParametersOnly() {
+    AtomicInteger lookups = new AtomicInteger();
+    CostPlan.Builder<Double> plan = CostPlan.builder("test");
+    Term thickness = plan.input("thickness", Double::doubleValue);
+    Term etchRate = plan.catalog("recipe.etchRate", (catalog, request) -> {
+      lookups.incrementAndGet();
+      return 2.0;
+    });
+    Term etchTime = plan.catalog("stepTime.etch", (catalog, request) -> 3.0);
+    CostPlan<Double> compiled = plan
+        .output(CostComponent.POWER, plan.derive("time", (depth, rate) -> depth / rate,
+            thickness, etchRate))
+        .output(CostComponent.LABOR_TIME, etchTime)
+        .compile();
+
+    CostSampler sampler = compiled.sampler(8.0, null, formulas, units, Map.of(
+        "recipe.etchRate", new Distribution.Relative(new Distribution.Uniform(0.5, 0.5)),
+        "stepTime", new Distribution.Normal(-1.0, 0.0)));
+    CostVector sample = sampler.sample(new SplittableRandom(1));
+
+    assertEquals(1, lookups.get());
+    assertEquals(Set.of("recipe.etchRate", "stepTime"), sampler.parameters());
+    assertEquals(8.0, sample.get(CostComponent.POWER));
+    assertEquals(0.0, sample.get(CostComponent.LABOR_TIME));
+  }
+}
@@ -0,0 +1,151 @@
+package com.mattelogic.inchfab.domain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import com.mattelogic.inchfab.base.catalog.CatalogCollection;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalog;
+import com.mattelogic.inchfab.base.catalog.ReferenceCatalogHolder;
+import com.mattelogic.inchfab.core.dtos.response.ResultResponseDto;
+import com.mattelogic.inchfab.domain.component.CostPlanComponent;
+import com.mattelogic.inchfab.domain.component.FormulaComponent;
+import com.mattelogic.inchfab.domain.component.UnitConverterComponent;
+import com.mattelogic.inchfab.domain.dto.request.ExternalProcessRequestDto;
+import com.mattelogic.inchfab.domain.dto.request.MetrologyInspectionRequestDto;
+import com.mattelogic.inchfab.domain.dto.request.RieRequestDto;
+import com.mattelogic.inchfab.domain.dto.request.SubstrateRequestDto;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Pins step costs read from the in-memory catalog to the figures the repository backed services
+ * returned for the same documents. Expected values are worked through the original formulas in
+ * the comments.
+ */
+@ExtendWith(MockitoExtension.class)
+class StepCostBaselineTest {
+
+  private static final double TOLERANCE = 1e-9;
+
+  private static final ReferenceCatalog CATALOG = ReferenceCatalog.from(1, Map.of(
+      CatalogCollection.CONSTANT, List.of(new Document("time", List.of(
+          new Document("metric", "s/min").append("value", 60.0),
+          new Document("metric", "s/h").append("value", 3600.0)))),
+      CatalogCollection.GAS, List.of(new Document("gases", List.of(
+          new Document("name", "sf6").append("price", 0.02),
+          new Document("name", "o2").append("price", 0.001)))),
+      CatalogCollection.RIE, List.of(new Document("name", "rie")
+          .append("etchRate", 100.0)
+          .append("cleanTime", 600.0)
+          .append("gasOverhead", 0.1)
+          .append("overheadPower", 2.0)
+          .append("periodicCost", 0.01)
+          .append("setupTakedownTime", 900.0)
+          .append("waferPerRun", 4.0)
+          .append("settings", List.of(
+              setting("deposition", 0.5, 0.1),
+              setting("clean", 0.2, 0.05),
+              new Document("name", "matching").append("totalEffectiveProcess", 0.1)))),
+      CatalogCollection.VACUUM_PROCESS, List.of(
+          recipe("oxide etch", new Document("sf6", 20.0).append("o2", 5.0)),
+          recipe("oxide etch", new Document("sf6", 10.0))),
+      CatalogCollection.EXTERNAL_PROCESS, List.of(new Document("name", "foundry")
+          .append("setupCost", 100.0)
+          .append("lotCharge", 50.0)
+          .append("lotSize", 25.0)
+          .append("amountRate", 2.0)),
+      CatalogCollection.METROLOGY_INSPECTION, List.of(new Document("name", "cleanroom")
+          .append("hourlyRate", 80.0)),
+      CatalogCollection.SUBSTRATE, List.of(new Document("name", "si-100mm")
+          .append("pricing", List.of(
+              new Document("quantity", 25).append("unitCost", 30.0),
+              new Document("quantity", 50).append("unitCost", 28.0),
+              new Document("quantity", 100).append("unitCost", 25.0))))
+  ));
+
+  @Mock
+  private ReferenceCatalogHolder referenceCatalogHolder;
+
+  @BeforeEach
+  void setUp() {
+    when(referenceCatalogHolder.current()).thenReturn(CATALOG);
+  }
+
+  @Test
+  void rieCostMatchesTheRepositoryBackedCalculation() {
+    UnitConverterComponent units = new UnitConverterComponent(referenceCatalogHolder);
+    RieServiceImpl service = new RieServiceImpl(new CostPlanComponent(
+        new FormulaComponent(units), units, referenceCatalogHolder));
+
+    ResultResponseDto result = service.calculate(
+        new RieRequestDto(10, "oxide etch", 500.0, 0.0)).getData();
+
+    // runs = ceil(10 / 4) = 3; etch = 500 / 100 * 60 = 300 s; clean = 600 s;
+    // process = 900 s; setup = 900 s; usage = 1800 s
+    assertEquals(0.25 * 3, result.laborTime(), TOLERANCE);
+    assertEquals(0.5 * 3, result.totalTime(), TOLERANCE);
+    assertEquals(0.01 * 900 * 3, result.periodicCost(), TOLERANCE);
+    // deposition 300 * 0.5 + 900 * 0.1, clean 600 * 0.2 + 900 * 0.05, matching 600 * 0.1,
+    // overhead 2 * 1800
+    assertEquals((240 + 165 + 60 + 3600) * 3, result.power(), TOLERANCE);
+    // sf6: process sum 30 * 300 / 60 * 1.1 = 165 at 0.02,
+    // o2: (5 * 300 + 5 * 600) / 60 * 1.1 = 82.5 at 0.001
+    assertEquals((165 * 0.02 + 82.5 * 0.001) * 3, result.gas(), TOLERANCE);
+    assertEquals(27 + 12195 + 10.1475, result.totalCost(), TOLERANCE);
+  }
+
+  @Test
+  void externalProcessCostMatchesTheRepositoryBackedCalculation() {
+    ExternalProcessServiceImpl service = new ExternalProcessServiceImpl(referenceCatalogHolder);
+
+    ResultResponseDto result = service.calculate(
+        new ExternalProcessRequestDto(30, "foundry", 10.0)).getData();
+
+    // (100 + ceil(30 / 25) * 50 + 2 * 10) / 30
+    assertEquals(220.0 / 30, result.externalCost(), TOLERANCE);
+  }
+
+  @Test
+  void metrologyInspectionCostMatchesTheRepositoryBackedCalculation() {
+    MetrologyInspectionServiceImpl service =
+        new MetrologyInspectionServiceImpl(referenceCatalogHolder);
+
+    // 80 per hour for a quarter of an hour
+    assertEquals(20.0, service.calculate(
+            new MetrologyInspectionRequestDto("sem", "cleanroom", 0.25)).getData()
+        .metrologyInspectionCost(), TOLERANCE);
+    assertEquals(0.0, service.calculate(
+            new MetrologyInspectionRequestDto("sem", "unknown", 0.25)).getData()
+        .metrologyInspectionCost());
+  }
+
+  @Test
+  void substrateCostMatchesTheRepositoryBackedCalculation() {
+    SubstrateServiceImpl service = new SubstrateServiceImpl(referenceCatalogHolder);
+
+    // the tier nearest to the wafer count
+    assertEquals(30.0, service.calculate(new SubstrateRequestDto(30, "si-100mm")).getData()
+        .substrateCost());
+    assertEquals(25.0, service.calculate(new SubstrateRequestDto(80, "si-100mm")).getData()
+        .substrateCost());
+    assertEquals(0.0, service.calculate(new SubstrateRequestDto(80, "unknown")).getData()
+        .substrateCost());
+  }
+
+  private static Document setting(String name, double effectiveProcess, double effectiveLatent) {
+    return new Document("name", name)
+        .append("totalEffectiveProcess", effectiveProcess)
+        .append("totalEffectiveLatent", effectiveLatent);
+  }
+
+  private static Document recipe(String processName, Document parameters) {
+    return new Document("type", "rie").append("processes", List.of(new Document("name",
+        processName).append("parameters", parameters).append("subprocesses", List.of())));
+  }
+}
@@ -0,0 +1,32 @@
+package db.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The step lists V6 stores must never change, whatever the application later does with steps.
+ */
+class BackfillProjectStepListsTest {
+
+  private static final String STORED_STEPS = """
+      [ { "sequenceId" : 1, "processType" : "drie", "name" : "Deep \\"trench\\"\\t\\u0001",
+          "depth" : 2.50E2, "rate" : 1e-7, "costDetails" : { "gas" : 0 } },
+        { "sequenceId" : 2, "processType" : "external_process", "notes" : "µm/s", "id" : null,
+          "amount" : 12345678901234567890, "enabled" : true } ]""";
+
+  @Test
+  void compactJsonAndHashAreFrozen() throws Exception {
+    String json = V6__Backfill_project_step_lists.compactJson(
+        new ObjectMapper().readTree(STORED_STEPS));
+
+    assertEquals("[{\"sequenceId\":1,\"processType\":\"drie\","
+            + "\"name\":\"Deep \\\"trench\\\"\\t\\u0001\",\"depth\":250.0,\"rate\":1.0E-7,"
+            + "\"costDetails\":{\"gas\":0}},{\"sequenceId\":2,\"processType\":\"external_process\","
+            + "\"notes\":\"µm/s\",\"id\":null,\"amount\":12345678901234567890,\"enabled\":true}]",
+        json);
+    assertEquals("74d68f87fba9c20b7dc6ed68929ac0798f8f55fe9cce56c8c6b9d5e183aa9efc",
+        V6__Backfill_project_step_lists.sha256(json));
+  }
+}